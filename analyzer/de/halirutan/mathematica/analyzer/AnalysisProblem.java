@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.analyzer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * One problem found by the {@link BatchAnalyzer}. The fields are written as they are into the JSON report, lines and
+ * columns start at 1.
+ */
+@SuppressWarnings({"FieldCanBeLocal", "unused"})
+final class AnalysisProblem {
+
+  private final String file;
+  private final String inspection;
+  private final String severity;
+  private final String message;
+  private final int offset;
+  private final int line;
+  private final int column;
+
+  AnalysisProblem(@NotNull String file,
+                  @NotNull String inspection,
+                  @NotNull String severity,
+                  @NotNull String message,
+                  int offset,
+                  int line,
+                  int column) {
+    this.file = file;
+    this.inspection = inspection;
+    this.severity = severity;
+    this.message = message;
+    this.offset = offset;
+    this.line = line;
+    this.column = column;
+  }
+
+  int getOffset() {
+    return offset;
+  }
+}
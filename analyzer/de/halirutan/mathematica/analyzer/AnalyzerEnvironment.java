@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.analyzer;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.lang.InspectionExtensionsFactory;
+import com.intellij.core.CoreApplicationEnvironment;
+import com.intellij.core.CoreProjectEnvironment;
+import com.intellij.mock.MockProject;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import de.halirutan.mathematica.file.MathematicaFileType;
+import de.halirutan.mathematica.information.SymbolInformation;
+import de.halirutan.mathematica.information.impl.SymbolInformationImpl;
+import de.halirutan.mathematica.lang.MathematicaLanguage;
+import de.halirutan.mathematica.lang.parsing.prattparser.MathematicaParserDefinition;
+import de.halirutan.mathematica.lang.resolve.MathematicaGlobalResolveCache;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Boots the parts of the platform that the parser, the resolver and the local inspections need without starting an
+ * IDE. Everything else the plugin registers in its <code>plugin.xml</code> is not available.
+ */
+class AnalyzerEnvironment {
+
+  private static final String[] EXTENSIONS = {"m", "wl", "wlt", "mt"};
+
+  private final Disposable myDisposable = Disposer.newDisposable();
+  private final CoreProjectEnvironment myProjectEnvironment;
+
+  AnalyzerEnvironment() {
+    final CoreApplicationEnvironment applicationEnvironment = new CoreApplicationEnvironment(myDisposable, false);
+    for (String extension : EXTENSIONS) {
+      applicationEnvironment.registerFileType(MathematicaFileType.INSTANCE, extension);
+    }
+    applicationEnvironment.registerParserDefinition(new MathematicaParserDefinition());
+    applicationEnvironment.registerApplicationService(SymbolInformation.class, new SymbolInformationImpl());
+    // read when a global inspection context is created
+    CoreApplicationEnvironment.registerApplicationExtensionPoint(InspectionExtensionsFactory.EP_NAME,
+        InspectionExtensionsFactory.class);
+
+    myProjectEnvironment = new CoreProjectEnvironment(myDisposable, applicationEnvironment);
+    final MockProject project = myProjectEnvironment.getProject();
+    project.registerService(MathematicaGlobalResolveCache.class, MathematicaGlobalResolveCache.class);
+    project.registerService(InspectionManager.class, new AnalyzerInspectionManager(project));
+  }
+
+  static boolean isMathematicaFile(@NotNull String fileName) {
+    for (String extension : EXTENSIONS) {
+      if (fileName.endsWith("." + extension)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Parses a file. The result has no virtual file and therefore no module, so that symbols are only resolved inside
+   * the file and against the built-in symbols.
+   */
+  @NotNull
+  PsiFile createFile(@NotNull String name, @NotNull CharSequence text) {
+    return PsiFileFactory.getInstance(myProjectEnvironment.getProject())
+        .createFileFromText(name, MathematicaLanguage.INSTANCE, text);
+  }
+
+  void dispose() {
+    Disposer.dispose(myDisposable);
+  }
+}
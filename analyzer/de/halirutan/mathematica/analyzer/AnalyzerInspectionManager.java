@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.analyzer;
+
+import com.intellij.codeInspection.GlobalInspectionContext;
+import com.intellij.codeInspection.ex.GlobalInspectionContextBase;
+import com.intellij.codeInspection.ex.InspectionManagerBase;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The core environment has no inspection manager, but {@link com.intellij.codeInspection.ProblemsHolder} needs one to
+ * create the problem descriptors. The analyzer itself only runs local inspections, but a tool that asks for a global
+ * context gets the headless one of the platform without any views.
+ */
+class AnalyzerInspectionManager extends InspectionManagerBase {
+
+  AnalyzerInspectionManager(@NotNull Project project) {
+    super(project);
+  }
+
+  @NotNull
+  @Override
+  public GlobalInspectionContext createNewGlobalContext(boolean reuse) {
+    return new GlobalInspectionContextBase(getProject());
+  }
+}
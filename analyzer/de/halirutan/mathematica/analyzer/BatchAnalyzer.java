@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.analyzer;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.intellij.codeInspection.*;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import de.halirutan.mathematica.codeinsight.inspections.bugs.ImplicitTimesThroughLinebreak;
+import de.halirutan.mathematica.codeinsight.inspections.bugs.UnsupportedVersion;
+import de.halirutan.mathematica.codeinsight.inspections.codestyle.ConsistentCompoundExpressionInFile;
+import de.halirutan.mathematica.codeinsight.inspections.symbol.UnresolvedSymbolInspection;
+import de.halirutan.mathematica.index.packageexport.PackageExportScanner;
+import de.halirutan.mathematica.index.packageexport.PackageExportSymbol;
+import de.halirutan.mathematica.lang.psi.api.Symbol;
+import de.halirutan.mathematica.sdk.MathematicaLanguageLevel;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the file-local inspections of the plugin over many files without starting an IDE, e.g. to check packages on a
+ * build server. Files are parsed and inspected in parallel, each file is one task of a fork-join pool. The problems of
+ * all files are written as one JSON document.
+ * <p>
+ * Usage: <code>BatchAnalyzer [--threads n] [--language-level 11.3] --output report.json &lt;files or
+ * directories&gt;</code>
+ * <p>
+ * Symbols are resolved inside their file and against the built-in symbols. Since there is no file index, a symbol
+ * that has no definition in its file is only reported as unresolved when none of the analyzed files exports it.
+ */
+public final class BatchAnalyzer {
+
+  private static final Logger LOG = Logger.getInstance("#de.halirutan.mathematica.analyzer.BatchAnalyzer");
+
+  private final AnalyzerEnvironment myEnvironment;
+  private final MathematicaLanguageLevel myLanguageLevel;
+  private Set<String> myExportedSymbols = Collections.emptySet();
+
+  private BatchAnalyzer(@NotNull AnalyzerEnvironment environment, @NotNull MathematicaLanguageLevel languageLevel) {
+    myEnvironment = environment;
+    myLanguageLevel = languageLevel;
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+    int threads = Runtime.getRuntime().availableProcessors();
+    MathematicaLanguageLevel languageLevel = MathematicaLanguageLevel.HIGHEST;
+    File output = null;
+    final List<Path> roots = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "--threads":
+          threads = Integer.parseInt(argumentValue(args, ++i));
+          break;
+        case "--language-level":
+          languageLevel = MathematicaLanguageLevel.fromString(argumentValue(args, ++i));
+          break;
+        case "--output":
+          output = new File(argumentValue(args, ++i));
+          break;
+        default:
+          roots.add(Paths.get(args[i]));
+      }
+    }
+    if (output == null || roots.isEmpty()) {
+      throw new IllegalArgumentException(
+          "Usage: BatchAnalyzer [--threads n] [--language-level version] --output <file> <files or directories>");
+    }
+
+    final List<Path> files = collectFiles(roots);
+    final AnalyzerEnvironment environment = new AnalyzerEnvironment();
+    final ForkJoinPool pool = new ForkJoinPool(threads);
+    final long start = System.nanoTime();
+    final List<AnalysisProblem> problems;
+    try {
+      problems = pool.submit(() -> new BatchAnalyzer(environment, languageLevel).analyze(files)).get();
+    } finally {
+      pool.shutdown();
+      environment.dispose();
+    }
+    final long millis = (System.nanoTime() - start) / 1_000_000;
+
+    final Map<String, Object> report = new LinkedHashMap<>();
+    report.put("files", files.size());
+    report.put("threads", threads);
+    report.put("languageLevel", languageLevel.getName());
+    report.put("milliseconds", millis);
+    report.put("problems", problems);
+    final File parent = output.getAbsoluteFile().getParentFile();
+    if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("Could not create " + parent);
+    }
+    final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    try (Writer writer = new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8)) {
+      gson.toJson(report, writer);
+    }
+    LOG.info(problems.size() + " problems in " + files.size() + " files (" + millis + " ms)");
+  }
+
+  @NotNull
+  private static String argumentValue(@NotNull String[] args, int index) {
+    if (index >= args.length) {
+      throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+    }
+    return args[index];
+  }
+
+  @NotNull
+  private static List<Path> collectFiles(@NotNull List<Path> roots) throws IOException {
+    final List<Path> files = new ArrayList<>();
+    for (Path root : roots) {
+      try (Stream<Path> paths = Files.walk(root)) {
+        paths.filter(path -> Files.isRegularFile(path) && AnalyzerEnvironment.isMathematicaFile(path.toString()))
+            .forEach(files::add);
+      }
+    }
+    Collections.sort(files);
+    return files;
+  }
+
+  /**
+   * Must be called from inside the fork-join pool so that the parallel streams use its threads.
+   */
+  @NotNull
+  private List<AnalysisProblem> analyze(@NotNull List<Path> files) {
+    final Map<Path, String> texts = files.parallelStream().collect(Collectors.toMap(path -> path, BatchAnalyzer::read));
+    myExportedSymbols = texts.entrySet().parallelStream()
+        .flatMap(entry -> PackageExportScanner.scan(entry.getKey().toString(), entry.getValue()).stream())
+        .map(PackageExportSymbol::getSymbol)
+        .collect(Collectors.toSet());
+    return files.parallelStream()
+        .flatMap(path -> analyzeFile(path.toString(), texts.get(path)).stream())
+        .collect(Collectors.toList());
+  }
+
+  @NotNull
+  private static String read(@NotNull Path path) {
+    try {
+      return StringUtil.convertLineSeparators(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * A fresh set of inspections for every file because some of them keep state while visiting.
+   */
+  @NotNull
+  private List<LocalInspectionTool> createInspections() {
+    final UnsupportedVersion unsupportedVersion = new UnsupportedVersion();
+    unsupportedVersion.useModuleLanguageLevelOrHighest = false;
+    unsupportedVersion.useSDKLanguageLevelOrHighest = false;
+    unsupportedVersion.languageLevel = myLanguageLevel;
+    return Arrays.asList(
+        new UnresolvedSymbolInspection(),
+        unsupportedVersion,
+        new ImplicitTimesThroughLinebreak(),
+        new ConsistentCompoundExpressionInFile());
+  }
+
+  @NotNull
+  private List<AnalysisProblem> analyzeFile(@NotNull String fileName, @NotNull String text) {
+    final PsiFile file = myEnvironment.createFile(fileName, text);
+    final InspectionManager manager = InspectionManager.getInstance(file.getProject());
+    final List<AnalysisProblem> problems = new ArrayList<>();
+    for (LocalInspectionTool tool : createInspections()) {
+      final ProblemsHolder holder = new ProblemsHolder(manager, file, false);
+      final LocalInspectionToolSession session = new LocalInspectionToolSession(file, 0, file.getTextLength());
+      tool.inspectionStarted(session, false);
+      final PsiElementVisitor visitor = tool.buildVisitor(holder, false, session);
+      file.accept(new PsiRecursiveElementWalkingVisitor() {
+        @Override
+        public void visitElement(PsiElement element) {
+          element.accept(visitor);
+          super.visitElement(element);
+        }
+      });
+      tool.inspectionFinished(session, holder);
+
+      final String severity = tool.getDefaultLevel().getSeverity().getName();
+      for (ProblemDescriptor descriptor : holder.getResults()) {
+        if (tool instanceof UnresolvedSymbolInspection && isExportedElsewhere(descriptor.getPsiElement())) {
+          continue;
+        }
+        final TextRange range = ((ProblemDescriptorBase) descriptor).getTextRange();
+        final int offset = range != null ? range.getStartOffset() : 0;
+        final int lineStart = StringUtil.lastIndexOf(text, '\n', 0, offset) + 1;
+        problems.add(new AnalysisProblem(fileName, tool.getShortName(), severity, descriptor.getDescriptionTemplate(),
+            offset, StringUtil.offsetToLineNumber(text, offset) + 1, offset - lineStart + 1));
+      }
+    }
+    problems.sort(Comparator.comparingInt(AnalysisProblem::getOffset));
+    return problems;
+  }
+
+  private boolean isExportedElsewhere(PsiElement element) {
+    return element instanceof Symbol && myExportedSymbols.contains(((Symbol) element).getSymbolName());
+  }
+}
@@ -19,7 +19,15 @@ BeginPackage["IDEAPlugin`"];
 
 CreateHTMLUsageString::usage = "CreateHTMLUsageString[symbol, context, opts] creates HTML/MathML code of the usage message of the symbol.";
 CreateHtmlUsageForContext::usage = "CreateHtmlUsageForContext[context_String, path_String] creates html files for all usages of all \
-symbols in context.";
+symbols in context. The build packs the files in docResources/de/halirutan/mathematica/documentation/usages into the \
+compressed usage archive of the plugin.";
+CreateUsageArchive::usage = "CreateUsageArchive[projectDir_String] writes the html usages of all contexts the plugin \
+documents into docResources/de/halirutan/mathematica/documentation/usages of the plugin sources in projectDir and runs \
+the generateUsageArchive task of the Gradle build, which packs them into \
+build/generated-resources/main/de/halirutan/mathematica/documentation/Usages.bin.";
+CreateGeneralMessageTags::usage = "CreateGeneralMessageTags[file_String] exports the tags of all messages of General as \
+the JSON list resources/de/halirutan/mathematica/codeinsight/completion/GeneralMessages.json. The build compiles it \
+into the symbol database.";
 
 Begin["`Private`"];
 
@@ -134,6 +142,10 @@ createInformation[name_String] := Module[{importance, info, context},
 
 CreateCompletionInformation[] := createInformation /@ $builtInNames;
 
+(* Messages like General::argx can be issued for every symbol. The tag is the second part of each MessageName on the *)
+(* left side of the rules and taking it with Part does not evaluate the message itself. *)
+CreateGeneralMessageTags[file_String] := Export[file, Union[Messages[General][[All, 1, 1, 2]]], "JSON"];
+
 (* ::Section:: *)
 (* Creating html usage messages *)
 
@@ -324,5 +336,17 @@ CreateHtmlUsageForContext[context_String, path_String] := Module[{
   End[];
 ]
 
+(* The contexts that have a directory in docResources/de/halirutan/mathematica/documentation/usages *)
+$usageContexts = {"System`", "Developer`", "Experimental`", "Internal`", "JLink`"};
+
+CreateUsageArchive[projectDir_String /; DirectoryQ[projectDir]] := Module[
+  {
+    usageDir = FileNameJoin[{projectDir, "docResources", "de", "halirutan", "mathematica", "documentation", "usages"}],
+    gradle = FileNameJoin[{projectDir, If[$OperatingSystem === "Windows", "gradlew.bat", "gradlew"]}]
+  },
+  CreateHtmlUsageForContext[#, usageDir]& /@ $usageContexts;
+  RunProcess[{gradle, "generateUsageArchive"}, ProcessDirectory -> projectDir]
+];
+
 End[];
 EndPackage[];
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.halirutan.mathematica.actions;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.FileContentUtilCore;
+import de.halirutan.mathematica.file.MathematicaDataFiles;
+import de.halirutan.mathematica.file.MathematicaFileType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Marks a file or a directory as data so that the contained Mathematica files are only lexed and not analysed.
+ * {@see MathematicaDataFiles}
+ */
+public class MarkAsDataFileAction extends ToggleAction implements DumbAware {
+
+  @Override
+  public boolean isSelected(@NotNull AnActionEvent e) {
+    final Project project = e.getProject();
+    final VirtualFile file = e.getData(CommonDataKeys.VIRTUAL_FILE);
+    if (project == null || file == null) {
+      return false;
+    }
+    final MathematicaDataFiles dataFiles = MathematicaDataFiles.getInstance(project);
+    return dataFiles != null && dataFiles.isMarkedDirectly(file);
+  }
+
+  @Override
+  public void setSelected(@NotNull AnActionEvent e, boolean state) {
+    final Project project = e.getProject();
+    final VirtualFile file = e.getData(CommonDataKeys.VIRTUAL_FILE);
+    final MathematicaDataFiles dataFiles = project != null ? MathematicaDataFiles.getInstance(project) : null;
+    if (dataFiles == null || file == null) {
+      return;
+    }
+    dataFiles.setMarked(file, state);
+
+    final List<VirtualFile> affectedFiles = new ArrayList<>();
+    VfsUtilCore.iterateChildrenRecursively(file, null, child -> {
+      if (!child.isDirectory() && child.getFileType() == MathematicaFileType.INSTANCE) {
+        affectedFiles.add(child);
+      }
+      return true;
+    });
+    // the indexes don't depend on the marks, they are applied when the indexes are queried
+    FileContentUtilCore.reparseFiles(affectedFiles);
+    DaemonCodeAnalyzer.getInstance(project).restart();
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    super.update(e);
+    final VirtualFile file = e.getData(CommonDataKeys.VIRTUAL_FILE);
+    final boolean enabled = e.getProject() != null && file != null &&
+        (file.isDirectory() || file.getFileType() == MathematicaFileType.INSTANCE);
+    e.getPresentation().setEnabledAndVisible(enabled);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.halirutan.mathematica.actions;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import de.halirutan.mathematica.lang.resolve.MathematicaGlobalResolveCache;
+import de.halirutan.mathematica.lang.resolve.MathematicaGlobalResolveCache.Kind;
+import de.halirutan.mathematica.lang.resolve.MathematicaGlobalResolveCache.Statistics;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Internal action that shows the size and the hit, miss and eviction counters of the global resolve cache. This helps
+ * to choose the cache limits for large projects.
+ * {@see MathematicaGlobalResolveCache}
+ */
+public class ShowResolveCacheStatistics extends AnAction implements DumbAware {
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    final Project project = e.getProject();
+    if (project == null) {
+      return;
+    }
+    final Statistics statistics = MathematicaGlobalResolveCache.getInstance(project).getStatistics();
+    final StringBuilder text = new StringBuilder();
+    text.append(String.format("Files: %d, evicted files: %d%n", statistics.getFiles(), statistics.getFileEvictions()));
+    long hits = 0;
+    for (Kind kind : Kind.values()) {
+      hits += statistics.getHits(kind);
+      text.append(String.format("%s: %d entries, %d hits, %d evictions%n",
+          kind, statistics.getSize(kind), statistics.getHits(kind), statistics.getEvictions(kind)));
+    }
+    final long lookups = hits + statistics.getMisses();
+    text.append(String.format("Misses: %d, hit rate: %.1f%%",
+        statistics.getMisses(), lookups == 0 ? 0.0 : 100.0 * hits / lookups));
+    Messages.showInfoMessage(project, text.toString(), "Mathematica Resolve Cache");
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+  }
+}
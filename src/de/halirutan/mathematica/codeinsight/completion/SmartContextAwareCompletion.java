@@ -26,25 +26,23 @@ import com.intellij.codeInsight.completion.CompletionContributor;
 import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.completion.CompletionType;
-import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.completion.PrefixMatcher;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.patterns.PsiElementPattern.Capture;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.ProcessingContext;
 import de.halirutan.mathematica.codeinsight.completion.providers.MathematicaCompletionProvider;
+import de.halirutan.mathematica.index.messagename.MathematicaMessageNameIndex;
+import de.halirutan.mathematica.index.messagename.MessageNameEntry;
 import de.halirutan.mathematica.information.SymbolInformation;
-import de.halirutan.mathematica.lang.psi.MathematicaRecursiveVisitor;
 import de.halirutan.mathematica.lang.psi.api.FunctionCall;
-import de.halirutan.mathematica.lang.psi.api.MessageName;
 import de.halirutan.mathematica.lang.psi.api.Symbol;
 import de.halirutan.mathematica.util.MathematicaIcons;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 import static com.intellij.patterns.PlatformPatterns.psiElement;
 
@@ -52,7 +50,7 @@ import static com.intellij.patterns.PlatformPatterns.psiElement;
  * Smart completion is invoked by pressing Ctrl+Shift+Space in certain specific situations. Here, we handle two cases:
  * First case is when you are inside a function call like Plot[...], then the smart completion suggests the
  * options for the specific symbol. Secondly, we handel Message[...] calls and display a list of all messages
- * from within the file.
+ * that are defined or used in the project, which are looked up in the {@link MathematicaMessageNameIndex}.
  *
  * @author patrick (4/2/13)
  */
@@ -93,22 +91,30 @@ class SmartContextAwareCompletion extends MathematicaCompletionProvider {
       }
 
       if (functionName.equals("Message")) {
-        final Set<LookupElement> usages = new com.intellij.util.containers.hash.HashSet<>();
-
-        MathematicaRecursiveVisitor visitor = new MathematicaRecursiveVisitor() {
-
-          @Override
-          public void visitMessageName(final MessageName messageName) {
-            usages.add(
-                LookupElementBuilder.create(messageName.getText()).
-                    withIcon(MathematicaIcons.MESSAGES_ICON).
-                                        withCaseSensitivity(
-                                            false)); // make it case insensitive so you can type argX in Sym::argX to
-            // find the correct completion
+        final GlobalSearchScope scope = GlobalSearchScope.allScope(position.getProject());
+        final PrefixMatcher matcher = result.getPrefixMatcher();
+        final List<String> symbolNames = new ArrayList<>();
+        MathematicaMessageNameIndex.processSymbolNames(scope, symbolName -> {
+          if (matcher.prefixMatches(symbolName)) {
+            symbolNames.add(symbolName);
           }
-        };
-        visitor.visitFile(parameters.getOriginalFile());
-        result.addAllElements(usages);
+          return true;
+        });
+        final Set<String> messageNames = new HashSet<>();
+        for (String symbolName : symbolNames) {
+          MathematicaMessageNameIndex.processMessageNames(symbolName, scope, (file, entries) -> {
+            for (MessageNameEntry entry : entries) {
+              messageNames.add(symbolName + "::" + entry.getTag());
+            }
+            return true;
+          });
+        }
+        for (String messageName : messageNames) {
+          // make it case insensitive so you can type argX in Sym::argX to find the correct completion
+          result.addElement(LookupElementBuilder.create(messageName)
+              .withIcon(MathematicaIcons.MESSAGES_ICON)
+              .withCaseSensitivity(false));
+        }
       }
 
     }
@@ -28,6 +28,7 @@ import com.intellij.codeInsight.completion.CompletionResultSet
 import com.intellij.codeInsight.completion.CompletionType
 import com.intellij.codeInsight.completion.PrioritizedLookupElement
 import com.intellij.codeInsight.completion.impl.CamelHumpMatcher
+import com.intellij.codeInsight.lookup.LookupElement
 import com.intellij.codeInsight.lookup.LookupElementBuilder
 import com.intellij.formatting.blocks.prev
 import com.intellij.lang.ASTNode
@@ -35,6 +36,7 @@ import com.intellij.openapi.components.ServiceManager
 import com.intellij.patterns.PlatformPatterns.psiElement
 import com.intellij.util.ProcessingContext
 import de.halirutan.mathematica.codeinsight.completion.rendering.BuiltinSymbolLookupElement
+import de.halirutan.mathematica.codeinsight.completion.util.CamelHumpTrie
 import de.halirutan.mathematica.information.SymbolInformation
 import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes
 import de.halirutan.mathematica.settings.MathematicaSettings
@@ -42,12 +44,44 @@ import de.halirutan.mathematica.settings.MathematicaSettings
 /**
  * Provides completion for Mathematica built-in symbols. The underlying important file with all information can be
  * found in the resource directory de/halirutan/mathematica/codeinsight/completion.
+ *
+ * The lookup elements are created only once and stored in [CamelHumpTrie]s so that a completion only has to look at
+ * the symbols that can match the typed prefix.
  * @author hal (4/2/13)
  */
 class BuiltinFunctionCompletion : MathematicaCompletionProvider() {
 
   private val symbolInfo: SymbolInformation = ServiceManager.getService(SymbolInformation::class.java)
 
+  private class BuiltinEntry(val element: LookupElement, val prioritized: LookupElement)
+
+  private val builtinSymbols: CamelHumpTrie<BuiltinEntry> by lazy {
+    val trie = CamelHumpTrie<BuiltinEntry>()
+    for (info in symbolInfo.allSymbolProperties) {
+      val lookup = BuiltinSymbolLookupElement(info)
+      trie.add(lookup.lookupString, BuiltinEntry(lookup, PrioritizedLookupElement.withPriority(lookup, info.importance.toDouble())))
+    }
+    // The list of symbols with properties does not contain all system symbols. Let's add them
+    for (name in symbolInfo.systemSymbols) {
+      if (!symbolInfo.hasProperties("System`$name")) {
+        val lookup = LookupElementBuilder.create(name)
+        trie.add(name, BuiltinEntry(lookup, lookup))
+      }
+    }
+    trie
+  }
+
+  private val contextSymbols: CamelHumpTrie<LookupElement> by lazy {
+    val trie = CamelHumpTrie<LookupElement>()
+    symbolInfo.allContexts.forEach { name -> trie.add(name, LookupElementBuilder.create(name)) }
+    symbolInfo.contextSymbols.forEach { name -> trie.add(name, LookupElementBuilder.create(name)) }
+    trie
+  }
+
+  private val namedCharacters: List<LookupElement> by lazy {
+    symbolInfo.namedCharacters.map { name -> LookupElementBuilder.create(name) }
+  }
+
   override fun addTo(contributor: CompletionContributor) {
     val psiElementCapture = psiElement().withElementType(MathematicaElementTypes.IDENTIFIER)
     contributor.extend(CompletionType.BASIC, psiElementCapture, this)
@@ -66,34 +100,18 @@ class BuiltinFunctionCompletion : MathematicaCompletionProvider() {
 
     // User started a named symbol
     if (previousNode is ASTNode && previousNode.elementType == MathematicaElementTypes.LEFT_BRACKET_ESCAPED) {
-      result2.addAllElements(symbolInfo.namedCharacters.map { name ->
-        LookupElementBuilder.create(name)
-      })
+      result2.addAllElements(namedCharacters)
       result2.stopHere()
       return
     }
 
-    val symbols = symbolInfo.allSymbolProperties
     val sortByImportance = !MathematicaSettings.getInstance().isSortCompletionEntriesLexicographically
-
-    for (info in symbols) {
-      val lookup = BuiltinSymbolLookupElement(info)
-      if (sortByImportance) {
-        result2.addElement(PrioritizedLookupElement.withPriority(lookup, info.importance.toDouble()))
-      } else {
-        result2.addElement(lookup)
-      }
-    }
-
-    // The list of symbols with properties does not contain all system symbols. Let's add them
-    val remainingSystemSymbols = symbolInfo.systemSymbols.filter {
-      !symbolInfo.hasProperties("System`$it")
+    for (entry in builtinSymbols.findCandidates(prefix)) {
+      result2.addElement(if (sortByImportance) entry.prioritized else entry.element)
     }
-    result2.addAllElements(remainingSystemSymbols.map { name -> LookupElementBuilder.create(name) })
 
     if (parameters.isExtendedCompletion) {
-      result2.addAllElements(symbolInfo.allContexts.map { name -> LookupElementBuilder.create(name) })
-      result2.addAllElements(symbolInfo.contextSymbols.map { name -> LookupElementBuilder.create(name) })
+      result2.addAllElements(contextSymbols.findCandidates(prefix))
     }
   }
 }
@@ -32,11 +32,11 @@ import com.intellij.openapi.module.ModuleUtilCore
 import com.intellij.openapi.progress.ProgressManager
 import com.intellij.patterns.PlatformPatterns.psiElement
 import com.intellij.util.ProcessingContext
-import com.intellij.util.indexing.FileBasedIndex
 import de.halirutan.mathematica.codeinsight.completion.MathematicaCompletionContributor.IMPORT_VARIABLE_PRIORITY
 import de.halirutan.mathematica.index.packageexport.MathematicaPackageExportIndex
 import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes
 import de.halirutan.mathematica.lang.psi.api.Symbol
+import java.util.*
 
 
 /**
@@ -61,25 +61,40 @@ class ImportedSymbolCompletion : MathematicaCompletionProvider() {
     val module = ModuleUtilCore.findModuleForFile(originalFile.virtualFile, project)
     if (module != null) {
       val moduleScope = module.getModuleWithDependenciesAndLibrariesScope(true)
-      val index = FileBasedIndex.getInstance()
-      val indexID = MathematicaPackageExportIndex.INDEX_ID
-      index.getAllKeys(indexID, project).forEach {
-        it?.let {
-          val inScope = !index.processValues(
-              indexID,
-              it,
-              null,
-              { file, _ -> file == originalFile.virtualFile },
-              moduleScope
-          )
-          ProgressManager.checkCanceled()
-          if (inScope && it.isExported) {
-            result.addElement(PrioritizedLookupElement.withPriority(
-                LookupElementBuilder.create(it.symbol).withTypeText("(" + it.fileName + ")", true),
-                IMPORT_VARIABLE_PRIORITY))
+      val prefixMatcher = result.prefixMatcher
+      val letters = prefixMatcher.prefix.toLowerCase(Locale.ROOT)
+      MathematicaPackageExportIndex.processSymbolNames(moduleScope) { name ->
+        ProgressManager.checkCanceled()
+        if (containsInOrder(name, letters) && prefixMatcher.prefixMatches(name)) {
+          // one entry for every file that exports the name, the type text shows the file
+          MathematicaPackageExportIndex.processExports(name, moduleScope) { file, export ->
+            if (file != originalFile.virtualFile && export.isExported) {
+              result.addElement(PrioritizedLookupElement.withPriority(
+                  LookupElementBuilder.create(export.symbol).withTypeText("(" + export.fileName + ")", true),
+                  IMPORT_VARIABLE_PRIORITY))
+            }
+            true
           }
         }
+        !result.isStopped
       }
     }
   }
+
+  /**
+   * Cheap test that all [letters] appear in [name] in the same order, ignoring case. Every name that the camel-hump
+   * matcher of the completion accepts passes it, so the matcher is only called for a few of the index keys.
+   */
+  private fun containsInOrder(name: String, letters: String): Boolean {
+    var position = 0
+    for (c in name) {
+      if (position == letters.length) {
+        break
+      }
+      if (Character.toLowerCase(c) == letters[position]) {
+        position++
+      }
+    }
+    return position == letters.length
+  }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.codeinsight.completion.util
+
+import com.intellij.psi.codeStyle.NameUtil
+import java.util.*
+
+/**
+ * A trie over the camel humps of names that is used to find completion candidates without testing every entry of large
+ * symbol tables. A name like `ListLinePlot` is split into the humps `list`, `line` and `plot`, and every hump suffix
+ * (`list line plot`, `line plot`, `plot`) is stored as path so that matches in the middle of a name are found as well.
+ *
+ * A search follows the typed prefix through the humps where every hump can be matched by any non-empty prefix of it or
+ * skipped entirely. The result is a superset of the entries that the camel-hump matcher of the completion accepts
+ * and the completion still filters it with its own prefix matcher. Prefixes that contain other characters than
+ * letters cannot be matched reliably and give all entries.
+ */
+class CamelHumpTrie<T> {
+
+  private class Node<T> {
+    val children = HashMap<String, Node<T>>(4)
+    val values = ArrayList<T>(1)
+  }
+
+  private val root = Node<T>()
+  private val allValues = ArrayList<T>()
+
+  val size: Int
+    get() = allValues.size
+
+  fun add(name: String, value: T) {
+    allValues.add(value)
+    val humps = NameUtil.nameToWords(name).map { it.toLowerCase(Locale.ROOT) }
+    for (start in humps.indices) {
+      var node = root
+      for (i in start until humps.size) {
+        node = node.children.getOrPut(humps[i]) { Node() }
+      }
+      node.values.add(value)
+    }
+  }
+
+  /**
+   * Finds all entries whose name could be matched by the camel-hump [prefix].
+   */
+  fun findCandidates(prefix: String): Collection<T> {
+    if (prefix.isEmpty() || !prefix.all { Character.isLetter(it) }) {
+      return allValues
+    }
+    val pattern = prefix.toLowerCase(Locale.ROOT)
+    val visited = Array(pattern.length + 1) { Collections.newSetFromMap(IdentityHashMap<Node<T>, Boolean>()) }
+    val result = Collections.newSetFromMap(IdentityHashMap<T, Boolean>())
+    search(root, pattern, 0, visited, result)
+    return result
+  }
+
+  private fun search(node: Node<T>, pattern: String, position: Int, visited: Array<MutableSet<Node<T>>>, result: MutableSet<T>) {
+    if (!visited[position].add(node)) {
+      return
+    }
+    if (position == pattern.length) {
+      collect(node, visited[position], result)
+      return
+    }
+    for ((hump, child) in node.children) {
+      var matched = 0
+      while (matched < hump.length && position + matched < pattern.length && hump[matched] == pattern[position + matched]) {
+        matched++
+      }
+      for (length in 1..matched) {
+        search(child, pattern, position + length, visited, result)
+      }
+      // only humps after the first matched one can be skipped. Matches in the middle are stored as separate paths
+      if (position > 0) {
+        search(child, pattern, position, visited, result)
+      }
+    }
+  }
+
+  private fun collect(node: Node<T>, visited: MutableSet<Node<T>>, result: MutableSet<T>) {
+    result.addAll(node.values)
+    for (child in node.children.values) {
+      if (visited.add(child)) {
+        collect(child, visited, result)
+      }
+    }
+  }
+}
@@ -21,28 +21,63 @@
 
 package de.halirutan.mathematica.codeinsight.completion.util;
 
+import com.intellij.openapi.util.Key;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes;
 import de.halirutan.mathematica.lang.psi.MathematicaVisitor;
+import de.halirutan.mathematica.lang.psi.SymbolNames;
 import de.halirutan.mathematica.lang.psi.api.CompoundExpression;
 import de.halirutan.mathematica.lang.psi.api.FunctionCall;
+import de.halirutan.mathematica.lang.psi.api.StringifiedSymbol;
+import de.halirutan.mathematica.lang.psi.api.lists.MList;
 import de.halirutan.mathematica.lang.psi.api.string.MString;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
- * This is currently unused
+ * Collects the contexts a file loads at file level. These are the first arguments of <code >Needs</code> and
+ * <code >Get</code>, the operand of <code >&lt;&lt;</code> and the contexts given in the second argument of
+ * <code >BeginPackage</code>. The context of <code >BeginPackage</code> itself is included as well, because its
+ * symbols are visible in the whole package even when they are defined in another file. Arguments of <code >Get</code>
+ * that are not contexts are kept as they are, since they are usually file paths.
+ *
  * @author patrick (19.12.16).
  */
 public class ImportedContextVisitor extends MathematicaVisitor {
 
-  private final HashSet<String > myImportedContexts;
+  private static final Key<CachedValue<Set<String>>> IMPORTED_CONTEXTS_KEY = Key.create("Mathematica.importedContexts");
+
+  private final Set<String> myImportedContexts;
 
   public ImportedContextVisitor() {
-    myImportedContexts = new HashSet<>();
+    myImportedContexts = new LinkedHashSet<>();
+  }
+
+  /**
+   * Returns the imported contexts of a file. The result is cached until the file changes.
+   *
+   * @param file the file to check
+   * @return the imported contexts and file paths in the order they appear in the file
+   */
+  @NotNull
+  public static Set<String> getImportedContexts(@NotNull PsiFile file) {
+    return CachedValuesManager.getCachedValue(file, IMPORTED_CONTEXTS_KEY, () -> {
+      final ImportedContextVisitor visitor = new ImportedContextVisitor();
+      file.accept(visitor);
+      return CachedValueProvider.Result.create(Collections.unmodifiableSet(visitor.myImportedContexts), file);
+    });
   }
 
-  public HashSet<String> getImportedContexts() {
+  public Set<String> getImportedContexts() {
     return myImportedContexts;
   }
 
@@ -58,10 +93,37 @@ public class ImportedContextVisitor extends MathematicaVisitor {
 
   @Override
   public void visitFunctionCall(FunctionCall functionCall) {
-    if (functionCall.matchesHead("Needs")) {
-      final PsiElement context = functionCall.getArgument(1);
-      if (context instanceof MString) {
-        final String text = context.getText();
+    if (functionCall.hasHead(SymbolNames.Needs) || functionCall.hasHead(SymbolNames.Get)) {
+      addString(functionCall.getArgument(1));
+    } else if (functionCall.hasHead(SymbolNames.BeginPackage)) {
+      addString(functionCall.getArgument(1));
+      final PsiElement needs = functionCall.getArgument(2);
+      if (needs instanceof MList) {
+        for (PsiElement context : ((MList) needs).getListElements()) {
+          addString(context);
+        }
+      } else {
+        addString(needs);
+      }
+    }
+  }
+
+  @Override
+  public void visitElement(PsiElement element) {
+    if (element.getNode().getElementType() == MathematicaElementTypes.GET_PREFIX) {
+      final StringifiedSymbol context = PsiTreeUtil.getChildOfType(element, StringifiedSymbol.class);
+      if (context != null) {
+        myImportedContexts.add(context.getText());
+      } else {
+        addString(PsiTreeUtil.getChildOfType(element, MString.class));
+      }
+    }
+  }
+
+  private void addString(@Nullable PsiElement element) {
+    if (element instanceof MString) {
+      final String text = element.getText();
+      if (text.length() > 2) {
         myImportedContexts.add(text.substring(1, text.length() - 1));
       }
     }
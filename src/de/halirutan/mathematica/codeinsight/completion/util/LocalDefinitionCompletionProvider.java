@@ -35,8 +35,8 @@ import de.halirutan.mathematica.lang.psi.api.assignment.SetDelayed;
 import de.halirutan.mathematica.lang.psi.api.assignment.TagSet;
 import de.halirutan.mathematica.lang.psi.api.assignment.TagSetDelayed;
 import de.halirutan.mathematica.lang.psi.api.rules.RuleDelayed;
-import de.halirutan.mathematica.lang.psi.util.MathematicaPatternVisitor;
 import de.halirutan.mathematica.lang.psi.util.MathematicaPsiUtilities;
+import de.halirutan.mathematica.lang.psi.util.PatternAnalysis;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Comparator;
@@ -62,9 +62,7 @@ public class LocalDefinitionCompletionProvider implements PsiScopeProcessor {
   @Override
   public boolean execute(@NotNull PsiElement element, @NotNull ResolveState state) {
     if (element instanceof Set || element instanceof SetDelayed || element instanceof TagSetDelayed || element instanceof TagSet) {
-      MathematicaPatternVisitor patternVisitor = new MathematicaPatternVisitor();
-      element.accept(patternVisitor);
-      mySymbols.addAll(patternVisitor.getPatternSymbols());
+      mySymbols.addAll(PatternAnalysis.getPatternAnalysis(element).getPatternSymbols());
 
     } else if (element instanceof FunctionCall) {
       final FunctionCall functionCall = (FunctionCall) element;
@@ -102,8 +100,7 @@ public class LocalDefinitionCompletionProvider implements PsiScopeProcessor {
         }
       }
     } else if (element instanceof RuleDelayed) {
-      final List<Symbol> patternSymbols = MathematicaPsiUtilities.getSymbolsFromArgumentPattern(element.getFirstChild());
-      mySymbols.addAll(patternSymbols);
+      mySymbols.addAll(PatternAnalysis.getPatternAnalysis(element).getPatternSymbols());
     }
     return true;
   }
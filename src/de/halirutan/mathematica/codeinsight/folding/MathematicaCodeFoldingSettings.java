@@ -26,4 +26,19 @@ package de.halirutan.mathematica.codeinsight.folding;
  */
 public interface MathematicaCodeFoldingSettings {
   boolean isCollapseNamedCharacters();
+
+  /**
+   * @return the number of lines a list needs to span so that it gets a fold region
+   */
+  int getListFoldingMinLines();
+
+  /**
+   * @return the nesting depth of lists up to which fold regions are created. Deeper lists are not folded.
+   */
+  int getListFoldingMaxDepth();
+
+  /**
+   * @return the maximum number of fold regions created for one file
+   */
+  int getMaxFoldRegions();
 }
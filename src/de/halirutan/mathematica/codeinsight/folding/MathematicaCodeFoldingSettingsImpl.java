@@ -53,7 +53,40 @@ public class MathematicaCodeFoldingSettingsImpl implements MathematicaCodeFoldin
     this.myCollapseNamedCharacters = state;
   }
 
+  @Override
+  public int getListFoldingMinLines() {
+    return myListFoldingMinLines;
+  }
+
+  @SuppressWarnings("unused")
+  public void setListFoldingMinLines(final int lines) {
+    this.myListFoldingMinLines = lines;
+  }
+
+  @Override
+  public int getListFoldingMaxDepth() {
+    return myListFoldingMaxDepth;
+  }
+
+  @SuppressWarnings("unused")
+  public void setListFoldingMaxDepth(final int depth) {
+    this.myListFoldingMaxDepth = depth;
+  }
+
+  @Override
+  public int getMaxFoldRegions() {
+    return myMaxFoldRegions;
+  }
+
+  @SuppressWarnings("unused")
+  public void setMaxFoldRegions(final int regions) {
+    this.myMaxFoldRegions = regions;
+  }
+
   private boolean myCollapseNamedCharacters = true;
+  private int myListFoldingMinLines = 1;
+  private int myListFoldingMaxDepth = 8;
+  private int myMaxFoldRegions = 5000;
 
   @Nullable
   @Override
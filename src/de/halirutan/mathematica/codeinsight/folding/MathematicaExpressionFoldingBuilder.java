@@ -33,15 +33,14 @@ import com.intellij.psi.PsiComment;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.tree.IElementType;
-import com.intellij.psi.tree.TokenSet;
-import com.intellij.psi.util.PsiTreeUtil;
+import de.halirutan.mathematica.file.MathematicaDataFiles;
 import de.halirutan.mathematica.information.SymbolInformation;
 import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes;
 import de.halirutan.mathematica.lang.psi.LocalizationConstruct.MScope;
-import de.halirutan.mathematica.lang.psi.api.CompoundExpression;
 import de.halirutan.mathematica.lang.psi.api.FunctionCall;
-import de.halirutan.mathematica.lang.psi.util.Comments;
 import de.halirutan.mathematica.lang.psi.util.Comments.CommentStyle;
+import de.halirutan.mathematica.lang.psi.util.SectionOutline;
+import de.halirutan.mathematica.lang.psi.util.SectionOutline.Section;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -67,154 +66,171 @@ public class MathematicaExpressionFoldingBuilder implements FoldingBuilder {
   @Override
   public FoldingDescriptor[] buildFoldRegions(@NotNull final ASTNode node, @NotNull final Document document) {
 
+    final PsiElement file = node.getPsi();
+    if (file instanceof PsiFile && MathematicaDataFiles.isDataFile((PsiFile) file)) {
+      return FoldingDescriptor.EMPTY;
+    }
     List<FoldingDescriptor> descriptors = new ArrayList<>();
-    collectRegionsRecursively(node, document, descriptors);
+    collectSectionRegions(node, descriptors);
+    collectRegions(node, document, descriptors);
     return descriptors.toArray(FoldingDescriptor.EMPTY);
   }
 
-  private void collectRegionsRecursively(@NotNull final ASTNode node,
-                                         @NotNull final Document document,
-                                         @NotNull List<FoldingDescriptor> descriptors) {
-
-    final boolean foldCharacters = getMathematicaFoldingSettings().isCollapseNamedCharacters();
+  /**
+   * Walks the tree without recursion and without creating child arrays. Lists are only folded up to the configured
+   * nesting depth and when they span enough lines. Deeper lists are skipped completely when they contain nothing but
+   * data, which we can tell from the missing <code>[</code>. Every function call and named character needs one. Lists
+   * are visited in document order, so we remember the offset of the next <code>[</code> and the text is scanned only
+   * once instead of once per nesting level.
+   *
+   * @param root        root node of the file
+   * @param document    the document of the code
+   * @param descriptors collects all folding descriptors
+   */
+  private void collectRegions(@NotNull final ASTNode root,
+                              @NotNull final Document document,
+                              @NotNull List<FoldingDescriptor> descriptors) {
+    final MathematicaCodeFoldingSettings settings = getMathematicaFoldingSettings();
+    final boolean foldCharacters = settings.isCollapseNamedCharacters();
+    final int maxRegions = settings.getMaxFoldRegions();
+    final int maxListDepth = settings.getListFoldingMaxDepth();
+    final int minListLines = settings.getListFoldingMinLines();
+    final CharSequence text = document.getCharsSequence();
 
-    final IElementType elementType = node.getElementType();
-    if (foldCharacters && elementType == MathematicaElementTypes.IDENTIFIER) {
-      final String symbol = node.getText();
-      if (information.isNamedCharacter(symbol)) {
-        descriptors.add(
-            new NamedFoldingDescriptor(node, node.getTextRange(), NAMED_CHARACTER_GROUP,
-                information.getNamedCharacter(symbol)));
-      }
-    } else if (foldCharacters && elementType == MathematicaElementTypes.STRING_NAMED_CHARACTER) {
-      final String character = node.getText();
-      if (information.isNamedCharacter(character)) {
-        descriptors.add(new NamedFoldingDescriptor(node, node.getTextRange(), NAMED_CHARACTER_GROUP,
-            information.getNamedCharacter(character)));
+    ASTNode current = root;
+    int listDepth = 0;
+    int nextBracket = -1;
+    while (current != null && descriptors.size() < maxRegions) {
+      boolean descend = true;
+      final IElementType elementType = current.getElementType();
+      if (foldCharacters && elementType == MathematicaElementTypes.IDENTIFIER) {
+        final String symbol = current.getText();
+        if (information.isNamedCharacter(symbol)) {
+          descriptors.add(
+              new NamedFoldingDescriptor(current, current.getTextRange(), NAMED_CHARACTER_GROUP,
+                  information.getNamedCharacter(symbol)));
+        }
+      } else if (foldCharacters && elementType == MathematicaElementTypes.STRING_NAMED_CHARACTER) {
+        final String character = current.getText();
+        if (information.isNamedCharacter(character)) {
+          descriptors.add(new NamedFoldingDescriptor(current, current.getTextRange(), NAMED_CHARACTER_GROUP,
+              information.getNamedCharacter(character)));
+        }
+      } else if (elementType == MathematicaElementTypes.LIST_EXPRESSION) {
+        final TextRange range = current.getTextRange();
+        if (listDepth < maxListDepth) {
+          if (spansLines(document, range, minListLines)) {
+            descriptors.add(new NamedFoldingDescriptor(
+                current,
+                range,
+                null,
+                "{ <<" + countListElements(current) + ">> }"));
+          }
+        } else {
+          if (nextBracket < range.getStartOffset()) {
+            nextBracket = findBracket(text, range.getStartOffset());
+          }
+          descend = nextBracket < range.getEndOffset();
+        }
+      } else if (elementType == MathematicaElementTypes.FUNCTION_CALL_EXPRESSION) {
+        final PsiElement psi = current.getPsi();
+        if (psi instanceof FunctionCall) {
+          final FunctionCall functionCall = (FunctionCall) psi;
+          if (functionCall.getScopingConstruct() != MScope.NULL_SCOPE) {
+            descriptors.add(new NamedFoldingDescriptor(
+                current,
+                current.getTextRange(),
+                null,
+                functionCall.getHead().getText() + "[...]"
+            ));
+          }
+        }
+      } else if (current instanceof PsiComment) {
+        if (foldCharacters) {
+          foldNamedCharacters(current, descriptors);
+        }
       }
-    } else if (elementType == MathematicaElementTypes.LIST_EXPRESSION) {
-      // Well, we count the number of elements by counting the commas and adding one. Not bullet-proof, but will do.
-      final int numberOfListElements = node.getChildren(TokenSet.create(MathematicaElementTypes.COMMA)).length + 1;
-      descriptors.add(new NamedFoldingDescriptor(
-          node,
-          node.getTextRange(),
-          null,
-          "{ <<" + numberOfListElements + ">> }"));
-    } else if (elementType == MathematicaElementTypes.FUNCTION_CALL_EXPRESSION) {
-      final PsiElement psi = node.getPsi();
-      if (psi instanceof FunctionCall) {
-        final FunctionCall functionCall = (FunctionCall) psi;
-        if (functionCall.getScopingConstruct() != MScope.NULL_SCOPE) {
-          descriptors.add(new NamedFoldingDescriptor(
-              node,
-              node.getTextRange(),
-              null,
-              functionCall.getHead().getText() + "[...]"
-          ));
+
+      final ASTNode firstChild = descend ? current.getFirstChildNode() : null;
+      if (firstChild != null) {
+        if (elementType == MathematicaElementTypes.LIST_EXPRESSION) {
+          listDepth++;
         }
+        current = firstChild;
+        continue;
       }
-    } else if (node instanceof PsiComment) {
-      if (foldCharacters) {
-        foldNamedCharacters(node, descriptors);
+      while (current != root && current.getTreeNext() == null) {
+        current = current.getTreeParent();
+        if (current.getElementType() == MathematicaElementTypes.LIST_EXPRESSION) {
+          listDepth--;
+        }
       }
-      collectCommentRegion(node, document, descriptors);
-    }
-
-    for (ASTNode child : node.getChildren(null)) {
-      collectRegionsRecursively(child, document, descriptors);
+      current = current == root ? null : current.getTreeNext();
     }
-
   }
 
   /**
-   * @param node        node to a PsiComment
-   * @param document    the document of the code
-   * @param descriptors collects all folding descriptors
+   * We count the number of elements by counting the commas and adding one. Not bullet-proof, but will do.
    */
-  private void collectCommentRegion(@NotNull final ASTNode node,
-                                    @NotNull final Document document,
-                                    @NotNull List<FoldingDescriptor> descriptors) {
-    final PsiComment psi = (PsiComment) node.getPsi();
-    boolean isAtTopLevel = false;
-    if (psi.getParent() instanceof PsiFile) {
-      isAtTopLevel = true;
-    } else {
-      final PsiElement parent = psi.getParent();
-      if (parent instanceof CompoundExpression && parent.getParent() instanceof PsiFile) {
-        isAtTopLevel = true;
+  private static int countListElements(@NotNull ASTNode list) {
+    int count = 1;
+    for (ASTNode child = list.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+      if (child.getElementType() == MathematicaElementTypes.COMMA) {
+        count++;
       }
     }
+    return count;
+  }
 
-    if (isAtTopLevel && Comments.isCorrectSectionComment(psi)) {
-      final CommentStyle style = Comments.getStyle(psi);
-      if (style != null && style.compareTo(CommentStyle.SUBSUBSUBSECTION) < 0) {
-        collectCommentRegion(node, psi, style, document, descriptors);
+  private static boolean spansLines(@NotNull Document document, @NotNull TextRange range, int minLines) {
+    return minLines <= 1 ||
+        document.getLineNumber(range.getEndOffset()) - document.getLineNumber(range.getStartOffset()) + 1 >= minLines;
+  }
+
+  /**
+   * Returns the offset of the first <code>[</code> at or after <code>start</code>, or the length of the text if there
+   * is none.
+   */
+  private static int findBracket(@NotNull CharSequence text, int start) {
+    final int length = text.length();
+    for (int i = start; i < length; i++) {
+      if (text.charAt(i) == '[') {
+        return i;
       }
     }
-
+    return length;
   }
 
   /**
-   * Here the work is done for finding the correct region to fold for a sectioning-comment. The sectioning comments like
+   * Creates the fold regions for sectioning comments like
    * <code>
    * (* ::Chapter:: *)
    * (*this is the text of the chapter*)
    * </code>
+   * from the cached outline of the file. Sections below {@link CommentStyle#SUBSUBSUBSECTION} are not folded.
    *
-   * @param node        AST node of the comment
-   * @param comment     the PSI element of node
-   * @param style       Extracted style of the sectioning comment of node
-   * @param document    The document that contains the comment
+   * @param node        root node of the file
    * @param descriptors Collection for the region descriptors for folding
    */
-  private void collectCommentRegion(@NotNull ASTNode node,
-                                    @NotNull final PsiComment comment,
-                                    @NotNull final CommentStyle style,
-                                    @NotNull final Document document,
-                                    @NotNull List<FoldingDescriptor> descriptors) {
-    final PsiFile file = comment.getContainingFile();
-    StringBuilder placeHolderText = new StringBuilder("<< ::");
-    placeHolderText.append(style).append(":: ");
-
-    final int currentLine = document.getLineNumber(comment.getTextOffset());
-    int endOffset = document.getTextLength();
-
-    // Check if we have a valid section description in the next line
-    if (currentLine < document.getLineCount() - 1) {
-      final PsiComment nextLineComment = PsiTreeUtil.findElementOfClassAtRange(
-          file,
-          document.getLineStartOffset(currentLine + 1),
-          document.getLineEndOffset(currentLine + 1),
-          PsiComment.class
-      );
-      if (nextLineComment != null && !Comments.isCorrectSectionComment(nextLineComment)) {
-        placeHolderText.append(Comments.getStrippedText(nextLineComment));
-      } else {
-        placeHolderText.append("No description given");
-      }
+  private void collectSectionRegions(@NotNull final ASTNode node, @NotNull List<FoldingDescriptor> descriptors) {
+    final PsiElement psi = node.getPsi();
+    if (!(psi instanceof PsiFile)) {
+      return;
     }
-
-    for (int i = currentLine + 1; i < document.getLineCount(); i++) {
-      int start = document.getLineStartOffset(i);
-      int end = document.getLineEndOffset(i);
-      final PsiComment commentsInLine = PsiTreeUtil.findElementOfClassAtRange(file, start, end, PsiComment.class);
-      if (commentsInLine != null && Comments.isCorrectSectionComment(commentsInLine)) {
-        final CommentStyle commentStyle = Comments.getStyle(commentsInLine);
-        if (commentStyle != null && commentStyle.compareTo(style) <= 0) {
-          endOffset = start - 1;
-          break;
-        }
+    for (Section section : SectionOutline.getOutline((PsiFile) psi).getSections()) {
+      if (section.getStyle().compareTo(CommentStyle.SUBSUBSUBSECTION) >= 0) {
+        continue;
       }
+      final String description = section.getDescription();
+      final String placeHolderText = "<< ::" + section.getStyle() + ":: " +
+          (description != null ? description : "No description given") + ">>";
+      descriptors.add(new NamedFoldingDescriptor(
+          section.getComment().getNode(),
+          section.getRange(),
+          null,
+          placeHolderText
+      ));
     }
-    placeHolderText.append(">>");
-    descriptors.add(new NamedFoldingDescriptor(
-        node,
-        TextRange.create(node.getStartOffset(), endOffset),
-        null,
-        placeHolderText.toString()
-    ));
-
-
   }
 
   /**
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.codeinsight.highlighting;
+
+import com.intellij.codeInsight.daemon.impl.analysis.DefaultHighlightingSettingProvider;
+import com.intellij.codeInsight.daemon.impl.analysis.FileHighlightingSetting;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import de.halirutan.mathematica.file.MathematicaDataFiles;
+import de.halirutan.mathematica.file.MathematicaFileType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Turns off annotators and inspections for data files so that they are highlighted by the lexer only.
+ */
+public class DataFileHighlightingSettingProvider extends DefaultHighlightingSettingProvider {
+  @Nullable
+  @Override
+  public FileHighlightingSetting getDefaultSetting(@NotNull Project project, @NotNull VirtualFile file) {
+    if (file.getFileType() != MathematicaFileType.INSTANCE) {
+      return null;
+    }
+    final PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+    if (psiFile != null && MathematicaDataFiles.isDataFile(psiFile)) {
+      return FileHighlightingSetting.SKIP_HIGHLIGHTING;
+    }
+    return null;
+  }
+}
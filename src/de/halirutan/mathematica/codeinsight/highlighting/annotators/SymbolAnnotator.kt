@@ -28,6 +28,7 @@ import com.intellij.openapi.progress.ProgressManager
 import com.intellij.psi.PsiElement
 import de.halirutan.mathematica.codeinsight.highlighting.MathematicaSyntaxHighlighterColors
 import de.halirutan.mathematica.lang.psi.LocalizationConstruct
+import de.halirutan.mathematica.lang.psi.api.MathematicaPsiFile
 import de.halirutan.mathematica.lang.psi.api.Symbol
 
 /**
@@ -36,6 +37,8 @@ import de.halirutan.mathematica.lang.psi.api.Symbol
  *   * coloring of built-in functions  * coloring of local variables like in Module  * coloring of
  * messages  * coloring of anonymous functions
  *
+ * The localization of the symbols is taken from the bindings of the file which are computed once for all symbols.
+ *
  * @author patrick (5/14/13)
  */
 class SymbolAnnotator : Annotator {
@@ -44,7 +47,8 @@ class SymbolAnnotator : Annotator {
   override fun annotate(symbol: PsiElement, holder: AnnotationHolder) {
     ProgressManager.checkCanceled()
     if (symbol is Symbol) {
-      val scope = symbol.localizationConstruct
+      val file = symbol.containingFile
+      val scope = (file as? MathematicaPsiFile)?.symbolBindings?.get(symbol)?.localization ?: symbol.localizationConstruct
       val scopeType = scope.type
       if (LocalizationConstruct.MScope.NULL_SCOPE == scope) {
         return
@@ -23,6 +23,7 @@ package de.halirutan.mathematica.codeinsight.inspections
 
 import com.intellij.codeInspection.InspectionToolProvider
 import de.halirutan.mathematica.codeinsight.inspections.bugs.ImplicitTimesThroughLinebreak
+import de.halirutan.mathematica.codeinsight.inspections.bugs.UndefinedMessageName
 import de.halirutan.mathematica.codeinsight.inspections.bugs.UnsupportedVersion
 import de.halirutan.mathematica.codeinsight.inspections.codestyle.ConsistentCompoundExpressionInFile
 import de.halirutan.mathematica.codeinsight.inspections.symbol.UnresolvedSymbolInspection
@@ -36,7 +37,8 @@ class MathematicaInspectionProvider : InspectionToolProvider {
         UnresolvedSymbolInspection::class.java,
         ConsistentCompoundExpressionInFile::class.java,
         ImplicitTimesThroughLinebreak::class.java,
-        UnsupportedVersion::class.java
+        UnsupportedVersion::class.java,
+        UndefinedMessageName::class.java
     )
   }
 }
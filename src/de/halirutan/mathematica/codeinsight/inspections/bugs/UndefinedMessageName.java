@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.halirutan.mathematica.codeinsight.inspections.bugs;
+
+import com.intellij.codeInspection.LocalInspectionToolSession;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementVisitor;
+import com.intellij.psi.search.GlobalSearchScope;
+import de.halirutan.mathematica.codeinsight.inspections.AbstractInspection;
+import de.halirutan.mathematica.codeinsight.inspections.InspectionBundle;
+import de.halirutan.mathematica.file.MathematicaFileType;
+import de.halirutan.mathematica.index.messagename.MathematicaMessageNameIndex;
+import de.halirutan.mathematica.information.SymbolInformation;
+import de.halirutan.mathematica.lang.psi.MathematicaVisitor;
+import de.halirutan.mathematica.lang.psi.SymbolNames;
+import de.halirutan.mathematica.lang.psi.api.FunctionCall;
+import de.halirutan.mathematica.lang.psi.api.MessageName;
+import de.halirutan.mathematica.lang.psi.api.StringifiedSymbol;
+import de.halirutan.mathematica.lang.psi.api.Symbol;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Warns about messages like {@code Message[f::tag]} when no text was assigned to {@code f::tag} anywhere in the
+ * project. All lookups go through the {@link MathematicaMessageNameIndex}. Messages of built-in symbols are not
+ * checked, and neither are the messages of {@code General} from the symbol database, which the kernel uses for every
+ * symbol.
+ */
+public class UndefinedMessageName extends AbstractInspection {
+
+  @Nls
+  @NotNull
+  @Override
+  public String getDisplayName() {
+    return InspectionBundle.message("bugs.undefined.message.name.name");
+  }
+
+  @Nullable
+  @Override
+  public String getStaticDescription() {
+    return InspectionBundle.message("bugs.undefined.message.name.description");
+  }
+
+  @Nls
+  @NotNull
+  @Override
+  public String getGroupDisplayName() {
+    return InspectionBundle.message("group.bugs");
+  }
+
+  @NotNull
+  @Override
+  public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder, final boolean isOnTheFly, @NotNull LocalInspectionToolSession session) {
+    if (session.getFile().getFileType() instanceof MathematicaFileType && session.getFile().getVirtualFile() != null) {
+      return new UndefinedMessageVisitor(holder);
+    } else return PsiElementVisitor.EMPTY_VISITOR;
+  }
+
+  private static class UndefinedMessageVisitor extends MathematicaVisitor {
+
+    private final SymbolInformation mySymbolInfo = SymbolInformation.getInstance();
+    private final ProblemsHolder myHolder;
+    private final GlobalSearchScope myScope;
+
+    UndefinedMessageVisitor(final ProblemsHolder holder) {
+      myHolder = holder;
+      myScope = GlobalSearchScope.allScope(holder.getProject());
+    }
+
+    @Override
+    public void visitFunctionCall(FunctionCall functionCall) {
+      if (!functionCall.hasHead(SymbolNames.Message)) {
+        return;
+      }
+      final PsiElement argument = functionCall.getArgument(1);
+      if (!(argument instanceof MessageName)) {
+        return;
+      }
+      final MessageName messageName = (MessageName) argument;
+      final PsiElement symbol = messageName.getSymbol();
+      final StringifiedSymbol tag = messageName.getTag();
+      if (!(symbol instanceof Symbol) || tag == null) {
+        return;
+      }
+      final String tagName = tag.getText();
+      if (mySymbolInfo.isGeneralMessage(tagName) || isBuiltIn((Symbol) symbol)) {
+        return;
+      }
+      final String symbolName = ((Symbol) symbol).getSymbolName();
+      if (!MathematicaMessageNameIndex.isDefined(symbolName, tagName, myScope) &&
+          !MathematicaMessageNameIndex.isDefined("General", tagName, myScope)) {
+        myHolder.registerProblem(tag, InspectionBundle.message("bugs.undefined.message.name.message",
+            symbolName + "::" + tagName));
+      }
+    }
+
+    private boolean isBuiltIn(@NotNull Symbol symbol) {
+      final String context = symbol.getMathematicaContext();
+      return context.isEmpty() ?
+          mySymbolInfo.isSystemSymbol(symbol.getSymbolName()) :
+          mySymbolInfo.isBuiltinSymbol(symbol.getFullSymbolName());
+    }
+  }
+}
@@ -41,9 +41,11 @@ import de.halirutan.mathematica.file.MathematicaFileType;
 import de.halirutan.mathematica.information.SymbolInformation;
 import de.halirutan.mathematica.lang.psi.MathematicaVisitor;
 import de.halirutan.mathematica.lang.psi.api.FunctionCall;
+import de.halirutan.mathematica.lang.psi.api.MathematicaPsiFile;
 import de.halirutan.mathematica.lang.psi.api.Symbol;
 import de.halirutan.mathematica.lang.psi.api.lists.Association;
 import de.halirutan.mathematica.lang.psi.impl.LightBuiltInSymbol;
+import de.halirutan.mathematica.lang.resolve.SymbolResolveResult;
 import de.halirutan.mathematica.module.MathematicaLanguageLevelModuleExtension;
 import de.halirutan.mathematica.sdk.MathematicaLanguageLevel;
 import de.halirutan.mathematica.sdk.MathematicaSdkType;
@@ -236,7 +238,10 @@ public class UnsupportedVersion extends AbstractInspection {
         return;
       }
 
-      final PsiElement resolve = symbol.resolve();
+      final PsiFile file = symbol.getContainingFile();
+      final SymbolResolveResult binding =
+          file instanceof MathematicaPsiFile ? ((MathematicaPsiFile) file).getSymbolBindings().get(symbol) : null;
+      final PsiElement resolve = binding != null ? binding.getElement() : symbol.resolve();
       if (resolve instanceof LightBuiltInSymbol) {
         String nameWithContext =
             symbol.getMathematicaContext().equals("") ? "System`" + symbol.getSymbolName() : symbol.getFullSymbolName();
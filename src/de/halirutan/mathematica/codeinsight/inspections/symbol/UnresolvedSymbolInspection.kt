@@ -26,18 +26,13 @@ package de.halirutan.mathematica.codeinsight.inspections.symbol
 import com.intellij.codeHighlighting.HighlightDisplayLevel
 import com.intellij.codeInspection.LocalInspectionToolSession
 import com.intellij.codeInspection.ProblemsHolder
-import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiElementVisitor
 import com.intellij.psi.PsiFile
-import com.intellij.psi.search.PsiElementProcessor
-import com.intellij.psi.util.PsiTreeUtil
 import de.halirutan.mathematica.codeinsight.inspections.AbstractInspection
 import de.halirutan.mathematica.codeinsight.inspections.InspectionBundle
 import de.halirutan.mathematica.lang.psi.LocalizationConstruct
 import de.halirutan.mathematica.lang.psi.MathematicaVisitor
 import de.halirutan.mathematica.lang.psi.api.MathematicaPsiFile
-import de.halirutan.mathematica.lang.psi.api.Symbol
-import de.halirutan.mathematica.lang.resolve.MathematicaGlobalResolveCache
 
 /**
  * Provides warning annotations to symbols that could not be resolved to some place of definition.
@@ -59,14 +54,11 @@ class UnresolvedSymbolInspection : AbstractInspection() {
 
       override fun visitFile(file: PsiFile?) {
         if (file is MathematicaPsiFile) {
-          MathematicaGlobalResolveCache.getInstance(file.project)
-          PsiTreeUtil.processElements(file, PsiElementProcessor { symbol: PsiElement ->
-            if (symbol is Symbol && symbol.localizationConstruct == LocalizationConstruct.MScope.NULL_SCOPE) {
+          for ((symbol, binding) in file.symbolBindings) {
+            if (binding.localization == LocalizationConstruct.MScope.NULL_SCOPE) {
               holder.registerProblem(symbol, InspectionBundle.message("symbol.unresolved.message"))
             }
-            return@PsiElementProcessor true
           }
-          )
         }
       }
     }
@@ -26,46 +26,38 @@ import com.intellij.navigation.ChooseByNameContributor
 import com.intellij.navigation.NavigationItem
 import com.intellij.openapi.project.Project
 import com.intellij.openapi.vfs.VirtualFile
-import com.intellij.psi.PsiElement
-import com.intellij.psi.search.FilenameIndex
 import com.intellij.psi.search.GlobalSearchScope
-import com.intellij.util.indexing.FileBasedIndex
+import de.halirutan.mathematica.index.globaldefinition.MathematicaGlobalDefinitionIndex
 import de.halirutan.mathematica.index.packageexport.MathematicaPackageExportIndex
-import de.halirutan.mathematica.index.packageexport.PackageExportSymbol
-import de.halirutan.mathematica.lang.psi.api.Symbol
-import de.halirutan.mathematica.lang.resolve.GlobalDefinitionCollector
 
 /**
  * Provides GotoSymbol for all file level definitions that have a usage message.
+ * The definitions are taken from [MathematicaGlobalDefinitionIndex] so that no file needs to be parsed.
  * @author patrick (10.05.18).
  */
 class GotoSymbolContributor : ChooseByNameContributor {
 
-  private val packageIndex = MathematicaPackageExportIndex.INDEX_ID
-
   override fun getItemsByName(name: String?, pattern: String?, project: Project?, includeNonProjectItems: Boolean): Array<NavigationItem> {
     val project1 = project ?: return emptyArray()
-    val scope = GlobalSearchScope.projectScope(project1)
     val name1 = name ?: return emptyArray()
-    val keys = getPackageExportKeys(project1, includeNonProjectItems)
-    val result = keys.filter { k -> k.symbol == name1 }.fold(ArrayList<NavigationItem>()) { accumulator, key ->
-      val filesByName = FilenameIndex.getFilesByName(project1, key.fileName, scope)
-      filesByName.forEach { file ->
-        file?.let {
-          val symbol = it.findElementAt(key.offset)?.parent
-          if (symbol is Symbol && symbol.symbolName == key.symbol) {
-            val c = GlobalDefinitionCollector(symbol.getContainingFile())
-            if (c.assignments.containsKey(symbol.symbolName)) {
-              c.assignments[symbol.symbolName]?.forEach { assignmentProperty ->
-                if (assignmentProperty.myAssignmentSymbol is Symbol && assignmentProperty.myLhsOfAssignment is PsiElement) {
-                  accumulator.add(SymbolNavigationItem(assignmentProperty.myAssignmentSymbol, assignmentProperty.myLhsOfAssignment.text))
-                }
-              }
-            }
-          }
-        }
+    val scope = if (includeNonProjectItems) GlobalSearchScope.allScope(project1) else GlobalSearchScope.projectScope(project1)
+    val exportingFiles = HashMap<VirtualFile, String>()
+    MathematicaPackageExportIndex.processExports(name1, scope) { file, key ->
+      if (key.symbol == name1) {
+        exportingFiles[file] = key.nameSpace
       }
-      accumulator
+      true
+    }
+    if (exportingFiles.isEmpty()) {
+      return emptyArray()
+    }
+
+    val result = ArrayList<NavigationItem>()
+    val fileScope = GlobalSearchScope.filesScope(project1, exportingFiles.keys)
+    MathematicaGlobalDefinitionIndex.processDefinitions(name1, fileScope) { file, definitions ->
+      val nameSpace = exportingFiles[file] ?: ""
+      definitions.mapTo(result) { SymbolNavigationItem(project1, file, name1, nameSpace, it) }
+      true
     }
     return result.toTypedArray()
   }
@@ -74,27 +66,4 @@ class GotoSymbolContributor : ChooseByNameContributor {
     val nameArray = MathematicaPackageExportIndex.getSymbolNames(project).toHashSet()
     return nameArray.toTypedArray()
   }
-
-  private fun getPackageExportKeys(project: Project, includeNonProjectItems: Boolean): ArrayList<PackageExportSymbol> {
-    val fileIndex = FileBasedIndex.getInstance() ?: return arrayListOf()
-    val scope = if (includeNonProjectItems) GlobalSearchScope.projectScope(project) else GlobalSearchScope.allScope(project)
-    val result: ArrayList<PackageExportSymbol> = arrayListOf()
-    fileIndex.getAllKeys(packageIndex, project).forEach { symbol ->
-      symbol?.let {
-        val fileForKey = arrayListOf<VirtualFile>()
-        val inScope = !fileIndex.processValues(
-            packageIndex,
-            it,
-            null,
-            { file, _ -> fileForKey.add(file); false },
-            scope
-        )
-
-        if (fileForKey.isNotEmpty() && inScope) {
-          result.add(it)
-        }
-      }
-    }
-    return result
-  }
-}
\ No newline at end of file
+}
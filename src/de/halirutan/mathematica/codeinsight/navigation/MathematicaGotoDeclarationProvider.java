@@ -25,8 +25,13 @@ package de.halirutan.mathematica.codeinsight.navigation;
 import com.intellij.codeInsight.navigation.actions.GotoDeclarationHandler;
 import com.intellij.openapi.actionSystem.DataContext;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.DumbService;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.ResolveResult;
+import com.intellij.util.containers.ContainerUtil;
+import de.halirutan.mathematica.index.globaldefinition.GlobalDefinition;
+import de.halirutan.mathematica.index.globaldefinition.MathematicaGlobalDefinitionIndex;
 import de.halirutan.mathematica.lang.psi.LocalizationConstruct;
 import de.halirutan.mathematica.lang.psi.api.Symbol;
 import de.halirutan.mathematica.lang.psi.impl.LightSymbol;
@@ -64,12 +69,12 @@ public class MathematicaGotoDeclarationProvider implements GotoDeclarationHandle
         if (resolve.length > 0) {
           final PsiElement elm = resolve[0].getElement();
           if (elm instanceof LightSymbol) {
-            return findLightSymbolDeclarations((LightSymbol) elm);
+            return findLightSymbolDeclarations((LightSymbol) elm, symbol.getContainingFile());
           }
         }
       }
 
-      return findDeclarations(symbol);
+      return findDeclarations(symbol.getSymbolName(), symbol.getContainingFile());
     }
     return PsiElement.EMPTY_ARRAY;
   }
@@ -80,21 +85,40 @@ public class MathematicaGotoDeclarationProvider implements GotoDeclarationHandle
     return null;
   }
 
-  private PsiElement[] findLightSymbolDeclarations(@NotNull LightSymbol lightSymbol) {
+  /**
+   * Imported symbols are usually defined in another file that might not even be parsed yet. Its definitions are
+   * looked up in the global definition index instead. Only when the index cannot be used, because the file is not
+   * physical or indexing is still running, is the file analysed directly.
+   */
+  private static PsiElement[] findLightSymbolDeclarations(@NotNull LightSymbol lightSymbol,
+                                                          @Nullable PsiFile sourceFile) {
+    final PsiFile file = lightSymbol.getContainingFile();
+    if (file == null) {
+      return PsiElement.EMPTY_ARRAY;
+    }
+    final String name = lightSymbol.getName();
+    if (file.equals(sourceFile) || file.getVirtualFile() == null || DumbService.isDumb(file.getProject())) {
+      return findDeclarations(name, file);
+    }
     SortedSet<PsiElement> result = new TreeSet<>(Comparator.comparing(PsiElement::getTextOffset));
-    GlobalDefinitionCollector coll = new GlobalDefinitionCollector(lightSymbol.getContainingFile());
-    if (coll.getAssignments().containsKey(lightSymbol.getName())) {
-      coll.getAssignments().get(lightSymbol.getName()).forEach(
-          assignmentProperty -> result.add(assignmentProperty.myLhsOfAssignment));
+    for (GlobalDefinition definition : MathematicaGlobalDefinitionIndex.getDefinitions(name, file)) {
+      ContainerUtil.addIfNotNull(result, definition.findLhs(file));
     }
     return result.toArray(PsiElement.EMPTY_ARRAY);
   }
 
-  private PsiElement[] findDeclarations(@NotNull Symbol symbol) {
+  /**
+   * Finds the definitions in a file that is already parsed, usually the one of the editor. The collector of the file
+   * is cached and shared with the structure view.
+   */
+  private static PsiElement[] findDeclarations(@NotNull String name, @Nullable PsiFile file) {
+    if (file == null) {
+      return PsiElement.EMPTY_ARRAY;
+    }
     SortedSet<PsiElement> result = new TreeSet<>(Comparator.comparing(PsiElement::getTextOffset));
-    GlobalDefinitionCollector c = new GlobalDefinitionCollector(symbol.getContainingFile());
-    if (c.getAssignments().containsKey(symbol.getSymbolName())) {
-      c.getAssignments().get(symbol.getSymbolName()).forEach(
+    GlobalDefinitionCollector c = GlobalDefinitionCollector.getCollector(file);
+    if (c.getAssignments().containsKey(name)) {
+      c.getAssignments().get(name).forEach(
           assignmentProperty -> result.add(assignmentProperty.myLhsOfAssignment));
     }
     return result.toArray(PsiElement.EMPTY_ARRAY);
@@ -24,26 +24,32 @@ package de.halirutan.mathematica.codeinsight.navigation
 
 import com.intellij.navigation.ItemPresentation
 import com.intellij.navigation.NavigationItem
-import de.halirutan.mathematica.lang.psi.api.Symbol
+import com.intellij.openapi.fileEditor.OpenFileDescriptor
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.vfs.VirtualFile
+import de.halirutan.mathematica.index.globaldefinition.GlobalDefinition
 import de.halirutan.mathematica.util.MathematicaIcons
 import javax.swing.Icon
 
 /**
- * A simple navigation item that is used in the GotoSymbol contributor
+ * A simple navigation item that is used in the GotoSymbol contributor. It is created from the index only and opens
+ * the file at the position of the definition when it is selected.
  * @author patrick (10.05.18).
  */
 
-class SymbolNavigationItem(val symbol: Symbol, val context: String) : NavigationItem, ItemPresentation {
+class SymbolNavigationItem(private val project: Project,
+                           private val file: VirtualFile,
+                           private val symbolName: String,
+                           private val nameSpace: String,
+                           val definition: GlobalDefinition) : NavigationItem, ItemPresentation {
   override fun navigate(requestFocus: Boolean) {
-    (symbol as NavigationItem).navigate(requestFocus)
+    OpenFileDescriptor(project, file, definition.symbolOffset).navigate(requestFocus)
   }
 
   override fun getPresentation(): ItemPresentation? {
     return object : ItemPresentation {
       override fun getLocationString(): String? {
-        val file = symbol.containingFile
-        val fileName = file?.let { "(${it.name})" } ?: ""
-        return "$context $fileName"
+        return "${definition.lhsText} (${file.name})"
       }
 
       override fun getIcon(unused: Boolean): Icon? {
@@ -57,19 +63,19 @@ class SymbolNavigationItem(val symbol: Symbol, val context: String) : Navigation
   }
 
   override fun canNavigate(): Boolean {
-    return true
+    return file.isValid
   }
 
   override fun getName(): String? {
-    return symbol.symbolName
+    return symbolName
   }
 
   override fun canNavigateToSource(): Boolean {
-    return true
+    return canNavigate()
   }
 
   override fun getLocationString(): String? {
-    return symbol.mathematicaContext
+    return nameSpace
   }
 
   override fun getIcon(unused: Boolean): Icon? {
@@ -79,4 +85,4 @@ class SymbolNavigationItem(val symbol: Symbol, val context: String) : Navigation
   override fun getPresentableText(): String? {
     return name
   }
-}
\ No newline at end of file
+}
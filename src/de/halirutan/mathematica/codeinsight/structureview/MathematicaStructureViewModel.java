@@ -31,6 +31,7 @@ import com.intellij.openapi.editor.Editor;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import de.halirutan.mathematica.codeinsight.structureview.elements.AssignmentLeafViewTreeElement;
+import de.halirutan.mathematica.codeinsight.structureview.elements.DataExpressionTreeElement;
 import de.halirutan.mathematica.codeinsight.structureview.elements.MathematicaFileTreeElement;
 import de.halirutan.mathematica.codeinsight.structureview.groupers.AssignmentTypeGrouper;
 import de.halirutan.mathematica.codeinsight.structureview.groupers.SymbolNameGrouper;
@@ -84,7 +85,7 @@ class MathematicaStructureViewModel extends TextEditorBasedStructureViewModel
 
   @Override
   public boolean isAlwaysLeaf(StructureViewTreeElement element) {
-    return element instanceof AssignmentLeafViewTreeElement;
+    return element instanceof AssignmentLeafViewTreeElement || element instanceof DataExpressionTreeElement;
   }
 
   @NotNull
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.halirutan.mathematica.codeinsight.structureview.elements;
+
+import com.intellij.ide.structureView.StructureViewTreeElement;
+import com.intellij.ide.structureView.impl.common.PsiTreeElementBase;
+import com.intellij.ide.util.treeView.smartTree.SortableTreeElement;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import de.halirutan.mathematica.codeinsight.structureview.sorters.CodePlaceProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * A top-level expression of a data file. Data files have no definitions we could show, so the structure view lists
+ * the beginning of each top-level expression to navigate through the file.
+ * {@see de.halirutan.mathematica.file.MathematicaDataFiles}
+ */
+public class DataExpressionTreeElement extends PsiTreeElementBase<PsiElement> implements SortableTreeElement, CodePlaceProvider {
+
+  private static final int MAX_TEXT_LENGTH = 60;
+
+  private final String myText;
+  private final int myPosition;
+
+  DataExpressionTreeElement(@NotNull PsiElement expression) {
+    super(expression);
+    myPosition = expression.getTextOffset();
+    myText = createText(expression);
+  }
+
+  /**
+   * Only takes the beginning of the expression into account so that we don't create the text of large expressions.
+   */
+  @NotNull
+  private static String createText(@NotNull PsiElement expression) {
+    final CharSequence fileText = expression.getContainingFile().getViewProvider().getContents();
+    final int start = expression.getTextRange().getStartOffset();
+    final int end = Math.min(expression.getTextRange().getEndOffset(), start + MAX_TEXT_LENGTH);
+    final String text = StringUtil.convertLineSeparators(fileText.subSequence(start, end).toString(), " ");
+    return end < expression.getTextRange().getEndOffset() ? text + "..." : text;
+  }
+
+  @Override
+  public int getPosition() {
+    return myPosition;
+  }
+
+  @NotNull
+  @Override
+  public Collection<StructureViewTreeElement> getChildrenBase() {
+    return Collections.emptyList();
+  }
+
+  @NotNull
+  @Override
+  public String getAlphaSortKey() {
+    return myText;
+  }
+
+  @Nullable
+  @Override
+  public String getPresentableText() {
+    return myText;
+  }
+}
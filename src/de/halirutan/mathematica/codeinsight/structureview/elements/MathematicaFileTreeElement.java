@@ -24,6 +24,9 @@ package de.halirutan.mathematica.codeinsight.structureview.elements;
 import com.intellij.ide.structureView.StructureViewTreeElement;
 import com.intellij.ide.structureView.impl.common.PsiTreeElementBase;
 import com.intellij.navigation.ItemPresentation;
+import com.intellij.psi.PsiElement;
+import de.halirutan.mathematica.file.MathematicaDataFiles;
+import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes;
 import de.halirutan.mathematica.lang.psi.api.MathematicaPsiFile;
 import de.halirutan.mathematica.lang.resolve.GlobalDefinitionCollector;
 import de.halirutan.mathematica.lang.resolve.GlobalDefinitionCollector.AssignmentProperty;
@@ -31,6 +34,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -43,6 +47,8 @@ import java.util.Map;
  */
 public class MathematicaFileTreeElement extends PsiTreeElementBase<MathematicaPsiFile> implements ItemPresentation {
 
+  private static final int MAX_DATA_EXPRESSIONS = 1000;
+
   private final MathematicaPsiFile myElement;
 
   public MathematicaFileTreeElement(final MathematicaPsiFile psiElement) {
@@ -99,7 +105,11 @@ public class MathematicaFileTreeElement extends PsiTreeElementBase<MathematicaPs
     }
 
 
-    GlobalDefinitionCollector collector = new GlobalDefinitionCollector(myElement.getContainingFile());
+    if (MathematicaDataFiles.isDataFile(myElement)) {
+      return getDataExpressions();
+    }
+
+    GlobalDefinitionCollector collector = GlobalDefinitionCollector.getCollector(myElement.getContainingFile());
     final Map<String, HashSet<AssignmentProperty>> assignments = collector.getAssignments();
     final Collection<StructureViewTreeElement> children = new HashSet<>(assignments.size());
 
@@ -118,10 +128,27 @@ public class MathematicaFileTreeElement extends PsiTreeElementBase<MathematicaPs
     return result;
   }
 
+  /**
+   * Data files are only split into top-level expressions, which we show in the order of their appearance. Only the
+   * first {@link #MAX_DATA_EXPRESSIONS} are shown.
+   */
+  @NotNull
+  private Collection<StructureViewTreeElement> getDataExpressions() {
+    final Collection<StructureViewTreeElement> children = new ArrayList<>();
+    for (PsiElement child = myElement.getFirstChild();
+         child != null && children.size() < MAX_DATA_EXPRESSIONS;
+         child = child.getNextSibling()) {
+      if (child.getNode().getElementType() == MathematicaElementTypes.DATA_EXPRESSION) {
+        children.add(new DataExpressionTreeElement(child));
+      }
+    }
+    return Collections.singletonList(new SimpleStringTreeElement(myElement.getName(), children));
+  }
+
   @Nullable
   @Override
   public String getPresentableText() {
-    return myElement.getText();
+    return myElement.getName();
   }
 
 }
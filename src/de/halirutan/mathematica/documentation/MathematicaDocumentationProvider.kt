@@ -31,6 +31,9 @@ import com.intellij.psi.PsiManager
 import com.intellij.psi.util.PsiTreeUtil
 import com.intellij.util.IncorrectOperationException
 import de.halirutan.mathematica.MathematicaBundle
+import de.halirutan.mathematica.index.usagemessage.MathematicaUsageMessageIndex
+import de.halirutan.mathematica.index.usagemessage.UsageMessage
+import de.halirutan.mathematica.information.SymbolInformation
 import de.halirutan.mathematica.lang.psi.LocalizationConstruct
 import de.halirutan.mathematica.lang.psi.api.OperatorNameProvider
 import de.halirutan.mathematica.lang.psi.api.StringifiedSymbol
@@ -39,7 +42,6 @@ import de.halirutan.mathematica.lang.psi.api.slots.Slot
 import de.halirutan.mathematica.lang.psi.impl.LightBuiltInSymbol
 import de.halirutan.mathematica.lang.psi.impl.LightFileSymbol
 import de.halirutan.mathematica.lang.psi.util.MathematicaPsiElementFactory
-import de.halirutan.mathematica.lang.psi.util.extractUsageMessageString
 import java.util.*
 import java.util.regex.Pattern
 
@@ -52,6 +54,19 @@ class MathematicaDocumentationProvider : AbstractDocumentationProvider() {
 
   private val logger = Logger.getInstance(MathematicaDocumentationProvider::class.java)
 
+  companion object {
+    private const val MAX_RENDERED_USAGES = 256
+
+    /**
+     * Rendered usage messages. The key contains the whole usage message, so that a changed message is rendered again.
+     */
+    private val renderedUsages: MutableMap<UsageMessage, String> = Collections.synchronizedMap(
+        object : LinkedHashMap<UsageMessage, String>(16, 0.75f, true) {
+          override fun removeEldestEntry(eldest: MutableMap.MutableEntry<UsageMessage, String>?): Boolean =
+              size > MAX_RENDERED_USAGES
+        })
+  }
+
   /**
    * Generates the documentation (if available) for element. This does three things:
    *
@@ -73,36 +88,35 @@ class MathematicaDocumentationProvider : AbstractDocumentationProvider() {
     val slotPattern = Pattern.compile("#[0-9]*.*")
     val slotSequencePattern = Pattern.compile("##[0-9]*.*")
 
-    fun buildPath(name: String, context: String = ""): String = "usages/$context${name.replace('`', '/')}.html"
+    fun systemName(name: String): String = "System`$name"
     if (!(element is Symbol || element is LightBuiltInSymbol || element is OperatorNameProvider || element is Slot)) {
       return null
     }
 
-    val path: String = when (element) {
-      is OperatorNameProvider -> buildPath(element.operatorName, "System/")
+    val name: String = when (element) {
+      is OperatorNameProvider -> systemName(element.operatorName)
       is Symbol -> {
         val name = element.fullSymbolName
         when {
-          name.contains('`') -> buildPath(name)
-          else -> buildPath(name, "System/")
+          name.contains('`') -> name
+          else -> systemName(name)
         }
       }
       is Slot -> {
         val name = element.text
         when {
-          slotPattern.matcher(name).matches() -> buildPath("Slot", "System/")
-          slotSequencePattern.matcher(name).matches() -> buildPath("SlotSequence", "System/")
+          slotPattern.matcher(name).matches() -> systemName("Slot")
+          slotSequencePattern.matcher(name).matches() -> systemName("SlotSequence")
           else -> ""
         }
       }
       else -> ""
     }
 
-    if (path.isNotEmpty()) {
-      MathematicaDocumentationProvider::class.java.getResourceAsStream(path)?.let {
-        val usage = Scanner(it, "UTF-8").useDelimiter("\\A").next()
-        if (!usage.isEmpty()) {
-          return usage
+    if (name.isNotEmpty()) {
+      SymbolInformation.getInstance().getUsagePage(name)?.let {
+        if (!it.isEmpty()) {
+          return it
         }
       }
     }
@@ -117,26 +131,30 @@ class MathematicaDocumentationProvider : AbstractDocumentationProvider() {
   }
 
   /**
-   * Provides a html form of the usage message for custom user functions.
+   * Provides a html form of the usage message for custom user functions. The usage message is looked up in the
+   * [MathematicaUsageMessageIndex] and the rendered html is kept in a small cache since this is called on every hover
+   * and for every element in the completion list.
    * @param symbol a file symbol for which the usage message should be found and rendered
    * @return the first found usage message
    */
   private fun renderCustomUsageMessage(symbol: Symbol): String {
-    val usages = symbol.extractUsageMessageString()
-    if (usages.component2().isEmpty()) {
+    if (LocalizationConstruct.isLocalScoping(symbol.localizationConstruct)) {
       return ""
     }
-    val fileName = usages.component1().containingFile.name
-    val symbolName = symbol.symbolName
+    val usage = MathematicaUsageMessageIndex.findUsageMessage(symbol) ?: return ""
+    return renderedUsages.computeIfAbsent(usage) { renderUsageMessage(it) }
+  }
+
+  private fun renderUsageMessage(usage: UsageMessage): String {
+    val symbolName = usage.symbolName
     val result = StringBuilder("<h3>")
     result.append(symbolName)
     result.append(" (")
-    result.append(fileName)
+    result.append(usage.fileName)
     result.append(")</h3><ul>")
-    for (usg in usages.component2()) {
+    for (usg in usage.lines) {
       result.append("<li>")
-      result.append(usg.replace("($symbolName)".toRegex(), "<b>$1</b>"))
-//      result.append(usg)
+      result.append(usg.replace("(${Regex.escape(symbolName)})".toRegex(), "<b>$1</b>"))
       result.append("</li>")
     }
     result.append("</ul>")
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.halirutan.mathematica.file;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.FileViewProvider;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.DelegatingGlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import de.halirutan.mathematica.lang.lexer.MathematicaLexer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static de.halirutan.mathematica.lang.parsing.MathematicaElementTypes.*;
+
+/**
+ * Decides which files are treated as data files. These are usually generated files with large tables, compressed
+ * strings or association literals, and the full PSI with resolving, inspections and indexing makes them unusable. A
+ * file is a data file if
+ * <ul>
+ * <li>it or one of its parent directories was marked as data by the user,</li>
+ * <li>it is larger than {@link #DATA_FILE_SIZE} characters, or</li>
+ * <li>it is larger than {@link #STATISTICS_MIN_SIZE} characters and its beginning consists almost only of numbers,
+ * strings, braces and commas.</li>
+ * </ul>
+ * Data files are only split into their top-level expressions by the parser, are highlighted by the lexer only and
+ * are not indexed. The indexes are shared by all projects, so they only skip files by their content. The files
+ * marked in a project are removed from index queries with {@link #withoutMarkedFiles}.
+ */
+@State(name = "MathematicaDataFiles", storages = @Storage("mathematica.xml"))
+public class MathematicaDataFiles implements PersistentStateComponent<MathematicaDataFiles> {
+
+  public static final int DATA_FILE_SIZE = 1024 * 1024;
+  public static final int STATISTICS_MIN_SIZE = 128 * 1024;
+  private static final int STATISTICS_SAMPLE_SIZE = 64 * 1024;
+  private static final double DATA_TOKEN_RATIO = 0.9;
+
+  private static final Key<CachedValue<Boolean>> DATA_FILE_KEY = Key.create("MATHEMATICA_DATA_FILE");
+
+  private static final TokenSet DATA_TOKENS = TokenSet.create(
+      NUMBER, STRING_LITERAL, STRING_LITERAL_BEGIN, STRING_LITERAL_END, STRING_NAMED_CHARACTER, COMMA,
+      LEFT_BRACE, RIGHT_BRACE, LEFT_ASSOCIATION, RIGHT_ASSOCIATION, RULE, MINUS, ACCURACY
+  );
+
+  @SuppressWarnings("WeakerAccess")
+  public Set<String> dataFileUrls = new HashSet<>();
+
+  private final SimpleModificationTracker myModificationTracker = new SimpleModificationTracker();
+
+  /**
+   * @return the marked data files of the project or null in environments like parsing tests that don't have the
+   * service
+   */
+  @Nullable
+  public static MathematicaDataFiles getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, MathematicaDataFiles.class);
+  }
+
+  /**
+   * Checks if a file is treated as data file. The result is cached until the file or the marked data files change.
+   * For the non-physical copies that are created during reparsing, the marks of the original file are used.
+   *
+   * @param file the file to check
+   * @return true if the plugin should only lex the file
+   */
+  public static boolean isDataFile(@NotNull PsiFile file) {
+    return CachedValuesManager.getCachedValue(file, DATA_FILE_KEY, () -> {
+      final Project project = file.getProject();
+      final FileViewProvider viewProvider = file.getViewProvider();
+      final VirtualFile virtualFile = file.getOriginalFile().getViewProvider().getVirtualFile();
+      final boolean isData = isDataFile(project, virtualFile, viewProvider.getContents());
+      final MathematicaDataFiles dataFiles = getInstance(project);
+      return dataFiles != null ?
+          CachedValueProvider.Result.create(isData, file, dataFiles.getModificationTracker()) :
+          CachedValueProvider.Result.create(isData, file);
+    });
+  }
+
+  /**
+   * Checks if a file is treated as data file when no PSI is available.
+   *
+   * @param project project the file belongs to
+   * @param file    the file to check
+   * @param text    content of the file
+   * @return true if the plugin should only lex the file
+   */
+  public static boolean isDataFile(@Nullable Project project, @Nullable VirtualFile file, @NotNull CharSequence text) {
+    if (project != null && !project.isDefault() && file != null) {
+      final MathematicaDataFiles dataFiles = getInstance(project);
+      if (dataFiles != null && dataFiles.isMarked(file)) {
+        return true;
+      }
+    }
+    return isDataContent(text);
+  }
+
+  /**
+   * Checks only the content of a file and not the marks of a project. This is what the indexers use, because their
+   * result must be the same for every project that contains the file.
+   *
+   * @param text content of the file
+   * @return true if the file is a data file because of its size or content
+   */
+  public static boolean isDataContent(@NotNull CharSequence text) {
+    final int length = text.length();
+    return length >= DATA_FILE_SIZE || length >= STATISTICS_MIN_SIZE && looksLikeData(text);
+  }
+
+  /**
+   * Restricts a search scope to the files that are not marked as data in the project of the scope.
+   *
+   * @param scope scope of an index query
+   * @return the scope itself if no files are marked, otherwise a scope without the marked files
+   */
+  @NotNull
+  public static GlobalSearchScope withoutMarkedFiles(@NotNull GlobalSearchScope scope) {
+    final Project project = scope.getProject();
+    final MathematicaDataFiles dataFiles = project != null && !project.isDefault() ? getInstance(project) : null;
+    if (dataFiles == null || dataFiles.dataFileUrls.isEmpty()) {
+      return scope;
+    }
+    return new DelegatingGlobalSearchScope(scope) {
+      @Override
+      public boolean contains(@NotNull VirtualFile file) {
+        return super.contains(file) && !dataFiles.isMarked(file);
+      }
+    };
+  }
+
+  /**
+   * Lexes the beginning of a text and checks if it consists mostly of literals and list or association syntax.
+   */
+  static boolean looksLikeData(@NotNull CharSequence text) {
+    final Lexer lexer = new MathematicaLexer();
+    lexer.start(text, 0, Math.min(text.length(), STATISTICS_SAMPLE_SIZE));
+    int tokens = 0;
+    int dataTokens = 0;
+    IElementType type;
+    while ((type = lexer.getTokenType()) != null) {
+      if (!WHITE_SPACE_OR_COMMENTS.contains(type)) {
+        tokens++;
+        if (DATA_TOKENS.contains(type)) {
+          dataTokens++;
+        }
+      }
+      lexer.advance();
+    }
+    return tokens > 0 && dataTokens >= DATA_TOKEN_RATIO * tokens;
+  }
+
+  /**
+   * @return true if the file or one of its parent directories was marked as data
+   */
+  public boolean isMarked(@NotNull VirtualFile file) {
+    if (dataFileUrls.isEmpty()) {
+      return false;
+    }
+    for (VirtualFile current = file; current != null; current = current.getParent()) {
+      if (dataFileUrls.contains(current.getUrl())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if exactly this file or directory is marked, not one of its parents
+   */
+  public boolean isMarkedDirectly(@NotNull VirtualFile file) {
+    return dataFileUrls.contains(file.getUrl());
+  }
+
+  public void setMarked(@NotNull VirtualFile file, boolean marked) {
+    final boolean changed = marked ? dataFileUrls.add(file.getUrl()) : dataFileUrls.remove(file.getUrl());
+    if (changed) {
+      myModificationTracker.incModificationCount();
+    }
+  }
+
+  @NotNull
+  public ModificationTracker getModificationTracker() {
+    return myModificationTracker;
+  }
+
+  @Nullable
+  @Override
+  public MathematicaDataFiles getState() {
+    return this;
+  }
+
+  @Override
+  public void loadState(@NotNull MathematicaDataFiles state) {
+    XmlSerializerUtil.copyBean(state, this);
+    myModificationTracker.incModificationCount();
+  }
+}
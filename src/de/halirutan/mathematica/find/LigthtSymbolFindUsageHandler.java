@@ -29,7 +29,6 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.impl.search.CachesBasedRefSearcher;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.SearchRequestCollector;
 import com.intellij.psi.search.SearchScope;
 import com.intellij.psi.search.searches.ReferencesSearch;
@@ -62,7 +61,7 @@ class LigthtSymbolFindUsageHandler extends FindUsagesHandler {
     if (target instanceof LightBuiltInSymbol) {
       ReferencesSearch.SearchParameters parameters = new ReferencesSearch.SearchParameters(
           target,
-          GlobalSearchScope.fileScope(target.getContainingFile()),
+          searchScope,
           true,
           null);
       CachesBasedRefSearcher searcher = new CachesBasedRefSearcher();
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.index.globaldefinition;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import de.halirutan.mathematica.lang.psi.SymbolAssignmentType;
+import de.halirutan.mathematica.lang.psi.api.Symbol;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * One global definition of a symbol as it is found by {@link de.halirutan.mathematica.lang.resolve.GlobalDefinitionCollector}.
+ * Instead of PSI elements, it stores the offsets of the defining symbol and the left-hand side together with a short
+ * text of the left-hand side, so that it can be presented without parsing the file.
+ */
+public class GlobalDefinition implements DataExternalizer<GlobalDefinition> {
+
+  public static final GlobalDefinition INSTANCE = new GlobalDefinition();
+
+  private static final int MAX_LHS_TEXT_LENGTH = 120;
+
+  private final SymbolAssignmentType myAssignmentType;
+  private final int mySymbolOffset;
+  private final int myLhsOffset;
+  private final int myLhsLength;
+  private final String myLhsText;
+
+  GlobalDefinition(SymbolAssignmentType assignmentType, int symbolOffset, int lhsOffset, int lhsLength, String lhsText) {
+    myAssignmentType = assignmentType;
+    mySymbolOffset = symbolOffset;
+    myLhsOffset = lhsOffset;
+    myLhsLength = lhsLength;
+    myLhsText = lhsText;
+  }
+
+  GlobalDefinition(@NotNull PsiElement symbol, @NotNull PsiElement lhs, @NotNull SymbolAssignmentType assignmentType) {
+    this(assignmentType, symbol.getTextOffset(), lhs.getTextRange().getStartOffset(), lhs.getTextLength(),
+        StringUtil.first(lhs.getText(), MAX_LHS_TEXT_LENGTH, true));
+  }
+
+  private GlobalDefinition() {
+    this(SymbolAssignmentType.UNKNOWN, 0, 0, 0, "");
+  }
+
+  public SymbolAssignmentType getAssignmentType() {
+    return myAssignmentType;
+  }
+
+  public int getSymbolOffset() {
+    return mySymbolOffset;
+  }
+
+  public int getLhsOffset() {
+    return myLhsOffset;
+  }
+
+  /**
+   * @return the text of the left-hand side, shortened if it is very long
+   */
+  public String getLhsText() {
+    return myLhsText;
+  }
+
+  /**
+   * Finds the defining symbol in the given file, which needs to be the file this definition was indexed from.
+   */
+  @Nullable
+  public Symbol findSymbol(@NotNull PsiFile file) {
+    return PsiTreeUtil.getParentOfType(file.findElementAt(mySymbolOffset), Symbol.class, false);
+  }
+
+  /**
+   * Finds the left-hand side of the definition in the given file, which needs to be the file this definition was
+   * indexed from.
+   */
+  @Nullable
+  public PsiElement findLhs(@NotNull PsiFile file) {
+    return PsiTreeUtil.findElementOfClassAtRange(file, myLhsOffset, myLhsOffset + myLhsLength, PsiElement.class);
+  }
+
+  @Override
+  public void save(@NotNull DataOutput out, GlobalDefinition value) throws IOException {
+    DataInputOutputUtil.writeINT(out, value.myAssignmentType.ordinal());
+    DataInputOutputUtil.writeINT(out, value.mySymbolOffset);
+    DataInputOutputUtil.writeINT(out, value.myLhsOffset);
+    DataInputOutputUtil.writeINT(out, value.myLhsLength);
+    IOUtil.writeUTF(out, value.myLhsText);
+  }
+
+  @Override
+  public GlobalDefinition read(@NotNull DataInput in) throws IOException {
+    final SymbolAssignmentType type = SymbolAssignmentType.values()[DataInputOutputUtil.readINT(in)];
+    final int symbolOffset = DataInputOutputUtil.readINT(in);
+    final int lhsOffset = DataInputOutputUtil.readINT(in);
+    final int lhsLength = DataInputOutputUtil.readINT(in);
+    final String lhsText = IOUtil.readUTF(in);
+    return new GlobalDefinition(type, symbolOffset, lhsOffset, lhsLength, lhsText);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = myAssignmentType.hashCode();
+    hash = hash * 31 + mySymbolOffset;
+    hash = hash * 31 + myLhsOffset;
+    hash = hash * 31 + myLhsLength;
+    hash = hash * 31 + myLhsText.hashCode();
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof GlobalDefinition)) {
+      return false;
+    }
+    if (obj == this) {
+      return true;
+    }
+    final GlobalDefinition other = (GlobalDefinition) obj;
+    return myAssignmentType == other.myAssignmentType &&
+        mySymbolOffset == other.mySymbolOffset &&
+        myLhsOffset == other.myLhsOffset &&
+        myLhsLength == other.myLhsLength &&
+        Objects.equals(myLhsText, other.myLhsText);
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.index.globaldefinition;
+
+import com.intellij.openapi.fileTypes.LanguageFileType;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.indexing.FileBasedIndex.InputFilter;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import de.halirutan.mathematica.file.MathematicaDataFiles;
+import de.halirutan.mathematica.lang.MathematicaLanguage;
+import de.halirutan.mathematica.lang.resolve.GlobalDefinitionCollector;
+import de.halirutan.mathematica.lang.resolve.GlobalDefinitionCollector.AssignmentProperty;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * File index of all global definitions like {@code f[x_] := ...}, {@code Options[f] = ...} or {@code
+ * SetAttributes[f, ...]} that {@link GlobalDefinitionCollector} finds. The key is the symbol name without context
+ * and the value the list of definitions of this symbol in a file, ordered by their position. With this, we can
+ * navigate to definitions in other files without parsing them.
+ */
+public class MathematicaGlobalDefinitionIndex extends FileBasedIndexExtension<String, List<GlobalDefinition>> {
+
+  public static final ID<String, List<GlobalDefinition>> INDEX_ID = ID.create("Mathematica.globalDefinitions");
+  private static final int BASE_VERSION = 3;
+  private static final LanguageFileType MATHEMATICA_FILE_TYPE = MathematicaLanguage.INSTANCE.getAssociatedFileType();
+
+  private static final DataExternalizer<List<GlobalDefinition>> EXTERNALIZER = new DataExternalizer<List<GlobalDefinition>>() {
+    @Override
+    public void save(@NotNull DataOutput out, List<GlobalDefinition> value) throws IOException {
+      DataInputOutputUtil.writeINT(out, value.size());
+      for (GlobalDefinition definition : value) {
+        GlobalDefinition.INSTANCE.save(out, definition);
+      }
+    }
+
+    @Override
+    public List<GlobalDefinition> read(@NotNull DataInput in) throws IOException {
+      final int size = DataInputOutputUtil.readINT(in);
+      final List<GlobalDefinition> result = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        result.add(GlobalDefinition.INSTANCE.read(in));
+      }
+      return result;
+    }
+  };
+
+  /**
+   * Processes all definitions of a symbol in the given scope.
+   *
+   * @param symbolName name of the symbol without context
+   * @param scope      search scope
+   * @param processor  gets the file and all definitions of the symbol in this file. Returning false stops the
+   *                   processing.
+   * @return false if the processor stopped the processing, true otherwise
+   */
+  public static boolean processDefinitions(@NotNull String symbolName,
+                                           @NotNull GlobalSearchScope scope,
+                                           @NotNull FileBasedIndex.ValueProcessor<List<GlobalDefinition>> processor) {
+    return FileBasedIndex.getInstance()
+        .processValues(INDEX_ID, symbolName, null, processor, MathematicaDataFiles.withoutMarkedFiles(scope));
+  }
+
+  /**
+   * Returns the definitions of a symbol in one file.
+   *
+   * @param symbolName name of the symbol without context
+   * @param file       file that is searched. It needs to be a physical file, otherwise it is not indexed.
+   * @return all definitions ordered by their position
+   */
+  @NotNull
+  public static List<GlobalDefinition> getDefinitions(@NotNull String symbolName, @NotNull PsiFile file) {
+    final VirtualFile virtualFile = file.getVirtualFile();
+    if (virtualFile == null) {
+      return Collections.emptyList();
+    }
+    final List<GlobalDefinition> result = new ArrayList<>();
+    FileBasedIndex.getInstance().processValues(INDEX_ID, symbolName, virtualFile, (f, definitions) -> {
+      result.addAll(definitions);
+      return true;
+    }, MathematicaDataFiles.withoutMarkedFiles(GlobalSearchScope.fileScope(file)));
+    return result;
+  }
+
+  @NotNull
+  @Override
+  public InputFilter getInputFilter() {
+    return file -> file.getFileType() == MATHEMATICA_FILE_TYPE && !"nb".equals(file.getExtension());
+  }
+
+  @Override
+  public boolean indexDirectories() {
+    return false;
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @NotNull
+  @Override
+  public ID<String, List<GlobalDefinition>> getName() {
+    return INDEX_ID;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<GlobalDefinition>, FileContent> getIndexer() {
+    return inputData -> {
+      if (MathematicaDataFiles.isDataContent(inputData.getContentAsText())) {
+        return Collections.emptyMap();
+      }
+      final PsiFile psiFile = inputData.getPsiFile();
+      final Map<String, HashSet<AssignmentProperty>> assignments = new GlobalDefinitionCollector(psiFile).getAssignments();
+      final Map<String, List<GlobalDefinition>> map = new HashMap<>(assignments.size());
+      assignments.forEach((name, properties) -> {
+        final List<GlobalDefinition> definitions = new ArrayList<>(properties.size());
+        for (AssignmentProperty property : properties) {
+          definitions.add(new GlobalDefinition(property.myAssignmentSymbol, property.myLhsOfAssignment, property.myAssignmentType));
+        }
+        definitions.sort(Comparator.comparingInt(GlobalDefinition::getSymbolOffset));
+        map.put(name, definitions);
+      });
+      return map;
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<GlobalDefinition>> getValueExternalizer() {
+    return EXTERNALIZER;
+  }
+
+  @Override
+  public int getVersion() {
+    return BASE_VERSION;
+  }
+}
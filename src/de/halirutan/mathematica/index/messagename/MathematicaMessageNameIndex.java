@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.index.messagename;
+
+import com.intellij.openapi.fileTypes.LanguageFileType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.*;
+import com.intellij.util.indexing.FileBasedIndex.InputFilter;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import de.halirutan.mathematica.file.MathematicaDataFiles;
+import de.halirutan.mathematica.lang.MathematicaLanguage;
+import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes;
+import de.halirutan.mathematica.lang.psi.FunctionHeads;
+import de.halirutan.mathematica.lang.psi.MathematicaRecursiveVisitor;
+import de.halirutan.mathematica.lang.psi.api.FunctionCall;
+import de.halirutan.mathematica.lang.psi.api.MessageName;
+import de.halirutan.mathematica.lang.psi.api.StringifiedSymbol;
+import de.halirutan.mathematica.lang.psi.api.Symbol;
+import de.halirutan.mathematica.lang.psi.api.assignment.Set;
+import de.halirutan.mathematica.lang.psi.api.assignment.SetDelayed;
+import de.halirutan.mathematica.lang.psi.api.assignment.TagSet;
+import de.halirutan.mathematica.lang.psi.api.assignment.TagSetDelayed;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * File index of all message names {@code symbol::tag}, both definitions like {@code f::tag = "..."} and usages like
+ * {@code Message[f::tag]}. The key is the symbol name without context and the value the list of occurrences in a
+ * file, ordered by their position. Completion of messages and the check for undefined messages only need index
+ * lookups with this instead of walking through files.
+ */
+public class MathematicaMessageNameIndex extends FileBasedIndexExtension<String, List<MessageNameEntry>> {
+
+  public static final ID<String, List<MessageNameEntry>> INDEX_ID = ID.create("Mathematica.messageNames");
+  private static final int BASE_VERSION = 3;
+  private static final LanguageFileType MATHEMATICA_FILE_TYPE = MathematicaLanguage.INSTANCE.getAssociatedFileType();
+
+  private static final DataExternalizer<List<MessageNameEntry>> EXTERNALIZER = new DataExternalizer<List<MessageNameEntry>>() {
+    @Override
+    public void save(@NotNull DataOutput out, List<MessageNameEntry> value) throws IOException {
+      DataInputOutputUtil.writeINT(out, value.size());
+      for (MessageNameEntry entry : value) {
+        MessageNameEntry.INSTANCE.save(out, entry);
+      }
+    }
+
+    @Override
+    public List<MessageNameEntry> read(@NotNull DataInput in) throws IOException {
+      final int size = DataInputOutputUtil.readINT(in);
+      final List<MessageNameEntry> result = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        result.add(MessageNameEntry.INSTANCE.read(in));
+      }
+      return result;
+    }
+  };
+
+  /**
+   * Processes all message names of a symbol in the given scope.
+   *
+   * @param symbolName name of the symbol without context
+   * @param scope      search scope
+   * @param processor  gets the file and all message names of the symbol in this file. Returning false stops the
+   *                   processing.
+   * @return false if the processor stopped the processing, true otherwise
+   */
+  public static boolean processMessageNames(@NotNull String symbolName,
+                                            @NotNull GlobalSearchScope scope,
+                                            @NotNull FileBasedIndex.ValueProcessor<List<MessageNameEntry>> processor) {
+    return FileBasedIndex.getInstance()
+        .processValues(INDEX_ID, symbolName, null, processor, MathematicaDataFiles.withoutMarkedFiles(scope));
+  }
+
+  /**
+   * Processes the names of all symbols that have message names in the given scope.
+   */
+  public static boolean processSymbolNames(@NotNull GlobalSearchScope scope, @NotNull Processor<String> processor) {
+    return FileBasedIndex.getInstance().processAllKeys(INDEX_ID, processor, scope, null);
+  }
+
+  /**
+   * @return true if {@code symbolName::tag} has a message text assigned somewhere in the scope
+   */
+  public static boolean isDefined(@NotNull String symbolName, @NotNull String tag, @NotNull GlobalSearchScope scope) {
+    return !processMessageNames(symbolName, scope, (file, entries) -> {
+      for (MessageNameEntry entry : entries) {
+        if (entry.isDefinition() && tag.equals(entry.getTag())) {
+          return false;
+        }
+      }
+      return true;
+    });
+  }
+
+  @NotNull
+  @Override
+  public InputFilter getInputFilter() {
+    return file -> file.getFileType() == MATHEMATICA_FILE_TYPE && !"nb".equals(file.getExtension());
+  }
+
+  @Override
+  public boolean indexDirectories() {
+    return false;
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @NotNull
+  @Override
+  public ID<String, List<MessageNameEntry>> getName() {
+    return INDEX_ID;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<MessageNameEntry>, FileContent> getIndexer() {
+    return inputData -> {
+      if (MathematicaDataFiles.isDataContent(inputData.getContentAsText())) {
+        return Collections.emptyMap();
+      }
+      final Map<String, List<MessageNameEntry>> map = new HashMap<>();
+      inputData.getPsiFile().accept(new MathematicaRecursiveVisitor() {
+        @Override
+        public void visitMessageName(MessageName messageName) {
+          final PsiElement symbol = messageName.getSymbol();
+          final StringifiedSymbol tag = messageName.getTag();
+          if (symbol instanceof Symbol && tag != null) {
+            map.computeIfAbsent(((Symbol) symbol).getSymbolName(), name -> new ArrayList<>())
+                .add(new MessageNameEntry(tag.getText(), isDefinition(messageName), messageName.getTextOffset()));
+          }
+          super.visitMessageName(messageName);
+        }
+      });
+      return map;
+    };
+  }
+
+  /**
+   * @return true if the message name is the left-hand side of an assignment like <code>f::tag = ".."</code>,
+   * <code>f /: f::tag = ".."</code> or their full forms <code>Set[f::tag, ".."]</code> and
+   * <code>TagSet[f, f::tag, ".."]</code>
+   */
+  public static boolean isDefinition(@NotNull MessageName messageName) {
+    final PsiElement parent = messageName.getParent();
+    if (parent instanceof Set || parent instanceof SetDelayed) {
+      return parent.getFirstChild() == messageName;
+    }
+    if (parent instanceof TagSet || parent instanceof TagSetDelayed) {
+      final PsiElement previous = PsiTreeUtil.prevVisibleLeaf(messageName);
+      return previous != null && previous.getNode().getElementType() == MathematicaElementTypes.TAG_SET;
+    }
+    if (parent instanceof FunctionCall) {
+      final FunctionCall call = (FunctionCall) parent;
+      return call.hasHead(FunctionHeads.SET_ASSIGNMENTS) && call.getArgument(1) == messageName ||
+          call.hasHead(FunctionHeads.TAG_SET_ASSIGNMENTS) && call.getArgument(2) == messageName;
+    }
+    return false;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<MessageNameEntry>> getValueExternalizer() {
+    return EXTERNALIZER;
+  }
+
+  @Override
+  public int getVersion() {
+    return BASE_VERSION;
+  }
+}
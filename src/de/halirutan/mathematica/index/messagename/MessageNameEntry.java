@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.index.messagename;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * One occurrence of {@code symbol::tag} in a file. It is either a definition like {@code f::tag = "..."} or a usage
+ * like {@code Message[f::tag]}. The symbol name is the key of {@link MathematicaMessageNameIndex}.
+ */
+public class MessageNameEntry implements DataExternalizer<MessageNameEntry> {
+
+  public static final MessageNameEntry INSTANCE = new MessageNameEntry();
+
+  private final String myTag;
+  private final boolean myDefinition;
+  private final int myOffset;
+
+  MessageNameEntry(@NotNull String tag, boolean definition, int offset) {
+    myTag = tag;
+    myDefinition = definition;
+    myOffset = offset;
+  }
+
+  private MessageNameEntry() {
+    this("", false, 0);
+  }
+
+  @NotNull
+  public String getTag() {
+    return myTag;
+  }
+
+  /**
+   * @return true if a message text is assigned to {@code symbol::tag} at this place
+   */
+  public boolean isDefinition() {
+    return myDefinition;
+  }
+
+  /**
+   * @return offset of the whole {@code symbol::tag} expression
+   */
+  public int getOffset() {
+    return myOffset;
+  }
+
+  @Override
+  public void save(@NotNull DataOutput out, MessageNameEntry value) throws IOException {
+    IOUtil.writeUTF(out, value.myTag);
+    out.writeBoolean(value.myDefinition);
+    DataInputOutputUtil.writeINT(out, value.myOffset);
+  }
+
+  @Override
+  public MessageNameEntry read(@NotNull DataInput in) throws IOException {
+    final String tag = IOUtil.readUTF(in);
+    final boolean definition = in.readBoolean();
+    final int offset = DataInputOutputUtil.readINT(in);
+    return new MessageNameEntry(tag, definition, offset);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = myDefinition ? 1 : 2;
+    hash = hash * 31 + myTag.hashCode();
+    hash = hash * 31 + myOffset;
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof MessageNameEntry)) {
+      return false;
+    }
+    if (obj == this) {
+      return true;
+    }
+    final MessageNameEntry other = (MessageNameEntry) obj;
+    return myDefinition == other.myDefinition &&
+        myOffset == other.myOffset &&
+        Objects.equals(myTag, other.myTag);
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.index.packagecontext;
+
+import com.intellij.openapi.fileTypes.LanguageFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.indexing.FileBasedIndex.InputFilter;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import de.halirutan.mathematica.file.MathematicaDataFiles;
+import de.halirutan.mathematica.index.packageexport.PackageExportScanner;
+import de.halirutan.mathematica.lang.MathematicaLanguage;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Maps the contexts that are opened with <code >BeginPackage</code> or <code >Begin</code> to the files that contain
+ * them. The key is the full context name like <code >MyPackage`</code> and the value is the offset of the call that
+ * opens the context. This is what <code >Needs["MyPackage`"]</code> or <code >&lt;&lt;MyPackage`</code> load, so
+ * the files of an imported package can be found with one key access instead of looking through all exports of a
+ * module. The contexts are found by {@link PackageExportScanner} without building PSI.
+ */
+public class MathematicaPackageContextIndex extends FileBasedIndexExtension<String, Integer> {
+
+  public static final ID<String, Integer> INDEX_ID = ID.create("Mathematica.packageContexts");
+  private static final int BASE_VERSION = 2;
+  private static final LanguageFileType MATHEMATICA_FILE_TYPE = MathematicaLanguage.INSTANCE.getAssociatedFileType();
+
+  @NotNull
+  @Override
+  public InputFilter getInputFilter() {
+    return file -> file.getFileType() == MATHEMATICA_FILE_TYPE && !"nb".equals(file.getExtension());
+  }
+
+  public static Collection<String> getContexts(@NotNull Project project) {
+    return FileBasedIndex.getInstance().getAllKeys(INDEX_ID, project);
+  }
+
+  /**
+   * Finds the files that open a context.
+   *
+   * @param context full name of the context including the trailing backtick
+   * @param scope   search scope, usually the module with its dependencies and libraries
+   * @return all files in the scope that contain <code >BeginPackage[context]</code> or <code >Begin[context]</code>
+   */
+  @NotNull
+  public static Collection<VirtualFile> getFiles(@NotNull String context, @NotNull GlobalSearchScope scope) {
+    return FileBasedIndex.getInstance()
+        .getContainingFiles(INDEX_ID, context, MathematicaDataFiles.withoutMarkedFiles(scope));
+  }
+
+  @Override
+  public boolean indexDirectories() {
+    return false;
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @NotNull
+  @Override
+  public ID<String, Integer> getName() {
+    return INDEX_ID;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, Integer, FileContent> getIndexer() {
+    return inputData -> {
+      if (MathematicaDataFiles.isDataContent(inputData.getContentAsText())) {
+        return Collections.emptyMap();
+      }
+      return PackageExportScanner.scanContexts(inputData.getFileName(), inputData.getContentAsText());
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<Integer> getValueExternalizer() {
+    return EnumeratorIntegerDescriptor.INSTANCE;
+  }
+
+  @Override
+  public int getVersion() {
+    return BASE_VERSION;
+  }
+
+}
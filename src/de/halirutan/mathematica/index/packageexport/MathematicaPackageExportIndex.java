@@ -24,24 +24,38 @@ package de.halirutan.mathematica.index.packageexport;
 
 import com.intellij.openapi.fileTypes.LanguageFileType;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiFile;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.indexing.*;
+import com.intellij.util.Processor;
 import com.intellij.util.indexing.FileBasedIndex.InputFilter;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
 import com.intellij.util.io.KeyDescriptor;
+import de.halirutan.mathematica.file.MathematicaDataFiles;
 import de.halirutan.mathematica.lang.MathematicaLanguage;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
- * Simple file index for functions that are exported from a package by giving them a usage message.
+ * Simple file index for functions that are exported from a package by giving them a usage message. The index is keyed
+ * by the symbol name and stores the context and offset of every usage message of this name in a file, ordered by
+ * their position. A file can contain several, e.g. when it defines more than one package or when a symbol gets a
+ * usage message in a private context as well. Looking up a symbol is one exact key access and its cost only depends
+ * on the number of packages that export this name.
+ * The exports are found by {@link PackageExportScanner} from the tokens of a file without building PSI.
+ *
  * @author patrick (01.11.16).
  */
-public class MathematicaPackageExportIndex extends ScalarIndexExtension<PackageExportSymbol> {
+public class MathematicaPackageExportIndex extends FileBasedIndexExtension<String, List<PackageExportSymbol>> {
 
-  public static final ID<PackageExportSymbol, Void> INDEX_ID = ID.create("Mathematica.fileExports");
-  private static final int BASE_VERSION = 13;
+  public static final ID<String, List<PackageExportSymbol>> INDEX_ID = ID.create("Mathematica.fileExports");
+  private static final int BASE_VERSION = 18;
   private static final LanguageFileType MATHEMATICA_FILE_TYPE = MathematicaLanguage.INSTANCE.getAssociatedFileType();
   private static final Set<String> IGNORED_FILES = new HashSet<>();
 
@@ -50,6 +64,27 @@ public class MathematicaPackageExportIndex extends ScalarIndexExtension<PackageE
     IGNORED_FILES.add("init.m");
   }
 
+  private static final DataExternalizer<List<PackageExportSymbol>> EXTERNALIZER =
+      new DataExternalizer<List<PackageExportSymbol>>() {
+        @Override
+        public void save(@NotNull DataOutput out, List<PackageExportSymbol> value) throws IOException {
+          DataInputOutputUtil.writeINT(out, value.size());
+          for (PackageExportSymbol symbol : value) {
+            PackageExportSymbol.INSTANCE.save(out, symbol);
+          }
+        }
+
+        @Override
+        public List<PackageExportSymbol> read(@NotNull DataInput in) throws IOException {
+          final int size = DataInputOutputUtil.readINT(in);
+          final List<PackageExportSymbol> result = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            result.add(PackageExportSymbol.INSTANCE.read(in));
+          }
+          return result;
+        }
+      };
+
   @NotNull
   @Override
   public InputFilter getInputFilter() {
@@ -63,11 +98,57 @@ public class MathematicaPackageExportIndex extends ScalarIndexExtension<PackageE
     };
   }
 
-  public static List<String> getSymbolNames(Project project) {
-    return FileBasedIndex.getInstance().getAllKeys(INDEX_ID, project).stream().map(PackageExportSymbol::getSymbol)
-                         .collect(Collectors.toList());
+  public static Collection<String> getSymbolNames(Project project) {
+    return FileBasedIndex.getInstance().getAllKeys(INDEX_ID, project);
+  }
+
+  /**
+   * Processes the names of all exported symbols without collecting them first. Returning false from the processor
+   * stops the processing.
+   */
+  public static boolean processSymbolNames(@NotNull GlobalSearchScope scope, @NotNull Processor<String> processor) {
+    return FileBasedIndex.getInstance().processAllKeys(INDEX_ID, processor, scope, null);
+  }
+
+  /**
+   * Processes all exported definitions of a symbol that are visible in the given scope.
+   *
+   * @param symbolName name of the symbol without context
+   * @param scope      search scope, usually the module with its dependencies and libraries
+   * @param processor  gets the file and the export information, once for every usage message of the symbol in the
+   *                   file. Returning false stops the processing.
+   * @return false if the processor stopped the processing, true otherwise
+   */
+  public static boolean processExports(@NotNull String symbolName,
+                                       @NotNull GlobalSearchScope scope,
+                                       @NotNull FileBasedIndex.ValueProcessor<PackageExportSymbol> processor) {
+    return FileBasedIndex.getInstance().processValues(INDEX_ID, symbolName, null, (file, exports) -> {
+      for (PackageExportSymbol export : exports) {
+        if (!processor.process(file, export)) {
+          return false;
+        }
+      }
+      return true;
+    }, MathematicaDataFiles.withoutMarkedFiles(scope));
   }
 
+  /**
+   * Collects all exported definitions of a symbol together with the file where they were found.
+   *
+   * @param symbolName name of the symbol without context
+   * @param scope      search scope, usually the module with its dependencies and libraries
+   * @return map of all files that export the symbol to their exports of this name, ordered by their position
+   */
+  @NotNull
+  public static Map<VirtualFile, List<PackageExportSymbol>> getExports(@NotNull String symbolName,
+                                                                        @NotNull GlobalSearchScope scope) {
+    final Map<VirtualFile, List<PackageExportSymbol>> result = new LinkedHashMap<>();
+    processExports(symbolName, scope, (file, value) -> {
+      result.computeIfAbsent(file, f -> new ArrayList<>()).add(value);
+      return true;
+    });
+    return result;
+  }
 
   @Override
   public boolean indexDirectories() {
@@ -81,22 +162,23 @@ public class MathematicaPackageExportIndex extends ScalarIndexExtension<PackageE
 
   @NotNull
   @Override
-  public ID<PackageExportSymbol, Void> getName() {
+  public ID<String, List<PackageExportSymbol>> getName() {
     return INDEX_ID;
   }
 
   @NotNull
   @Override
-  public DataIndexer<PackageExportSymbol, Void, FileContent> getIndexer() {
+  public DataIndexer<String, List<PackageExportSymbol>, FileContent> getIndexer() {
     return inputData -> {
-      final PsiFile psiFile = inputData.getPsiFile();
-      PackageClassifier visitor = new PackageClassifier();
-      psiFile.accept(visitor);
-      final Collection<PackageExportSymbol> listOfExportSymbols = visitor.getMyExportInfo();
+      if (MathematicaDataFiles.isDataContent(inputData.getContentAsText())) {
+        return Collections.emptyMap();
+      }
+      final Collection<PackageExportSymbol> listOfExportSymbols =
+          PackageExportScanner.scan(inputData.getFileName(), inputData.getContentAsText());
 
-      final Map<PackageExportSymbol, Void> map = new HashMap<>();
+      final Map<String, List<PackageExportSymbol>> map = new HashMap<>();
       for (PackageExportSymbol symbol : listOfExportSymbols) {
-        map.putIfAbsent(symbol, null);
+        map.computeIfAbsent(symbol.getSymbol(), name -> new ArrayList<>()).add(symbol);
       }
       return map;
     };
@@ -104,8 +186,14 @@ public class MathematicaPackageExportIndex extends ScalarIndexExtension<PackageE
 
   @NotNull
   @Override
-  public KeyDescriptor<PackageExportSymbol> getKeyDescriptor() {
-    return PackageExportSymbol.INSTANCE;
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<PackageExportSymbol>> getValueExternalizer() {
+    return EXTERNALIZER;
   }
 
   @Override
@@ -26,7 +26,9 @@ package de.halirutan.mathematica.index.packageexport
 import com.intellij.psi.PsiElement
 import com.intellij.psi.PsiFile
 import de.halirutan.mathematica.index.PackageUtil
+import de.halirutan.mathematica.lang.psi.FunctionHeads
 import de.halirutan.mathematica.lang.psi.MathematicaVisitor
+import de.halirutan.mathematica.lang.psi.SymbolNames
 import de.halirutan.mathematica.lang.psi.api.CompoundExpression
 import de.halirutan.mathematica.lang.psi.api.FunctionCall
 import de.halirutan.mathematica.lang.psi.api.MessageName
@@ -56,20 +58,20 @@ class PackageClassifier internal constructor() : MathematicaVisitor() {
   }
 
   override fun visitFunctionCall(functionCall: FunctionCall) {
-    if (functionCall.matchesHead("BeginPackage")) {
+    if (functionCall.hasHead(SymbolNames.BeginPackage)) {
       val beginPackageContext = MathematicaPsiUtilities.getBeginPackageContext(functionCall)
       myContextStack.push(beginPackageContext ?: "")
       beginPackageContext.let {
         myExportInfo.add(PackageExportSymbol(myFileName, it, beginPackageContext, true, functionCall.textOffset))
       }
-    } else if (functionCall.matchesHead("Begin")) {
+    } else if (functionCall.hasHead(SymbolNames.Begin)) {
       val beginContext = MathematicaPsiUtilities.getBeginContext(functionCall)
       myContextStack.push(beginContext ?: "")
-    } else if (functionCall.matchesHead("End") || functionCall.matchesHead("EndPackage")) {
+    } else if (functionCall.hasHead(FunctionHeads.PACKAGE_ENDS)) {
       if (!myContextStack.empty()) {
         myContextStack.pop()
       }
-    } else if (functionCall.matchesHead("If")) {
+    } else if (functionCall.hasHead(SymbolNames.If)) {
       functionCall.acceptChildren(this)
     }
   }
@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.index.packageexport;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import de.halirutan.mathematica.index.PackageUtil;
+import de.halirutan.mathematica.index.usagemessage.UsageMessage;
+import de.halirutan.mathematica.lang.lexer.MathematicaLexer;
+import de.halirutan.mathematica.lang.psi.SymbolNames;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+import static de.halirutan.mathematica.lang.parsing.MathematicaElementTypes.*;
+
+/**
+ * Finds the exported symbols of a package with the lexer only. It recognizes the same top-level constructs as the
+ * PSI based {@link PackageClassifier}: calls to <code >BeginPackage</code>, <code >Begin</code>, <code >End</code>
+ * and <code >EndPackage</code> and <code >sym::usage = ...</code> assignments. These need to form a complete
+ * statement at file level or inside the arguments of a top-level <code >If</code>. A statement ends at a semicolon,
+ * at a comma or closing bracket of an enclosing <code >If</code>, or at a line break on file level after a token that
+ * can end an expression.
+ * <p>
+ * In the same pass, the texts of the usage messages are collected when the right side consists only of strings that
+ * are possibly joined with <code >&lt;&gt;</code>. Additionally, the full names of all contexts that are opened
+ * with <code >BeginPackage</code> or <code >Begin</code> are collected so that a file can be found by its context.
+ * <p>
+ * No PSI is built, so indexing large library roots is not bound by the parser. A scanner keeps no state between
+ * calls of {@link #scan} and each call uses its own lexer, so it can run on all indexing threads in parallel.
+ */
+public class PackageExportScanner {
+
+  private static final String USAGE = "usage";
+  private static final Set<String> CALLS = new HashSet<>(Arrays.asList(
+      SymbolNames.BeginPackage, SymbolNames.Begin, SymbolNames.End, SymbolNames.EndPackage, SymbolNames.If));
+  private static final TokenSet SKIPPED = TokenSet.create(WHITE_SPACE, COMMENT);
+  private static final TokenSet OPENING = TokenSet.create(LEFT_BRACE, LEFT_BRACKET, LEFT_PAR, LEFT_ASSOCIATION);
+  private static final TokenSet CLOSING = TokenSet.create(RIGHT_BRACE, RIGHT_BRACKET, RIGHT_PAR, RIGHT_ASSOCIATION);
+  private static final TokenSet EXPRESSION_ENDS = TokenSet.create(
+      IDENTIFIER, NUMBER, STRING_LITERAL_END, STRINGIFIED_IDENTIFIER,
+      RIGHT_BRACE, RIGHT_BRACKET, RIGHT_PAR, RIGHT_ASSOCIATION,
+      BLANK, BLANK_SEQUENCE, BLANK_NULL_SEQUENCE, DEFAULT, SLOT, ASSOCIATION_SLOT, OUT,
+      FUNCTION, INCREMENT, DECREMENT, EXCLAMATION_MARK, DERIVATIVE, REPEATED, REPEATED_NULL, SEMICOLON);
+
+  private final String myFileName;
+  private final CharSequence myText;
+  private final Set<PackageExportSymbol> myExports = new LinkedHashSet<>();
+  private final List<UsageMessage> myUsageMessages = new ArrayList<>();
+  private final Map<String, Integer> myContexts = new LinkedHashMap<>();
+  private final List<String> myContextStack = new ArrayList<>();
+
+  // the significant tokens of the file
+  private IElementType[] myTypes = new IElementType[1024];
+  private int[] myStarts = new int[1024];
+  private int[] myEnds = new int[1024];
+  private boolean[] myLineBreakBefore = new boolean[1024];
+  private int mySize = 0;
+
+  // true for each open bracket that is the argument list of a top-level If
+  private final Deque<Boolean> myOpenBrackets = new ArrayDeque<>();
+
+  private PackageExportScanner(@NotNull String fileName, @NotNull CharSequence text) {
+    myFileName = fileName;
+    myText = text;
+  }
+
+  /**
+   * Scans the content of a file for exported symbols.
+   *
+   * @param fileName name of the file that is stored with each export
+   * @param text     content of the file
+   * @return the exports in the order they appear in the file
+   */
+  @NotNull
+  public static Collection<PackageExportSymbol> scan(@NotNull String fileName, @NotNull CharSequence text) {
+    return run(fileName, text).myExports;
+  }
+
+  /**
+   * Scans the content of a file for the texts of usage messages.
+   *
+   * @param fileName name of the file that is stored with each usage message
+   * @param text     content of the file
+   * @return the usage messages in the order they appear in the file
+   */
+  @NotNull
+  public static List<UsageMessage> scanUsageMessages(@NotNull String fileName, @NotNull CharSequence text) {
+    return run(fileName, text).myUsageMessages;
+  }
+
+  /**
+   * Scans the content of a file for the contexts that are opened by <code >BeginPackage</code> and
+   * <code >Begin</code>. Relative contexts are resolved against the enclosing ones.
+   *
+   * @param fileName name of the scanned file
+   * @param text     content of the file
+   * @return the full context names together with the offset of their first opening call
+   */
+  @NotNull
+  public static Map<String, Integer> scanContexts(@NotNull String fileName, @NotNull CharSequence text) {
+    return run(fileName, text).myContexts;
+  }
+
+  @NotNull
+  private static PackageExportScanner run(@NotNull String fileName, @NotNull CharSequence text) {
+    final PackageExportScanner scanner = new PackageExportScanner(fileName, text);
+    scanner.tokenize();
+    scanner.scanStatements();
+    return scanner;
+  }
+
+  private void tokenize() {
+    final Lexer lexer = new MathematicaLexer();
+    lexer.start(myText);
+    boolean lineBreak = false;
+    for (IElementType type = lexer.getTokenType(); type != null; lexer.advance(), type = lexer.getTokenType()) {
+      if (type == LINE_BREAK) {
+        lineBreak = true;
+      } else if (!SKIPPED.contains(type)) {
+        if (mySize == myTypes.length) {
+          final int capacity = mySize * 2;
+          myTypes = Arrays.copyOf(myTypes, capacity);
+          myStarts = Arrays.copyOf(myStarts, capacity);
+          myEnds = Arrays.copyOf(myEnds, capacity);
+          myLineBreakBefore = Arrays.copyOf(myLineBreakBefore, capacity);
+        }
+        myTypes[mySize] = type;
+        myStarts[mySize] = lexer.getTokenStart();
+        myEnds[mySize] = lexer.getTokenEnd();
+        myLineBreakBefore[mySize] = lineBreak;
+        mySize++;
+        lineBreak = false;
+      }
+    }
+  }
+
+  private void scanStatements() {
+    boolean statementStart = true;
+    int i = 0;
+    while (i < mySize) {
+      final IElementType type = myTypes[i];
+      final boolean statementLevel = isStatementLevel();
+      if (statementLevel && myOpenBrackets.isEmpty() && myLineBreakBefore[i] && i > 0 &&
+          EXPRESSION_ENDS.contains(myTypes[i - 1])) {
+        statementStart = true;
+      }
+      if (statementLevel && statementStart && type == IDENTIFIER) {
+        final int next = scanStatement(i);
+        if (next > i) {
+          i = next;
+          statementStart = true;
+          continue;
+        }
+      }
+
+      if (OPENING.contains(type)) {
+        myOpenBrackets.push(false);
+      } else if (CLOSING.contains(type)) {
+        if (!myOpenBrackets.isEmpty()) {
+          myOpenBrackets.pop();
+        }
+      }
+      statementStart = statementLevel && (type == SEMICOLON || type == COMMA && !myOpenBrackets.isEmpty());
+      i++;
+    }
+  }
+
+  private boolean isStatementLevel() {
+    return myOpenBrackets.isEmpty() || myOpenBrackets.peek();
+  }
+
+  /**
+   * Checks whether the statement starting at the identifier at <code >index</code> is one of the recognized
+   * constructs.
+   *
+   * @return the index after the consumed tokens or <code >index</code> if nothing was recognized
+   */
+  private int scanStatement(int index) {
+    final String name = text(index);
+    if (isUsageAssignment(index)) {
+      final int contextEnd = name.lastIndexOf('`');
+      final String symbolName = contextEnd == -1 ? name : name.substring(contextEnd + 1);
+      final String context = PackageUtil.buildContext(myContextStack);
+      myExports.add(new PackageExportSymbol(myFileName, context, symbolName, true, myStarts[index]));
+      final String usage = getJoinedStrings(index + 4);
+      if (usage != null) {
+        final String usageContext = contextEnd == -1 ? context :
+            name.startsWith("`") ? context + name.substring(1, contextEnd + 1) : name.substring(0, contextEnd + 1);
+        myUsageMessages.add(new UsageMessage(myFileName, usageContext, symbolName, usage, myStarts[index]));
+      }
+      // the right side is skipped as usual
+      return index;
+    }
+
+    if (!CALLS.contains(name) ||
+        !isTokenInStatement(index + 1, LEFT_BRACKET) || isTokenInStatement(index + 2, LEFT_BRACKET)) {
+      return index;
+    }
+    final int closing = findClosingBracket(index + 1);
+    if (closing == -1 || !isStatementEnd(closing + 1)) {
+      return index;
+    }
+
+    switch (name) {
+      case SymbolNames.BeginPackage: {
+        final String context = getStringArgument(index + 2, closing);
+        myContextStack.add(context == null ? "" : context);
+        if (context != null) {
+          myExports.add(new PackageExportSymbol(myFileName, context, context, true, myStarts[index]));
+          addContext(index);
+        }
+        return closing + 1;
+      }
+      case SymbolNames.Begin: {
+        final String context = getStringArgument(index + 2, closing);
+        myContextStack.add(context == null ? "" : context);
+        if (context != null) {
+          addContext(index);
+        }
+        return closing + 1;
+      }
+      case SymbolNames.End:
+      case SymbolNames.EndPackage:
+        if (!myContextStack.isEmpty()) {
+          myContextStack.remove(myContextStack.size() - 1);
+        }
+        return closing + 1;
+      case SymbolNames.If:
+        // the arguments of If are scanned like top-level statements
+        myOpenBrackets.push(true);
+        return index + 2;
+      default:
+        return index;
+    }
+  }
+
+  private void addContext(int index) {
+    myContexts.putIfAbsent(PackageUtil.buildContext(myContextStack), myStarts[index]);
+  }
+
+  private boolean isUsageAssignment(int index) {
+    return isTokenInStatement(index + 1, DOUBLE_COLON) &&
+        isTokenInStatement(index + 2, IDENTIFIER) && USAGE.equals(text(index + 2)) &&
+        isTokenInStatement(index + 3, SET);
+  }
+
+  /**
+   * True if the token at <code >index</code> has the given type and continues the current statement. On file level,
+   * a line break between two tokens of a statement is not allowed here, since it may end the statement.
+   */
+  private boolean isTokenInStatement(int index, @NotNull IElementType type) {
+    return index < mySize && myTypes[index] == type && (!myOpenBrackets.isEmpty() || !myLineBreakBefore[index]);
+  }
+
+  private boolean isStatementEnd(int index) {
+    if (index >= mySize || myTypes[index] == SEMICOLON) {
+      return true;
+    }
+    if (myOpenBrackets.isEmpty()) {
+      return myLineBreakBefore[index];
+    }
+    return myTypes[index] == COMMA || myTypes[index] == RIGHT_BRACKET;
+  }
+
+  private int findClosingBracket(int opening) {
+    int depth = 0;
+    for (int i = opening; i < mySize; i++) {
+      if (OPENING.contains(myTypes[i])) {
+        depth++;
+      } else if (CLOSING.contains(myTypes[i]) && --depth == 0) {
+        return myTypes[i] == RIGHT_BRACKET ? i : -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the content of a string that is the complete first argument of a call.
+   *
+   * @param index   index of the first token of the argument
+   * @param closing index of the closing bracket of the call
+   */
+  @Nullable
+  private String getStringArgument(int index, int closing) {
+    if (index >= closing || myTypes[index] != STRING_LITERAL_BEGIN) {
+      return null;
+    }
+    int end = index + 1;
+    while (end < closing && myTypes[end] != STRING_LITERAL_END) {
+      end++;
+    }
+    if (end >= closing || myTypes[end + 1] != COMMA && end + 1 != closing) {
+      return null;
+    }
+    return myText.subSequence(myEnds[index], myStarts[end]).toString();
+  }
+
+  /**
+   * Returns the concatenated content of the strings starting at <code >index</code> when they are joined with
+   * <code >&lt;&gt;</code> and form the rest of the statement.
+   */
+  @Nullable
+  private String getJoinedStrings(int index) {
+    final StringBuilder result = new StringBuilder();
+    int begin = index;
+    while (begin < mySize && myTypes[begin] == STRING_LITERAL_BEGIN) {
+      int end = begin + 1;
+      while (end < mySize && myTypes[end] != STRING_LITERAL_END) {
+        end++;
+      }
+      if (end == mySize) {
+        return null;
+      }
+      result.append(myText, myEnds[begin], myStarts[end]);
+      if (isStatementEnd(end + 1)) {
+        return result.toString();
+      }
+      if (!isTokenInStatement(end + 1, STRING_JOIN)) {
+        return null;
+      }
+      begin = end + 2;
+    }
+    return null;
+  }
+
+  @NotNull
+  private String text(int index) {
+    return myText.subSequence(myStarts[index], myEnds[index]).toString();
+  }
+}
@@ -23,7 +23,7 @@
 package de.halirutan.mathematica.index.packageexport;
 
 import com.intellij.util.io.IOUtil;
-import com.intellij.util.io.KeyDescriptor;
+import com.intellij.util.io.DataExternalizer;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.DataInput;
@@ -32,11 +32,12 @@ import java.io.IOException;
 import java.util.Objects;
 
 /** Provides the information for exactly one symbol that is exported from a package.
- * The export only indexes symbols that have a usage message at file level (not nested insider deeper code)
+ * The export only indexes symbols that have a usage message at file level (not nested insider deeper code).
+ * Instances are stored as values of {@link MathematicaPackageExportIndex} under the name of the symbol.
  *
  * @author patrick (01.11.16).
  */
-public class PackageExportSymbol implements KeyDescriptor<PackageExportSymbol> {
+public class PackageExportSymbol implements DataExternalizer<PackageExportSymbol> {
 
   public static final PackageExportSymbol INSTANCE = new PackageExportSymbol();
 
@@ -62,7 +63,6 @@ public class PackageExportSymbol implements KeyDescriptor<PackageExportSymbol> {
     return myFileName;
   }
 
-  @SuppressWarnings("unused")
   public String getNameSpace() {
     return myNameSpace;
   }
@@ -122,14 +122,4 @@ public class PackageExportSymbol implements KeyDescriptor<PackageExportSymbol> {
         Objects.equals(myFileName, ((PackageExportSymbol) obj).myFileName) &&
         myOffset == ((PackageExportSymbol) obj).myOffset;
   }
-
-  @Override
-  public int getHashCode(PackageExportSymbol value) {
-    return value.hashCode();
-  }
-
-  @Override
-  public boolean isEqual(PackageExportSymbol val1, PackageExportSymbol val2) {
-    return val1.equals(val2);
-  }
 }
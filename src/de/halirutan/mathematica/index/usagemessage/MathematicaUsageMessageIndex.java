@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.index.usagemessage;
+
+import com.intellij.openapi.fileTypes.LanguageFileType;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.indexing.FileBasedIndex.InputFilter;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import de.halirutan.mathematica.file.MathematicaDataFiles;
+import de.halirutan.mathematica.index.packageexport.MathematicaPackageExportIndex;
+import de.halirutan.mathematica.index.packageexport.PackageExportScanner;
+import de.halirutan.mathematica.lang.MathematicaLanguage;
+import de.halirutan.mathematica.lang.psi.api.Symbol;
+import de.halirutan.mathematica.lang.resolve.MathematicaGlobalSymbolResolver;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File index of the usage messages <code >symbol::usage = "..."</code> that {@link PackageExportScanner} finds. Each
+ * message is stored under the fully qualified name of its symbol, e.g. <code >MyPackage`f</code>, and under the name
+ * without context. Lookups use the fully qualified name whenever it is known, the name without context only finds the
+ * messages of the file itself and of symbols that no loaded package exports.
+ */
+public class MathematicaUsageMessageIndex extends FileBasedIndexExtension<String, UsageMessage> {
+
+  public static final ID<String, UsageMessage> INDEX_ID = ID.create("Mathematica.usageMessages");
+  private static final int BASE_VERSION = 2;
+  private static final LanguageFileType MATHEMATICA_FILE_TYPE = MathematicaLanguage.INSTANCE.getAssociatedFileType();
+
+  /**
+   * Finds the usage message of a symbol in the files the symbol can come from. The symbol is resolved to its fully
+   * qualified name in this order:
+   * <ul>
+   * <li>a symbol written with context, e.g. <code >MyPackage`f</code>, is looked up with exactly this name,</li>
+   * <li>a usage message in the file of the symbol belongs to the symbol,</li>
+   * <li>the packages the file loads give the context under which <code >f</code> is exported, see
+   * {@link MathematicaGlobalSymbolResolver#getImportScope}.</li>
+   * </ul>
+   * Only if no package exports the symbol, the name without context is looked up in the loaded packages.
+   *
+   * @param symbol symbol to look up
+   * @return the usage message or null if none was found
+   */
+  @Nullable
+  public static UsageMessage findUsageMessage(@NotNull Symbol symbol) {
+    final PsiFile file = symbol.getContainingFile().getOriginalFile();
+    final Project project = file.getProject();
+    final VirtualFile virtualFile = file.getVirtualFile();
+    final Module module = virtualFile != null ? ModuleUtilCore.findModuleForFile(virtualFile, project) : null;
+    final GlobalSearchScope moduleScope = module != null ?
+        GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(module) :
+        GlobalSearchScope.allScope(project);
+
+    final String symbolName = symbol.getSymbolName();
+    if (!symbolName.equals(symbol.getFullSymbolName())) {
+      return findFirst(symbol.getFullSymbolName(), moduleScope);
+    }
+    if (virtualFile != null) {
+      final UsageMessage local = findFirst(symbolName, GlobalSearchScope.fileScope(project, virtualFile));
+      if (local != null) {
+        return local;
+      }
+    }
+
+    final GlobalSearchScope importScope = MathematicaGlobalSymbolResolver.getImportScope(file, moduleScope);
+    final Ref<UsageMessage> result = Ref.create();
+    MathematicaPackageExportIndex.processExports(symbolName, importScope, (exportingFile, export) -> {
+      final String qualifiedName = export.getNameSpace() + symbolName;
+      result.set(findFirst(qualifiedName, GlobalSearchScope.fileScope(project, exportingFile)));
+      return result.isNull();
+    });
+    return result.isNull() ? findFirst(symbolName, importScope) : result.get();
+  }
+
+  @Nullable
+  private static UsageMessage findFirst(@NotNull String key, @NotNull GlobalSearchScope scope) {
+    final Ref<UsageMessage> result = Ref.create();
+    FileBasedIndex.getInstance().processValues(INDEX_ID, key, null, (virtualFile, message) -> {
+      result.set(message);
+      return false;
+    }, MathematicaDataFiles.withoutMarkedFiles(scope));
+    return result.get();
+  }
+
+  @NotNull
+  @Override
+  public InputFilter getInputFilter() {
+    return file -> file.getFileType() == MATHEMATICA_FILE_TYPE && !"nb".equals(file.getExtension());
+  }
+
+  @Override
+  public boolean indexDirectories() {
+    return false;
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @NotNull
+  @Override
+  public ID<String, UsageMessage> getName() {
+    return INDEX_ID;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, UsageMessage, FileContent> getIndexer() {
+    return inputData -> {
+      if (MathematicaDataFiles.isDataContent(inputData.getContentAsText())) {
+        return Collections.emptyMap();
+      }
+      final Map<String, UsageMessage> map = new HashMap<>();
+      final List<UsageMessage> messages =
+          PackageExportScanner.scanUsageMessages(inputData.getFileName(), inputData.getContentAsText());
+      for (UsageMessage message : messages) {
+        map.putIfAbsent(message.getFullSymbolName(), message);
+        map.putIfAbsent(message.getSymbolName(), message);
+      }
+      return map;
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<UsageMessage> getValueExternalizer() {
+    return UsageMessage.INSTANCE;
+  }
+
+  @Override
+  public int getVersion() {
+    return BASE_VERSION;
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.index.usagemessage;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The text of a <code >symbol::usage = "..."</code> assignment. The text is stored as it appears between the quotes,
+ * where several strings joined with <code >&lt;&gt;</code> are concatenated.
+ */
+public class UsageMessage implements DataExternalizer<UsageMessage> {
+
+  public static final UsageMessage INSTANCE = new UsageMessage();
+
+  private final String myFileName;
+  private final String myContext;
+  private final String mySymbolName;
+  private final String myText;
+  private final int myOffset;
+
+  public UsageMessage(@NotNull String fileName,
+                      @NotNull String context,
+                      @NotNull String symbolName,
+                      @NotNull String text,
+                      int offset) {
+    myFileName = fileName;
+    myContext = context;
+    mySymbolName = symbolName;
+    myText = text;
+    myOffset = offset;
+  }
+
+  private UsageMessage() {
+    this("", "", "", "", 0);
+  }
+
+  @NotNull
+  public String getFileName() {
+    return myFileName;
+  }
+
+  /**
+   * @return the context in which the usage message is defined, e.g. <code >MyPackage`</code>
+   */
+  @NotNull
+  public String getContext() {
+    return myContext;
+  }
+
+  @NotNull
+  public String getSymbolName() {
+    return mySymbolName;
+  }
+
+  @NotNull
+  public String getFullSymbolName() {
+    return myContext + mySymbolName;
+  }
+
+  /**
+   * @return offset of the symbol in <code >symbol::usage</code>
+   */
+  public int getOffset() {
+    return myOffset;
+  }
+
+  /**
+   * Splits the text at "\n" because this often indicates a new usage for a different call pattern. In addition, the
+   * ellipsis character is replaced by "...".
+   */
+  @NotNull
+  public List<String> getLines() {
+    return Arrays.asList(myText.replace("\\[Ellipsis]", "...").split("\\\\n"));
+  }
+
+  @Override
+  public void save(@NotNull DataOutput out, UsageMessage value) throws IOException {
+    IOUtil.writeUTF(out, value.myFileName);
+    IOUtil.writeUTF(out, value.myContext);
+    IOUtil.writeUTF(out, value.mySymbolName);
+    IOUtil.writeUTF(out, value.myText);
+    DataInputOutputUtil.writeINT(out, value.myOffset);
+  }
+
+  @Override
+  public UsageMessage read(@NotNull DataInput in) throws IOException {
+    final String fileName = IOUtil.readUTF(in);
+    final String context = IOUtil.readUTF(in);
+    final String symbolName = IOUtil.readUTF(in);
+    final String text = IOUtil.readUTF(in);
+    final int offset = DataInputOutputUtil.readINT(in);
+    return new UsageMessage(fileName, context, symbolName, text, offset);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = myFileName.hashCode();
+    hash = hash * 31 + myContext.hashCode();
+    hash = hash * 31 + mySymbolName.hashCode();
+    hash = hash * 31 + myText.hashCode();
+    hash = hash * 31 + myOffset;
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof UsageMessage)) {
+      return false;
+    }
+    if (obj == this) {
+      return true;
+    }
+    final UsageMessage other = (UsageMessage) obj;
+    return myOffset == other.myOffset &&
+        Objects.equals(myFileName, other.myFileName) &&
+        Objects.equals(myContext, other.myContext) &&
+        Objects.equals(mySymbolName, other.mySymbolName) &&
+        Objects.equals(myText, other.myText);
+  }
+}
@@ -25,6 +25,7 @@ package de.halirutan.mathematica.information;
 import com.intellij.openapi.components.ServiceManager;
 import de.halirutan.mathematica.information.impl.SymbolProperties;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 import java.util.Set;
@@ -51,6 +52,12 @@ public interface SymbolInformation {
 
   Set<String> getAllContexts();
 
+  /**
+   * @param tag message tag like <code>argx</code>
+   * @return true if the kernel defines <code>General::tag</code>, which makes the message available for every symbol
+   */
+  boolean isGeneralMessage(@NotNull String tag);
+
   Set<String> getSymbolsWithProperties();
 
   boolean hasProperties(@NotNull String nameWithContext);
@@ -67,4 +74,11 @@ public interface SymbolInformation {
   double getSymbolVersion(@NotNull String nameWithContext);
 
   boolean isVersionedSymbol(@NotNull String nameWithContext);
+
+  /**
+   * @param nameWithContext full symbol name, e.g. <code>System`Plot</code>
+   * @return the rendered html usage of a built-in symbol or null if there is none
+   */
+  @Nullable
+  String getUsagePage(@NotNull String nameWithContext);
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.information.impl;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.jar.JarEntry;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Opens the binary resources that are generated during the build, like the symbol database and the usage archive.
+ */
+final class MappedResource {
+
+  private static final Logger LOG = Logger.getInstance("#de.halirutan.mathematica.information.impl.MappedResource");
+
+  private MappedResource() {}
+
+  /**
+   * Memory-maps a resource of the plugin. If the resource lies inside the plugin jar, it is extracted once into the
+   * system directory of the IDE, because only real files can be memory-mapped. If mapping fails, the resource is
+   * loaded into memory instead.
+   *
+   * @param resource path of the resource
+   * @param name     name of the extracted file, which is completed by the checksum and the size of the resource
+   * @return the content of the resource or null if it does not exist
+   */
+  @Nullable
+  static ByteBuffer load(@NotNull String resource, @NotNull String name) {
+    final URL url = MappedResource.class.getClassLoader().getResource(resource);
+    if (url == null) {
+      return null;
+    }
+    try {
+      final File file = getFileForMapping(url, name);
+      if (file != null) {
+        return map(file);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Could not memory-map " + resource + ". Loading it into memory instead.", e);
+    }
+    try (InputStream stream = url.openStream()) {
+      return ByteBuffer.wrap(FileUtil.loadBytes(stream));
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not load " + resource, e);
+    }
+  }
+
+  @Nullable
+  private static File getFileForMapping(@NotNull URL url, @NotNull String name) throws IOException {
+    if ("file".equals(url.getProtocol())) {
+      try {
+        return new File(url.toURI());
+      } catch (URISyntaxException e) {
+        return null;
+      }
+    }
+    final URLConnection connection = url.openConnection();
+    if (!(connection instanceof JarURLConnection)) {
+      return null;
+    }
+    // size and checksum are read from the directory of the jar, so an unchanged resource is not read at all
+    final JarEntry entry = ((JarURLConnection) connection).getJarEntry();
+    final long size = entry.getSize();
+    if (size < 0) {
+      return null;
+    }
+    final File file = new File(PathManager.getSystemPath(),
+        "mathematica/" + name + "-" + Long.toHexString(entry.getCrc()) + "-" + size + ".bin");
+    if (!file.isFile() || file.length() != size) {
+      extract(connection, entry, file);
+    }
+    return file;
+  }
+
+  /**
+   * Extracts a resource into a temporary file next to its final location and moves it there when its checksum is
+   * correct. Therefore, the final file is always complete, even when the IDE is killed during the extraction or
+   * another IDE instance extracts the same resource at the same time.
+   */
+  private static void extract(@NotNull URLConnection connection, @NotNull JarEntry entry, @NotNull File file)
+      throws IOException {
+    FileUtil.createParentDirs(file);
+    final File tempFile = FileUtil.createTempFile(file.getParentFile(), file.getName(), ".tmp", true, false);
+    try {
+      final CRC32 crc = new CRC32();
+      try (InputStream stream = new CheckedInputStream(connection.getInputStream(), crc);
+           OutputStream out = new FileOutputStream(tempFile)) {
+        FileUtil.copy(stream, out);
+      }
+      if (entry.getCrc() != -1 && crc.getValue() != entry.getCrc()) {
+        throw new IOException("Checksum mismatch of " + entry.getName());
+      }
+      try {
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        // another instance might have moved its copy into place first
+        if (!file.isFile() || file.length() != entry.getSize()) {
+          throw e;
+        }
+      }
+    } finally {
+      FileUtil.delete(tempFile);
+    }
+  }
+
+  @NotNull
+  private static ByteBuffer map(@NotNull File file) throws IOException {
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+         FileChannel channel = randomAccessFile.getChannel()) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.information.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only view of a sorted string table inside the binary symbol database. The table consists of the number of
+ * strings <code>n</code>, followed by <code>n+1</code> offsets into the data block and the UTF-8 encoded strings
+ * themselves. The strings are sorted by their UTF-8 bytes so that a lookup is a binary search directly on the buffer
+ * and nothing is decoded before it is requested.
+ */
+final class SortedStringTable extends AbstractSet<String> {
+
+  private final ByteBuffer myBuffer;
+  private final int myStart;
+  private final int mySize;
+  private final int myDataStart;
+
+  SortedStringTable(@NotNull ByteBuffer buffer, int start) {
+    myBuffer = buffer;
+    myStart = start;
+    mySize = buffer.getInt(start);
+    myDataStart = start + 4 * (mySize + 2);
+  }
+
+  /**
+   * Binary search for a string.
+   *
+   * @param value the string to look up
+   * @return the index of the string or -1 if it is not contained
+   */
+  int indexOf(@NotNull String value) {
+    final byte[] key = value.getBytes(StandardCharsets.UTF_8);
+    int low = 0;
+    int high = mySize - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int cmp = compareAt(mid, key);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  @NotNull
+  String get(int index) {
+    final int from = dataOffset(index);
+    final int to = dataOffset(index + 1);
+    final byte[] bytes = new byte[to - from];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = myBuffer.get(from + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private int dataOffset(int index) {
+    return myDataStart + myBuffer.getInt(myStart + 4 * (index + 1));
+  }
+
+  private int compareAt(int index, byte[] key) {
+    final int from = dataOffset(index);
+    final int length = dataOffset(index + 1) - from;
+    final int common = Math.min(length, key.length);
+    for (int i = 0; i < common; i++) {
+      final int cmp = (myBuffer.get(from + i) & 0xFF) - (key[i] & 0xFF);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return length - key.length;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return o instanceof String && indexOf((String) o) >= 0;
+  }
+
+  @NotNull
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      private int myIndex = 0;
+
+      @Override
+      public boolean hasNext() {
+        return myIndex < mySize;
+      }
+
+      @Override
+      public String next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return get(myIndex++);
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return mySize;
+  }
+}
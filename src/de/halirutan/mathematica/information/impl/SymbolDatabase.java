@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.information.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Read access to the binary symbol database that is compiled from the JSON files in
+ * <code>de/halirutan/mathematica/codeinsight/completion</code> during the build by {@link SymbolDatabaseWriter}. The
+ * file is memory-mapped and all lookups work directly on the mapped buffer. Nothing is decoded until it is requested.
+ * <p>
+ * Layout (all numbers are big-endian ints if not stated otherwise):
+ * <pre>
+ *   header:      MAGIC, VERSION, offsets of the sections below
+ *   pool:        sorted string table of all strings that are referenced by property records
+ *   contexts:    sorted string table
+ *   context symbols, system symbols, version keys: sorted string tables
+ *   versions:    one double per version key
+ *   property keys: sorted string table
+ *   properties:  fixed-width records (context, name, importance, functionQ, list offset)
+ *   lists:       int area with count-prefixed pool ids for options, attributes and call patterns
+ *   general messages: sorted string table of the message tags of <code>General</code>
+ * </pre>
+ */
+final class SymbolDatabase {
+
+  static final String RESOURCE = "de/halirutan/mathematica/codeinsight/completion/SymbolInformation.bin";
+  static final int MAGIC = 0x4D534442;
+  static final int VERSION = 2;
+  static final int HEADER_SIZE = 4 * 12;
+  static final int RECORD_SIZE = 4 * 5;
+
+  private final ByteBuffer myBuffer;
+  private final SortedStringTable myPool;
+  private final SortedStringTable myContexts;
+  private final SortedStringTable myContextSymbols;
+  private final SortedStringTable mySystemSymbols;
+  private final SortedStringTable myVersionKeys;
+  private final int myVersionsStart;
+  private final SortedStringTable myPropertyKeys;
+  private final int myPropertiesStart;
+  private final int myListsStart;
+  private final SortedStringTable myGeneralMessages;
+
+  SymbolDatabase(@NotNull ByteBuffer buffer) {
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new IllegalStateException("Symbol database has an invalid format");
+    }
+    myBuffer = buffer;
+    myPool = new SortedStringTable(buffer, buffer.getInt(8));
+    myContexts = new SortedStringTable(buffer, buffer.getInt(12));
+    myContextSymbols = new SortedStringTable(buffer, buffer.getInt(16));
+    mySystemSymbols = new SortedStringTable(buffer, buffer.getInt(20));
+    myVersionKeys = new SortedStringTable(buffer, buffer.getInt(24));
+    myVersionsStart = buffer.getInt(28);
+    myPropertyKeys = new SortedStringTable(buffer, buffer.getInt(32));
+    myPropertiesStart = buffer.getInt(36);
+    myListsStart = buffer.getInt(40);
+    myGeneralMessages = new SortedStringTable(buffer, buffer.getInt(44));
+  }
+
+  /**
+   * Opens the database from the plugin resources.
+   */
+  @NotNull
+  static SymbolDatabase load() {
+    final ByteBuffer buffer = MappedResource.load(RESOURCE, "SymbolInformation-" + VERSION);
+    if (buffer == null) {
+      throw new IllegalStateException("Could not find the symbol database " + RESOURCE);
+    }
+    return new SymbolDatabase(buffer);
+  }
+
+  @NotNull
+  SortedStringTable getContexts() {
+    return myContexts;
+  }
+
+  @NotNull
+  SortedStringTable getContextSymbols() {
+    return myContextSymbols;
+  }
+
+  @NotNull
+  SortedStringTable getSystemSymbols() {
+    return mySystemSymbols;
+  }
+
+  @NotNull
+  SortedStringTable getPropertyKeys() {
+    return myPropertyKeys;
+  }
+
+  @NotNull
+  SortedStringTable getGeneralMessages() {
+    return myGeneralMessages;
+  }
+
+  boolean hasVersion(@NotNull String nameWithContext) {
+    return myVersionKeys.indexOf(nameWithContext) >= 0;
+  }
+
+  double getVersion(@NotNull String nameWithContext, double defaultValue) {
+    final int index = myVersionKeys.indexOf(nameWithContext);
+    return index < 0 ? defaultValue : myBuffer.getDouble(myVersionsStart + 8 * index);
+  }
+
+  @Nullable
+  SymbolProperties getProperties(@NotNull String nameWithContext) {
+    final int index = myPropertyKeys.indexOf(nameWithContext);
+    return index < 0 ? null : readProperties(index);
+  }
+
+  /**
+   * Provides a view of all symbol properties. The records are decoded while iterating.
+   */
+  @NotNull
+  Collection<SymbolProperties> getAllProperties() {
+    return new AbstractCollection<SymbolProperties>() {
+      @Override
+      public Iterator<SymbolProperties> iterator() {
+        return new Iterator<SymbolProperties>() {
+          private int myIndex = 0;
+
+          @Override
+          public boolean hasNext() {
+            return myIndex < myPropertyKeys.size();
+          }
+
+          @Override
+          public SymbolProperties next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            return readProperties(myIndex++);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return myPropertyKeys.size();
+      }
+    };
+  }
+
+  @NotNull
+  private SymbolProperties readProperties(int index) {
+    final int record = myPropertiesStart + RECORD_SIZE * index;
+    final String context = myPool.get(myBuffer.getInt(record));
+    final String name = myPool.get(myBuffer.getInt(record + 4));
+    final int importance = myBuffer.getInt(record + 8);
+    final boolean functionQ = myBuffer.getInt(record + 12) != 0;
+    int listPosition = myListsStart + 4 * myBuffer.getInt(record + 16);
+    final List<String> options = new ArrayList<>();
+    listPosition = readList(listPosition, options);
+    final List<String> attributes = new ArrayList<>();
+    listPosition = readList(listPosition, attributes);
+    final List<String> callPattern = new ArrayList<>();
+    readList(listPosition, callPattern);
+    return new SymbolProperties(context, name, functionQ, options, attributes, callPattern, importance);
+  }
+
+  private int readList(int position, @NotNull List<String> result) {
+    final int count = myBuffer.getInt(position);
+    for (int i = 1; i <= count; i++) {
+      result.add(myPool.get(myBuffer.getInt(position + 4 * i)));
+    }
+    return position + 4 * (count + 1);
+  }
+}
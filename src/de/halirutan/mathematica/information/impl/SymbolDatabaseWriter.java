@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.information.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compiles the JSON files with the symbol information into the binary format that is read by {@link SymbolDatabase}.
+ * This is called by the <code>generateSymbolDatabase</code> task during the build and is not used at runtime.
+ * <p>
+ * Usage: <code>SymbolDatabaseWriter &lt;directory with JSON files&gt; &lt;output file&gt;</code>
+ */
+public final class SymbolDatabaseWriter {
+
+  private static final Comparator<byte[]> UTF8_ORDER = (a, b) -> {
+    final int common = Math.min(a.length, b.length);
+    for (int i = 0; i < common; i++) {
+      final int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return a.length - b.length;
+  };
+
+  private SymbolDatabaseWriter() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Usage: SymbolDatabaseWriter <json directory> <output file>");
+    }
+    final File jsonDir = new File(args[0]);
+    final File output = new File(args[1]);
+    final File parent = output.getParentFile();
+    if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("Could not create " + parent);
+    }
+
+    final Gson gson = new Gson();
+    final Set<String> contexts = readJson(gson, new File(jsonDir, "Contexts.json"), new TypeToken<HashSet<String>>() {});
+    final Set<String> contextSymbols =
+        readJson(gson, new File(jsonDir, "ContextSymbolNames.json"), new TypeToken<HashSet<String>>() {});
+    final Set<String> systemSymbols =
+        readJson(gson, new File(jsonDir, "SystemSymbolNames.json"), new TypeToken<HashSet<String>>() {});
+    final Map<String, Double> versions =
+        readJson(gson, new File(jsonDir, "SymbolVersions.json"), new TypeToken<HashMap<String, Double>>() {});
+    final Map<String, SymbolProperties> properties =
+        readJson(gson, new File(jsonDir, "SymbolInformation.json"), new TypeToken<HashMap<String, SymbolProperties>>() {});
+    final Set<String> generalMessages =
+        readJson(gson, new File(jsonDir, "GeneralMessages.json"), new TypeToken<HashSet<String>>() {});
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)))) {
+      write(out, contexts, contextSymbols, systemSymbols, versions, properties, generalMessages);
+    }
+  }
+
+  private static <T> T readJson(@NotNull Gson gson, @NotNull File file, @NotNull TypeToken<T> type) throws IOException {
+    try (JsonReader reader = new JsonReader(new BufferedReader(
+        new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)))) {
+      return gson.fromJson(reader, type.getType());
+    }
+  }
+
+  static void write(@NotNull DataOutputStream out,
+                    @NotNull Collection<String> contexts,
+                    @NotNull Collection<String> contextSymbols,
+                    @NotNull Collection<String> systemSymbols,
+                    @NotNull Map<String, Double> versions,
+                    @NotNull Map<String, SymbolProperties> properties,
+                    @NotNull Collection<String> generalMessages) throws IOException {
+    final Set<String> poolStrings = new HashSet<>();
+    for (SymbolProperties p : properties.values()) {
+      poolStrings.add(nonNull(p.getContext()));
+      poolStrings.add(nonNull(p.getName()));
+      poolStrings.addAll(nonNull(p.getOptions()));
+      poolStrings.addAll(nonNull(p.getAttributes()));
+      poolStrings.addAll(nonNull(p.getCallPattern()));
+    }
+    final List<byte[]> pool = sorted(poolStrings);
+    final Map<String, Integer> poolIds = new HashMap<>(pool.size());
+    for (int i = 0; i < pool.size(); i++) {
+      poolIds.put(new String(pool.get(i), StandardCharsets.UTF_8), i);
+    }
+
+    final List<byte[]> versionKeys = sorted(versions.keySet());
+    final List<byte[]> propertyKeys = sorted(properties.keySet());
+
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    final DataOutputStream bodyOut = new DataOutputStream(body);
+    final int[] offsets = new int[10];
+
+    offsets[0] = SymbolDatabase.HEADER_SIZE + bodyOut.size();
+    writeTable(bodyOut, pool);
+    offsets[1] = SymbolDatabase.HEADER_SIZE + bodyOut.size();
+    writeTable(bodyOut, sorted(contexts));
+    offsets[2] = SymbolDatabase.HEADER_SIZE + bodyOut.size();
+    writeTable(bodyOut, sorted(contextSymbols));
+    offsets[3] = SymbolDatabase.HEADER_SIZE + bodyOut.size();
+    writeTable(bodyOut, sorted(systemSymbols));
+    offsets[4] = SymbolDatabase.HEADER_SIZE + bodyOut.size();
+    writeTable(bodyOut, versionKeys);
+    offsets[5] = SymbolDatabase.HEADER_SIZE + bodyOut.size();
+    for (byte[] key : versionKeys) {
+      bodyOut.writeDouble(versions.get(new String(key, StandardCharsets.UTF_8)));
+    }
+    offsets[6] = SymbolDatabase.HEADER_SIZE + bodyOut.size();
+    writeTable(bodyOut, propertyKeys);
+
+    offsets[7] = SymbolDatabase.HEADER_SIZE + bodyOut.size();
+    final List<Integer> lists = new ArrayList<>();
+    for (byte[] key : propertyKeys) {
+      final SymbolProperties p = properties.get(new String(key, StandardCharsets.UTF_8));
+      bodyOut.writeInt(poolIds.get(nonNull(p.getContext())));
+      bodyOut.writeInt(poolIds.get(nonNull(p.getName())));
+      bodyOut.writeInt(p.getImportance());
+      bodyOut.writeInt(p.isFunctionQ() ? 1 : 0);
+      bodyOut.writeInt(lists.size());
+      addList(lists, nonNull(p.getOptions()), poolIds);
+      addList(lists, nonNull(p.getAttributes()), poolIds);
+      addList(lists, nonNull(p.getCallPattern()), poolIds);
+    }
+    offsets[8] = SymbolDatabase.HEADER_SIZE + bodyOut.size();
+    for (int value : lists) {
+      bodyOut.writeInt(value);
+    }
+    offsets[9] = SymbolDatabase.HEADER_SIZE + bodyOut.size();
+    writeTable(bodyOut, sorted(generalMessages));
+    bodyOut.flush();
+
+    out.writeInt(SymbolDatabase.MAGIC);
+    out.writeInt(SymbolDatabase.VERSION);
+    for (int offset : offsets) {
+      out.writeInt(offset);
+    }
+    body.writeTo(out);
+  }
+
+  private static void addList(@NotNull List<Integer> lists, @NotNull List<String> values, @NotNull Map<String, Integer> poolIds) {
+    lists.add(values.size());
+    for (String value : values) {
+      lists.add(poolIds.get(value));
+    }
+  }
+
+  static void writeTable(@NotNull DataOutputStream out, @NotNull List<byte[]> strings) throws IOException {
+    out.writeInt(strings.size());
+    int offset = 0;
+    out.writeInt(offset);
+    for (byte[] string : strings) {
+      offset += string.length;
+      out.writeInt(offset);
+    }
+    for (byte[] string : strings) {
+      out.write(string);
+    }
+  }
+
+  @NotNull
+  static List<byte[]> sorted(@NotNull Collection<String> strings) {
+    final List<byte[]> result = new ArrayList<>(strings.size());
+    for (String string : new HashSet<>(strings)) {
+      result.add(string.getBytes(StandardCharsets.UTF_8));
+    }
+    result.sort(UTF8_ORDER);
+    return result;
+  }
+
+  @NotNull
+  private static String nonNull(String value) {
+    return value == null ? "" : value;
+  }
+
+  @NotNull
+  private static List<String> nonNull(List<String> value) {
+    return value == null ? Collections.emptyList() : value;
+  }
+}
@@ -22,39 +22,32 @@
 
 package de.halirutan.mathematica.information.impl;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
-import com.google.gson.stream.JsonReader;
+import com.intellij.openapi.util.AtomicNullableLazyValue;
 import de.halirutan.mathematica.information.SymbolInformation;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.regex.Pattern;
 
 /**
+ * Provides the symbol information from the binary {@link SymbolDatabase} that is compiled from the JSON files during
+ * the build. The database is memory-mapped and queried on demand so that nothing needs to be parsed at startup. The
+ * usage pages of built-in symbols come from the {@link UsageArchive}, which is opened when the first page is needed.
+ *
  * @author patrick (05.09.18).
  */
 public class SymbolInformationImpl implements SymbolInformation {
 
   private static final Pattern namedCharacterPattern = Pattern.compile("\\\\\\[[A-Z][a-zA-Z]+]");
   private Map<String, String> myNamedCharacters = convertNamedCharacters();
-  private Set<String> myContexts;
-  private Set<String> myContextSymbols;
-  private Set<String> mySystemSymbols;
-  private Map<String, Double> mySymbolVersions;
-  private Map<String, SymbolProperties> mySymbolProperties;
+  private final SymbolDatabase myDatabase;
+  private final AtomicNullableLazyValue<UsageArchive> myUsageArchive =
+      AtomicNullableLazyValue.createValue(UsageArchive::load);
 
   public SymbolInformationImpl() {
-    myContexts = loadJSONList("Contexts");
-    myContextSymbols =
-        loadJSONList("ContextSymbolNames");
-    mySystemSymbols = loadJSONList("SystemSymbolNames");
-    mySymbolProperties = loadSymbolProperties();
-    mySymbolVersions = loadSymbolVersions();
+    myDatabase = SymbolDatabase.load();
   }
 
 
@@ -81,48 +74,53 @@ public class SymbolInformationImpl implements SymbolInformation {
 
   @Override
   public boolean isSystemSymbol(@NotNull String nameWithoutContext) {
-    return mySystemSymbols.contains(nameWithoutContext);
+    return myDatabase.getSystemSymbols().contains(nameWithoutContext);
   }
 
   @Override
   public boolean isBuiltinSymbol(@NotNull String nameWithContext) {
-    return myContextSymbols.contains(nameWithContext);
+    return myDatabase.getContextSymbols().contains(nameWithContext);
   }
 
   @Override
   public Set<String> getContextSymbols() {
-    return myContextSymbols;
+    return myDatabase.getContextSymbols();
   }
 
   @Override
   public Set<String> getSystemSymbols() {
-    return mySystemSymbols;
+    return myDatabase.getSystemSymbols();
   }
 
   @Override
   public Set<String> getAllContexts() {
-    return myContexts;
+    return myDatabase.getContexts();
+  }
+
+  @Override
+  public boolean isGeneralMessage(@NotNull String tag) {
+    return myDatabase.getGeneralMessages().indexOf(tag) >= 0;
   }
 
   @Override
   public Set<String> getSymbolsWithProperties() {
-    return mySymbolProperties.keySet();
+    return myDatabase.getPropertyKeys();
   }
 
   @Override
   public boolean hasProperties(@NotNull String nameWithContext) {
-    return mySymbolProperties.containsKey(nameWithContext);
+    return myDatabase.getPropertyKeys().contains(nameWithContext);
   }
 
   @NotNull
   @Override
   public Collection<SymbolProperties> getAllSymbolProperties() {
-    return mySymbolProperties.values();
+    return myDatabase.getAllProperties();
   }
 
   @Override
   public SymbolProperties getSymbolProperties(@NotNull String nameWithContext) {
-    return mySymbolProperties.get(nameWithContext);
+    return myDatabase.getProperties(nameWithContext);
   }
 
   @Override
@@ -140,42 +138,18 @@ public class SymbolInformationImpl implements SymbolInformation {
 
   @Override
   public double getSymbolVersion(@NotNull String nameWithContext) {
-    return mySymbolVersions.getOrDefault(nameWithContext, -1.0);
+    return myDatabase.getVersion(nameWithContext, -1.0);
   }
 
   @Override
   public boolean isVersionedSymbol(@NotNull String nameWithContext) {
-    return mySymbolVersions.containsKey(nameWithContext);
-  }
-
-  private JsonReader getJsonReaderForFile(@NotNull String fileName) {
-    ClassLoader classLoader = getClass().getClassLoader();
-    final InputStream stream =
-        classLoader.getResourceAsStream(fileName);
-    return new JsonReader(new BufferedReader(new InputStreamReader(stream)));
+    return myDatabase.hasVersion(nameWithContext);
   }
 
-  private HashSet<String> loadJSONList(String fileName) {
-    Gson gson = new Gson();
-    final JsonReader reader =
-        getJsonReaderForFile("de/halirutan/mathematica/codeinsight/completion/" + fileName + ".json");
-    return gson.fromJson(reader, new TypeToken<HashSet<String>>() {
-    }.getType());
-  }
-
-  private HashMap<String, Double> loadSymbolVersions() {
-    Gson gson = new Gson();
-    final JsonReader reader =
-        getJsonReaderForFile("de/halirutan/mathematica/codeinsight/completion/SymbolVersions.json");
-    return gson.fromJson(reader, new TypeToken<HashMap<String, Double>>() {
-    }.getType());
-  }
-
-  private HashMap<String, SymbolProperties> loadSymbolProperties() {
-    Gson gson = new Gson();
-    JsonReader reader = getJsonReaderForFile("de/halirutan/mathematica/codeinsight/completion/SymbolInformation.json");
-    return gson.fromJson(reader, new TypeToken<HashMap<String, SymbolProperties>>() {
-    }.getType());
+  @Nullable
+  @Override
+  public String getUsagePage(@NotNull String nameWithContext) {
+    final UsageArchive archive = myUsageArchive.getValue();
+    return archive == null ? null : archive.getPage(nameWithContext);
   }
-
 }
@@ -36,6 +36,22 @@ public class SymbolProperties {
   private List<String> callPattern;
   private int importance;
 
+  @SuppressWarnings("unused")
+  private SymbolProperties() {
+    // used by Gson when the JSON files are compiled into the symbol database
+  }
+
+  SymbolProperties(String context, String name, boolean functionQ, List<String> options, List<String> attributes,
+                   List<String> callPattern, int importance) {
+    this.context = context;
+    this.name = name;
+    this.functionQ = functionQ;
+    this.options = options;
+    this.attributes = attributes;
+    this.callPattern = callPattern;
+    this.importance = importance;
+  }
+
   public String getContext() {
     return context;
   }
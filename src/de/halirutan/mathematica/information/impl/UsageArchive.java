@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.information.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read access to the html usage pages of all built-in symbols that are packed by {@link UsageArchiveWriter} during
+ * the build. The archive is memory-mapped, a page is found by a binary search over the names and only this page is
+ * decompressed. The most recently used pages are kept.
+ * <p>
+ * Layout (all numbers are big-endian ints):
+ * <pre>
+ *   header:      MAGIC, VERSION, offset of the names, offset and length of the dictionary, offset of the entries
+ *   names:       sorted string table of the full symbol names, e.g. System`Plot
+ *   dictionary:  preset dictionary that all pages are compressed with
+ *   entries:     fixed-width records (offset of the compressed page, compressed length, length)
+ *   data:        the deflated pages
+ * </pre>
+ */
+final class UsageArchive {
+
+  static final String RESOURCE = "de/halirutan/mathematica/documentation/Usages.bin";
+  static final int MAGIC = 0x4D555341;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 4 * 6;
+  static final int ENTRY_SIZE = 4 * 3;
+
+  private static final int MAX_CACHED_PAGES = 128;
+
+  private final ByteBuffer myBuffer;
+  private final SortedStringTable myNames;
+  private final byte[] myDictionary;
+  private final int myEntriesStart;
+  private final Map<String, String> myPages = new LinkedHashMap<String, String>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+      return size() > MAX_CACHED_PAGES;
+    }
+  };
+
+  UsageArchive(@NotNull ByteBuffer buffer) {
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new IllegalStateException("Usage archive has an invalid format");
+    }
+    myBuffer = buffer;
+    myNames = new SortedStringTable(buffer, buffer.getInt(8));
+    myDictionary = read(buffer.getInt(12), buffer.getInt(16));
+    myEntriesStart = buffer.getInt(20);
+  }
+
+  /**
+   * Opens the archive from the plugin resources.
+   *
+   * @return the archive or null if it was not packed into the plugin
+   */
+  @Nullable
+  static UsageArchive load() {
+    final ByteBuffer buffer = MappedResource.load(RESOURCE, "Usages-" + VERSION);
+    return buffer == null ? null : new UsageArchive(buffer);
+  }
+
+  /**
+   * @param nameWithContext full symbol name, e.g. <code>System`Plot</code>
+   * @return the html usage page or null if there is none for this symbol
+   */
+  @Nullable
+  String getPage(@NotNull String nameWithContext) {
+    synchronized (myPages) {
+      final String page = myPages.get(nameWithContext);
+      if (page != null) {
+        return page;
+      }
+    }
+    final int index = myNames.indexOf(nameWithContext);
+    if (index < 0) {
+      return null;
+    }
+    final int entry = myEntriesStart + ENTRY_SIZE * index;
+    final byte[] compressed = read(myBuffer.getInt(entry), myBuffer.getInt(entry + 4));
+    final String page = new String(decompress(compressed, myBuffer.getInt(entry + 8)), StandardCharsets.UTF_8);
+    synchronized (myPages) {
+      myPages.put(nameWithContext, page);
+    }
+    return page;
+  }
+
+  @NotNull
+  private byte[] read(int offset, int length) {
+    final byte[] result = new byte[length];
+    final ByteBuffer view = myBuffer.duplicate();
+    view.position(offset);
+    view.get(result);
+    return result;
+  }
+
+  @NotNull
+  private byte[] decompress(@NotNull byte[] compressed, int length) {
+    final Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(compressed);
+      final byte[] result = new byte[length];
+      int count = 0;
+      while (count < length) {
+        final int inflated = inflater.inflate(result, count, length - count);
+        if (inflated == 0) {
+          if (inflater.needsDictionary()) {
+            inflater.setDictionary(myDictionary);
+          } else if (inflater.finished() || inflater.needsInput()) {
+            throw new IllegalStateException("Usage archive entry is truncated");
+          }
+        }
+        count += inflated;
+      }
+      return result;
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Usage archive entry is corrupted", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
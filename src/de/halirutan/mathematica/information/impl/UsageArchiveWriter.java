@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.information.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * Packs the html usage pages that <code>CreateHtmlUsageForContext</code> of <code>IDEAPlugin.m</code> creates into
+ * the archive that is read by {@link UsageArchive}. The pages are found in one directory per context, e.g.
+ * <code>System/Plot.html</code>, and are stored under the full symbol name <code>System`Plot</code>. Each page is
+ * compressed on its own so that it can be read without touching the others. Since all pages share most of their
+ * markup, they are compressed with a preset dictionary that is sampled from the pages.
+ * This is called by the <code>generateUsageArchive</code> task during the build and is not used at runtime.
+ * <code>CreateUsageArchive</code> of <code>IDEAPlugin.m</code> recreates the pages from a kernel and runs that task.
+ * <p>
+ * Usage: <code>UsageArchiveWriter &lt;usage directory&gt; &lt;output file&gt;</code>
+ */
+public final class UsageArchiveWriter {
+
+  private static final String EXTENSION = ".html";
+  private static final int DICTIONARY_SIZE = 32 * 1024;
+  private static final int DICTIONARY_SAMPLE_STEP = 100;
+
+  private UsageArchiveWriter() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Usage: UsageArchiveWriter <usage directory> <output file>");
+    }
+    final Path usageDir = new File(args[0]).toPath();
+    final File output = new File(args[1]);
+    final File parent = output.getParentFile();
+    if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("Could not create " + parent);
+    }
+
+    final Map<String, byte[]> pages = new HashMap<>();
+    try (Stream<Path> paths = Files.walk(usageDir)) {
+      for (Path path : (Iterable<Path>) paths::iterator) {
+        final String relative = usageDir.relativize(path).toString().replace(File.separatorChar, '/');
+        if (Files.isRegularFile(path) && relative.endsWith(EXTENSION)) {
+          final String name = relative.substring(0, relative.length() - EXTENSION.length()).replace('/', '`');
+          pages.put(name, Files.readAllBytes(path));
+        }
+      }
+    }
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)))) {
+      write(out, pages);
+    }
+  }
+
+  static void write(@NotNull DataOutputStream out, @NotNull Map<String, byte[]> pages) throws IOException {
+    final List<byte[]> keys = SymbolDatabaseWriter.sorted(pages.keySet());
+    final List<byte[]> contents = new ArrayList<>(keys.size());
+    for (byte[] key : keys) {
+      contents.add(pages.get(new String(key, StandardCharsets.UTF_8)));
+    }
+    final byte[] dictionary = sampleDictionary(contents);
+
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    final DataOutputStream bodyOut = new DataOutputStream(body);
+    final int[] offsets = new int[3];
+
+    offsets[0] = UsageArchive.HEADER_SIZE + bodyOut.size();
+    SymbolDatabaseWriter.writeTable(bodyOut, keys);
+    offsets[1] = UsageArchive.HEADER_SIZE + bodyOut.size();
+    bodyOut.write(dictionary);
+
+    final List<byte[]> compressed = new ArrayList<>(contents.size());
+    final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try {
+      for (byte[] content : contents) {
+        compressed.add(compress(deflater, dictionary, content));
+      }
+    } finally {
+      deflater.end();
+    }
+
+    offsets[2] = UsageArchive.HEADER_SIZE + bodyOut.size();
+    final int dataStart = offsets[2] + UsageArchive.ENTRY_SIZE * compressed.size();
+    int position = dataStart;
+    for (int i = 0; i < compressed.size(); i++) {
+      bodyOut.writeInt(position);
+      bodyOut.writeInt(compressed.get(i).length);
+      bodyOut.writeInt(contents.get(i).length);
+      position += compressed.get(i).length;
+    }
+    for (byte[] entry : compressed) {
+      bodyOut.write(entry);
+    }
+    bodyOut.flush();
+
+    out.writeInt(UsageArchive.MAGIC);
+    out.writeInt(UsageArchive.VERSION);
+    out.writeInt(offsets[0]);
+    out.writeInt(offsets[1]);
+    out.writeInt(dictionary.length);
+    out.writeInt(offsets[2]);
+    body.writeTo(out);
+  }
+
+  /**
+   * Takes every n-th page until the dictionary is filled. Deflate finds matches best at the end of the dictionary,
+   * so the beginning is cut off when there is too much.
+   */
+  @NotNull
+  private static byte[] sampleDictionary(@NotNull List<byte[]> contents) {
+    final ByteArrayOutputStream samples = new ByteArrayOutputStream();
+    for (int i = 0; i < contents.size(); i += DICTIONARY_SAMPLE_STEP) {
+      samples.write(contents.get(i), 0, contents.get(i).length);
+    }
+    final byte[] all = samples.toByteArray();
+    return Arrays.copyOfRange(all, Math.max(0, all.length - DICTIONARY_SIZE), all.length);
+  }
+
+  @NotNull
+  private static byte[] compress(@NotNull Deflater deflater, @NotNull byte[] dictionary, @NotNull byte[] content) {
+    deflater.reset();
+    if (dictionary.length > 0) {
+      deflater.setDictionary(dictionary);
+    }
+    deflater.setInput(content);
+    deflater.finish();
+    final ByteArrayOutputStream result = new ByteArrayOutputStream(content.length / 2 + 16);
+    final byte[] buffer = new byte[8192];
+    while (!deflater.finished()) {
+      final int count = deflater.deflate(buffer);
+      result.write(buffer, 0, count);
+    }
+    return result.toByteArray();
+  }
+}
@@ -22,12 +22,60 @@
 package de.halirutan.mathematica.lang.lexer;
 
 import com.intellij.lexer.FlexAdapter;
+import com.intellij.lexer.FlexLexer;
+import com.intellij.psi.tree.IElementType;
 
-import java.io.Reader;
-
+import java.io.IOException;
 
+/**
+ * Adapter for the generated lexer. The state reported to the platform does not only contain the lexical state
+ * of JFlex but also the nesting information of comments and strings. Therefore, highlighting can restart lexing
+ * at any token of the document and arrives at exactly the same tokens as a complete run would.
+ */
 public class MathematicaLexer extends FlexAdapter {
   public MathematicaLexer() {
-    super(new _MathematicaLexer(null));
+    super(new RestartableFlexLexer(new _MathematicaLexer(null)));
+  }
+
+  /**
+   * Exposes the encoded state of {@link _MathematicaLexer} through the plain {@link FlexLexer} interface that
+   * {@link FlexAdapter} uses to query and restore states.
+   */
+  private static class RestartableFlexLexer implements FlexLexer {
+    private final _MathematicaLexer myLexer;
+
+    RestartableFlexLexer(_MathematicaLexer lexer) {
+      myLexer = lexer;
+    }
+
+    @Override
+    public void yybegin(int state) {
+      myLexer.restoreEncodedState(state);
+    }
+
+    @Override
+    public int yystate() {
+      return myLexer.getEncodedState();
+    }
+
+    @Override
+    public int getTokenStart() {
+      return myLexer.getTokenStart();
+    }
+
+    @Override
+    public int getTokenEnd() {
+      return myLexer.getTokenEnd();
+    }
+
+    @Override
+    public IElementType advance() throws IOException {
+      return myLexer.advance();
+    }
+
+    @Override
+    public void reset(CharSequence buf, int start, int end, int initialState) {
+      myLexer.resetEncoded(buf, start, end, initialState);
+    }
   }
 }
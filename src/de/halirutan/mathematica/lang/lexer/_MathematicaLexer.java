@@ -28,8 +28,6 @@ import com.intellij.lexer.FlexLexer;
 import com.intellij.psi.tree.IElementType;
 import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes;
 
-import java.util.LinkedList;
-
 @SuppressWarnings("ALL")
 
 /**
@@ -132,48 +130,48 @@ class _MathematicaLexer implements FlexLexer {
   /* The ZZ_CMAP_A table has 3136 entries */
   static final char ZZ_CMAP_A[] = zzUnpackCMap(
     "\11\0\1\3\1\1\1\54\1\55\1\2\22\0\1\3\1\44\1\30\1\27\1\7\1\31\1\52\1\53\1\4"+
-    "\1\6\1\5\1\45\1\47\1\26\1\24\1\40\1\15\1\23\1\17\1\20\3\21\3\22\1\41\1\43"+
+    "\1\6\1\5\1\45\1\47\1\26\1\24\1\40\1\15\1\20\1\21\1\22\3\23\3\17\1\41\1\43"+
     "\1\34\1\42\1\36\1\51\1\37\32\16\1\12\1\11\1\13\1\25\1\50\1\14\32\16\1\32\1"+
     "\35\1\33\1\46\6\0\1\54\24\0\1\7\12\0\1\7\4\0\1\7\5\0\27\7\1\0\12\7\4\0\14"+
     "\7\16\0\5\7\7\0\1\7\1\0\1\7\1\0\5\7\1\0\2\7\2\0\4\7\1\0\1\7\6\0\1\7\1\0\3"+
     "\7\1\0\1\7\1\0\4\7\1\0\23\7\1\0\13\7\10\0\6\7\1\0\26\7\2\0\1\7\6\0\10\7\10"+
     "\0\13\7\5\0\3\7\15\0\12\10\4\0\6\7\1\0\1\7\17\0\2\7\7\0\2\7\12\10\3\7\2\0"+
     "\2\7\1\0\16\7\15\0\11\7\13\0\1\7\16\0\12\10\6\7\4\0\2\7\4\0\1\7\5\0\6\7\4"+
-        "\0\1\7\11\0\1\7\3\0\1\7\7\0\11\7\7\0\5\7\1\0\10\7\6\0\26\7\3\0\1\7\2\0\1\7" +
-        "\7\0\12\7\4\0\12\10\1\7\4\0\10\7\2\0\2\7\2\0\26\7\1\0\7\7\1\0\1\7\3\0\4\7" +
-        "\3\0\1\7\20\0\1\7\15\0\2\7\1\0\1\7\5\0\6\7\4\0\2\7\1\0\2\7\1\0\2\7\1\0\2\7" +
-        "\17\0\4\7\1\0\1\7\7\0\12\10\2\0\3\7\20\0\11\7\1\0\2\7\1\0\2\7\1\0\5\7\3\0" +
-        "\1\7\2\0\1\7\30\0\1\7\13\0\10\7\2\0\1\7\3\0\1\7\1\0\6\7\3\0\3\7\1\0\4\7\3" +
-        "\0\2\7\1\0\1\7\1\0\2\7\3\0\2\7\3\0\3\7\3\0\14\7\13\0\10\7\1\0\2\7\10\0\3\7" +
-        "\5\0\1\7\4\0\10\7\1\0\6\7\1\0\5\7\3\0\1\7\3\0\2\7\15\0\13\7\2\0\1\7\6\0\3" +
-        "\7\10\0\1\7\12\0\6\7\5\0\22\7\3\0\10\7\1\0\11\7\1\0\1\7\2\0\7\7\11\0\1\7\1" +
-        "\0\2\7\14\0\12\10\7\0\2\7\1\0\1\7\2\0\2\7\1\0\1\7\2\0\1\7\6\0\4\7\1\0\7\7" +
-        "\1\0\3\7\1\0\1\7\1\0\1\7\2\0\2\7\1\0\4\7\1\0\2\7\11\0\1\7\2\0\5\7\1\0\1\7" +
-        "\11\0\12\10\2\0\14\7\1\0\24\7\13\0\5\7\22\0\7\7\4\0\4\7\3\0\1\7\3\0\2\7\7" +
-        "\0\3\7\4\0\15\7\14\0\1\7\1\0\6\7\1\0\1\7\5\0\1\7\2\0\13\7\1\0\15\7\1\0\4\7" +
-        "\2\0\7\7\1\0\1\7\1\0\4\7\2\0\1\7\1\0\4\7\2\0\7\7\1\0\1\7\1\0\4\7\2\0\16\7" +
-        "\2\0\6\7\2\0\15\7\2\0\1\7\1\0\10\7\7\0\15\7\1\0\6\7\23\0\1\7\4\0\1\7\3\0\5" +
-        "\7\2\0\22\7\1\0\1\7\5\0\17\7\1\0\16\7\2\0\5\7\13\0\14\7\13\0\1\7\15\0\7\7" +
-        "\7\0\16\7\15\0\2\7\12\10\3\0\3\7\11\0\4\7\1\0\4\7\3\0\2\7\11\0\10\7\1\0\1" +
-        "\7\1\0\1\7\1\0\1\7\1\0\6\7\1\0\7\7\1\0\1\7\3\0\3\7\1\0\7\7\3\0\4\7\2\0\6\7" +
-        "\14\0\2\54\7\0\1\7\15\0\1\7\2\0\1\7\4\0\1\7\2\0\12\7\1\0\1\7\3\0\5\7\6\0\1" +
-        "\7\1\0\1\7\1\0\1\7\1\0\4\7\1\0\13\7\2\0\4\7\5\0\5\7\4\0\1\7\4\0\2\7\13\0\5" +
-        "\7\6\0\4\7\3\0\2\7\14\0\10\7\7\0\10\7\1\0\7\7\6\0\2\7\12\0\5\7\5\0\2\7\3\0" +
-        "\7\7\6\0\3\7\12\10\2\7\13\0\11\7\2\0\27\7\2\0\7\7\1\0\3\7\1\0\4\7\1\0\4\7" +
-        "\2\0\6\7\3\0\1\7\1\0\1\7\2\0\5\7\1\0\12\7\12\10\5\7\1\0\3\7\1\0\10\7\4\0\7" +
-        "\7\3\0\1\7\3\0\2\7\1\0\1\7\3\0\2\7\2\0\5\7\2\0\1\7\1\0\1\7\30\0\3\7\3\0\6" +
-        "\7\2\0\6\7\2\0\6\7\11\0\7\7\4\0\5\7\3\0\5\7\5\0\1\7\1\0\10\7\1\0\5\7\1\0\1" +
-        "\7\1\0\2\7\1\0\2\7\1\0\12\7\6\0\12\7\2\0\6\7\2\0\6\7\2\0\6\7\2\0\3\7\3\0\14" +
-        "\7\1\0\16\7\1\0\2\7\1\0\2\7\1\0\10\7\6\0\4\7\4\0\16\7\2\0\1\7\1\0\14\7\1\0" +
-        "\2\7\3\0\1\7\2\0\4\7\1\0\2\7\12\0\10\7\6\0\6\7\1\0\3\7\1\0\12\7\3\0\1\7\12" +
-        "\0\4\7\13\0\12\10\1\7\1\0\1\7\3\0\7\7\1\0\1\7\1\0\4\7\1\0\17\7\1\0\2\7\14" +
-        "\0\3\7\7\0\4\7\11\0\2\7\1\0\1\7\20\0\4\7\10\0\1\7\13\0\10\7\5\0\3\7\2\0\1" +
-        "\7\2\0\2\7\2\0\4\7\1\0\14\7\1\0\1\7\1\0\7\7\1\0\21\7\1\0\4\7\2\0\10\7\1\0" +
-        "\7\7\1\0\14\7\1\0\4\7\1\0\5\7\1\0\1\7\3\0\14\7\2\0\13\7\1\0\10\7\2\0\22\10" +
-        "\1\0\2\7\1\0\1\7\2\0\1\7\1\0\12\7\1\0\4\7\1\0\1\7\1\0\1\7\6\0\1\7\4\0\1\7" +
-        "\1\0\1\7\1\0\1\7\1\0\3\7\1\0\2\7\1\0\1\7\2\0\1\7\1\0\1\7\1\0\1\7\1\0\1\7\1" +
-        "\0\1\7\1\0\2\7\1\0\1\7\2\0\4\7\1\0\7\7\1\0\4\7\1\0\4\7\1\0\1\7\1\0\12\7\1" +
-        "\0\5\7\1\0\3\7\1\0\5\7\1\0\5\7");
+    "\0\1\7\11\0\1\7\3\0\1\7\7\0\11\7\7\0\5\7\1\0\10\7\6\0\26\7\3\0\1\7\2\0\1\7"+
+    "\7\0\12\7\4\0\12\10\1\7\4\0\10\7\2\0\2\7\2\0\26\7\1\0\7\7\1\0\1\7\3\0\4\7"+
+    "\3\0\1\7\20\0\1\7\15\0\2\7\1\0\1\7\5\0\6\7\4\0\2\7\1\0\2\7\1\0\2\7\1\0\2\7"+
+    "\17\0\4\7\1\0\1\7\7\0\12\10\2\0\3\7\20\0\11\7\1\0\2\7\1\0\2\7\1\0\5\7\3\0"+
+    "\1\7\2\0\1\7\30\0\1\7\13\0\10\7\2\0\1\7\3\0\1\7\1\0\6\7\3\0\3\7\1\0\4\7\3"+
+    "\0\2\7\1\0\1\7\1\0\2\7\3\0\2\7\3\0\3\7\3\0\14\7\13\0\10\7\1\0\2\7\10\0\3\7"+
+    "\5\0\1\7\4\0\10\7\1\0\6\7\1\0\5\7\3\0\1\7\3\0\2\7\15\0\13\7\2\0\1\7\6\0\3"+
+    "\7\10\0\1\7\12\0\6\7\5\0\22\7\3\0\10\7\1\0\11\7\1\0\1\7\2\0\7\7\11\0\1\7\1"+
+    "\0\2\7\14\0\12\10\7\0\2\7\1\0\1\7\2\0\2\7\1\0\1\7\2\0\1\7\6\0\4\7\1\0\7\7"+
+    "\1\0\3\7\1\0\1\7\1\0\1\7\2\0\2\7\1\0\4\7\1\0\2\7\11\0\1\7\2\0\5\7\1\0\1\7"+
+    "\11\0\12\10\2\0\14\7\1\0\24\7\13\0\5\7\22\0\7\7\4\0\4\7\3\0\1\7\3\0\2\7\7"+
+    "\0\3\7\4\0\15\7\14\0\1\7\1\0\6\7\1\0\1\7\5\0\1\7\2\0\13\7\1\0\15\7\1\0\4\7"+
+    "\2\0\7\7\1\0\1\7\1\0\4\7\2\0\1\7\1\0\4\7\2\0\7\7\1\0\1\7\1\0\4\7\2\0\16\7"+
+    "\2\0\6\7\2\0\15\7\2\0\1\7\1\0\10\7\7\0\15\7\1\0\6\7\23\0\1\7\4\0\1\7\3\0\5"+
+    "\7\2\0\22\7\1\0\1\7\5\0\17\7\1\0\16\7\2\0\5\7\13\0\14\7\13\0\1\7\15\0\7\7"+
+    "\7\0\16\7\15\0\2\7\12\10\3\0\3\7\11\0\4\7\1\0\4\7\3\0\2\7\11\0\10\7\1\0\1"+
+    "\7\1\0\1\7\1\0\1\7\1\0\6\7\1\0\7\7\1\0\1\7\3\0\3\7\1\0\7\7\3\0\4\7\2\0\6\7"+
+    "\14\0\2\54\7\0\1\7\15\0\1\7\2\0\1\7\4\0\1\7\2\0\12\7\1\0\1\7\3\0\5\7\6\0\1"+
+    "\7\1\0\1\7\1\0\1\7\1\0\4\7\1\0\13\7\2\0\4\7\5\0\5\7\4\0\1\7\4\0\2\7\13\0\5"+
+    "\7\6\0\4\7\3\0\2\7\14\0\10\7\7\0\10\7\1\0\7\7\6\0\2\7\12\0\5\7\5\0\2\7\3\0"+
+    "\7\7\6\0\3\7\12\10\2\7\13\0\11\7\2\0\27\7\2\0\7\7\1\0\3\7\1\0\4\7\1\0\4\7"+
+    "\2\0\6\7\3\0\1\7\1\0\1\7\2\0\5\7\1\0\12\7\12\10\5\7\1\0\3\7\1\0\10\7\4\0\7"+
+    "\7\3\0\1\7\3\0\2\7\1\0\1\7\3\0\2\7\2\0\5\7\2\0\1\7\1\0\1\7\30\0\3\7\3\0\6"+
+    "\7\2\0\6\7\2\0\6\7\11\0\7\7\4\0\5\7\3\0\5\7\5\0\1\7\1\0\10\7\1\0\5\7\1\0\1"+
+    "\7\1\0\2\7\1\0\2\7\1\0\12\7\6\0\12\7\2\0\6\7\2\0\6\7\2\0\6\7\2\0\3\7\3\0"+
+    "\14\7\1\0\16\7\1\0\2\7\1\0\2\7\1\0\10\7\6\0\4\7\4\0\16\7\2\0\1\7\1\0\14\7"+
+    "\1\0\2\7\3\0\1\7\2\0\4\7\1\0\2\7\12\0\10\7\6\0\6\7\1\0\3\7\1\0\12\7\3\0\1"+
+    "\7\12\0\4\7\13\0\12\10\1\7\1\0\1\7\3\0\7\7\1\0\1\7\1\0\4\7\1\0\17\7\1\0\2"+
+    "\7\14\0\3\7\7\0\4\7\11\0\2\7\1\0\1\7\20\0\4\7\10\0\1\7\13\0\10\7\5\0\3\7\2"+
+    "\0\1\7\2\0\2\7\2\0\4\7\1\0\14\7\1\0\1\7\1\0\7\7\1\0\21\7\1\0\4\7\2\0\10\7"+
+    "\1\0\7\7\1\0\14\7\1\0\4\7\1\0\5\7\1\0\1\7\3\0\14\7\2\0\13\7\1\0\10\7\2\0"+
+    "\22\10\1\0\2\7\1\0\1\7\2\0\1\7\1\0\12\7\1\0\4\7\1\0\1\7\1\0\1\7\6\0\1\7\4"+
+    "\0\1\7\1\0\1\7\1\0\1\7\1\0\3\7\1\0\2\7\1\0\1\7\2\0\1\7\1\0\1\7\1\0\1\7\1\0"+
+    "\1\7\1\0\1\7\1\0\2\7\1\0\1\7\2\0\4\7\1\0\7\7\1\0\4\7\1\0\4\7\1\0\1\7\1\0"+
+    "\12\7\1\0\5\7\1\0\3\7\1\0\5\7\1\0\5\7");
   private static final String ZZ_ACTION_PACKED_0 =
     "\6\0\1\1\1\2\1\3\1\4\1\5\1\6\1\7"+
     "\1\1\1\10\1\11\1\12\5\13\1\14\1\15\1\16"+
@@ -181,16 +179,16 @@ class _MathematicaLexer implements FlexLexer {
     "\1\27\1\30\1\31\1\32\1\33\1\34\1\35\1\36"+
     "\1\37\1\40\1\41\1\42\1\43\4\44\2\45\1\46"+
     "\1\47\1\1\1\50\1\51\1\52\1\53\1\54\1\55"+
-        "\1\56\1\57\2\0\2\3\1\60\1\61\1\0\2\13" +
-        "\1\0\1\62\1\0\1\63\1\64\1\65\1\66\1\67" +
-        "\1\0\1\17\2\0\1\70\1\71\1\72\1\73\1\74" +
-        "\1\75\1\76\1\77\1\100\1\101\1\102\1\103\1\104" +
-        "\1\105\1\106\1\107\1\110\1\111\1\112\1\113\1\114" +
-        "\1\115\1\0\1\116\1\117\1\120\1\121\1\122\1\123" +
-        "\1\124\1\125\1\126\2\45\3\0\1\7\2\0\1\13" +
-        "\2\0\1\127\1\130\2\0\1\131\1\132\1\133\1\134" +
-        "\1\135\1\136\1\137\1\140\1\141\1\0\1\142\1\13" +
-        "\1\0\2\13\1\0\1\67\1\13\1\0";
+    "\1\56\1\57\2\0\2\3\1\60\1\61\1\0\2\13"+
+    "\1\0\1\62\1\0\1\63\1\64\1\65\1\66\1\67"+
+    "\1\0\1\17\2\0\1\70\1\71\1\72\1\73\1\74"+
+    "\1\75\1\76\1\77\1\100\1\101\1\102\1\103\1\104"+
+    "\1\105\1\106\1\107\1\110\1\111\1\112\1\113\1\114"+
+    "\1\115\1\0\1\116\1\117\1\120\1\121\1\122\1\123"+
+    "\1\124\1\125\1\126\4\0\1\7\2\0\1\13\2\0"+
+    "\1\127\1\130\2\0\1\131\1\132\1\133\1\134\1\135"+
+    "\1\136\1\137\1\140\1\141\1\0\1\142\1\13\1\0"+
+    "\2\13\1\0\1\67\1\13\1\0";
 
   /**
    * Translates DFA states to action switch labels.
@@ -211,33 +209,33 @@ class _MathematicaLexer implements FlexLexer {
     "\0\u0114\0\u0114\0\u0ac8\0\u0114\0\u0114\0\u0af6\0\u0114\0\u0114"+
     "\0\u0114\0\u0b24\0\u0114\0\u0114\0\u0114\0\u0114\0\u0114\0\u0114"+
     "\0\u0b52\0\u0b80\0\u0bae\0\u0114\0\u0114\0\u0114\0\u0114\0\u0114"+
-        "\0\u0114\0\u0bdc\0\u0114\0\u0114\0\u0114\0\u0c0a\0\u0c38\0\u08a0" +
-        "\0\u0c66\0\u0c94\0\u0cc2\0\u0cf0\0\u0d1e\0\u0d4c\0\u0d7a\0\u0114" +
-        "\0\u0114\0\u0da8\0\u0dd6\0\u0114\0\u0114\0\u0114\0\u0114\0\u0114" +
-        "\0\u0114\0\u0114\0\u0114\0\u0114\0\u0e04\0\u0114\0\u0e32\0\u0e32" +
-        "\0\u0e60\0\u0e8e\0\u0ebc\0\u0114\0\u0eea\0\u0f18";
+    "\0\u0114\0\u0bdc\0\u0114\0\u0114\0\u0c0a\0\u0c38\0\u08a0\0\u0c66"+
+    "\0\u0c94\0\u0cc2\0\u0cf0\0\u0d1e\0\u0d4c\0\u0d7a\0\u0114\0\u0114"+
+    "\0\u0da8\0\u0dd6\0\u0114\0\u0114\0\u0114\0\u0114\0\u0114\0\u0114"+
+    "\0\u0114\0\u0114\0\u0114\0\u0e04\0\u0114\0\u0e32\0\u0e32\0\u0e60"+
+    "\0\u0e8e\0\u0ebc\0\u0114\0\u0eea\0\u0f18";
   private static final String ZZ_TRANS_PACKED_0 =
     "\1\7\2\10\1\11\1\12\1\13\1\14\1\15\1\7"+
     "\1\16\1\17\1\20\1\21\1\22\1\15\1\23\1\24"+
-    "\2\25\1\26\1\27\1\30\1\31\1\32\1\33\1\34"+
-    "\1\35\1\36\1\37\1\40\1\41\1\42\1\43\1\44"+
-    "\1\45\1\46\1\47\1\50\1\51\1\52\1\53\1\54"+
-    "\1\55\1\56\1\0\1\11\4\57\1\60\1\61\1\62"+
-    "\47\57\11\63\1\64\16\63\1\65\25\63\1\66\2\67"+
-    "\1\70\50\66\1\0\1\70\1\71\2\67\2\7\1\71"+
-    "\1\7\3\71\2\7\11\71\1\7\1\71\1\7\1\72"+
-    "\7\7\2\71\2\7\1\71\1\7\1\71\1\7\3\71"+
-    "\1\7\1\71\1\0\1\73\2\67\1\74\50\73\1\0"+
-    "\1\74\57\0\2\10\56\0\1\11\51\0\1\11\5\0"+
-    "\1\75\55\0\1\76\34\0\1\77\22\0\2\15\1\100"+
-    "\2\0\1\101\7\15\33\0\1\102\1\103\7\0\1\104"+
-    "\52\0\1\15\1\0\1\100\2\0\1\105\1\0\1\15"+
-    "\44\0\1\106\6\0\1\107\1\22\1\0\5\22\1\110"+
-    "\36\0\1\106\6\0\1\107\1\25\1\0\5\25\1\110"+
-    "\1\111\35\0\1\106\6\0\1\107\1\25\1\0\3\25"+
-    "\1\22\1\25\1\110\1\111\35\0\1\106\6\0\1\107"+
-    "\1\22\1\0\5\22\1\110\1\111\35\0\1\106\6\0"+
-    "\1\107\1\25\1\0\5\25\1\110\46\0\1\110\1\0"+
+    "\1\25\1\26\1\23\1\27\1\30\1\31\1\32\1\33"+
+    "\1\34\1\35\1\36\1\37\1\40\1\41\1\42\1\43"+
+    "\1\44\1\45\1\46\1\47\1\50\1\51\1\52\1\53"+
+    "\1\54\1\55\1\56\1\0\1\11\4\57\1\60\1\61"+
+    "\1\62\47\57\11\63\1\64\16\63\1\65\25\63\1\66"+
+    "\2\67\1\70\50\66\1\0\1\70\1\71\2\67\2\7"+
+    "\1\71\1\7\3\71\2\7\11\71\1\7\1\71\1\7"+
+    "\1\72\7\7\2\71\2\7\1\71\1\7\1\71\1\7"+
+    "\3\71\1\7\1\71\1\0\1\73\2\67\1\74\50\73"+
+    "\1\0\1\74\57\0\2\10\56\0\1\11\51\0\1\11"+
+    "\5\0\1\75\55\0\1\76\34\0\1\77\22\0\2\15"+
+    "\1\100\2\0\1\101\7\15\33\0\1\102\1\103\7\0"+
+    "\1\104\52\0\1\15\1\0\1\100\2\0\1\105\1\0"+
+    "\1\15\44\0\1\106\6\0\1\107\1\22\1\0\5\22"+
+    "\1\110\36\0\1\106\6\0\1\107\1\22\1\0\5\22"+
+    "\1\110\1\111\35\0\1\106\6\0\1\107\1\23\1\0"+
+    "\5\23\1\110\36\0\1\106\6\0\1\107\1\23\1\0"+
+    "\5\23\1\110\1\111\35\0\1\106\6\0\1\107\1\23"+
+    "\1\0\1\22\4\23\1\110\1\111\45\0\1\110\1\0"+
     "\5\110\1\112\72\0\1\113\1\114\41\0\1\115\7\0"+
     "\1\116\3\0\1\117\22\0\1\120\1\0\1\121\3\0"+
     "\1\122\1\120\5\122\3\0\1\122\1\123\56\0\1\34"+
@@ -248,33 +246,32 @@ class _MathematicaLexer implements FlexLexer {
     "\1\147\1\150\37\0\1\151\15\0\1\152\1\0\1\153"+
     "\54\0\1\154\54\0\1\155\55\0\1\156\2\0\1\157"+
     "\56\0\1\160\33\0\1\161\23\0\1\162\57\0\1\163"+
-    "\3\0\4\57\3\0\47\57\6\0\1\164\47\0\11\63"+
-    "\1\0\16\63\1\0\25\63\1\0\1\165\1\166\6\0"+
-    "\1\165\1\167\15\0\1\165\26\0\2\67\56\0\1\70"+
-    "\51\0\1\70\1\71\4\0\1\71\1\0\3\71\2\0"+
-    "\11\71\1\0\1\71\11\0\2\71\2\0\1\71\1\0"+
-    "\1\71\1\0\3\71\1\0\1\71\4\0\1\74\51\0"+
-        "\1\74\12\0\1\170\52\0\1\15\1\0\1\100\4\0" +
-        "\1\15\40\0\1\102\63\0\1\171\3\0\1\172\2\0" +
-        "\1\171\64\0\1\173\35\0\1\106\6\0\1\174\1\175" +
-        "\1\0\5\175\1\176\36\0\1\106\6\0\1\107\1\110" +
-        "\1\0\5\110\57\0\1\177\54\0\1\200\73\0\1\201" +
-        "\22\0\2\120\4\0\7\120\44\0\1\202\60\0\1\122" +
-        "\1\0\5\122\41\0\1\203\6\0\1\203\75\0\1\204" +
-        "\55\0\1\205\56\0\1\206\42\0\1\207\12\0\1\210" +
-        "\33\0\1\211\1\0\5\211\74\0\1\212\55\0\1\213" +
-        "\63\0\1\214\6\0\1\165\63\0\1\215\3\0\1\216" +
-        "\2\0\1\215\46\0\2\171\2\0\1\172\1\0\7\171" +
-    "\41\0\1\15\1\0\1\100\2\0\1\101\1\0\1\15"+
-        "\54\0\1\217\1\0\5\217\2\0\1\220\44\0\1\175" +
-        "\1\0\5\175\1\176\36\0\1\106\7\0\1\175\1\0" +
-        "\5\175\1\221\46\0\1\221\1\0\5\221\47\0\7\222" +
-        "\41\0\1\223\6\0\1\223\46\0\2\203\4\0\7\203" +
-        "\4\0\1\224\34\0\2\215\2\0\1\216\1\0\7\215" +
-        "\47\0\1\217\1\0\5\217\37\0\1\106\7\0\1\221" +
-        "\1\0\5\221\46\0\1\107\7\222\1\225\40\0\2\223" +
-        "\1\226\3\0\7\223\46\0\1\107\7\225\45\0\1\224" +
-    "\42\0";
+    "\3\0\4\57\3\0\47\57\5\0\1\61\1\164\47\0"+
+    "\11\63\1\165\16\63\1\0\37\63\1\166\43\63\1\0"+
+    "\2\67\56\0\1\70\51\0\1\70\1\71\4\0\1\71"+
+    "\1\0\3\71\2\0\11\71\1\0\1\71\11\0\2\71"+
+    "\2\0\1\71\1\0\1\71\1\0\3\71\1\0\1\71"+
+    "\4\0\1\74\51\0\1\74\12\0\1\167\52\0\1\15"+
+    "\1\0\1\100\4\0\1\15\40\0\1\102\63\0\1\170"+
+    "\3\0\1\171\2\0\1\170\64\0\1\172\35\0\1\106"+
+    "\6\0\1\173\1\174\1\0\5\174\1\175\36\0\1\106"+
+    "\6\0\1\107\1\110\1\0\5\110\57\0\1\176\54\0"+
+    "\1\177\73\0\1\200\22\0\2\120\4\0\7\120\44\0"+
+    "\1\201\60\0\1\122\1\0\5\122\41\0\1\202\6\0"+
+    "\1\202\75\0\1\203\55\0\1\204\56\0\1\205\42\0"+
+    "\1\206\12\0\1\207\33\0\1\210\1\0\5\210\74\0"+
+    "\1\211\55\0\1\212\63\0\1\213\5\0\12\63\1\0"+
+    "\43\63\7\0\1\214\3\0\1\215\2\0\1\214\46\0"+
+    "\2\170\2\0\1\171\1\0\7\170\41\0\1\15\1\0"+
+    "\1\100\2\0\1\101\1\0\1\15\54\0\1\216\1\0"+
+    "\5\216\2\0\1\217\44\0\1\174\1\0\5\174\1\175"+
+    "\36\0\1\106\7\0\1\174\1\0\5\174\1\220\46\0"+
+    "\1\220\1\0\5\220\47\0\7\221\41\0\1\222\6\0"+
+    "\1\222\46\0\2\202\4\0\7\202\4\0\1\223\34\0"+
+    "\2\214\2\0\1\215\1\0\7\214\47\0\1\216\1\0"+
+    "\5\216\37\0\1\106\7\0\1\220\1\0\5\220\46\0"+
+    "\1\107\7\221\1\224\40\0\2\222\1\225\3\0\7\222"+
+    "\46\0\1\107\7\224\45\0\1\223\42\0";
 
   private static int zzUnpackAction(String packed, int offset, int[] result) {
     int i = 0;       /* index in packed string  */
@@ -294,15 +291,15 @@ class _MathematicaLexer implements FlexLexer {
    */
   private static final int[] ZZ_ROWMAP = zzUnpackRowMap();
   private static final String ZZ_ATTRIBUTE_PACKED_0 =
-      "\6\0\1\11\4\1\1\11\2\1\2\11\12\1\1\11" +
-          "\1\1\2\11\13\1\1\11\1\1\1\11\1\1\1\11" +
-          "\3\1\1\11\2\1\2\11\3\1\2\11\1\1\3\11" +
-          "\2\0\1\11\2\1\1\11\1\0\2\1\1\0\1\1" +
-          "\1\0\4\11\1\1\1\0\1\1\2\0\6\11\1\1" +
-          "\2\11\1\1\3\11\1\1\6\11\2\1\1\0\6\11" +
-          "\1\1\3\11\1\1\3\0\1\1\2\0\1\1\2\0" +
-          "\2\11\2\0\11\11\1\0\1\11\1\1\1\0\2\1" +
-          "\1\0\1\11\1\1\1\0";
+    "\6\0\1\11\4\1\1\11\2\1\2\11\12\1\1\11"+
+    "\1\1\2\11\13\1\1\11\1\1\1\11\1\1\1\11"+
+    "\3\1\1\11\2\1\2\11\3\1\2\11\1\1\3\11"+
+    "\2\0\1\11\2\1\1\11\1\0\2\1\1\0\1\1"+
+    "\1\0\4\11\1\1\1\0\1\1\2\0\6\11\1\1"+
+    "\2\11\1\1\3\11\1\1\6\11\2\1\1\0\6\11"+
+    "\1\1\2\11\4\0\1\1\2\0\1\1\2\0\2\11"+
+    "\2\0\11\11\1\0\1\11\1\1\1\0\2\1\1\0"+
+    "\1\11\1\1\1\0";
 
   /**
    * Translates characters to character classes
@@ -330,7 +327,7 @@ class _MathematicaLexer implements FlexLexer {
   private static final int[] ZZ_TRANS = zzUnpackTrans();
 
   private static int[] zzUnpackAction() {
-    int[] result = new int[150];
+    int[] result = new int[149];
     int offset = 0;
     offset = zzUnpackAction(ZZ_ACTION_PACKED_0, offset, result);
     return result;
@@ -375,14 +372,14 @@ class _MathematicaLexer implements FlexLexer {
   private static final int [] ZZ_ATTRIBUTE = zzUnpackAttribute();
 
   private static int[] zzUnpackRowMap() {
-    int[] result = new int[150];
+    int[] result = new int[149];
     int offset = 0;
     offset = zzUnpackRowMap(ZZ_ROWMAP_PACKED_0, offset, result);
     return result;
   }
 
   private static int [] zzUnpackAttribute() {
-    int[] result = new int[150];
+    int[] result = new int[149];
     int offset = 0;
     offset = zzUnpackAttribute(ZZ_ATTRIBUTE_PACKED_0, offset, result);
     return result;
@@ -438,25 +435,61 @@ class _MathematicaLexer implements FlexLexer {
   private boolean zzEOFDone;
 
   /* user code: */
-    // This adds support for nested states. I'm no JFlex pro, so maybe this is overkill, but it works quite well.
-    private final LinkedList<Integer> states = new LinkedList<Integer>();
+    // Support for nested states. Nesting only ever re-enters the state we are already in (comments inside
+    // comments), so instead of a real stack we keep the state to return to after the outermost level and
+    // the nesting depth. Both are packed together with the lexical state into the int that is handed to the
+    // platform (see getEncodedState), which makes it possible to restart the lexer at any token.
+    private static final int LEXICAL_STATE_BITS = 4;
+    private static final int LEXICAL_STATE_MASK = (1 << LEXICAL_STATE_BITS) - 1;
+    private static final int MAX_NESTING_DEPTH = Integer.MAX_VALUE >>> (2 * LEXICAL_STATE_BITS);
+
+    private int myReturnState = YYINITIAL;
+    private int myNestingDepth = 0;
 
     private void yypushstate(int state) {
-        states.addFirst(yystate());
+        if (myNestingDepth == 0) {
+          myReturnState = yystate();
+        }
+        if (myNestingDepth < MAX_NESTING_DEPTH) {
+          myNestingDepth++;
+        }
         yybegin(state);
     }
+
     private void yypopstate() {
-        final int state = states.removeFirst();
-        yybegin(state);
+        if (myNestingDepth > 0) {
+          myNestingDepth--;
+        }
+        if (myNestingDepth == 0) {
+          yybegin(myReturnState);
+        }
     }
 
     private void yyclearstack() {
-      states.clear();
+      myNestingDepth = 0;
+      myReturnState = YYINITIAL;
+    }
+
+    /**
+     * Packs the current lexical state, the state to return to and the nesting depth into one int.
+     * The value is 0 if and only if the lexer is in YYINITIAL without any nesting.
+     */
+    int getEncodedState() {
+      return yystate() | (myReturnState << LEXICAL_STATE_BITS) | (myNestingDepth << (2 * LEXICAL_STATE_BITS));
+    }
+
+    /**
+     * Restores a state previously obtained by {@link #getEncodedState()}.
+     */
+    void restoreEncodedState(int encodedState) {
+      yybegin(encodedState & LEXICAL_STATE_MASK);
+      myReturnState = (encodedState >>> LEXICAL_STATE_BITS) & LEXICAL_STATE_MASK;
+      myNestingDepth = encodedState >>> (2 * LEXICAL_STATE_BITS);
     }
 
-    private Integer yypeakstate() {
-        if(states.size() > 0) return states.getFirst();
-        return -1;
+    void resetEncoded(CharSequence buffer, int start, int end, int encodedState) {
+      reset(buffer, start, end, encodedState & LEXICAL_STATE_MASK);
+      restoreEncodedState(encodedState);
     }
 
 
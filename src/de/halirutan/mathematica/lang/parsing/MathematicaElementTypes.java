@@ -27,6 +27,7 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.TokenType;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.IFileElementType;
+import com.intellij.psi.tree.ILazyParseableElementType;
 import com.intellij.psi.tree.TokenSet;
 import de.halirutan.mathematica.codeinsight.highlighting.MathematicaSyntaxHighlighter;
 import de.halirutan.mathematica.lang.MathematicaLanguage;
@@ -230,12 +231,17 @@ public interface MathematicaElementTypes {
   );
 
 
-  IElementType GROUP_EXPRESSION = new MathematicaElementType("GROUP_EXPRESSION");
+  /**
+   * Bracketed expressions are reparseable, so that an edit inside them does not need to reparse the whole file.
+   * {@see MathematicaReparseableElementType}
+   */
+  IElementType GROUP_EXPRESSION = new MathematicaReparseableElementType("GROUP_EXPRESSION", LEFT_PAR, RIGHT_PAR, false);
 
 
   // THIS SECTION IS AUTOMATICALLY CREATED WITH MATHEMATICA
-  IElementType LIST_EXPRESSION = new MathematicaElementType("LIST_EXPRESSION");
-  IElementType ASSOCIATION_EXPRESSION = new MathematicaElementType("ASSOCIATION_EXPRESSION");
+  IElementType LIST_EXPRESSION = new MathematicaReparseableElementType("LIST_EXPRESSION", LEFT_BRACE, RIGHT_BRACE, false);
+  IElementType ASSOCIATION_EXPRESSION =
+      new MathematicaReparseableElementType("ASSOCIATION_EXPRESSION", LEFT_ASSOCIATION, RIGHT_ASSOCIATION, false);
   IElementType SLOT_EXPRESSION = new MathematicaElementType("SLOT_EXPRESSION");
   IElementType NUMBER_EXPRESSION = new MathematicaElementType("NUMBER_EXPRESSION");
   IElementType SYMBOL_EXPRESSION = new MathematicaElementType("SYMBOL_EXPRESSION");
@@ -246,7 +252,8 @@ public interface MathematicaElementTypes {
   IElementType BLANK_NULL_SEQUENCE_EXPRESSION = new MathematicaElementType("BLANK_NULL_SEQUENCE_EXPRESSION");
   IElementType GET_PREFIX = new MathematicaElementType("GET_PREFIX");
   IElementType PATTERN_TEST_EXPRESSION = new MathematicaElementType("PATTERN_TEST_EXPRESSION");
-  IElementType FUNCTION_CALL_EXPRESSION = new MathematicaElementType("FUNCTION_CALL_EXPRESSION");
+  IElementType FUNCTION_CALL_EXPRESSION =
+      new MathematicaReparseableElementType("FUNCTION_CALL_EXPRESSION", LEFT_BRACKET, RIGHT_BRACKET, true);
   IElementType PART_EXPRESSION = new MathematicaElementType("PART_EXPRESSION");
   IElementType INCREMENT_POSTFIX = new MathematicaElementType("INCREMENT_POSTFIX");
   IElementType DECREMENT_POSTFIX = new MathematicaElementType("DECREMENT_POSTFIX");
@@ -316,6 +323,19 @@ public interface MathematicaElementTypes {
   IElementType UNDIRECTED_EDGE_EXPRESSION = new MathematicaElementType("UNDIRECTED_EDGE_EXPRESSION");
   IElementType FAILBACK = new MathematicaElementType("FAILBACK");
 
+  /**
+   * An expression that is not parsed further. These are the top-level expressions of data files and expressions
+   * that are nested too deep for the parser.
+   * {@see de.halirutan.mathematica.file.MathematicaDataFiles}
+   */
+  IElementType DATA_EXPRESSION = new MathematicaElementType("DATA_EXPRESSION");
+
+  /**
+   * A run of tokens inside a {@link #DATA_EXPRESSION} of a data file. It only keeps its text until its children are
+   * accessed, so that the tree of a data file only holds the tokens of the parts that were looked at.
+   */
+  IElementType DATA_CHUNK = new ILazyParseableElementType("DATA_CHUNK", MathematicaLanguage.INSTANCE);
+
   class Factory {
 
     public static PsiElement create(ASTNode node) {
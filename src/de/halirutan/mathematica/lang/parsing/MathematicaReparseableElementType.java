@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.halirutan.mathematica.lang.parsing;
+
+import com.intellij.lang.Language;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IErrorCounterReparseableElementType;
+import de.halirutan.mathematica.lang.MathematicaLanguage;
+import de.halirutan.mathematica.lang.lexer.MathematicaLexer;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static de.halirutan.mathematica.lang.parsing.MathematicaElementTypes.*;
+
+/**
+ * Element type of bracketed expressions that can be reparsed on their own. After an edit, the platform looks for the
+ * innermost node of such a type that contains the change and asks {@link #getErrorsCount} whether its new text is
+ * still exactly one expression of this type. Only then is the node reparsed alone and the PSI of the rest of the file
+ * is kept. The text is checked with the lexer only: the first token must open the brackets that are closed by the
+ * last token and all brackets in between must match. Function calls additionally need a plain symbol as head and may
+ * only be followed by further argument brackets, so that <code >f[x][y]</code> is accepted but a part expression or
+ * an operator in front of the call is not.
+ */
+class MathematicaReparseableElementType extends IErrorCounterReparseableElementType {
+
+  private final IElementType myOpening;
+  private final IElementType myClosing;
+  private final boolean myHasHead;
+
+  /**
+   * @param debugName name of the element type
+   * @param opening   token that opens the expression
+   * @param closing   token that closes the expression
+   * @param hasHead   true, if the opening bracket is preceded by a head as in function calls
+   */
+  MathematicaReparseableElementType(@NotNull @NonNls String debugName,
+                                    @NotNull IElementType opening,
+                                    @NotNull IElementType closing,
+                                    boolean hasHead) {
+    super(debugName, MathematicaLanguage.INSTANCE);
+    myOpening = opening;
+    myClosing = closing;
+    myHasHead = hasHead;
+  }
+
+  @Override
+  public int getErrorsCount(CharSequence seq, Language fileLanguage, Project project) {
+    final Lexer lexer = new MathematicaLexer();
+    lexer.start(seq);
+    if (myHasHead) {
+      if (lexer.getTokenType() != IDENTIFIER) {
+        return FATAL_ERROR;
+      }
+      lexer.advance();
+      skipWhitespace(lexer, false);
+    }
+
+    final Deque<IElementType> open = new ArrayDeque<>();
+    boolean first = true;
+    IElementType last = null;
+    while (lexer.getTokenType() != null) {
+      final IElementType token = lexer.getTokenType();
+      if (open.isEmpty()) {
+        // only the head and further argument lists of the same call may stand outside the brackets
+        if (token != myOpening || !first && !myHasHead) {
+          return FATAL_ERROR;
+        }
+        open.push(token);
+        lexer.advance();
+        skipWhitespace(lexer, true);
+        if (myHasHead && lexer.getTokenType() == LEFT_BRACKET) {
+          // l[[i]] is a part expression
+          return FATAL_ERROR;
+        }
+        first = false;
+        continue;
+      }
+      if (token == LEFT_BRACE || token == LEFT_BRACKET || token == LEFT_PAR || token == LEFT_ASSOCIATION) {
+        open.push(token);
+      } else if (token == RIGHT_BRACE || token == RIGHT_BRACKET || token == RIGHT_PAR || token == RIGHT_ASSOCIATION) {
+        if (!matches(open.pop(), token)) {
+          return FATAL_ERROR;
+        }
+      }
+      last = token;
+      lexer.advance();
+      if (open.isEmpty()) {
+        skipWhitespace(lexer, false);
+      }
+    }
+    return open.isEmpty() && last == myClosing ? NO_ERRORS : open.size();
+  }
+
+  /**
+   * Outside of brackets, a line break can end an expression and it is therefore not skipped.
+   */
+  private static void skipWhitespace(@NotNull Lexer lexer, boolean skipLineBreaks) {
+    while (lexer.getTokenType() == WHITE_SPACE || lexer.getTokenType() == COMMENT ||
+        skipLineBreaks && lexer.getTokenType() == LINE_BREAK) {
+      lexer.advance();
+    }
+  }
+
+  private static boolean matches(IElementType opening, IElementType closing) {
+    return opening == LEFT_BRACE && closing == RIGHT_BRACE ||
+        opening == LEFT_BRACKET && closing == RIGHT_BRACKET ||
+        opening == LEFT_PAR && closing == RIGHT_PAR ||
+        opening == LEFT_ASSOCIATION && closing == RIGHT_ASSOCIATION;
+  }
+}
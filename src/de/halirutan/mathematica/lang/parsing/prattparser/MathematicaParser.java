@@ -26,15 +26,22 @@ import com.intellij.lang.PsiBuilder;
 import com.intellij.lang.PsiBuilder.Marker;
 import com.intellij.lang.PsiParser;
 import com.intellij.lang.WhitespaceSkippedCallback;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.source.resolve.FileContextUtil;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementType;
+import com.intellij.psi.tree.TokenSet;
+import de.halirutan.mathematica.file.MathematicaDataFiles;
+import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes;
 import de.halirutan.mathematica.lang.parsing.prattparser.parselets.ImplicitMultiplicationParselet;
 import de.halirutan.mathematica.lang.parsing.prattparser.parselets.InfixParselet;
 import de.halirutan.mathematica.lang.parsing.prattparser.parselets.PrefixParselet;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import static de.halirutan.mathematica.lang.parsing.MathematicaElementTypes.LINE_BREAK;
-import static de.halirutan.mathematica.lang.parsing.MathematicaElementTypes.WHITE_SPACES;
+import java.util.Arrays;
+
+import static de.halirutan.mathematica.lang.parsing.MathematicaElementTypes.*;
 import static de.halirutan.mathematica.lang.parsing.prattparser.ParseletProvider.getInfixParselet;
 import static de.halirutan.mathematica.lang.parsing.prattparser.ParseletProvider.getPrefixParselet;
 
@@ -43,11 +50,31 @@ import static de.halirutan.mathematica.lang.parsing.prattparser.ParseletProvider
  */
 public class MathematicaParser implements PsiParser {
 
+  /**
+   * Expressions that are nested deeper are not parsed into a tree but kept as one flat
+   * {@link MathematicaElementTypes#DATA_EXPRESSION}. This keeps the stack of the recursive descent bounded.
+   */
   private static final int MAX_RECURSION_DEPTH = 1024;
+  /**
+   * Minimal number of tokens of a data file that are kept together in one lazily expanded
+   * {@link MathematicaElementTypes#DATA_CHUNK}.
+   */
+  private static final int DATA_CHUNK_SIZE = 1024;
+  private static final TokenSet OPENING_BRACKETS = TokenSet.create(LEFT_BRACE, LEFT_BRACKET, LEFT_PAR, LEFT_ASSOCIATION);
+  private static final TokenSet CLOSING_BRACKETS = TokenSet.create(RIGHT_BRACE, RIGHT_BRACKET, RIGHT_PAR, RIGHT_ASSOCIATION);
+  private static final TokenSet NESTED_EXPRESSION_ENDS = TokenSet.create(
+      RIGHT_BRACE, RIGHT_BRACKET, RIGHT_PAR, RIGHT_ASSOCIATION, COMMA, SEMICOLON);
+  private static final TokenSet DATA_EXPRESSION_ENDS = TokenSet.create(
+      NUMBER, IDENTIFIER, STRING_LITERAL_END, RIGHT_BRACE, RIGHT_BRACKET, RIGHT_PAR, RIGHT_ASSOCIATION);
+  private static final Result NOT_PARSED = new Result(null, null, false);
   private static final ImplicitMultiplicationParselet IMPLICIT_MULTIPLICATION_PARSELET = new ImplicitMultiplicationParselet();
   private final ImportantLineBreakHandler myImportantLinebreakHandler;
   private PsiBuilder myBuilder = null;
   private int myRecursionDepth;
+  /**
+   * The results that {@link #result(Marker, IElementType, boolean)} hands out, one for each recursion depth.
+   */
+  private Result[] myResults = new Result[64];
 
 
   public MathematicaParser() {
@@ -63,6 +90,10 @@ public class MathematicaParser implements PsiParser {
    * <p/>
    * Since IDEA uses markers to mark the sequential code into a tree-structure I use this {@link Result} which contains
    * additionally the {@link IElementType} of the last expression and whether the previous expression was parsed.
+   * <p/>
+   * To avoid an allocation for every node, the parser owns one {@link Result} per recursion depth and reuses it. A
+   * result therefore only stays valid until the next expression on the same level is parsed. A parselet has to read
+   * what it needs from the result of one operand before it parses the next operand.
    *
    * @param mark
    *     The builder mark which was created and closed during the current parse
@@ -72,8 +103,17 @@ public class MathematicaParser implements PsiParser {
    *     Whether the parsing of the expression was successful
    * @return The Result object with the given parsing information.
    */
-  public static Result result(Marker mark, IElementType token, boolean parsedQ) {
-    return new Result(mark, token, parsedQ);
+  public Result result(Marker mark, IElementType token, boolean parsedQ) {
+    if (myRecursionDepth >= myResults.length) {
+      myResults = Arrays.copyOf(myResults, Math.max(myRecursionDepth + 1, 2 * myResults.length));
+    }
+    Result result = myResults[myRecursionDepth];
+    if (result == null) {
+      result = new Result(null, null, false);
+      myResults[myRecursionDepth] = result;
+    }
+    result.set(mark, token, parsedQ);
+    return result;
   }
 
 
@@ -87,7 +127,7 @@ public class MathematicaParser implements PsiParser {
    * cases.
    */
   public static Result notParsed() {
-    return new Result(null, null, false);
+    return NOT_PARSED;
   }
 
   /**
@@ -103,6 +143,17 @@ public class MathematicaParser implements PsiParser {
   @Override
   public ASTNode parse(@NotNull IElementType root, @NotNull PsiBuilder builder) {
     builder.setWhitespaceSkippedCallback(myImportantLinebreakHandler);
+    if (root == DATA_CHUNK) {
+      return parseDataChunk(root, builder);
+    }
+    // the file root is lazy parseable as well, only the bracketed expressions are reparsed on their own
+    if (root instanceof IReparseableElementType) {
+      return parseLazyElement(root, builder);
+    }
+    final PsiFile file = builder.getUserDataUnprotected(FileContextUtil.CONTAINING_FILE_KEY);
+    if (file != null && MathematicaDataFiles.isDataFile(file)) {
+      return parseDataFile(root, builder);
+    }
     Marker rootMarker = builder.mark();
     this.myBuilder = builder;
     try {
@@ -127,6 +178,112 @@ public class MathematicaParser implements PsiParser {
     return builder.getTreeBuilt();
   }
 
+  /**
+   * Reparses a single bracketed expression after an edit. Its text was checked by
+   * {@link MathematicaElementTypes#LIST_EXPRESSION} and friends before, so it should be exactly one expression of type
+   * <code >root</code>. In that case the expression itself becomes the root. Otherwise, everything is wrapped into
+   * <code >root</code> and the remaining tokens are marked as error.
+   *
+   * @param root    The type of the reparsed expression
+   * @param builder Through this, the AST is built up by placing markers.
+   * @return The AST of the expression
+   */
+  @NotNull
+  private ASTNode parseLazyElement(@NotNull IElementType root, @NotNull PsiBuilder builder) {
+    final Marker rootMarker = builder.mark();
+    this.myBuilder = builder;
+    try {
+      final Result expr = parseExpression();
+      if (builder.eof() && expr.getToken() == root) {
+        rootMarker.drop();
+        return builder.getTreeBuilt();
+      }
+      if (!builder.eof()) {
+        final Marker errorMark = builder.mark();
+        while (!builder.eof()) {
+          builder.advanceLexer();
+        }
+        errorMark.error("The expression could not be parsed correctly.");
+      }
+      rootMarker.done(root);
+    } catch (CriticalParserError criticalParserError) {
+      rootMarker.rollbackTo();
+      final Marker newRoot = builder.mark();
+      final Marker errorMark = builder.mark();
+      while (!builder.eof()) {
+        builder.advanceLexer();
+      }
+      errorMark.error(criticalParserError.getMessage());
+      newRoot.done(root);
+    }
+    return builder.getTreeBuilt();
+  }
+
+  /**
+   * Data files are only split into their top-level expressions. An expression ends with a semicolon or with a line
+   * break after a token that can end an expression, as long as all brackets are closed. The tokens inside are not
+   * structured further and are collapsed into {@link MathematicaElementTypes#DATA_CHUNK}s that end at the first comma
+   * after {@link #DATA_CHUNK_SIZE} tokens. Only the chunks whose children are accessed create their tokens.
+   *
+   * @param root    The root node of the AST
+   * @param builder Through this, the AST is built up by placing markers.
+   * @return The AST with one {@link MathematicaElementTypes#DATA_EXPRESSION} per top-level expression
+   */
+  @NotNull
+  private ASTNode parseDataFile(@NotNull IElementType root, @NotNull PsiBuilder builder) {
+    final Marker rootMarker = builder.mark();
+    while (!builder.eof()) {
+      final Marker expression = builder.mark();
+      Marker chunk = builder.mark();
+      int chunkTokens = 0;
+      int depth = 0;
+      while (true) {
+        final IElementType token = builder.getTokenType();
+        if (OPENING_BRACKETS.contains(token)) {
+          depth++;
+        } else if (CLOSING_BRACKETS.contains(token) && depth > 0) {
+          depth--;
+        }
+        myImportantLinebreakHandler.reset();
+        builder.advanceLexer();
+        if (builder.eof()) {
+          break;
+        }
+        if (depth == 0 && (token == SEMICOLON ||
+            myImportantLinebreakHandler.hadLineBreak() && DATA_EXPRESSION_ENDS.contains(token))) {
+          break;
+        }
+        // a chunk is lexed again on its own, so it must not end inside a string
+        if (++chunkTokens >= DATA_CHUNK_SIZE && token == COMMA) {
+          chunk.collapse(DATA_CHUNK);
+          chunk = builder.mark();
+          chunkTokens = 0;
+        }
+      }
+      chunk.collapse(DATA_CHUNK);
+      expression.done(MathematicaElementTypes.DATA_EXPRESSION);
+    }
+    rootMarker.done(root);
+    return builder.getTreeBuilt();
+  }
+
+  /**
+   * Creates the tokens of a {@link MathematicaElementTypes#DATA_CHUNK} when its children are accessed.
+   *
+   * @param root    The chunk type
+   * @param builder Through this, the AST is built up by placing markers.
+   * @return The chunk with the flat list of its tokens
+   */
+  @NotNull
+  private static ASTNode parseDataChunk(@NotNull IElementType root, @NotNull PsiBuilder builder) {
+    final Marker rootMarker = builder.mark();
+    while (!builder.eof()) {
+      builder.advanceLexer();
+    }
+    rootMarker.done(root);
+    return builder.getTreeBuilt();
+  }
+
   public Result parseExpression() throws CriticalParserError {
     return parseExpression(0);
   }
@@ -134,10 +291,6 @@ public class MathematicaParser implements PsiParser {
   public Result parseExpression(int precedence) throws CriticalParserError {
     if (myBuilder.eof()) return notParsed();
 
-    if (myRecursionDepth > MAX_RECURSION_DEPTH) {
-      throw new CriticalParserError("Maximal recursion depth exceeded during parsing.");
-    }
-
     IElementType token = myBuilder.getTokenType();
     if (token == null) {
       return notParsed();
@@ -148,6 +301,10 @@ public class MathematicaParser implements PsiParser {
       return notParsed();
     }
 
+    if (myRecursionDepth > MAX_RECURSION_DEPTH) {
+      return parseTooDeeplyNestedExpression();
+    }
+
     increaseRecursionDepth();
     Result left = prefix.parse(this);
 
@@ -166,14 +323,46 @@ public class MathematicaParser implements PsiParser {
     return left;
   }
 
+  /**
+   * Consumes an expression that is nested too deep to be parsed recursively. Brackets are only counted, and the
+   * expression ends before a closing bracket, comma or semicolon of the enclosing expression or at a line break
+   * when all brackets are closed. This needs no recursion, so arbitrarily deep nesting only costs the flat list of
+   * tokens.
+   * <p>
+   * Operators are not looked at, so the flat expression can take more than the operand it replaces. In
+   * <code >a^(...) + b</code>, the too deeply nested operand of <code >Power</code> becomes <code >(...) + b</code>
+   * instead of <code >(...)</code>. This only changes the structure inside the too deeply nested part.
+   *
+   * @return the parsed {@link MathematicaElementTypes#DATA_EXPRESSION}
+   */
+  private Result parseTooDeeplyNestedExpression() {
+    final Marker mark = myBuilder.mark();
+    int depth = 0;
+    do {
+      final IElementType token = myBuilder.getTokenType();
+      if (OPENING_BRACKETS.contains(token)) {
+        depth++;
+      } else if (CLOSING_BRACKETS.contains(token)) {
+        depth--;
+      }
+      myImportantLinebreakHandler.reset();
+      myBuilder.advanceLexer();
+    } while (!myBuilder.eof() &&
+        (depth > 0 || !NESTED_EXPRESSION_ENDS.contains(myBuilder.getTokenType()) && !myImportantLinebreakHandler.hadLineBreak()));
+    mark.done(MathematicaElementTypes.DATA_EXPRESSION);
+    // the result belongs to the level below the caller, like the result of any other parsed expression
+    increaseRecursionDepth();
+    final Result result = result(mark, MathematicaElementTypes.DATA_EXPRESSION, true);
+    decreaseRecursionDepth();
+    return result;
+  }
+
   @Nullable
   private InfixParselet getInfixOrMultiplyParselet(IElementType token) {
     InfixParselet infixParselet = getInfixParselet(token);
-    PrefixParselet prefixParselet = getPrefixParselet(token);
-
     if (infixParselet != null) return infixParselet;
 
-    if (prefixParselet == null) {
+    if (getPrefixParselet(token) == null) {
       return null;
     }
 
@@ -243,15 +432,20 @@ public class MathematicaParser implements PsiParser {
 
   /**
    * For the Pratt parser we need the left side which was already parsed. An instance of this will provide all necessary
-   * information required to know what expression was parsed on the left of an infix operator.
+   * information required to know what expression was parsed on the left of an infix operator. Instances are reused by
+   * the parser, see {@link #result(Marker, IElementType, boolean)}.
    */
   public static final class Result {
 
-    private final Marker myLeftMark;
-    private final IElementType myLeftToken;
-    private final boolean myParsed;
+    private Marker myLeftMark;
+    private IElementType myLeftToken;
+    private boolean myParsed;
 
     private Result(Marker leftMark, IElementType leftToken, boolean parsed) {
+      set(leftMark, leftToken, parsed);
+    }
+
+    private void set(Marker leftMark, IElementType leftToken, boolean parsed) {
       this.myLeftMark = leftMark;
       this.myLeftToken = leftToken;
       this.myParsed = parsed;
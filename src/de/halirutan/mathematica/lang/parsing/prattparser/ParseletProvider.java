@@ -26,6 +26,7 @@ import com.intellij.psi.tree.IElementType;
 import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes;
 import de.halirutan.mathematica.lang.parsing.prattparser.parselets.*;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -45,6 +46,11 @@ public class ParseletProvider {
   private static final Map<PrefixParselet, IElementType> PREFIX_TO_IELEMENT = new HashMap<>();
   private static final Map<InfixParselet, IElementType> INFIX_TO_IELEMENT = new HashMap<>();
 
+  // The maps above are only used while registering. Looking up parselets happens for every token, so we use arrays
+  // that are indexed by IElementType#getIndex()
+  private static final PrefixParselet[] PREFIX_BY_TOKEN_INDEX;
+  private static final InfixParselet[] INFIX_BY_TOKEN_INDEX;
+
   static {
     register(MathematicaElementTypes.LEFT_PAR, MathematicaElementTypes.GROUP_EXPRESSION, new GroupParselet(85)); // Group(()
     register(MathematicaElementTypes.LEFT_BRACE, MathematicaElementTypes.LIST_EXPRESSION, new ListParselet(82)); // Group(()
@@ -176,6 +182,8 @@ public class ParseletProvider {
 
     register(MathematicaElementTypes.SEMICOLON, MathematicaElementTypes.COMPOUND_EXPRESSION_EXPRESSION, new CompoundExpressionParselet(2)); // CompoundExpression(;)
 
+    PREFIX_BY_TOKEN_INDEX = createLookupArray(IELEMENT_TO_PREFIX, new PrefixParselet[0]);
+    INFIX_BY_TOKEN_INDEX = createLookupArray(IELEMENT_TO_INFIX, new InfixParselet[0]);
   }
 
   private ParseletProvider() {
@@ -189,7 +197,11 @@ public class ParseletProvider {
    * @return The {@link PrefixParselet} if available for this token and {@code null} otherwise.
    */
   public static PrefixParselet getPrefixParselet(IElementType token) {
-    return IELEMENT_TO_PREFIX.get(token);
+    if (token == null) {
+      return null;
+    }
+    final int index = token.getIndex();
+    return index < PREFIX_BY_TOKEN_INDEX.length ? PREFIX_BY_TOKEN_INDEX[index] : null;
   }
 
   /**
@@ -200,7 +212,11 @@ public class ParseletProvider {
    * @return The {@link InfixParselet} if available for this token and {@code null} otherwise.
    */
   public static InfixParselet getInfixParselet(IElementType token) {
-    return IELEMENT_TO_INFIX.get(token);
+    if (token == null) {
+      return null;
+    }
+    final int index = token.getIndex();
+    return index < INFIX_BY_TOKEN_INDEX.length ? INFIX_BY_TOKEN_INDEX[index] : null;
   }
 
   /**
@@ -211,7 +227,7 @@ public class ParseletProvider {
    * @return The precedence of the specified token or 0 whether the precedence is not available.
    */
   public static int getPrecedence(IElementType token) {
-    InfixParselet parselet = IELEMENT_TO_INFIX.get(token);
+    InfixParselet parselet = getInfixParselet(token);
     if (parselet != null) {
       return parselet.getMyPrecedence();
     }
@@ -227,10 +243,7 @@ public class ParseletProvider {
    */
   public static int getPrecedence(PsiBuilder builder) {
     IElementType token = builder.getTokenType();
-    if (token == null) {
-      return 0;
-    }
-    InfixParselet parselet = IELEMENT_TO_INFIX.get(token);
+    InfixParselet parselet = getInfixParselet(token);
     if (parselet != null) {
       return parselet.getMyPrecedence();
     }
@@ -271,6 +284,16 @@ public class ParseletProvider {
     return elm;
   }
 
+  private static <T> T[] createLookupArray(Map<IElementType, T> parselets, T[] empty) {
+    int maxIndex = -1;
+    for (IElementType token : parselets.keySet()) {
+      maxIndex = Math.max(maxIndex, token.getIndex());
+    }
+    final T[] result = Arrays.copyOf(empty, maxIndex + 1);
+    parselets.forEach((token, parselet) -> result[token.getIndex()] = parselet);
+    return result;
+  }
+
   private static void register(IElementType token, IElementType expressionToken, PrefixParselet parselet) {
     IELEMENT_TO_PREFIX.put(token, parselet);
     PREFIX_TO_IELEMENT.put(parselet, expressionToken);
@@ -61,7 +61,7 @@ public class AssociationParselet implements PrefixParselet {
       result = false;
     }
     associationMarker.done(ASSOCIATION_EXPRESSION);
-    return MathematicaParser.result(associationMarker, ASSOCIATION_EXPRESSION, result && seqResult.isParsed());
+    return parser.result(associationMarker, ASSOCIATION_EXPRESSION, result && seqResult.isParsed());
   }
 
   public int getPrecedence() {
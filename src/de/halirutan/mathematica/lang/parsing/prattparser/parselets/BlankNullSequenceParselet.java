@@ -57,6 +57,6 @@ public class BlankNullSequenceParselet implements InfixParselet {
       symbolParselet.parse(parser);
     }
     blankMark.done(token);
-    return MathematicaParser.result(blankMark, token, true);
+    return parser.result(blankMark, token, true);
   }
 }
@@ -51,8 +51,8 @@ public class BlankParselet implements InfixParselet {
     }
 //    MathematicaParser.Result expr = parser.parseExpression(myPrecedence);
     blankMark.done(token);
-//    return MathematicaParser.result(blankMark, token, !expr.isValid() || expr.isParsed());
-    return MathematicaParser.result(blankMark, token, true);
+//    return parser.result(blankMark, token, !expr.isValid() || expr.isParsed());
+    return parser.result(blankMark, token, true);
   }
 
   @Override
@@ -55,6 +55,6 @@ public class BlankSequenceParselet implements InfixParselet {
       symbolParselet.parse(parser);
     }
     blankMark.done(token);
-    return MathematicaParser.result(blankMark, token, true);
+    return parser.result(blankMark, token, true);
   }
 }
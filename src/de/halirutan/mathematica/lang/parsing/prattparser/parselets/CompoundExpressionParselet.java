@@ -61,7 +61,7 @@ public class CompoundExpressionParselet implements InfixParselet {
     }
 
     compoundExprMark.done(token);
-    return MathematicaParser.result(compoundExprMark, token, ok);
+    return parser.result(compoundExprMark, token, ok);
 
   }
 }
@@ -52,7 +52,7 @@ public class DerivativeParselet implements InfixParselet {
     }
     derivativeMark.done(DERIVATIVE_EXPRESSION);
 
-    return MathematicaParser.result(derivativeMark, DERIVATIVE_EXPRESSION, true);
+    return parser.result(derivativeMark, DERIVATIVE_EXPRESSION, true);
   }
 
   @Override
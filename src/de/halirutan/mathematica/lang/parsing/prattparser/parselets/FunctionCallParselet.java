@@ -84,27 +84,27 @@ public class FunctionCallParselet implements InfixParselet {
         parser.advanceLexer();
         parser.advanceLexer();
         mainMark.done(MathematicaElementTypes.PART_EXPRESSION);
-        return MathematicaParser.result(mainMark, MathematicaElementTypes.PART_EXPRESSION, exprSeq.isParsed() && hasArgs);
+        return parser.result(mainMark, MathematicaElementTypes.PART_EXPRESSION, exprSeq.isParsed() && hasArgs);
       } else if (isPartExpr) {
         parser.advanceLexer();
         parser.error(ParserBundle.message("General.closing", "']]'"));
         mainMark.done(MathematicaElementTypes.PART_EXPRESSION);
-        return MathematicaParser.result(mainMark, MathematicaElementTypes.PART_EXPRESSION, false);
+        return parser.result(mainMark, MathematicaElementTypes.PART_EXPRESSION, false);
       } else if (isAssociationSlot) {
         parser.advanceLexer();
         mainMark.done(MathematicaElementTypes.SLOT_EXPRESSION);
-        return MathematicaParser.result(mainMark, MathematicaElementTypes.SLOT_EXPRESSION, true);
+        return parser.result(mainMark, MathematicaElementTypes.SLOT_EXPRESSION, true);
       } else {
         parser.advanceLexer();
         mainMark.done(MathematicaElementTypes.FUNCTION_CALL_EXPRESSION);
-        return MathematicaParser.result(mainMark, MathematicaElementTypes.FUNCTION_CALL_EXPRESSION, true);
+        return parser.result(mainMark, MathematicaElementTypes.FUNCTION_CALL_EXPRESSION, true);
       }
     }
 
     parser.error(ParserBundle.message("General.closing", "']'"));
     IElementType expressionType = isPartExpr ? MathematicaElementTypes.PART_EXPRESSION : MathematicaElementTypes.FUNCTION_CALL_EXPRESSION;
     mainMark.done(expressionType);
-    return MathematicaParser.result(mainMark, expressionType, false);
+    return parser.result(mainMark, expressionType, false);
 
   }
 
@@ -66,7 +66,7 @@ public class GroupParselet implements PrefixParselet {
 
       // if we find a closing ) we return the group as parsed successful, no matter whether
       // the containing expression was parsed. Errors in the expression are marked there anyway.
-      result = MathematicaParser.result(groupMark, token, true);
+      result = parser.result(groupMark, token, true);
     } else {
       // when the grouped expr was parsed successfully and we just don't find the closing parenthesis we
       // create an error mark there. Otherwise we just return "not parsed" since something seems to be really
@@ -74,7 +74,7 @@ public class GroupParselet implements PrefixParselet {
       if (result.isParsed()) {
         parser.error(ParserBundle.message("General.closing", "')'"));
         groupMark.done(token);
-        result = MathematicaParser.result(groupMark, token, false);
+        result = parser.result(groupMark, token, false);
       } else {
         result = MathematicaParser.notParsed();
         groupMark.drop();
@@ -49,7 +49,7 @@ public class ImplicitMultiplicationParselet implements InfixParselet {
     Result result = parser.parseExpression(PRECEDENCE);
     if (result.isParsed()) {
       timesMarker.done(MathematicaElementTypes.TIMES_EXPRESSION);
-      result = MathematicaParser.result(timesMarker, MathematicaElementTypes.TIMES_EXPRESSION, true);
+      result = parser.result(timesMarker, MathematicaElementTypes.TIMES_EXPRESSION, true);
     } else {
       parser.error(ParserBundle.message("General.eof"));
       timesMarker.done(MathematicaElementTypes.TIMES_EXPRESSION);
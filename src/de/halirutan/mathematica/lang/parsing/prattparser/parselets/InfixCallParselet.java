@@ -48,7 +48,7 @@ public class InfixCallParselet implements InfixParselet {
   public Result parse(MathematicaParser parser, Result left) throws CriticalParserError {
     Marker infixCall = left.getMark().precede();
     parser.advanceLexer();
-    Result operator = parser.parseExpression(myPrecedence);
+    final boolean operatorParsed = parser.parseExpression(myPrecedence).isParsed();
 
     if (parser.matchesToken(MathematicaElementTypes.INFIX_CALL)) {
       parser.advanceLexer();
@@ -57,16 +57,16 @@ public class InfixCallParselet implements InfixParselet {
         parser.error(ParserBundle.message("Infix.missing.arg2"));
       }
       infixCall.done(MathematicaElementTypes.INFIX_CALL_EXPRESSION);
-      return MathematicaParser.result(infixCall, MathematicaElementTypes.INFIX_CALL_EXPRESSION, operator.isParsed() && operand2.isParsed());
+      return parser.result(infixCall, MathematicaElementTypes.INFIX_CALL_EXPRESSION, operatorParsed && operand2.isParsed());
     } else {
       // if the operator was not parsed successfully we will not display a parsing error
-      if (operator.isParsed()) {
+      if (operatorParsed) {
         parser.error(ParserBundle.message("Infix.missing.tilde"));
       } else {
         parser.error(ParserBundle.message("Infix.operator.missing"));
       }
       infixCall.done(MathematicaElementTypes.INFIX_CALL_EXPRESSION);
-      return MathematicaParser.result(infixCall, MathematicaElementTypes.INFIX_CALL_EXPRESSION, false);
+      return parser.result(infixCall, MathematicaElementTypes.INFIX_CALL_EXPRESSION, false);
     }
   }
 
@@ -56,7 +56,7 @@ public class InfixOperatorParselet implements InfixParselet {
     Result result = parser.parseExpression(myPrecedence - (myRightAssociative ? 1 : 0));
     if (result.isParsed()) {
       infixOperationMarker.done(token);
-      result = MathematicaParser.result(infixOperationMarker, token, true);
+      result = parser.result(infixOperationMarker, token, true);
     } else {
       parser.error(ParserBundle.message("General.input"));
       infixOperationMarker.done(token);
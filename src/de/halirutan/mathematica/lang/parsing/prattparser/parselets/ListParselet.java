@@ -63,7 +63,7 @@ public class ListParselet implements PrefixParselet {
       result = false;
     }
     listMarker.done(LIST_EXPRESSION);
-    return MathematicaParser.result(listMarker, LIST_EXPRESSION, result && seqResult.isParsed());
+    return parser.result(listMarker, LIST_EXPRESSION, result && seqResult.isParsed());
   }
 
   public int getPrecedence() {
@@ -81,7 +81,7 @@ public class MessageNameParselet implements InfixParselet {
       parser.error(ParserBundle.message("MessageName.arg"));
     }
     messageNameMarker.done(MathematicaElementTypes.MESSAGE_NAME_EXPRESSION);
-    return MathematicaParser.result(messageNameMarker, MathematicaElementTypes.MESSAGE_NAME_EXPRESSION, result.isParsed());
+    return parser.result(messageNameMarker, MathematicaElementTypes.MESSAGE_NAME_EXPRESSION, result.isParsed());
 
   }
 
@@ -48,7 +48,7 @@ public class NumberParselet implements PrefixParselet {
     Marker mark = parser.mark();
     parser.advanceLexer();
     mark.done(ParseletProvider.getPrefixPsiElement(this));
-    return MathematicaParser.result(mark, token, true);
+    return parser.result(mark, token, true);
   }
 
   public int getPrecedence() {
@@ -95,7 +95,7 @@ final class ParserUtil {
         break;
       }
     }
-    return MathematicaParser.result(result.getMark(), result.getToken(), sequenceParsed);
+    return parser.result(result.getMark(), result.getToken(), sequenceParsed);
   }
 
 }
@@ -48,18 +48,17 @@ public class PatternParselet implements InfixParselet {
     }
 
     Marker patternOptional = left.getMark().precede();
-    parser.advanceLexer();
-    Result result = parser.parseExpression(myPrecedence);
-
     IElementType expressionType = left.getToken().equals(MathematicaElementTypes.SYMBOL_EXPRESSION) ?
         MathematicaElementTypes.PATTERN_EXPRESSION : MathematicaElementTypes.OPTIONAL_EXPRESSION;
+    parser.advanceLexer();
+    Result result = parser.parseExpression(myPrecedence);
 
     if (!result.isParsed()) {
       parser.error(ParserBundle.message("Pattern.error"));
     }
 
     patternOptional.done(expressionType);
-    return MathematicaParser.result(patternOptional, expressionType, result.isParsed());
+    return parser.result(patternOptional, expressionType, result.isParsed());
   }
 
   @Override
@@ -48,7 +48,7 @@ public class PostfixOperatorParselet implements InfixParselet {
     Marker postfixMarker = left.getMark().precede();
     parser.advanceLexer();
     postfixMarker.done(psiElement);
-    return MathematicaParser.result(postfixMarker, token, true);
+    return parser.result(postfixMarker, token, true);
   }
 
   @Override
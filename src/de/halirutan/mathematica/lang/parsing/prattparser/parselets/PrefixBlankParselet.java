@@ -47,7 +47,7 @@ public class PrefixBlankParselet implements PrefixParselet {
     parser.advanceLexer();
     Result result = parser.parseExpression(myPrecedence);
     blankMark.done(token);
-    return MathematicaParser.result(blankMark, token, !result.isValid() || result.isParsed());
+    return parser.result(blankMark, token, !result.isValid() || result.isParsed());
   }
 
   public int getPrecedence() {
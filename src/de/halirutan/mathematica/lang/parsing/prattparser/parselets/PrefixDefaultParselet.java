@@ -45,7 +45,7 @@ public class PrefixDefaultParselet implements PrefixParselet {
     Marker mark = parser.mark();
     parser.advanceLexer();
     mark.done(DEFAULT_EXPRESSION);
-    return MathematicaParser.result(mark, DEFAULT_EXPRESSION, true);
+    return parser.result(mark, DEFAULT_EXPRESSION, true);
 
   }
 
@@ -49,10 +49,10 @@ public class PrefixGetParselet implements PrefixParselet {
     if (parser.matchesToken(MathematicaElementTypes.STRINGIFIED_IDENTIFIER) || parser.matchesToken(MathematicaElementTypes.STRING_LITERAL_BEGIN)) {
       final Result result1 = parser.parseExpression(myPrecedence);
       getMark.done(type);
-      return MathematicaParser.result(getMark, type, result1.isParsed());
+      return parser.result(getMark, type, result1.isParsed());
     } else {
       getMark.error(ParserBundle.message("Get.stringified.symbol.expected"));
-      return MathematicaParser.result(getMark, type, false);
+      return parser.result(getMark, type, false);
     }
   }
 
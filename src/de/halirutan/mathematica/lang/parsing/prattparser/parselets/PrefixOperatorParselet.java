@@ -47,7 +47,7 @@ public class PrefixOperatorParselet implements PrefixParselet {
     IElementType token = ParseletProvider.getPrefixPsiElement(this);
     Result result = parser.parseExpression(myPrecedence);
     mark.done(token);
-    return MathematicaParser.result(mark, token, result.isParsed());
+    return parser.result(mark, token, result.isParsed());
 
   }
 
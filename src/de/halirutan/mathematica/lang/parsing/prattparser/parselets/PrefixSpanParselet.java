@@ -69,15 +69,15 @@ public class PrefixSpanParselet implements PrefixParselet {
       } else {
         spanMark.done(SPAN_EXPRESSION);
       }
-      return MathematicaParser.result(spanMark, SPAN_EXPRESSION, !skipped);
+      return parser.result(spanMark, SPAN_EXPRESSION, !skipped);
     }
 
-    Result expr1 = parser.parseExpression(myPrecedence);
+    final boolean expr1Parsed = parser.parseExpression(myPrecedence).isParsed();
 
     // if we had ;;;;expr1
     if (skipped) {
       spanMark.done(SPAN_EXPRESSION);
-      return MathematicaParser.result(spanMark, SPAN_EXPRESSION, expr1.isParsed());
+      return parser.result(spanMark, SPAN_EXPRESSION, expr1Parsed);
     }
 
     if (parser.matchesToken(SPAN)) {
@@ -87,11 +87,11 @@ public class PrefixSpanParselet implements PrefixParselet {
         spanMark.done(SPAN_EXPRESSION);
       } else
         spanMark.error(ParserBundle.message("General.expr.expected.after", "';;expr1;;'"));
-      return MathematicaParser.result(spanMark, SPAN_EXPRESSION, expr1.isParsed() && expr2.isParsed());
+      return parser.result(spanMark, SPAN_EXPRESSION, expr1Parsed && expr2.isParsed());
     } else {
       // we have the form expr0;;expr1
       spanMark.done(SPAN_EXPRESSION);
-      return MathematicaParser.result(spanMark, SPAN_EXPRESSION, expr1.isParsed());
+      return parser.result(spanMark, SPAN_EXPRESSION, expr1Parsed);
     }
   }
 
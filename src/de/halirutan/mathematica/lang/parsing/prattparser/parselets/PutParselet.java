@@ -49,10 +49,10 @@ public class PutParselet implements InfixParselet {
     if (parser.matchesToken(MathematicaElementTypes.STRINGIFIED_IDENTIFIER) || parser.matchesToken(MathematicaElementTypes.STRING_LITERAL_BEGIN)) {
       final Result result1 = parser.parseExpression(myPrecedence);
       putMark.done(type);
-      return MathematicaParser.result(putMark, type, result1.isParsed());
+      return parser.result(putMark, type, result1.isParsed());
     } else {
       putMark.error(ParserBundle.message("Put.rhs"));
-      return MathematicaParser.result(putMark, type, false);
+      return parser.result(putMark, type, false);
     }
   }
 
@@ -47,7 +47,7 @@ public class SlotExpressionParselet implements PrefixParselet {
         if (tokenType.equals(MathematicaElementTypes.ASSOCIATION_SLOT)) {
             parser.advanceLexer();
             mark.done(tokenType);
-            return MathematicaParser.result(mark, tokenType, true);
+            return parser.result(mark, tokenType, true);
         } else {
             return MathematicaParser.notParsed();
         }
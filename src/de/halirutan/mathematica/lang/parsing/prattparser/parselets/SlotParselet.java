@@ -51,7 +51,7 @@ public class SlotParselet implements PrefixParselet {
     if (SLOTS.contains(tokenType)) {
       parser.advanceLexer();
       mark.done(tokenType);
-      return MathematicaParser.result(mark, tokenType, true);
+      return parser.result(mark, tokenType, true);
     } else {
       return MathematicaParser.notParsed();
     }
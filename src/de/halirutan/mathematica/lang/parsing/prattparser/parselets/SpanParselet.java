@@ -49,6 +49,7 @@ public class SpanParselet implements InfixParselet {
   @Override
   public Result parse(MathematicaParser parser, Result left) throws CriticalParserError {
     Marker spanMark = left.getMark().precede();
+    final boolean leftParsed = left.isParsed();
     boolean skipped = false;
 
     if (parser.matchesToken(SPAN)) {
@@ -74,15 +75,15 @@ public class SpanParselet implements InfixParselet {
       } else {
         spanMark.done(SPAN_EXPRESSION);
       }
-      return MathematicaParser.result(spanMark, SPAN_EXPRESSION, left.isParsed() && !skipped);
+      return parser.result(spanMark, SPAN_EXPRESSION, leftParsed && !skipped);
     }
 
-    Result expr1 = parser.parseExpression(myPrecedence);
+    final boolean expr1Parsed = parser.parseExpression(myPrecedence).isParsed();
 
     // if we had expr0;;;;expr1
     if (skipped) {
       spanMark.done(SPAN_EXPRESSION);
-      return MathematicaParser.result(spanMark, SPAN_EXPRESSION, left.isParsed() && expr1.isParsed());
+      return parser.result(spanMark, SPAN_EXPRESSION, leftParsed && expr1Parsed);
     }
 
     if (parser.matchesToken(SPAN)) {
@@ -92,11 +93,11 @@ public class SpanParselet implements InfixParselet {
         spanMark.done(SPAN_EXPRESSION);
       } else
         spanMark.error(ParserBundle.message("General.expr.expected.after", "'expr0;;expr1;;'"));
-      return MathematicaParser.result(spanMark, SPAN_EXPRESSION, left.isParsed() && expr1.isParsed() && expr2.isParsed());
+      return parser.result(spanMark, SPAN_EXPRESSION, leftParsed && expr1Parsed && expr2.isParsed());
     } else {
       // we have the form expr0;;expr1
       spanMark.done(SPAN_EXPRESSION);
-      return MathematicaParser.result(spanMark, SPAN_EXPRESSION, left.isParsed() && expr1.isParsed());
+      return parser.result(spanMark, SPAN_EXPRESSION, leftParsed && expr1Parsed);
     }
   }
 
@@ -62,7 +62,7 @@ public class StringParselet implements PrefixParselet {
       parsedQ = false;
     }
     stringMark.done(MathematicaElementTypes.STRING_LITERAL_EXPRESSION);
-    return MathematicaParser.result(stringMark, MathematicaElementTypes.STRING_LITERAL_EXPRESSION, parsedQ);
+    return parser.result(stringMark, MathematicaElementTypes.STRING_LITERAL_EXPRESSION, parsedQ);
   }
 
   public int getPrecedence() {
@@ -58,7 +58,7 @@ public class SymbolParselet implements PrefixParselet {
     }
     parser.advanceLexer();
     symbolMark.done(finalExpressionType);
-    return MathematicaParser.result(symbolMark, finalExpressionType, true);
+    return parser.result(symbolMark, finalExpressionType, true);
   }
 
   public int getPrecedence() {
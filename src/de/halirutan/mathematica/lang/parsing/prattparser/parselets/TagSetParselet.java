@@ -56,10 +56,11 @@ public class TagSetParselet implements InfixParselet {
     // a /: b := c := d is then correctly parsed as a /: b := (c := d)
     Result expr1 = parser.parseExpression(myPrecedence);
 
+    final boolean expr1Parsed = expr1.isParsed();
     if (!expr1.isValid()) {
       parser.error(ParserBundle.message("TagSet.missing.pattern"));
       tagSetMark.done(MathematicaElementTypes.TAG_SET_EXPRESSION);
-      return MathematicaParser.result(tagSetMark, MathematicaElementTypes.TAG_SET_EXPRESSION, false);
+      return parser.result(tagSetMark, MathematicaElementTypes.TAG_SET_EXPRESSION, false);
     }
 
 //    IElementType tokenType = parser.getTokenTypeSave(tagSetMark);
@@ -68,14 +69,14 @@ public class TagSetParselet implements InfixParselet {
     if (tokenType == null) {
       parser.error(ParserBundle.message("TagSet.missing.set"));
       tagSetMark.done(MathematicaElementTypes.TAG_SET_EXPRESSION);
-      return MathematicaParser.result(tagSetMark, MathematicaElementTypes.TAG_SET_EXPRESSION, false);
+      return parser.result(tagSetMark, MathematicaElementTypes.TAG_SET_EXPRESSION, false);
     }
 
     // Form expr0 /: expr1 =. where nothing needs to be parsed right of the =.
     if (tokenType.equals(MathematicaElementTypes.UNSET)) {
       parser.advanceLexer();
       tagSetMark.done(MathematicaElementTypes.TAG_UNSET_EXPRESSION);
-      return MathematicaParser.result(tagSetMark, MathematicaElementTypes.TAG_UNSET_EXPRESSION, expr1.isParsed());
+      return parser.result(tagSetMark, MathematicaElementTypes.TAG_UNSET_EXPRESSION, expr1Parsed);
     }
 
     // Form expr0 /: expr1 := expr2 or expr0 /: expr1 = expr2 where we need to parse expr2
@@ -88,13 +89,13 @@ public class TagSetParselet implements InfixParselet {
       }
 
       tagSetMark.done(endType);
-      return MathematicaParser.result(tagSetMark, endType, expr1.isParsed() && expr2.isParsed());
+      return parser.result(tagSetMark, endType, expr1Parsed && expr2.isParsed());
     }
 
     // if we are here, the second operator (:=, = or =.) is missing and we give up
     parser.error(ParserBundle.message("TagSet.missing.set"));
     tagSetMark.done(MathematicaElementTypes.TAG_SET_EXPRESSION);
-    return MathematicaParser.result(tagSetMark, MathematicaElementTypes.TAG_SET_EXPRESSION, false);
+    return parser.result(tagSetMark, MathematicaElementTypes.TAG_SET_EXPRESSION, false);
   }
 
   @Override
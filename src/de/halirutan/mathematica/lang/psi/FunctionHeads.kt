@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017 Patrick Scheibe
+ * Copyright (c) 2018 Patrick Scheibe
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
  * in the Software without restriction, including without limitation the rights
@@ -19,19 +19,24 @@
  * THE SOFTWARE.
  */
 
-package de.halirutan.mathematica.lang.psi.impl;
-
-import de.halirutan.mathematica.lang.psi.api.Symbol;
-import org.jetbrains.annotations.NotNull;
+package de.halirutan.mathematica.lang.psi
 
 /**
- * @author patrick (13.07.17).
+ * Sets of function heads that are tested in hot code like indexing or the collection of definitions. They are built
+ * only once and should be used with [de.halirutan.mathematica.lang.psi.api.FunctionCall.hasHead] which is a simple
+ * hash lookup instead of a regex match.
  */
-public class LightExternalSymbol extends LightSymbol {
-
-
-  public LightExternalSymbol(@NotNull Symbol symbol) {
-    super(symbol);
-  }
-
+object FunctionHeads {
+    @JvmField
+    val SET_ASSIGNMENTS: Set<String> = setOf(SymbolNames.Set, SymbolNames.SetDelayed)
+    @JvmField
+    val TAG_SET_ASSIGNMENTS: Set<String> = setOf(SymbolNames.TagSet, SymbolNames.TagSetDelayed)
+    @JvmField
+    val UP_SET_ASSIGNMENTS: Set<String> = setOf(SymbolNames.UpSet, SymbolNames.UpSetDelayed)
+    @JvmField
+    val SYMBOL_PROPERTY_ASSIGNMENTS: Set<String> = setOf(SymbolNames.SetAttributes, SymbolNames.SetOptions)
+    @JvmField
+    val PACKAGE_ENDS: Set<String> = setOf(SymbolNames.End, SymbolNames.EndPackage)
+    @JvmField
+    val MODULE_OR_WITH: Set<String> = setOf(SymbolNames.Module, SymbolNames.With)
 }
@@ -29,4 +29,18 @@ object SymbolNames {
     const val BeginPackage = "BeginPackage"
     const val EndPackage = "EndPackage"
     const val End = "End"
+    const val Needs = "Needs"
+    const val Get = "Get"
+    const val If = "If"
+    const val Module = "Module"
+    const val With = "With"
+    const val Set = "Set"
+    const val SetDelayed = "SetDelayed"
+    const val TagSet = "TagSet"
+    const val TagSetDelayed = "TagSetDelayed"
+    const val UpSet = "UpSet"
+    const val UpSetDelayed = "UpSetDelayed"
+    const val SetAttributes = "SetAttributes"
+    const val SetOptions = "SetOptions"
+    const val Message = "Message"
 }
\ No newline at end of file
@@ -29,6 +29,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * {@link PsiElement} of function calls. In Mathematica, this is everything that looks like
@@ -60,7 +61,10 @@ public interface FunctionCall extends Expression {
    *
    * @param head The head which should be tested.
    * @return True, if head matches the Head of the function call.
+   * @deprecated compiles a new regex on every call. Use {@link #hasHead(String)} or {@link #hasHead(Set)} with one of
+   * the precomputed sets in {@link de.halirutan.mathematica.lang.psi.FunctionHeads}.
    */
+  @Deprecated
   boolean matchesHead(String head);
 
   /**
@@ -80,6 +84,15 @@ public interface FunctionCall extends Expression {
    */
   boolean hasHead(@NotNull final String[] otherHeads);
 
+  /**
+   * Tests if the head of the function is contained in a set of heads. This is a hash lookup and should be preferred
+   * in code that is called often like indexers or definition collectors.
+   *
+   * @param otherHeads set of heads to test, e.g. from {@link de.halirutan.mathematica.lang.psi.FunctionHeads}
+   * @return true if any head matches
+   */
+  boolean hasHead(@NotNull final Set<String> otherHeads);
+
 
   /**
    * Returns the type of scoping construct, if the function call is e.g. <code >Module[..]</code>
@@ -25,8 +25,10 @@ package de.halirutan.mathematica.lang.psi.api;
 
 import com.intellij.psi.PsiFile;
 import de.halirutan.mathematica.lang.resolve.SymbolResolveResult;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.HashSet;
+import java.util.Map;
 
 /**
  * Created with IntelliJ IDEA. User: patrick Date: 1/3/13 Time: 12:09 PM Purpose:
@@ -36,4 +38,13 @@ public interface MathematicaPsiFile extends PsiFile, Expression {
   void cacheLocalDefinition(SymbolResolveResult result);
 
   HashSet<SymbolResolveResult> getCachedDefinitions();
+
+  /**
+   * Returns the binding of every symbol in this file. The map is computed in one pass by {@link
+   * de.halirutan.mathematica.lang.resolve.MathematicaScopeBinder} and cached until the PSI changes.
+   *
+   * @return map from symbols in document order to their resolve result
+   */
+  @NotNull
+  Map<Symbol, SymbolResolveResult> getSymbolBindings();
 }
@@ -38,6 +38,7 @@ import de.halirutan.mathematica.lang.resolve.SymbolResolveHint;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
+import java.util.Set;
 
 public class FunctionCallImpl extends ExpressionImpl implements FunctionCall {
 
@@ -75,6 +76,7 @@ public class FunctionCallImpl extends ExpressionImpl implements FunctionCall {
     return getFirstChild();
   }
 
+  @SuppressWarnings("deprecation")
   @Override
   public boolean matchesHead(final String head) {
     return myHead != null && head != null && myHead.matches(head);
@@ -93,6 +95,11 @@ public class FunctionCallImpl extends ExpressionImpl implements FunctionCall {
     return false;
   }
 
+  @Override
+  public boolean hasHead(@NotNull final Set<String> heads) {
+    return heads.contains(myHead);
+  }
+
   @NotNull
   @Override
   public List<Expression> getArguments() {
@@ -138,7 +145,6 @@ public class FunctionCallImpl extends ExpressionImpl implements FunctionCall {
 
   @Override
   public boolean headMatches(final Class<?> clazz) {
-    final String head = getFirstChild().getText();
-    return clazz.getSimpleName().matches(head);
+    return clazz.getSimpleName().equals(myHead);
   }
 }
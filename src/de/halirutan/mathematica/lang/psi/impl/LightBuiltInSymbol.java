@@ -21,17 +21,54 @@
 
 package de.halirutan.mathematica.lang.psi.impl;
 
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.SyntheticElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.util.IncorrectOperationException;
 import de.halirutan.mathematica.lang.psi.api.Symbol;
 import org.jetbrains.annotations.NotNull;
 
 /**
+ * The target of a symbol that resolves to a built-in function. It doesn't belong to a file, so that one instance can
+ * be shared by all symbols of the same name in the project. Two built-in symbols are equal when their names are equal.
+ *
  * @author patrick (12.07.17).
  */
 public class LightBuiltInSymbol extends LightSymbol implements SyntheticElement{
 
   public LightBuiltInSymbol(@NotNull Symbol symbol) {
-    super(symbol);
+    super(symbol, null);
+  }
+
+  @Override
+  public PsiElement setName(@NotNull String name) throws IncorrectOperationException {
+    throw new IncorrectOperationException("Built-in symbols cannot be renamed");
+  }
+
+  @Override
+  public boolean isWritable() {
+    return false;
+  }
+
+  @NotNull
+  @Override
+  public SearchScope getUseScope() {
+    return GlobalSearchScope.allScope(getProject());
+  }
+
+  @Override
+  public int hashCode() {
+    return getName().hashCode();
   }
 
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof LightBuiltInSymbol && getName().equals(((LightBuiltInSymbol) obj).getName());
+  }
+
+  @Override
+  public boolean isEquivalentTo(PsiElement another) {
+    return equals(another);
+  }
 }
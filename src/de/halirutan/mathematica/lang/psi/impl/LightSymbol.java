@@ -31,6 +31,7 @@ import com.intellij.util.IncorrectOperationException;
 import de.halirutan.mathematica.lang.MathematicaLanguage;
 import de.halirutan.mathematica.lang.psi.api.Symbol;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * @author patrick (10.07.17).
@@ -40,9 +41,17 @@ public class LightSymbol extends LightElement implements PsiNamedElement {
   private final PsiFile myFile;
 
   public LightSymbol(@NotNull Symbol symbol) {
+    this(symbol, symbol.getContainingFile());
+  }
+
+  /**
+   * @param symbol the symbol this light symbol is created for
+   * @param file   the file the light symbol belongs to or null if it doesn't belong to a file
+   */
+  protected LightSymbol(@NotNull Symbol symbol, @Nullable PsiFile file) {
     super(symbol.getManager(), MathematicaLanguage.INSTANCE);
     myName = symbol.getText();
-    myFile = symbol.getContainingFile();
+    myFile = file;
   }
 
   @Override
@@ -25,24 +25,36 @@ package de.halirutan.mathematica.lang.psi.impl;
 
 import com.intellij.extapi.psi.PsiFileBase;
 import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.util.Key;
 import com.intellij.psi.FileViewProvider;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.ResolveState;
 import com.intellij.psi.scope.PsiScopeProcessor;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.containers.ContainerUtil;
 import de.halirutan.mathematica.file.MathematicaFileType;
 import de.halirutan.mathematica.lang.MathematicaLanguage;
 import de.halirutan.mathematica.lang.psi.api.MathematicaPsiFile;
+import de.halirutan.mathematica.lang.psi.api.Symbol;
+import de.halirutan.mathematica.lang.resolve.MathematicaScopeBinder;
 import de.halirutan.mathematica.lang.resolve.SymbolResolveResult;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.HashSet;
+import java.util.Map;
 
 /**
  * Created with IntelliJ IDEA. User: patrick Date: 1/3/13 Time: 12:09 PM Purpose:
  */
 public class MathematicaPsiFileImpl extends PsiFileBase implements MathematicaPsiFile {
 
+  private static final Key<CachedValue<Map<Symbol, SymbolResolveResult>>> SYMBOL_BINDINGS =
+      Key.create("Mathematica.symbolBindings");
+
   private final HashSet<SymbolResolveResult> cachedDefintions = ContainerUtil.newHashSet();
   private boolean isCacheOutdated = true;
 
@@ -82,6 +94,32 @@ public class MathematicaPsiFileImpl extends PsiFileBase implements MathematicaPs
     return cachedDefintions;
   }
 
+  /**
+   * The bindings do not only depend on this file but also on the symbols exported by other files. Therefore, they are
+   * dropped on any PSI change, just like the entries of the global resolve cache.
+   */
+  @NotNull
+  @Override
+  public Map<Symbol, SymbolResolveResult> getSymbolBindings() {
+    return CachedValuesManager.getCachedValue(this, SYMBOL_BINDINGS, () -> CachedValueProvider.Result.create(
+        MathematicaScopeBinder.bind(this), PsiModificationTracker.MODIFICATION_COUNT));
+  }
+
+  /**
+   * Looks up the binding of a symbol without triggering the computation of the bindings.
+   *
+   * @param symbol symbol of this file
+   * @return the binding if the bindings are computed and up-to-date, otherwise {@code null}
+   */
+  @Nullable
+  SymbolResolveResult getComputedSymbolBinding(@NotNull Symbol symbol) {
+    final CachedValue<Map<Symbol, SymbolResolveResult>> bindings = getUserData(SYMBOL_BINDINGS);
+    if (bindings != null && bindings.hasUpToDateValue()) {
+      return bindings.getValue().get(symbol);
+    }
+    return null;
+  }
+
   @Override
   public void subtreeChanged() {
     super.subtreeChanged();
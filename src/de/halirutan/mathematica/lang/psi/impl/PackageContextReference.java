@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.halirutan.mathematica.lang.psi.impl;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import de.halirutan.mathematica.index.PackageUtil;
+import de.halirutan.mathematica.index.packagecontext.MathematicaPackageContextIndex;
+import de.halirutan.mathematica.lang.psi.api.string.MString;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Provides references from the string argument of <code >Needs</code> or <code >Get</code> to the files that are
+ * loaded. A context like <code >"MyPackage`"</code> is looked up in {@link MathematicaPackageContextIndex} and
+ * everything else is treated as path relative to the directory of the containing file.
+ */
+public class PackageContextReference extends PsiPolyVariantReferenceBase<MString> {
+
+  public PackageContextReference(@NotNull MString element) {
+    super(element, TextRange.create(1, element.getTextLength() - 1), true);
+  }
+
+  /**
+   * Finds the files that are loaded by <code >Needs</code> or <code >Get</code>.
+   *
+   * @param context        context or file path as given in the code
+   * @param containingFile file that loads the context
+   * @param scope          search scope for files that contain the context
+   * @return the files that contain the context or the file the path points to
+   */
+  @NotNull
+  public static Collection<VirtualFile> findFiles(@NotNull String context,
+                                                  @NotNull PsiFile containingFile,
+                                                  @NotNull GlobalSearchScope scope) {
+    if (PackageUtil.absoluteContextPattern.matcher(context).matches()) {
+      return MathematicaPackageContextIndex.getFiles(context, scope);
+    }
+    final VirtualFile virtualFile = containingFile.getOriginalFile().getVirtualFile();
+    final VirtualFile directory = virtualFile != null ? virtualFile.getParent() : null;
+    final VirtualFile file = directory != null ? directory.findFileByRelativePath(context) : null;
+    return file != null && !file.isDirectory() ? Collections.singletonList(file) : Collections.emptyList();
+  }
+
+  /**
+   * Returns the scope in which packages are loaded from, which is the module of the file with its dependencies and
+   * libraries.
+   */
+  @NotNull
+  public static GlobalSearchScope getSearchScope(@NotNull Project project, @Nullable VirtualFile file) {
+    final Module module = file != null ? ModuleUtilCore.findModuleForFile(file, project) : null;
+    return module != null ? GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(module) :
+        GlobalSearchScope.allScope(project);
+  }
+
+  @NotNull
+  @Override
+  public ResolveResult[] multiResolve(boolean incompleteCode) {
+    final PsiFile containingFile = myElement.getContainingFile();
+    final GlobalSearchScope scope =
+        getSearchScope(containingFile.getProject(), containingFile.getOriginalFile().getVirtualFile());
+    final PsiManager psiManager = myElement.getManager();
+    final List<ResolveResult> result = new ArrayList<>();
+    for (VirtualFile file : findFiles(getValue(), containingFile, scope)) {
+      final PsiFile psiFile = psiManager.findFile(file);
+      if (psiFile != null) {
+        result.add(new PsiElementResolveResult(psiFile));
+      }
+    }
+    return result.toArray(ResolveResult.EMPTY_ARRAY);
+  }
+
+  @NotNull
+  @Override
+  public Object[] getVariants() {
+    return new Object[0];
+  }
+}
@@ -174,6 +174,13 @@ public class SymbolImpl extends ExpressionImpl implements Symbol {
   @Override
   public ResolveResult[] multiResolve(boolean incompleteCode) {
     final PsiFile containingFile = getContainingFile();
+    if (containingFile instanceof MathematicaPsiFileImpl) {
+      final SymbolResolveResult binding = ((MathematicaPsiFileImpl) containingFile).getComputedSymbolBinding(this);
+      if (binding != null) {
+        cacheScope(binding);
+        return new ResolveResult[]{binding};
+      }
+    }
     if (containingFile != null) {
       final ResolveCache myResolveCache = ResolveCache.getInstance(getProject());
       final ResolveResult[] localResult =
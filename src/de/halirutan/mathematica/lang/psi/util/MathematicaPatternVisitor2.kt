@@ -36,13 +36,14 @@ import de.halirutan.mathematica.lang.psi.api.rules.RuleDelayed
  */
 class MathematicaPatternVisitor2 : MathematicaVisitor() {
 
-  val patternSymbols = HashSet<Symbol>()
+  /** Collects the symbols, blanks, conditions and defaults of all visited patterns */
+  val extractor = PatternSymbolExtractor()
 
+  val patternSymbols: Set<Symbol>
+    get() = extractor.patternSymbols.toHashSet()
 
-  private fun extractPatternVariables(element: PsiElement) {
-    val extractor = PatternSymbolExtractor()
-    element.accept(extractor)
-    patternSymbols.addAll(extractor.patternSymbols)
+  private fun extractPatternVariables(element: PsiElement?) {
+    element?.accept(extractor)
   }
 
   override fun visitSetDelayed(setDelayed: SetDelayed) {
@@ -592,7 +592,7 @@ public class MathematicaPsiUtilities {
   private static String getContext(@NotNull PsiElement element, final boolean beginPackageOnly) {
     if (element instanceof FunctionCall) {
       final FunctionCall functionCall = (FunctionCall) element;
-      if (functionCall.matchesHead(SymbolNames.BeginPackage) || (!beginPackageOnly && functionCall.matchesHead(SymbolNames.Begin))) {
+      if (functionCall.hasHead(SymbolNames.BeginPackage) || (!beginPackageOnly && functionCall.hasHead(SymbolNames.Begin))) {
         final PsiElement context = functionCall.getArgument(1);
         if (context instanceof MString) {
           final String contextString = context.getText();
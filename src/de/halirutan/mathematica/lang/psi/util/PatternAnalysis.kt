@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.halirutan.mathematica.lang.psi.util
+
+import com.intellij.openapi.util.Key
+import com.intellij.psi.PsiElement
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import de.halirutan.mathematica.lang.psi.api.Symbol
+import de.halirutan.mathematica.lang.psi.api.pattern.Condition
+import de.halirutan.mathematica.lang.psi.api.rules.Rule
+import de.halirutan.mathematica.lang.psi.api.rules.RuleDelayed
+
+/**
+ * The analysed pattern of an assignment, rule or condition. Resolving, completion and annotators ask for the pattern
+ * symbols of the same constructs over and over, e.g. for every symbol inside a large rule set. Therefore, the
+ * analysis is done once per element with [getPatternAnalysis] and cached until the containing file changes.
+ *
+ * For assignments and conditions only the left side is analysed. For rules the whole rule is analysed as it was done
+ * by the resolver before.
+ */
+class PatternAnalysis private constructor(extractor: PatternSymbolExtractor) {
+
+  /** The pattern symbols in the order they appear in the text */
+  val patternSymbols: List<Symbol> = extractor.patternSymbols.distinct().sortedBy { it.textOffset }
+  /** All `Blank`, `BlankSequence` and `BlankNullSequence` elements */
+  val blanks: List<PsiElement> = extractor.blanks
+  val conditions: List<Condition> = extractor.conditions
+  /** All `Optional` and `Default` elements */
+  val defaults: List<PsiElement> = extractor.defaults
+
+  /** The pattern symbols grouped by their name. The symbols of each name are kept in text order. */
+  val declarations: Map<String, List<Symbol>> = LinkedHashMap<String, MutableList<Symbol>>().also { declarations ->
+    patternSymbols.forEach { declarations.getOrPut(it.fullSymbolName) { ArrayList(1) }.add(it) }
+  }
+
+  companion object {
+    private val PATTERN_ANALYSIS = Key.create<CachedValue<PatternAnalysis>>("Mathematica.patternAnalysis")
+
+    /**
+     * Returns the cached analysis of a `Set`, `SetDelayed`, `TagSet`, `TagSetDelayed`, `Condition`, `Rule` or
+     * `RuleDelayed` element.
+     */
+    @JvmStatic
+    fun getPatternAnalysis(element: PsiElement): PatternAnalysis =
+        CachedValuesManager.getCachedValue(element, PATTERN_ANALYSIS) {
+          CachedValueProvider.Result.create(analyse(element), element)
+        }
+
+    private fun analyse(element: PsiElement): PatternAnalysis {
+      val extractor = if (element is Rule || element is RuleDelayed) {
+        PatternSymbolExtractor().also { element.accept(it) }
+      } else {
+        MathematicaPatternVisitor2().also { element.accept(it) }.extractor
+      }
+      return PatternAnalysis(extractor)
+    }
+  }
+}
@@ -42,6 +42,11 @@ import de.halirutan.mathematica.lang.psi.api.pattern.Pattern
 class PatternSymbolExtractor : MathematicaVisitor() {
 
   val patternSymbols = ArrayList<Symbol>()
+  /** All [Blank], [BlankSequence] and [BlankNullSequence] elements of the pattern */
+  val blanks = ArrayList<PsiElement>()
+  val conditions = ArrayList<Condition>()
+  /** All [Optional] and [Default] elements of the pattern */
+  val defaults = ArrayList<PsiElement>()
   /* Except | Longest | Optional | PatternTest | Repeated | RepeatedNull | Shortest
 * HoldPattern | IgnoringInactive | KeyValuePattern | Literal | Longest | Optional | Repeated | RepeatedNull | Shortest
 * */
@@ -49,34 +54,40 @@ class PatternSymbolExtractor : MathematicaVisitor() {
   private val myDoNotDiveIn = Lists.newArrayList("Verbatim")
 
   override fun visitBlank(blank: Blank) {
+    blanks.add(blank)
     if (blank.firstChild is Symbol) {
       patternSymbols.add(blank.firstChild as Symbol)
     }
   }
 
   override fun visitBlankSequence(blankSequence: BlankSequence) {
+    blanks.add(blankSequence)
     if (blankSequence.firstChild is Symbol) {
       patternSymbols.add(blankSequence.firstChild as Symbol)
     }
   }
 
   override fun visitBlankNullSequence(blankNullSequence: BlankNullSequence) {
+    blanks.add(blankNullSequence)
     if (blankNullSequence.firstChild is Symbol) {
       patternSymbols.add(blankNullSequence.firstChild as Symbol)
     }
   }
 
   override fun visitOptional(optional: Optional) {
+    defaults.add(optional)
     val firstChild = optional.firstChild
     firstChild?.accept(this)
   }
 
   override fun visitCondition(condition: Condition) {
+    conditions.add(condition)
     val firstChild = condition.firstChild
     firstChild?.accept(this)
   }
 
   override fun visitDefault(default: Default?) {
+    default?.let { defaults.add(it) }
     default?.firstChild?.let { if (it is Symbol) patternSymbols.add(it) }
   }
 
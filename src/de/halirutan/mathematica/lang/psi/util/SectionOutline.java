@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package de.halirutan.mathematica.lang.psi.util;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import de.halirutan.mathematica.lang.psi.api.CompoundExpression;
+import de.halirutan.mathematica.lang.psi.util.Comments.CommentStyle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The outline of a file given by its top-level section comments like
+ * <code>
+ * (* ::Section:: *)
+ * (*Description of the section*)
+ * </code>
+ * A section reaches until the next section comment of the same or a higher level or until the end of the file. The
+ * outline is built in one pass over the top-level elements of the file and cached until the file changes.
+ * {@see de.halirutan.mathematica.codeinsight.folding.MathematicaExpressionFoldingBuilder}
+ */
+public class SectionOutline {
+
+  private static final Key<CachedValue<SectionOutline>> OUTLINE_KEY = Key.create("MATHEMATICA_SECTION_OUTLINE");
+
+  private final List<Section> mySections;
+
+  private SectionOutline(@NotNull List<Section> sections) {
+    mySections = Collections.unmodifiableList(sections);
+  }
+
+  @NotNull
+  public static SectionOutline getOutline(@NotNull PsiFile file) {
+    return CachedValuesManager.getCachedValue(file, OUTLINE_KEY,
+        () -> CachedValueProvider.Result.create(build(file), file));
+  }
+
+  /**
+   * @return all sections in the order of their appearance in the file
+   */
+  @NotNull
+  public List<Section> getSections() {
+    return mySections;
+  }
+
+  @NotNull
+  private static SectionOutline build(@NotNull PsiFile file) {
+    final CharSequence text = file.getViewProvider().getContents();
+    final List<Section> sections = new ArrayList<>();
+    final Deque<Section> open = new ArrayDeque<>();
+
+    for (PsiComment comment : collectTopLevelComments(file)) {
+      final int start = comment.getTextRange().getStartOffset();
+      if (!isAtLineStart(text, start)) {
+        continue;
+      }
+      final CommentStyle style = Comments.getStyle(comment);
+      if (style == null) {
+        continue;
+      }
+      while (!open.isEmpty() && open.peek().myStyle.compareTo(style) >= 0) {
+        open.pop().myEndOffset = start - 1;
+      }
+      final Section section = new Section(comment, style, open.size(), findDescription(comment, text));
+      section.myEndOffset = text.length();
+      sections.add(section);
+      open.push(section);
+    }
+    return new SectionOutline(sections);
+  }
+
+  /**
+   * Section comments can only appear on the top-level. They are either direct children of the file or, when they are
+   * placed between expressions that are separated by semicolons, children of a top-level compound expression.
+   */
+  @NotNull
+  private static List<PsiComment> collectTopLevelComments(@NotNull PsiFile file) {
+    final List<PsiComment> result = new ArrayList<>();
+    for (PsiElement child = file.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child instanceof PsiComment) {
+        result.add((PsiComment) child);
+      } else if (child instanceof CompoundExpression) {
+        for (PsiElement inner = child.getFirstChild(); inner != null; inner = inner.getNextSibling()) {
+          if (inner instanceof PsiComment) {
+            result.add((PsiComment) inner);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The description of a section is the comment that starts the line right after the section comment, as long as it
+   * is not a section comment itself.
+   */
+  @Nullable
+  private static String findDescription(@NotNull PsiComment sectionComment, @NotNull CharSequence text) {
+    PsiElement next = sectionComment.getNextSibling();
+    if (next instanceof PsiWhiteSpace) {
+      if (countNewLines(next.getText()) != 1) {
+        return null;
+      }
+      next = next.getNextSibling();
+    }
+    if (next instanceof PsiComment && isAtLineStart(text, next.getTextRange().getStartOffset()) &&
+        !Comments.isCorrectSectionComment((PsiComment) next)) {
+      return Comments.getStrippedText((PsiComment) next);
+    }
+    return null;
+  }
+
+  private static boolean isAtLineStart(@NotNull CharSequence text, int offset) {
+    return offset == 0 || text.charAt(offset - 1) == '\n';
+  }
+
+  private static int countNewLines(@NotNull String text) {
+    int count = 0;
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) == '\n') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * One entry of the outline.
+   */
+  public static class Section {
+    private final PsiComment myComment;
+    private final CommentStyle myStyle;
+    private final int myDepth;
+    private final String myDescription;
+    private int myEndOffset;
+
+    private Section(@NotNull PsiComment comment, @NotNull CommentStyle style, int depth, @Nullable String description) {
+      myComment = comment;
+      myStyle = style;
+      myDepth = depth;
+      myDescription = description;
+    }
+
+    @NotNull
+    public PsiComment getComment() {
+      return myComment;
+    }
+
+    @NotNull
+    public CommentStyle getStyle() {
+      return myStyle;
+    }
+
+    /**
+     * @return number of enclosing sections
+     */
+    public int getDepth() {
+      return myDepth;
+    }
+
+    /**
+     * @return the text of the description comment or null if the section has none
+     */
+    @Nullable
+    public String getDescription() {
+      return myDescription;
+    }
+
+    /**
+     * @return range from the start of the section comment up to the line break before the next section of the same
+     * or a higher level
+     */
+    @NotNull
+    public TextRange getRange() {
+      return TextRange.create(myComment.getTextRange().getStartOffset(), myEndOffset);
+    }
+  }
+}
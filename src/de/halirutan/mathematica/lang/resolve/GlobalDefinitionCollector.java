@@ -22,9 +22,16 @@
 package de.halirutan.mathematica.lang.resolve;
 
 import com.intellij.openapi.progress.ProgressIndicatorProvider;
+import com.intellij.openapi.util.Key;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import de.halirutan.mathematica.lang.psi.FunctionHeads;
 import de.halirutan.mathematica.lang.psi.MathematicaRecursiveVisitor;
 import de.halirutan.mathematica.lang.psi.SymbolAssignmentType;
+import de.halirutan.mathematica.lang.psi.SymbolNames;
 import de.halirutan.mathematica.lang.psi.api.FunctionCall;
 import de.halirutan.mathematica.lang.psi.api.Symbol;
 import de.halirutan.mathematica.lang.psi.api.assignment.*;
@@ -43,6 +50,8 @@ import static de.halirutan.mathematica.lang.psi.SymbolAssignmentType.*;
  */
 public class GlobalDefinitionCollector {
 
+  private static final Key<CachedValue<GlobalDefinitionCollector>> COLLECTOR_KEY = Key.create("GLOBAL_DEFINITION_COLLECTOR");
+
   private final Map<String, HashSet<AssignmentProperty>> myAssignments;
 
   public GlobalDefinitionCollector(PsiElement startElement) {
@@ -51,6 +60,19 @@ public class GlobalDefinitionCollector {
     startElement.accept(myVisitor);
   }
 
+  /**
+   * Returns the collected definitions of a file. The result is cached until the file changes so that structure view
+   * and navigation share one run over the file.
+   *
+   * @param file file to collect definitions from
+   * @return cached collector of the file
+   */
+  @NotNull
+  public static GlobalDefinitionCollector getCollector(@NotNull PsiFile file) {
+    return CachedValuesManager.getCachedValue(file, COLLECTOR_KEY,
+        () -> CachedValueProvider.Result.create(new GlobalDefinitionCollector(file), file));
+  }
+
   @NotNull
   public Map<String, HashSet<AssignmentProperty>> getAssignments() {
     return myAssignments;
@@ -144,33 +166,33 @@ public class GlobalDefinitionCollector {
     public void visitFunctionCall(final FunctionCall functionCall) {
       final PsiElement arg1 = functionCall.getArgument(1);
       if (arg1 != null) {
-        if (functionCall.matchesHead("Set|SetDelayed")) {
+        if (functionCall.hasHead(FunctionHeads.SET_ASSIGNMENTS)) {
           SetDefinitionSymbolVisitor visitor = new SetDefinitionSymbolVisitor(arg1);
           arg1.accept(visitor);
           final java.util.Set<Symbol> symbols = visitor.getUnboundSymbols();
           for (Symbol symbol : symbols) {
-            addAssignment(symbol, arg1,functionCall.matchesHead("Set") ? SET_ASSIGNMENT : SET_DELAYED_ASSIGNMENT);
+            addAssignment(symbol, arg1, functionCall.hasHead(SymbolNames.Set) ? SET_ASSIGNMENT : SET_DELAYED_ASSIGNMENT);
           }
-        } else if (functionCall.matchesHead("TagSet|TagSetDelayed")) {
+        } else if (functionCall.hasHead(FunctionHeads.TAG_SET_ASSIGNMENTS)) {
           if (arg1 instanceof Symbol) {
             addAssignment((Symbol) arg1, functionCall,
-                functionCall.matchesHead("TagSet") ? TAG_SET_ASSIGNMENT : TAG_SET_DELAYED_ASSIGNMENT);
+                functionCall.hasHead(SymbolNames.TagSet) ? TAG_SET_ASSIGNMENT : TAG_SET_DELAYED_ASSIGNMENT);
           }
-        } else if (functionCall.matchesHead("UpSet|UpSetDelayed")) {
+        } else if (functionCall.hasHead(FunctionHeads.UP_SET_ASSIGNMENTS)) {
           UpSetDefinitionSymbolVisitor visitor = new UpSetDefinitionSymbolVisitor();
           arg1.accept(visitor);
           for (Symbol symbol : visitor.getUnboundSymbols()) {
-            addAssignment(symbol, arg1, functionCall.matchesHead("UpSet") ? UP_SET_ASSIGNMENT : UP_SET_DELAYED_ASSIGNMENT);
+            addAssignment(symbol, arg1, functionCall.hasHead(SymbolNames.UpSet) ? UP_SET_ASSIGNMENT : UP_SET_DELAYED_ASSIGNMENT);
           }
-        } else if (functionCall.matchesHead("SetAttributes")) {
+        } else if (functionCall.hasHead(SymbolNames.SetAttributes)) {
           if (arg1 instanceof Symbol) {
             addAssignment((Symbol) arg1, functionCall, ATTRIBUTES_ASSIGNMENT);
           }
-        } else if (functionCall.matchesHead("SetOptions")) {
+        } else if (functionCall.hasHead(SymbolNames.SetOptions)) {
           if (arg1 instanceof Symbol) {
             addAssignment((Symbol) arg1, functionCall, OPTIONS_ASSIGNMENT);
           }
-        } else if (!functionCall.matchesHead("Module|With")) {
+        } else if (!functionCall.hasHead(FunctionHeads.MODULE_OR_WITH)) {
           ProgressIndicatorProvider.checkCanceled();
           functionCall.acceptChildren(this);
         }
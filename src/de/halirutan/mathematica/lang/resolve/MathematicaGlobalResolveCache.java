@@ -26,135 +26,459 @@ import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.NotNullLazyKey;
-import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.ResolveResult;
-import com.intellij.psi.impl.AnyPsiChangeListener;
-import com.intellij.psi.impl.PsiManagerImpl;
-import com.intellij.util.messages.MessageBus;
+import com.intellij.psi.*;
 import de.halirutan.mathematica.lang.psi.LocalizationConstruct;
+import de.halirutan.mathematica.lang.psi.api.MathematicaPsiFile;
 import de.halirutan.mathematica.lang.psi.api.Symbol;
 import de.halirutan.mathematica.lang.psi.impl.LightBuiltInSymbol;
-import de.halirutan.mathematica.lang.psi.impl.LightExternalSymbol;
 import de.halirutan.mathematica.lang.psi.impl.LightFileSymbol;
+import de.halirutan.mathematica.lang.psi.util.MathematicaPsiUtilities;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.function.Function;
 
 /**
+ * Caches the global resolve results of symbols. The cache is partitioned by the file that contains the resolved
+ * symbol so that a change in one file only invalidates what might depend on it:
+ * <ul>
+ * <li>resolves to built-in symbols only depend on the name of the symbol. They are kept in one map for the whole
+ * project and are neither evicted nor invalidated together with the files</li>
+ * <li>the cache of the changed file is dropped</li>
+ * <li>external symbols in other files are only dropped when they were imported from the changed file</li>
+ * <li>unresolved symbols are dropped everywhere since the changed file might now export them</li>
+ * </ul>
+ * External and unresolved results are registered in reverse maps when they are cached, so that an edit only visits
+ * the entries it invalidates and not every entry of every file.
+ * Changes of non-physical files, like the copies that completion works on, are not reported to the listener. The
+ * cache of such a file is dropped on access when the modification stamp of the file has changed, and caches of
+ * invalid files are dropped whenever a new file is cached.
+ * Inside a file, results are looked up by the name of the symbol with one probe and without creating light symbols.
+ * The cache is bounded: it keeps the results of at most {@link #MAX_FILES} files and {@link #MAX_SYMBOLS_PER_FILE}
+ * names per file and evicts the least recently used ones. Both limits can be changed with the system properties
+ * <code >mathematica.resolveCache.files</code> and <code >mathematica.resolveCache.symbolsPerFile</code>. Hits,
+ * misses and evictions are counted for each {@link Kind} and can be inspected with
+ * {@link de.halirutan.mathematica.actions.ShowResolveCacheStatistics}.
+ *
  * @author patrick (29.11.17).
  */
 public class MathematicaGlobalResolveCache {
 
+  static final int MAX_FILES = Integer.getInteger("mathematica.resolveCache.files", 256);
+  static final int MAX_SYMBOLS_PER_FILE = Integer.getInteger("mathematica.resolveCache.symbolsPerFile", 4096);
+
   private static final Logger LOG =
       Logger.getInstance("#de.halirutan.mathematica.lang.resolve.MathematicaGlobalResolveCache");
 
   private static final NotNullLazyKey<MathematicaGlobalResolveCache, Project> INSTANCE_KEY =
       ServiceManager.createLazyKey(MathematicaGlobalResolveCache.class);
-  private final Map<LightFileSymbol, SymbolResolveResult> myCachedFileSymbols = new ConcurrentHashMap<>();
-  private final Map<LightBuiltInSymbol, SymbolResolveResult> myCachedBuiltinSymbols = new ConcurrentHashMap<>();
-  private final Map<LightExternalSymbol, SymbolResolveResult> myCachedExternalSymbols = new ConcurrentHashMap<>();
-
-
-  private MathematicaGlobalResolveCache(@Nullable("can be null in com.intellij.core.JavaCoreApplicationEnvironment.JavaCoreApplicationEnvironment") MessageBus messageBus) {
-    if (messageBus != null) {
-      messageBus.connect().subscribe(PsiManagerImpl.ANY_PSI_CHANGE_TOPIC, new AnyPsiChangeListener.Adapter() {
-        @Override
-        public void afterPsiChanged(boolean isPhysical) {
-          if (isPhysical) {
-            clearCaches();
-          }
-        }
-      });
-    }
+
+  /**
+   * All access to the file caches and the counters is guarded by this lock. A lookup is a few hash operations, so
+   * that this is cheaper than the bookkeeping a concurrent LRU would need.
+   */
+  private final Object myLock = new Object();
+  private final Map<PsiFile, FileCache> myFileCaches = new FileCacheMap();
+  /**
+   * Resolves of built-in symbols keyed by the text of the symbol. The number of built-in names is fixed by the symbol
+   * database, so this map doesn't need to be bounded.
+   */
+  private final Map<String, SymbolResolveResult> myBuiltIns = new HashMap<>();
+  /**
+   * For each file, the names of the external results in other file caches that were imported from it.
+   */
+  private final Map<PsiElement, Map<FileCache, Set<String>>> myDependents = new HashMap<>();
+  /**
+   * The names of the results that neither their file nor an imported file defines. These are the invalid file
+   * symbols and the symbols that are only built-in because no definition was found.
+   */
+  private final Map<FileCache, Set<String>> myUnresolved = new IdentityHashMap<>();
+  private final long[] myHits = new long[Kind.values().length];
+  private final long[] myEvictions = new long[Kind.values().length];
+  private long myMisses = 0;
+  private long myFileEvictions = 0;
+
+  private MathematicaGlobalResolveCache(@NotNull Project project) {
+    PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        fileChanged(event);
+      }
+
+      @Override
+      public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        fileChanged(event);
+      }
+
+      @Override
+      public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        fileChanged(event);
+      }
+
+      @Override
+      public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        fileChanged(event);
+      }
+
+      @Override
+      public void childMoved(@NotNull PsiTreeChangeEvent event) {
+        fileChanged(event);
+      }
+    }, project);
   }
 
   public static MathematicaGlobalResolveCache getInstance(Project project) {
     return INSTANCE_KEY.getValue(project);
   }
 
-  private void clearCaches() {
-    LOG.debug("Clearing symbol caches");
-    myCachedFileSymbols.clear();
-    myCachedBuiltinSymbols.clear();
-    myCachedExternalSymbols.clear();
+  private void fileChanged(@NotNull PsiTreeChangeEvent event) {
+    PsiFile file = event.getFile();
+    if (file == null && event.getChild() instanceof PsiFile) {
+      // a whole file was added, removed or moved
+      file = (PsiFile) event.getChild();
+    }
+    if (file instanceof MathematicaPsiFile && file.isPhysical()) {
+      invalidateFile(file);
+    }
+  }
+
+  private void invalidateFile(@NotNull PsiFile changedFile) {
+    LOG.debug("Invalidating symbol caches for ", changedFile.getName());
+    synchronized (myLock) {
+      final FileCache changedCache = myFileCaches.remove(changedFile);
+      if (changedCache != null) {
+        forget(changedCache);
+      }
+      final Map<FileCache, Set<String>> dependents = myDependents.remove(changedFile);
+      if (dependents != null) {
+        dependents.forEach((cache, names) -> names.forEach(cache::remove));
+      }
+      myUnresolved.forEach((cache, names) -> names.forEach(cache::remove));
+      myUnresolved.clear();
+    }
   }
 
-  public boolean containsSymbol(@NotNull Symbol symbol) {
-    return containsBuildInSymbol(symbol) || containsFileSymbol(symbol) || containsExternalSymbol(symbol);
+  /**
+   * Registers a new result in the reverse maps. Needs to be called with {@link #myLock} held.
+   */
+  private void track(@NotNull FileCache cache, @NotNull String name, @NotNull SymbolResolveResult result) {
+    if (getKind(result) == Kind.EXTERNAL) {
+      myDependents.computeIfAbsent(result.getScopingElement(), file -> new IdentityHashMap<>())
+          .computeIfAbsent(cache, c -> new HashSet<>()).add(name);
+    } else if (isUnresolved(result)) {
+      myUnresolved.computeIfAbsent(cache, c -> new HashSet<>()).add(name);
+    }
   }
 
-  public boolean containsFileSymbol(@NotNull Symbol symbol) {
-    final LightFileSymbol lightFileSymbol = new LightFileSymbol(symbol);
-    return myCachedFileSymbols.containsKey(lightFileSymbol);
+  /**
+   * Removes a result that is dropped from its cache from the reverse maps. Needs to be called with {@link #myLock}
+   * held.
+   */
+  private void untrack(@NotNull FileCache cache, @NotNull String name, @NotNull SymbolResolveResult result) {
+    if (getKind(result) == Kind.EXTERNAL) {
+      final Map<FileCache, Set<String>> dependents = myDependents.get(result.getScopingElement());
+      if (dependents != null && removeName(dependents, cache, name) && dependents.isEmpty()) {
+        myDependents.remove(result.getScopingElement());
+      }
+    } else if (isUnresolved(result)) {
+      removeName(myUnresolved, cache, name);
+    }
   }
 
-  private boolean containsBuildInSymbol(@NotNull Symbol symbol) {
-    final LightBuiltInSymbol lightBuiltInSymbol = new LightBuiltInSymbol(symbol);
-    return myCachedBuiltinSymbols.containsKey(lightBuiltInSymbol);
+  /**
+   * Removes all results of a cache that is dropped from the reverse maps. Needs to be called with {@link #myLock}
+   * held.
+   */
+  private void forget(@NotNull FileCache cache) {
+    cache.forEach((name, result) -> untrack(cache, name, result));
+  }
+
+  /**
+   * @return true if the set of the cache became empty and was removed
+   */
+  private static boolean removeName(@NotNull Map<FileCache, Set<String>> names, @NotNull FileCache cache,
+                                    @NotNull String name) {
+    final Set<String> cacheNames = names.get(cache);
+    if (cacheNames == null || !cacheNames.remove(name) || !cacheNames.isEmpty()) {
+      return false;
+    }
+    names.remove(cache);
+    return true;
   }
 
-  private boolean containsExternalSymbol(@NotNull Symbol symbol) {
-    final LightExternalSymbol lightExternalSymbol = new LightExternalSymbol(symbol);
-    return myCachedExternalSymbols.containsKey(lightExternalSymbol);
+  private static boolean isUnresolved(@NotNull SymbolResolveResult result) {
+    return !result.isValidResult() || result.getLocalization() == LocalizationConstruct.MScope.KERNEL_SCOPE;
   }
 
+  @NotNull
+  private static Kind getKind(@NotNull SymbolResolveResult result) {
+    switch (result.getLocalization()) {
+      case KERNEL_SCOPE:
+        return Kind.BUILT_IN;
+      case IMPORT_SCOPE:
+        return Kind.EXTERNAL;
+      default:
+        return Kind.FILE;
+    }
+  }
+
+  /**
+   * Looks up the cached resolve result of a symbol.
+   *
+   * @param symbol the symbol to resolve
+   * @return the cached result or null if the symbol was not resolved before
+   */
+  @Nullable
+  public SymbolResolveResult get(@NotNull Symbol symbol) {
+    final PsiFile file = symbol.getContainingFile();
+    synchronized (myLock) {
+      SymbolResolveResult result = myBuiltIns.get(symbol.getText());
+      if (result == null) {
+        final FileCache cache = file == null ? null : getFileCache(file);
+        result = cache == null ? null : cache.get(symbol.getText());
+      }
+      if (result == null) {
+        myMisses++;
+      } else {
+        myHits[getKind(result).ordinal()]++;
+      }
+      return result;
+    }
+  }
+
+  @NotNull
+  private SymbolResolveResult cache(@NotNull Symbol symbol, @NotNull Function<String, SymbolResolveResult> create) {
+    final PsiFile file = symbol.getContainingFile();
+    if (file == null) {
+      return create.apply(symbol.getText());
+    }
+    synchronized (myLock) {
+      FileCache fileCache = getFileCache(file);
+      if (fileCache == null) {
+        myFileCaches.entrySet().removeIf(entry -> {
+          if (entry.getKey().isValid()) {
+            return false;
+          }
+          forget(entry.getValue());
+          return true;
+        });
+        fileCache = new FileCache(file);
+        myFileCaches.put(file, fileCache);
+      }
+      final String name = symbol.getText();
+      final SymbolResolveResult cached = fileCache.get(name);
+      if (cached != null) {
+        return cached;
+      }
+      final SymbolResolveResult result = create.apply(name);
+      fileCache.put(name, result);
+      track(fileCache, name, result);
+      return result;
+    }
+  }
+
+  /**
+   * Returns the cache of a file if it still belongs to the current content of the file. Needs to be called with
+   * {@link #myLock} held.
+   */
+  @Nullable
+  private FileCache getFileCache(@NotNull PsiFile file) {
+    final FileCache cache = myFileCaches.get(file);
+    if (cache != null && !cache.isUpToDate(file)) {
+      myFileCaches.remove(file);
+      forget(cache);
+      return null;
+    }
+    return cache;
+  }
+
+  @NotNull
   public SymbolResolveResult cacheFileSymbol(@NotNull Symbol symbol, PsiElement scopeElement) {
-    final LightFileSymbol lightSymbol = new LightFileSymbol(symbol);
-    return myCachedFileSymbols.computeIfAbsent(lightSymbol,
-        k -> new SymbolResolveResult(lightSymbol, LocalizationConstruct.MScope.FILE_SCOPE, scopeElement, true));
+    return cache(symbol, name -> new SymbolResolveResult(new LightFileSymbol(symbol),
+        LocalizationConstruct.MScope.FILE_SCOPE, scopeElement, true));
   }
 
+  @NotNull
   public SymbolResolveResult cacheInvalidFileSymbol(@NotNull Symbol symbol, PsiElement scopeElement) {
-    final LightFileSymbol lightSymbol = new LightFileSymbol(symbol);
-    return myCachedFileSymbols.computeIfAbsent(lightSymbol,
-        k -> new SymbolResolveResult(lightSymbol, LocalizationConstruct.MScope.NULL_SCOPE, scopeElement, false));
+    return cache(symbol, name -> new SymbolResolveResult(new LightFileSymbol(symbol),
+        LocalizationConstruct.MScope.NULL_SCOPE, scopeElement, false));
   }
 
-
+  /**
+   * Caches a symbol that was resolved to a built-in symbol. When the name alone makes the symbol built-in, the result
+   * is shared by the whole project. A symbol that is only built-in because neither its file nor an imported package
+   * defines it is cached with its file, because a new definition in the file changes its meaning.
+   *
+   * @param symbol the symbol that was resolved
+   * @return the cached resolve result
+   */
   @NotNull
   public SymbolResolveResult cacheBuiltInSymbol(@NotNull Symbol symbol) {
-    final LightBuiltInSymbol lightSymbol = new LightBuiltInSymbol(symbol);
-    return myCachedBuiltinSymbols.computeIfAbsent(lightSymbol,
-        k -> new SymbolResolveResult(lightSymbol, LocalizationConstruct.MScope.KERNEL_SCOPE, null, true));
+    final Function<String, SymbolResolveResult> create = name -> new SymbolResolveResult(new LightBuiltInSymbol(symbol),
+        LocalizationConstruct.MScope.KERNEL_SCOPE, null, true);
+    if (!MathematicaPsiUtilities.isBuiltInSymbol(symbol)) {
+      return cache(symbol, create);
+    }
+    synchronized (myLock) {
+      return myBuiltIns.computeIfAbsent(symbol.getText(), create);
+    }
   }
 
+  /**
+   * Caches a symbol that was resolved to a definition in another file.
+   *
+   * @param symbol         the symbol that was resolved
+   * @param externalSymbol the definition the symbol resolves to
+   * @param scopeElement   the file that contains the definition. The cached result is dropped when this file changes.
+   * @return the cached resolve result
+   */
   @NotNull
   public SymbolResolveResult cacheExternalSymbol(@NotNull Symbol symbol, @NotNull PsiElement externalSymbol, PsiElement scopeElement) {
-    final LightExternalSymbol lightSymbol = new LightExternalSymbol(symbol);
-    return myCachedExternalSymbols.computeIfAbsent(lightSymbol,
-        k -> new SymbolResolveResult(externalSymbol, LocalizationConstruct.MScope.IMPORT_SCOPE, scopeElement, true));
+    return cache(symbol, name -> new SymbolResolveResult(externalSymbol,
+        LocalizationConstruct.MScope.IMPORT_SCOPE, scopeElement, true));
   }
 
-  public ResolveResult getValue(Symbol symbol) {
-    SymbolResolveResult symbolResolveResult = myCachedBuiltinSymbols.get(new LightBuiltInSymbol(symbol));
-    if (symbolResolveResult != null) {
-      return symbolResolveResult;
+  public List<SymbolResolveResult> getCachedFileSymbolResolves(@NotNull PsiFile containingFile) {
+    final List<SymbolResolveResult> result = new ArrayList<>();
+    synchronized (myLock) {
+      final FileCache cache = getFileCache(containingFile);
+      if (cache == null) {
+        return Collections.emptyList();
+      }
+      for (SymbolResolveResult resolve : cache.values()) {
+        if (containingFile.equals(resolve.getScopingElement()) && resolve.getElement() instanceof LightFileSymbol) {
+          result.add(resolve);
+        }
+      }
     }
-    symbolResolveResult = myCachedFileSymbols.get(new LightFileSymbol(symbol));
-    if (symbolResolveResult != null) {
-      return symbolResolveResult;
+    return result;
+  }
+
+  public List<String> getCachedFileSymbolNames(@NotNull PsiFile file) {
+    final List<String> names = new ArrayList<>();
+    for (SymbolResolveResult resolve : getCachedFileSymbolResolves(file)) {
+      names.add(((LightFileSymbol) resolve.getElement()).getName());
     }
-    return myCachedExternalSymbols.get(new LightExternalSymbol(symbol));
+    return names;
   }
 
-  public List<SymbolResolveResult> getCachedFileSymbolResolves(@NotNull PsiFile containingFile) {
-    return myCachedFileSymbols
-        .values()
-        .parallelStream()
-        .filter(resolve -> containingFile.equals(resolve.getScopingElement()) &&
-            resolve.getElement() instanceof LightFileSymbol)
-        .collect(Collectors.toList());
+  @NotNull
+  public Statistics getStatistics() {
+    synchronized (myLock) {
+      final long[] sizes = new long[Kind.values().length];
+      sizes[Kind.BUILT_IN.ordinal()] = myBuiltIns.size();
+      for (FileCache cache : myFileCaches.values()) {
+        for (SymbolResolveResult result : cache.values()) {
+          sizes[getKind(result).ordinal()]++;
+        }
+      }
+      return new Statistics(myFileCaches.size(), sizes, myHits.clone(), myMisses, myEvictions.clone(), myFileEvictions);
+    }
   }
 
-  public List<String> getCachedFileSymbolNames(@NotNull PsiFile file) {
-    return getCachedFileSymbolResolves(file)
-        .stream()
-        .filter(resolve -> resolve.getElement() != null)
-        .map(resolve -> ((LightFileSymbol) resolve.getElement()).getName()).collect(Collectors.toList());
+  /**
+   * The kinds of resolve results. They differ in how long they stay valid.
+   */
+  public enum Kind {
+    BUILT_IN, FILE, EXTERNAL
+  }
+
+  /**
+   * A snapshot of the size and the counters of the cache. Sizes, hits and evictions are indexed by the ordinal of
+   * the {@link Kind}. A miss cannot be attributed to a kind, since it is only known after resolving.
+   */
+  public static final class Statistics {
+    private final int myFiles;
+    private final long[] mySizes;
+    private final long[] myHits;
+    private final long myMisses;
+    private final long[] myEvictions;
+    private final long myFileEvictions;
+
+    private Statistics(int files, long[] sizes, long[] hits, long misses, long[] evictions, long fileEvictions) {
+      myFiles = files;
+      mySizes = sizes;
+      myHits = hits;
+      myMisses = misses;
+      myEvictions = evictions;
+      myFileEvictions = fileEvictions;
+    }
+
+    public int getFiles() {
+      return myFiles;
+    }
+
+    public long getSize(@NotNull Kind kind) {
+      return mySizes[kind.ordinal()];
+    }
+
+    public long getHits(@NotNull Kind kind) {
+      return myHits[kind.ordinal()];
+    }
+
+    public long getMisses() {
+      return myMisses;
+    }
+
+    public long getEvictions(@NotNull Kind kind) {
+      return myEvictions[kind.ordinal()];
+    }
+
+    public long getFileEvictions() {
+      return myFileEvictions;
+    }
+  }
+
+  /**
+   * Access ordered map of the file caches that drops the least recently used file when there are too many.
+   */
+  private class FileCacheMap extends LinkedHashMap<PsiFile, FileCache> {
+    FileCacheMap() {
+      super(16, 0.75f, true);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<PsiFile, FileCache> eldest) {
+      if (size() <= MAX_FILES) {
+        return false;
+      }
+      myFileEvictions++;
+      for (SymbolResolveResult result : eldest.getValue().values()) {
+        myEvictions[getKind(result).ordinal()]++;
+      }
+      forget(eldest.getValue());
+      return true;
+    }
+  }
+
+  /**
+   * Resolve results of all symbols contained in one file, keyed by the name of the symbol. The least recently used
+   * name is dropped when there are too many.
+   */
+  private class FileCache extends LinkedHashMap<String, SymbolResolveResult> {
+    private final long myModificationStamp;
+
+    FileCache(@NotNull PsiFile file) {
+      super(16, 0.75f, true);
+      myModificationStamp = file.getModificationStamp();
+    }
+
+    /**
+     * Physical files are invalidated by the tree change listener, all others are checked by their modification stamp.
+     */
+    boolean isUpToDate(@NotNull PsiFile file) {
+      return file.isValid() && (file.isPhysical() || file.getModificationStamp() == myModificationStamp);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, SymbolResolveResult> eldest) {
+      if (size() <= MAX_SYMBOLS_PER_FILE) {
+        return false;
+      }
+      myEvictions[getKind(eldest.getValue()).ordinal()]++;
+      untrack(this, eldest.getKey(), eldest.getValue());
+      return true;
+    }
   }
 }
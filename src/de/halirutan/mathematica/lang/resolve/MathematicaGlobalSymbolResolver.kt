@@ -24,35 +24,41 @@ package de.halirutan.mathematica.lang.resolve
 
 import com.intellij.openapi.components.ServiceManager
 import com.intellij.openapi.module.ModuleUtilCore
+import com.intellij.openapi.util.Key
 import com.intellij.openapi.vfs.VirtualFile
 import com.intellij.psi.PsiFile
 import com.intellij.psi.PsiManager
 import com.intellij.psi.ResolveResult
 import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import com.intellij.psi.util.PsiModificationTracker
 import com.intellij.psi.util.PsiTreeUtil
-import com.intellij.util.indexing.FileBasedIndex
+import de.halirutan.mathematica.codeinsight.completion.util.ImportedContextVisitor
 import de.halirutan.mathematica.index.packageexport.MathematicaPackageExportIndex
 import de.halirutan.mathematica.information.SymbolInformation
 import de.halirutan.mathematica.lang.psi.api.MathematicaPsiFile
 import de.halirutan.mathematica.lang.psi.api.Symbol
 import de.halirutan.mathematica.lang.psi.impl.LightSymbol
+import de.halirutan.mathematica.lang.psi.impl.PackageContextReference
 import de.halirutan.mathematica.lang.psi.util.MathematicaPsiUtilities.isBuiltInSymbol
 import de.halirutan.mathematica.lang.resolve.processors.GlobalDefinitionResolveProcessor
-import java.util.*
 
 /**
  * The symbol resolver works currently in 3 steps to find a possible definition of a symbol that appears in the code.
  * It will check if the symbol is a built-in symbol
  * It will make a tree-walk upwards to check if the symbol is in any localization construct
  * It will check the file, if the symbol is defined as a global symbol like a function at file-scope
- * It will check the file-index and look for symbols that are exported from other files
+ * It will check the file-index and look for symbols that are exported from other files. If the file loads packages
+ * with Needs, Get or BeginPackage, only the files of these packages are searched. Otherwise, all files of the module
+ * are searched.
  *
  * @author patrick (08.07.17).
  */
 class MathematicaGlobalSymbolResolver {
 
   private val symbolInfo: SymbolInformation = ServiceManager.getService(SymbolInformation::class.java)
-  private val packageIndex = MathematicaPackageExportIndex.INDEX_ID
 
   fun resolve(ref: Symbol, containingFile: PsiFile): Array<ResolveResult> {
 
@@ -62,9 +68,7 @@ class MathematicaGlobalSymbolResolver {
 
     val symbolCache = MathematicaGlobalResolveCache.getInstance(containingFile.project)
 
-    if (symbolCache.containsSymbol(ref)) {
-      return arrayOf(symbolCache.getValue(ref))
-    }
+    symbolCache.get(ref)?.let { return arrayOf(it) }
 
     if (isBuiltInSymbol(ref)) {
       val result = symbolCache.cacheBuiltInSymbol(ref)
@@ -88,34 +92,24 @@ class MathematicaGlobalSymbolResolver {
     val project = containingFile.project
     containingFile.virtualFile?.let { virtualFile ->
       val module = ModuleUtilCore.findModuleForFile(virtualFile, project) ?: return@let
-      val references = ArrayList<SymbolResolveResult>()
       val psiManager = PsiManager.getInstance(project)
-      val fileIndex = FileBasedIndex.getInstance() ?: return@let
       val moduleScope = GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(module)
-      fileIndex.getAllKeys(packageIndex, project).forEach { key ->
-        key?.let {
-          val fileForKey = arrayListOf<VirtualFile>()
-          val inScope = !fileIndex.processValues(
-              packageIndex,
-              it,
-              null,
-              { file, _ -> fileForKey.add(file); false },
-              moduleScope
-          )
-
-          if (fileForKey.isNotEmpty() && inScope && it.isExported && it.symbol == ref.fullSymbolName) {
-            val psiFile = psiManager.findFile(fileForKey.first()) ?: return@forEach
-            val externalSymbol = PsiTreeUtil.findElementOfClassAtOffset(psiFile, it.offset, Symbol::class.java, true)
-                ?: return@forEach
-            val resolve = externalSymbol.resolve()
-            if (resolve is LightSymbol) {
-              val result = symbolCache.cacheExternalSymbol(ref, resolve, psiFile)
-              references.add(result)
-            }
-            return references.toTypedArray()
-          }
+      val importScope = getImportScope(containingFile, moduleScope)
+      var externalResult: SymbolResolveResult? = null
+      MathematicaPackageExportIndex.processExports(ref.fullSymbolName, importScope) { file, export ->
+        if (!export.isExported) {
+          return@processExports true
+        }
+        val psiFile = psiManager.findFile(file) ?: return@processExports true
+        val externalSymbol = PsiTreeUtil.findElementOfClassAtOffset(psiFile, export.offset, Symbol::class.java, true)
+            ?: return@processExports true
+        val resolve = externalSymbol.resolve()
+        if (resolve is LightSymbol) {
+          externalResult = symbolCache.cacheExternalSymbol(ref, resolve, psiFile)
         }
+        false
       }
+      externalResult?.let { return arrayOf(it) }
     }
 
     if (symbolInfo.isSystemSymbol(ref.symbolName) || symbolInfo.isBuiltinSymbol(ref.fullSymbolName)) {
@@ -125,4 +119,29 @@ class MathematicaGlobalSymbolResolver {
     return cacheInvalidResult()
   }
 
+  companion object {
+    private val IMPORT_SCOPE_KEY = Key.create<CachedValue<GlobalSearchScope?>>("Mathematica.importScope")
+
+    /**
+     * Returns the scope of the files that [file] loads. The loaded contexts are looked up in the package context
+     * index once and the scope is cached until any PSI changes, since a package can be moved to another file.
+     * A file that loads nothing keeps the [moduleScope] so that plain scripts still see all exports.
+     */
+    @JvmStatic
+    fun getImportScope(file: PsiFile, moduleScope: GlobalSearchScope): GlobalSearchScope {
+      val importScope = CachedValuesManager.getCachedValue(file, IMPORT_SCOPE_KEY) {
+        val contexts = ImportedContextVisitor.getImportedContexts(file)
+        val scope = if (contexts.isEmpty()) {
+          null
+        } else {
+          val files = HashSet<VirtualFile>()
+          contexts.forEach { files.addAll(PackageContextReference.findFiles(it, file, moduleScope)) }
+          GlobalSearchScope.filesScope(file.project, files)
+        }
+        CachedValueProvider.Result.create(scope, PsiModificationTracker.MODIFICATION_COUNT)
+      }
+      return importScope ?: moduleScope
+    }
+  }
+
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.lang.resolve;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.ResolveState;
+import de.halirutan.mathematica.lang.psi.LocalizationConstruct.MScope;
+import de.halirutan.mathematica.lang.psi.api.FunctionCall;
+import de.halirutan.mathematica.lang.psi.api.Symbol;
+import de.halirutan.mathematica.lang.psi.api.assignment.*;
+import de.halirutan.mathematica.lang.psi.api.pattern.Condition;
+import de.halirutan.mathematica.lang.psi.api.rules.Rule;
+import de.halirutan.mathematica.lang.psi.api.rules.RuleDelayed;
+import de.halirutan.mathematica.lang.psi.impl.LightUndefinedSymbol;
+import de.halirutan.mathematica.lang.resolve.processors.LocalDefinitionResolveProcessor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Binds all symbols of a file in one top-down pass. Resolving symbol by symbol means that every symbol walks up the
+ * tree to find its localization, which is wasteful for the annotator and the inspections that need the binding of
+ * every symbol anyway. Here, we walk down the tree once and keep a stack of the scoping elements (Module, Table,
+ * SetDelayed, RuleDelayed, ...) that enclose the current position. A symbol only needs to ask these elements for a
+ * declaration, which is a lookup in their cached declaration tables. Symbols that are not bound locally are resolved
+ * through {@link MathematicaGlobalSymbolResolver} which caches its results per name.
+ * <p>
+ * The result is cached on the file, see {@link de.halirutan.mathematica.lang.psi.api.MathematicaPsiFile#getSymbolBindings()}.
+ */
+public class MathematicaScopeBinder {
+
+  private static final MathematicaGlobalSymbolResolver GLOBAL_SYMBOL_RESOLVER = new MathematicaGlobalSymbolResolver();
+
+  private MathematicaScopeBinder() {
+  }
+
+  /**
+   * Computes the binding for all symbols in {@code file}.
+   *
+   * @param file file to bind
+   * @return map from each symbol in document order to its resolve result. Unresolved symbols are bound to a {@link
+   * LightUndefinedSymbol} with {@link MScope#NULL_SCOPE}, exactly as {@link Symbol#multiResolve(boolean)} does.
+   */
+  @NotNull
+  public static Map<Symbol, SymbolResolveResult> bind(@NotNull PsiFile file) {
+    final Map<Symbol, SymbolResolveResult> bindings = new LinkedHashMap<>();
+    final Deque<ScopeFrame> scopes = new ArrayDeque<>();
+
+    PsiElement current = file.getFirstChild();
+    while (current != null) {
+      ProgressManager.checkCanceled();
+      if (current instanceof Symbol) {
+        final Symbol symbol = (Symbol) current;
+        bindings.put(symbol, bindSymbol(symbol, file, scopes));
+      } else {
+        final PsiElement firstChild = current.getFirstChild();
+        if (firstChild != null) {
+          if (isScopingElement(current)) {
+            scopes.push(new ScopeFrame(current, firstChild));
+          }
+          current = firstChild;
+          continue;
+        }
+      }
+      current = nextElement(current, file, scopes);
+    }
+    return bindings;
+  }
+
+  /**
+   * Moves to the next sibling, or to the next sibling of the closest parent that has one, and keeps the scope stack
+   * in sync on the way.
+   */
+  private static PsiElement nextElement(@NotNull PsiElement element, @NotNull PsiFile file, @NotNull Deque<ScopeFrame> scopes) {
+    PsiElement current = element;
+    while (current != null && current != file) {
+      final PsiElement sibling = current.getNextSibling();
+      if (sibling != null) {
+        final ScopeFrame frame = scopes.peek();
+        if (frame != null && frame.myScope == sibling.getParent()) {
+          frame.myChild = sibling;
+        }
+        return sibling;
+      }
+      current = current.getParent();
+      final ScopeFrame frame = scopes.peek();
+      if (frame != null && frame.myScope == current) {
+        scopes.pop();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Does the same as a tree-walk up with {@link LocalDefinitionResolveProcessor} but only visits the enclosing scoping
+   * elements, innermost first.
+   */
+  @NotNull
+  private static SymbolResolveResult bindSymbol(@NotNull Symbol symbol, @NotNull PsiFile file, @NotNull Deque<ScopeFrame> scopes) {
+    final LocalDefinitionResolveProcessor processor = new LocalDefinitionResolveProcessor(symbol);
+    for (ScopeFrame frame : scopes) {
+      if (!frame.myScope.processDeclarations(processor, ResolveState.initial(), frame.myChild, symbol)) {
+        break;
+      }
+    }
+    if (processor.getResolveResult() != null) {
+      return processor.getResolveResult();
+    }
+
+    final ResolveResult[] globalResult = GLOBAL_SYMBOL_RESOLVER.resolve(symbol, file);
+    if (globalResult.length > 0 && globalResult[0] instanceof SymbolResolveResult) {
+      return (SymbolResolveResult) globalResult[0];
+    }
+    return new SymbolResolveResult(new LightUndefinedSymbol(symbol), MScope.NULL_SCOPE, file, false);
+  }
+
+  private static boolean isScopingElement(@NotNull PsiElement element) {
+    if (element instanceof FunctionCall) {
+      return ((FunctionCall) element).isScopingConstruct();
+    }
+    return element instanceof SetDelayed || element instanceof Set || element instanceof TagSetDelayed ||
+        element instanceof TagSet || element instanceof UpSetDelayed || element instanceof UpSet ||
+        element instanceof Condition || element instanceof RuleDelayed || element instanceof Rule;
+  }
+
+  /**
+   * A scoping element on the current path together with its child that contains the current position.
+   */
+  private static class ScopeFrame {
+    private final PsiElement myScope;
+    private PsiElement myChild;
+
+    ScopeFrame(@NotNull PsiElement scope, @NotNull PsiElement child) {
+      myScope = scope;
+      myChild = child;
+    }
+  }
+}
@@ -26,7 +26,9 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.PsiReferenceProvider;
 import com.intellij.util.ProcessingContext;
+import de.halirutan.mathematica.lang.psi.SymbolNames;
 import de.halirutan.mathematica.lang.psi.api.Expression;
+import de.halirutan.mathematica.lang.psi.api.FunctionCall;
 import de.halirutan.mathematica.lang.psi.api.MessageName;
 import de.halirutan.mathematica.lang.psi.api.StringifiedSymbol;
 import de.halirutan.mathematica.lang.psi.api.Symbol;
@@ -34,6 +36,7 @@ import de.halirutan.mathematica.lang.psi.api.assignment.Set;
 import de.halirutan.mathematica.lang.psi.api.string.MString;
 import de.halirutan.mathematica.lang.psi.api.string.StringJoin;
 import de.halirutan.mathematica.lang.psi.impl.LightFileSymbol;
+import de.halirutan.mathematica.lang.psi.impl.PackageContextReference;
 import de.halirutan.mathematica.lang.psi.impl.StringUsageReference;
 import org.jetbrains.annotations.NotNull;
 
@@ -57,6 +60,14 @@ class MathematicaStringReferenceProvider extends PsiReferenceProvider {
 
     PsiElement setElement = element.getParent();
 
+    // The loaded package in Needs["Package`"] or Get["Package`"]
+    if (setElement instanceof FunctionCall && element.getTextLength() > 2) {
+      final FunctionCall call = (FunctionCall) setElement;
+      if ((call.hasHead(SymbolNames.Needs) || call.hasHead(SymbolNames.Get)) && call.getArgument(1) == element) {
+        return new PsiReference[]{new PackageContextReference((MString) element)};
+      }
+    }
+
     // Specifically for Szabolcs who likes to <> usage messages
     while (setElement instanceof StringJoin) {
       setElement = setElement.getParent();
@@ -25,6 +25,7 @@ package de.halirutan.mathematica.lang.resolve.processors
 
 import com.intellij.psi.PsiElement
 import com.intellij.psi.search.PsiElementProcessor
+import de.halirutan.mathematica.lang.psi.FunctionHeads
 import de.halirutan.mathematica.lang.psi.api.FunctionCall
 import de.halirutan.mathematica.lang.psi.api.Symbol
 import de.halirutan.mathematica.lang.psi.api.assignment.Set
@@ -56,13 +57,13 @@ class GlobalDefinitionResolveProcessor(private val myStartElement: Symbol) : Psi
 
     if (element is FunctionCall) {
       val lhs = element.getArgument(1)
-      if (element.hasHead("Set") || element.hasHead("SetDelayed")) {
+      if (element.hasHead(FunctionHeads.SET_ASSIGNMENTS)) {
         return visitSetDefinition(lhs)
-      } else if (element.hasHead("TagSet") || element.hasHead("TagSetDelayed")) {
+      } else if (element.hasHead(FunctionHeads.TAG_SET_ASSIGNMENTS)) {
         return visitTagSetDefinition(lhs)
-      } else if (element.hasHead("UpSet") || element.hasHead("UpSetDelayed")) {
+      } else if (element.hasHead(FunctionHeads.UP_SET_ASSIGNMENTS)) {
         return visitUpSetDefinition(lhs)
-      } else if ((element.hasHead("SetAttributes") || element.hasHead("SetOptions")) && lhs is Symbol) {
+      } else if (element.hasHead(FunctionHeads.SYMBOL_PROPERTY_ASSIGNMENTS) && lhs is Symbol) {
         return visitSymbol(lhs)
       }
     }
@@ -99,7 +100,7 @@ class GlobalDefinitionResolveProcessor(private val myStartElement: Symbol) : Psi
    * TagSet should be trivial. In f /: g[a,b,..,f,..] = .., f is always expected to be a symbol.
    */
   private fun visitTagSetDefinition(defSymbol: PsiElement?): Boolean {
-    return if (defSymbol is Symbol && defSymbol.fullSymbolName.matches(myStartElement.fullSymbolName.toRegex())) {
+    return if (defSymbol is Symbol && defSymbol.fullSymbolName == myStartElement.fullSymbolName) {
       checkIfFound(defSymbol)
     } else true
   }
@@ -35,13 +35,12 @@ import de.halirutan.mathematica.lang.psi.api.assignment.TagSetDelayed
 import de.halirutan.mathematica.lang.psi.api.pattern.Condition
 import de.halirutan.mathematica.lang.psi.api.rules.Rule
 import de.halirutan.mathematica.lang.psi.api.rules.RuleDelayed
-import de.halirutan.mathematica.lang.psi.util.MathematicaPatternVisitor2
-import de.halirutan.mathematica.lang.psi.util.PatternSymbolExtractor
 import de.halirutan.mathematica.lang.resolve.SymbolResolveResult
 import de.halirutan.mathematica.lang.resolve.resolvers.CompileLikeResolver
 import de.halirutan.mathematica.lang.resolve.resolvers.FunctionLikeResolver
 import de.halirutan.mathematica.lang.resolve.resolvers.ModuleLikeResolver
 import de.halirutan.mathematica.lang.resolve.resolvers.TableLikeResolver
+import de.halirutan.mathematica.lang.resolve.resolvers.getPatternDeclarations
 
 /**
  * Provides the functionality of resolving local references.
@@ -93,6 +92,10 @@ class LocalDefinitionResolveProcessor(private val myStartElement: Symbol) : PsiS
    *
    * Finally, `RuleDelayed` constructs are checked.
    *
+   *
+   * The declarations of each of these elements are cached on the element (see [getPatternDeclarations] and
+   * [de.halirutan.mathematica.lang.resolve.resolvers.getBodyDeclarations]) so that each step is a simple lookup.
+   *
    * @param element
    * Element to check for defining the [.myStartElement].
    * @param state State of the resolving.
@@ -113,31 +116,16 @@ class LocalDefinitionResolveProcessor(private val myStartElement: Symbol) : PsiS
         resolveResult?.let { return false }
       }
     } else if (element is SetDelayed || element is TagSetDelayed || element is Set || element is Condition) {
-      val patternVisitor = MathematicaPatternVisitor2()
-      element.accept(patternVisitor)
-
-      for (p in patternVisitor.patternSymbols) {
-        if (p.fullSymbolName == myStartElement.fullSymbolName) {
-          if (element is Set && myStartElement !== p) {
-            continue
-          }
-          resolveResult = SymbolResolveResult(p, MScope.SETDELAYED_SCOPE, element, true)
-          return false
-        }
-      }
+      val declarations = getPatternDeclarations(element)[myStartElement.fullSymbolName] ?: return true
+      // In an immediate assignment, the pattern symbols on the right side are not bound to the pattern
+      val declaration = (if (element is Set) declarations.find { it === myStartElement } else declarations.first()) ?: return true
+      resolveResult = SymbolResolveResult(declaration, MScope.SETDELAYED_SCOPE, element, true)
+      return false
     } else if (element is RuleDelayed || element is Rule) {
-      val patternExtractor = PatternSymbolExtractor()
-      element.accept(patternExtractor)
-
-      for (symbol in patternExtractor.patternSymbols) {
-        if (symbol.fullSymbolName == myStartElement.fullSymbolName) {
-          if (element is Rule && myStartElement !== symbol) {
-            continue
-          }
-          resolveResult = SymbolResolveResult(symbol, MScope.RULEDELAYED_SCOPE, element, true)
-          return false
-        }
-      }
+      val declarations = getPatternDeclarations(element)[myStartElement.fullSymbolName] ?: return true
+      val declaration = (if (element is Rule) declarations.find { it === myStartElement } else declarations.first()) ?: return true
+      resolveResult = SymbolResolveResult(declaration, MScope.RULEDELAYED_SCOPE, element, true)
+      return false
     }
     return true
   }
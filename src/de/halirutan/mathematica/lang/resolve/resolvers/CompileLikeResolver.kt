@@ -50,19 +50,8 @@ class CompileLikeResolver : Resolver {
 
     // Symbol to resolve is located in the body of Compile
     if (lastParent == body) {
-      for (defList in defLists) {
-        if (defList is Symbol) {
-          return SymbolResolveResult(defList, scope, scopingElement, true)
-        }
-        if (defList is MList) {
-          for (elm in defList.listElements) {
-            findCompileDeclarationSymbol(elm)?.let {
-              if (it.hasSameName(symbol)) {
-                return SymbolResolveResult(it, scope, scopingElement, true)
-              }
-            }
-          }
-        }
+      return getBodyDeclarations(scopingElement, this)[symbol.fullSymbolName]?.let {
+        SymbolResolveResult(it, scope, scopingElement, true)
       }
     } else {
       defLists.indexOf(lastParent).takeUnless { it == -1 }?.let {
@@ -83,4 +72,18 @@ class CompileLikeResolver : Resolver {
     }
     return null
   }
+
+  override fun collectBodyDeclarations(scopingElement: FunctionCall): Map<String, Symbol> {
+    val declarations = LinkedHashMap<String, Symbol>()
+    for (defList in getLocalizationParameters(scopingElement.parameters, scopingElement.scopingConstruct)) {
+      if (defList is Symbol) {
+        declarations.putIfAbsent(defList.fullSymbolName, defList)
+      } else if (defList is MList) {
+        defList.listElements
+            .mapNotNull { findCompileDeclarationSymbol(it) }
+            .forEach { declarations.putIfAbsent(it.fullSymbolName, it) }
+      }
+    }
+    return declarations
+  }
 }
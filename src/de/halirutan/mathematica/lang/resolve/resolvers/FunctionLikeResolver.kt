@@ -49,16 +49,8 @@ class FunctionLikeResolver : Resolver {
 
     // Symbol to resolve is located in the body of Compile
     if (lastParent == body) {
-      for (defList in defLists) {
-        if (defList is MList) {
-          for (elm in defList.listElements) {
-            if (elm is Symbol && elm.hasSameName(symbol) && elm.symbolName != "Null") {
-              return SymbolResolveResult(elm, scope, scopingElement, true)
-            }
-          }
-        } else if (defList is Symbol && defList.hasSameName(symbol)) {
-          return SymbolResolveResult(defList, scope, scopingElement, true)
-        }
+      return getBodyDeclarations(scopingElement, this)[symbol.fullSymbolName]?.let {
+        SymbolResolveResult(it, scope, scopingElement, true)
       }
     } else {
       defLists.indexOf(lastParent).takeUnless { it == -1 }?.let {
@@ -76,4 +68,18 @@ class FunctionLikeResolver : Resolver {
     }
     return null
   }
+
+  override fun collectBodyDeclarations(scopingElement: FunctionCall): Map<String, Symbol> {
+    val declarations = LinkedHashMap<String, Symbol>()
+    for (defList in getLocalizationParameters(scopingElement.parameters, scopingElement.scopingConstruct)) {
+      if (defList is MList) {
+        defList.listElements
+            .filter { it is Symbol && it.symbolName != "Null" }
+            .forEach { declarations.putIfAbsent((it as Symbol).fullSymbolName, it) }
+      } else if (defList is Symbol) {
+        declarations.putIfAbsent(defList.fullSymbolName, defList)
+      }
+    }
+    return declarations
+  }
 }
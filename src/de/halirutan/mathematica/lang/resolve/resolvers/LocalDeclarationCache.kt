@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.lang.resolve.resolvers
+
+import com.intellij.openapi.util.Key
+import com.intellij.psi.PsiElement
+import com.intellij.psi.util.CachedValue
+import com.intellij.psi.util.CachedValueProvider
+import com.intellij.psi.util.CachedValuesManager
+import de.halirutan.mathematica.lang.psi.api.FunctionCall
+import de.halirutan.mathematica.lang.psi.api.Symbol
+import de.halirutan.mathematica.lang.psi.util.PatternAnalysis
+
+/*
+ * Resolving a symbol walks up the tree and asks every scoping element on the way whether it declares the symbol.
+ * Collecting the declarations of a scope means scanning its definition lists or patterns, and doing this for every
+ * symbol inside a large body is quadratic. Therefore, the name to declaration tables are cached on the scoping
+ * element itself and are dropped as soon as the file that contains it changes. Pattern declarations come from the
+ * shared [PatternAnalysis].
+ */
+
+private val BODY_DECLARATIONS = Key.create<CachedValue<Map<String, Symbol>>>("Mathematica.bodyDeclarations")
+
+/**
+ * Returns the cached declarations of a localization construct like `Module` that are visible in its body.
+ */
+fun getBodyDeclarations(scopingElement: FunctionCall, resolver: Resolver): Map<String, Symbol> =
+    CachedValuesManager.getCachedValue(scopingElement, BODY_DECLARATIONS) {
+      CachedValueProvider.Result.create(resolver.collectBodyDeclarations(scopingElement), scopingElement)
+    }
+
+/**
+ * Returns the cached pattern symbols of an assignment, condition or rule grouped by their name. The symbols of each
+ * name are kept in the order they appear in the pattern.
+ */
+fun getPatternDeclarations(element: PsiElement): Map<String, List<Symbol>> =
+    PatternAnalysis.getPatternAnalysis(element).declarations
@@ -51,19 +51,9 @@ class ModuleLikeResolver : Resolver {
 
     // Symbol to resolve is located in the body of Module
     if (lastParent == body) {
-      defLists
-          .filterIsInstance<MList>()
-          .map { it.listElements }
-          .forEach { assignments ->
-            assignments
-                .map { findSymbolInAssignment(it) }
-                .filterIsInstance<Symbol>()
-                .forEach { s ->
-                  if (s.fullSymbolName == symbol.fullSymbolName) {
-                    return SymbolResolveResult(s, scope, scopingElement, true)
-                  }
-                }
-          }
+      return getBodyDeclarations(scopingElement, this)[symbol.fullSymbolName]?.let {
+        SymbolResolveResult(it, scope, scopingElement, true)
+      }
     } else { // Symbol appears in the Module definition list itself
       val index = defLists.indexOf(lastParent).takeUnless { it == -1 } ?: return null
       for (defList in defLists.subList(0, index + 1).filterIsInstance<MList>()) {
@@ -86,4 +76,14 @@ class ModuleLikeResolver : Resolver {
     }
     return null
   }
+
+  override fun collectBodyDeclarations(scopingElement: FunctionCall): Map<String, Symbol> {
+    val declarations = LinkedHashMap<String, Symbol>()
+    getLocalizationParameters(scopingElement.parameters, scopingElement.scopingConstruct)
+        .filterIsInstance<MList>()
+        .flatMap { it.listElements }
+        .mapNotNull { findSymbolInAssignment(it) }
+        .forEach { declarations.putIfAbsent(it.fullSymbolName, it) }
+    return declarations
+  }
 }
@@ -39,4 +39,10 @@ interface Resolver {
    * resolving a symbol that is located in the same definition list itself is not allowed.
    */
   fun resolve(symbol: Symbol, scopingElement: FunctionCall, state: ResolveState): SymbolResolveResult?
+
+  /**
+   * Collects all symbols that [scopingElement] declares for its body, keyed by their name. If a name is declared more
+   * than once, the first declaration is kept. Use [getBodyDeclarations] to get the cached version of this map.
+   */
+  fun collectBodyDeclarations(scopingElement: FunctionCall): Map<String, Symbol>
 }
\ No newline at end of file
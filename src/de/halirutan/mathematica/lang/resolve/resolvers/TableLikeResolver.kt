@@ -50,16 +50,9 @@ class TableLikeResolver : Resolver {
 
     // if we're coming from the body of the table
     if (lastParent == body) {
-      defLists
-          .filterIsInstance<MList>()
-          .map { it.listElements }
-          .filter { !it.isEmpty() && it.first() is Symbol }
-          .map { it.first() }
-          .forEach { s ->
-            if (s is Symbol && s.fullSymbolName == symbol.fullSymbolName) {
-              return SymbolResolveResult(s, scope, scopingElement, true)
-            }
-          }
+      return getBodyDeclarations(scopingElement, this)[symbol.fullSymbolName]?.let {
+        SymbolResolveResult(it, scope, scopingElement, true)
+      }
     }
     // if we are inside one of the definition lists itself
     else {
@@ -77,4 +70,13 @@ class TableLikeResolver : Resolver {
     }
     return null
   }
+
+  override fun collectBodyDeclarations(scopingElement: FunctionCall): Map<String, Symbol> {
+    val declarations = LinkedHashMap<String, Symbol>()
+    getLocalizationParameters(scopingElement.parameters, scopingElement.scopingConstruct)
+        .filterIsInstance<MList>()
+        .mapNotNull { it.listElements.firstOrNull() as? Symbol }
+        .forEach { declarations.putIfAbsent(it.fullSymbolName, it) }
+    return declarations
+  }
 }
\ No newline at end of file
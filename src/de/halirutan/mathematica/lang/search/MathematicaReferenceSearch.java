@@ -22,69 +22,202 @@
 
 package de.halirutan.mathematica.lang.search;
 
+import com.intellij.concurrency.JobLauncher;
 import com.intellij.openapi.application.QueryExecutorBase;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicatorProvider;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiReference;
-import com.intellij.psi.impl.search.PsiSearchHelperImpl;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.LocalSearchScope;
 import com.intellij.psi.search.PsiSearchHelper;
-import com.intellij.psi.search.TextOccurenceProcessor;
-import com.intellij.psi.search.UsageSearchContext;
+import com.intellij.psi.search.PsiSearchScopeUtil;
+import com.intellij.psi.search.SearchScope;
 import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.Processor;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.text.CharArrayUtil;
+import de.halirutan.mathematica.lang.psi.LocalizationConstruct;
+import de.halirutan.mathematica.lang.psi.api.MathematicaPsiFile;
 import de.halirutan.mathematica.lang.psi.api.Symbol;
 import de.halirutan.mathematica.lang.psi.impl.LightSymbol;
+import de.halirutan.mathematica.lang.resolve.SymbolResolveResult;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.EnumSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
+ * Finds all symbols that resolve to a given target. Resolving is the expensive part, so we try to resolve as few
+ * candidates as possible:
+ * <ul>
+ * <li>A target that is localized by e.g. Module or SetDelayed can only be referenced inside its scoping element.
+ * Therefore, only this element is searched.</li>
+ * <li>Candidates with an explicit context that differs from the explicit context of the target are skipped.</li>
+ * <li>The remaining files are processed in parallel, each in its own read action. If a file contains many
+ * candidates, all its symbols are bound in one pass (see {@link MathematicaPsiFile#getSymbolBindings()}) instead of
+ * resolving the candidates one by one.</li>
+ * </ul>
+ *
  * @author patrick (14.09.17).
  */
 public class MathematicaReferenceSearch extends QueryExecutorBase<PsiReference, ReferencesSearch.SearchParameters> {
 
+  /**
+   * Number of candidates in one file from which on binding the whole file is cheaper than resolving each candidate.
+   */
+  private static final int BIND_FILE_THRESHOLD = 32;
+
   protected MathematicaReferenceSearch() {
-    super(true);
+    // read actions are taken per file so that the files can be processed in parallel
+    super(false);
   }
 
   @Override
   public void processQuery(@NotNull ReferencesSearch.SearchParameters queryParameters, @NotNull Processor<? super PsiReference> consumer) {
     final PsiElement target = queryParameters.getElementToSearch();
+    final SearchScope searchScope = queryParameters.getEffectiveSearchScope();
 
-    String name;
-    if (target instanceof Symbol) {
-      name = ((Symbol) target).getSymbolName();
-    } else if (target instanceof LightSymbol) {
-      name = ((LightSymbol) target).getName();
-    } else {
+    final String name = ReadAction.compute(() -> getSearchName(target));
+    if (StringUtil.isEmpty(name)) {
       return;
     }
+    final String context = ReadAction.compute(() -> target instanceof Symbol ? ((Symbol) target).getMathematicaContext() : "");
 
-    if (StringUtil.isEmpty(name)) {
+    final Boolean localTargetProcessed = ReadAction.compute(() -> {
+      final PsiElement scopingElement = getLocalScopingElement(target);
+      if (scopingElement == null) {
+        return null;
+      }
+      return !PsiSearchScopeUtil.isInScope(searchScope, scopingElement) ||
+          processElement(scopingElement, name, context, target, consumer);
+    });
+    if (localTargetProcessed != null) {
       return;
     }
 
-    PsiSearchHelper helper = PsiSearchHelper.getInstance(target.getProject());
-    if (helper instanceof PsiSearchHelperImpl) {
-
-      TextOccurenceProcessor processor = (symbol, offsetInElement) -> {
-        if (symbol instanceof Symbol) {
-          if (Objects.equals(((Symbol) symbol).resolve(), target)) {
-            consumer.process(symbol.getReference());
-            return false;
+    if (searchScope instanceof LocalSearchScope) {
+      ReadAction.run(() -> {
+        for (PsiElement element : ((LocalSearchScope) searchScope).getScope()) {
+          if (!processElement(element, name, context, target, consumer)) {
+            return;
           }
         }
-        return true;
-      };
+      });
+      return;
+    }
 
-      EnumSet<PsiSearchHelperImpl.Options> options = EnumSet
-          .of(PsiSearchHelperImpl.Options.CASE_SENSITIVE_SEARCH, PsiSearchHelperImpl.Options.PROCESS_INJECTED_PSI);
-      ((PsiSearchHelperImpl) helper).processElementsWithWord(processor, queryParameters.getEffectiveSearchScope(), name,
-          UsageSearchContext.IN_CODE, options, null);
+    // only remember the virtual files so that we don't keep the PSI of all candidate files alive
+    final List<VirtualFile> files = Collections.synchronizedList(new ArrayList<>());
+    ReadAction.run(() -> PsiSearchHelper.getInstance(target.getProject()).processAllFilesWithWord(
+        name, (GlobalSearchScope) searchScope, file -> {
+          ContainerUtil.addIfNotNull(files, file.getVirtualFile());
+          return true;
+        }, true));
+    if (files.isEmpty()) {
+      return;
     }
+
+    final PsiManager psiManager = PsiManager.getInstance(target.getProject());
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, ProgressIndicatorProvider.getGlobalProgressIndicator(),
+        virtualFile -> ReadAction.compute(() -> {
+          final PsiFile file = virtualFile.isValid() ? psiManager.findFile(virtualFile) : null;
+          return file == null || processElement(file, name, context, target, consumer);
+        }));
   }
-}
 
+  @Nullable
+  private static String getSearchName(@NotNull PsiElement target) {
+    if (target instanceof Symbol) {
+      return ((Symbol) target).getSymbolName();
+    } else if (target instanceof LightSymbol) {
+      return ((LightSymbol) target).getName();
+    }
+    return null;
+  }
+
+  /**
+   * Returns the scoping element if {@code target} is a local variable, e.g. the Module call for a Module variable.
+   */
+  @Nullable
+  private static PsiElement getLocalScopingElement(@NotNull PsiElement target) {
+    if (target instanceof Symbol && target.isValid()) {
+      final ResolveResult[] results = ((Symbol) target).multiResolve(false);
+      if (results.length > 0 && results[0] instanceof SymbolResolveResult) {
+        final SymbolResolveResult result = (SymbolResolveResult) results[0];
+        if (LocalizationConstruct.isLocalScoping(result.getLocalization())) {
+          return result.getScopingElement();
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds all symbols named {@code name} inside {@code element} and passes those that resolve to {@code target} to
+   * the consumer.
+   *
+   * @return {@code false} if the consumer requested to stop
+   */
+  private static boolean processElement(@NotNull PsiElement element,
+                                        @NotNull String name,
+                                        @NotNull String context,
+                                        @NotNull PsiElement target,
+                                        @NotNull Processor<? super PsiReference> consumer) {
+    final PsiFile file = element.getContainingFile();
+    if (file == null) {
+      return true;
+    }
+    final List<Symbol> candidates = findCandidates(file, element.getTextRange(), name, context);
+    if (candidates.size() >= BIND_FILE_THRESHOLD && file instanceof MathematicaPsiFile) {
+      // after this, resolving the candidates is a lookup in the bindings of the file
+      ((MathematicaPsiFile) file).getSymbolBindings();
+    }
+    for (Symbol candidate : candidates) {
+      ProgressManager.checkCanceled();
+      if (Objects.equals(candidate.resolve(), target) && !consumer.process(candidate.getReference())) {
+        return false;
+      }
+    }
+    return true;
+  }
 
+  @NotNull
+  private static List<Symbol> findCandidates(@NotNull PsiFile file, @NotNull TextRange range, @NotNull String name, @NotNull String context) {
+    final List<Symbol> candidates = new ArrayList<>();
+    final CharSequence text = file.getViewProvider().getContents();
+    final int end = Math.min(range.getEndOffset(), text.length());
+    int offset = CharArrayUtil.indexOf(text, name, range.getStartOffset(), end);
+    while (offset >= 0) {
+      final Symbol symbol = PsiTreeUtil.getParentOfType(file.findElementAt(offset), Symbol.class, false);
+      // the short name is always the end of a symbol, which also makes sure that we see each symbol only once
+      if (symbol != null &&
+          symbol.getTextRange().getEndOffset() == offset + name.length() &&
+          name.equals(symbol.getSymbolName()) &&
+          hasCompatibleContext(symbol.getMathematicaContext(), context)) {
+        candidates.add(symbol);
+      }
+      offset = CharArrayUtil.indexOf(text, name, offset + 1, end);
+    }
+    return candidates;
+  }
 
+  /**
+   * Symbols with different explicit contexts like {@code A`f} and {@code B`f} can never be the same. Without an
+   * explicit context we cannot decide this without resolving.
+   */
+  private static boolean hasCompatibleContext(@NotNull String candidateContext, @NotNull String targetContext) {
+    return candidateContext.isEmpty() || targetContext.isEmpty() || candidateContext.equals(targetContext);
+  }
+}
@@ -0,0 +1,6 @@
+BeginPackage["PackageA`"]
+foo::usage = "foo[]";
+Begin["`Private`"]
+foo[] := 1;
+End[]
+EndPackage[]
@@ -0,0 +1,6 @@
+BeginPackage["PackageB`"]
+bar::usage = "bar[]";
+Begin["`Private`"]
+bar[] := 2;
+End[]
+EndPackage[]
@@ -23,8 +23,12 @@ package de.halirutan.mathematica;
 
 import com.intellij.lexer.Lexer;
 import com.intellij.testFramework.LexerTestCase;
+import com.intellij.psi.tree.IElementType;
 import de.halirutan.mathematica.lang.lexer.MathematicaLexer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Test small, important code snippets for their lexer output.
  * @author patrick (31.10.16)
@@ -62,6 +66,36 @@ public class MathematicaLexerTest extends LexerTestCase {
     doTest("12``12", "NUMBER ('12``12')");
   }
 
+  public void testNumberForms() {
+    doTest(".5", "NUMBER ('.5')");
+    doTest("1.5`20*^-3", "NUMBER ('1.5`20*^-3')");
+    doTest("3``2*^4", "NUMBER ('3``2*^4')");
+    doTest("36^^zz", "NUMBER ('36^^zz')");
+    doTest("2^^101.1`10", "NUMBER ('2^^101.1`10')");
+    doTest("16^^ff``5*^2", "NUMBER ('16^^ff``5*^2')");
+    // a base number needs a precision before the exponent
+    doTest("16^^ff*^2", "NUMBER ('16^^ff')\n" + "TIMES ('*')\n" + "POWER ('^')\n" + "NUMBER ('2')");
+    // 37 is not a valid base
+    doTest("37^^1", "NUMBER ('37')\n" + "POWER ('^')\n" + "POWER ('^')\n" + "NUMBER ('1')");
+  }
+
+  public void testDecorativeComments() {
+    doTest("(*****)", "COMMENT ('(*****)')");
+    doTest("(* a (** b **) *)x", "COMMENT ('(* a (** b **) *)')\n" + "IDENTIFIER ('x')");
+    doTest("(* ( ) * *)", "COMMENT ('(* ( ) * *)')");
+  }
+
+  public void testStringEscapes() {
+    // escapes are part of the literal text, only named characters get their own token
+    doTest("\"a\\nb\\\"c\\\\\\[Alpha]\\[\"",
+        "STRING_LITERAL_BEGIN ('\"')\n" +
+            "STRING_LITERAL ('a\\nb\\\"c\\\\')\n" +
+            "STRING_NAMED_CHARACTER ('\\[Alpha]')\n" +
+            "STRING_LITERAL ('\\')\n" +
+            "STRING_LITERAL ('[')\n" +
+            "STRING_LITERAL_END ('\"')");
+  }
+
   public void testRepeatedAmbiguity() {
     // Actually, this is not what Mathematica parses which is Repeated[1]
     // but the documentation states that the point for the number 1. should bind stronger
@@ -72,6 +106,60 @@ public class MathematicaLexerTest extends LexerTestCase {
     doTest("(1)..", "LEFT_PAR ('(')\n" + "NUMBER ('1')\n" + "RIGHT_PAR (')')\n" + "REPEATED ('..')");
   }
 
+  public void testStateOfNestedConstructs() {
+    final Lexer lexer = createLexer();
+    lexer.start("\"a\" (* (* *) *) b");
+    assertEquals(0, lexer.getState());
+    lexer.advance();
+    assertTrue("Inside a string the state must not be the initial state", lexer.getState() != 0);
+    while (lexer.getTokenType() != null && lexer.getTokenStart() < 3) {
+      lexer.advance();
+    }
+    assertEquals(0, lexer.getState());
+  }
+
+  public void testRestartAtEveryToken() {
+    doRestartTest("(* outer (* inner (* deepest *) *) still outer *) x = 1;");
+    doRestartTest("f[\"string with \\\" quote and \\[Alpha] and \\\nline\", (* c *) \"second\"]");
+    doRestartTest("<< \"Package`\"; Get[\"file.m\"] >> output.txt; x >>> \"out\"");
+    doRestartTest("a = \"unterminated\n string (* that is not a comment *)");
+    doRestartTest("b = 1 (* unterminated (* nested *) comment \"with string\"");
+  }
+
+  /**
+   * Lexes the complete text once and then restarts the lexer at each token with the state it reported there. Every
+   * restarted run has to produce exactly the remaining tokens of the complete run, which is what incremental
+   * highlighting relies on.
+   * @param text code to check
+   */
+  private void doRestartTest(String text) {
+    final List<String> tokens = new ArrayList<>();
+    final List<Integer> starts = new ArrayList<>();
+    final List<Integer> states = new ArrayList<>();
+    final Lexer lexer = createLexer();
+    lexer.start(text);
+    IElementType type;
+    while ((type = lexer.getTokenType()) != null) {
+      starts.add(lexer.getTokenStart());
+      states.add(lexer.getState());
+      tokens.add(type + "[" + lexer.getTokenStart() + "," + lexer.getTokenEnd() + "]");
+      lexer.advance();
+    }
+
+    final Lexer restarted = createLexer();
+    for (int i = 0; i < starts.size(); i++) {
+      restarted.start(text, starts.get(i), text.length(), states.get(i));
+      int j = i;
+      while ((type = restarted.getTokenType()) != null) {
+        assertTrue("Restart at " + starts.get(i) + " produced more tokens", j < tokens.size());
+        assertEquals("Restart at " + starts.get(i),
+            tokens.get(j++), type + "[" + restarted.getTokenStart() + "," + restarted.getTokenEnd() + "]");
+        restarted.advance();
+      }
+      assertEquals("Restart at " + starts.get(i) + " produced fewer tokens", tokens.size(), j);
+    }
+  }
+
   @Override
   protected String getDirPath() {
     return null;
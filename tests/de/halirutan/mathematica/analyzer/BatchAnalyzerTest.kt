@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.analyzer
+
+import com.google.gson.JsonObject
+import com.google.gson.JsonParser
+import com.intellij.codeInspection.ex.GlobalInspectionContextBase
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase
+import java.io.File
+
+/**
+ * Runs the batch analyzer on a temporary directory and checks the JSON report. The analyzer sets up its own
+ * application, so it is started in a separate JVM like the <code>analyze</code> task does.
+ */
+class BatchAnalyzerTest : LightCodeInsightFixtureTestCase() {
+
+  private val packageText = """
+    |BeginPackage["Lib`"];
+    |helper::usage = "helper[x] adds one.";
+    |Begin["`Private`"];
+    |helper[x_] := x + 1;
+    |End[];
+    |EndPackage[];
+    |""".trimMargin()
+
+  private val scriptText = """
+    |f[x_] := helper[x] +
+    |  unknownThing[x];
+    |data = <|"a" -> f[1]|>;
+    |""".trimMargin()
+
+  fun testReport() {
+    val dir = FileUtil.createTempDirectory("analyzer", null)
+    try {
+      File(dir, "Lib.m").writeText(packageText)
+      File(dir, "sub").mkdir()
+      File(dir, "sub/Script.m").writeText(scriptText)
+      File(dir, "notes.txt").writeText("unknownThing")
+      val report = analyze(dir, File(dir, "out/report.json"))
+
+      assertEquals(2, report["files"].asInt)
+      assertEquals(1, report["threads"].asInt)
+      assertEquals("9.0", report["languageLevel"].asString)
+      assertTrue(report["milliseconds"].asLong >= 0)
+
+      val problems = report["problems"].asJsonArray.map { it.asJsonObject }
+      // helper is defined in Lib.m and exported from there, so only unknownThing is unresolved
+      val unresolved = problems.filter { it["inspection"].asString == "UnresolvedSymbol" }
+      assertEquals(1, unresolved.size)
+      checkProblem(unresolved[0], scriptText, "unknownThing", "WEAK WARNING", 2, 3)
+      assertEquals("Could not resolve symbol declaration", unresolved[0]["message"].asString)
+
+      val version = problems.filter { it["inspection"].asString == "UnsupportedVersion" }
+      assertEquals(1, version.size)
+      checkProblem(version[0], scriptText, "<|", "ERROR", 3, 8)
+      assertTrue(problems.none { it["file"].asString.endsWith("Lib.m") })
+    } finally {
+      FileUtil.delete(dir)
+    }
+  }
+
+  fun testGlobalContext() {
+    val context = AnalyzerInspectionManager(project).createNewGlobalContext(false)
+    assertInstanceOf(context, GlobalInspectionContextBase::class.java)
+    assertSame(project, context.project)
+  }
+
+  private fun checkProblem(problem: JsonObject, text: String, start: String, severity: String, line: Int, column: Int) {
+    assertTrue(problem["file"].asString.endsWith("Script.m"))
+    assertEquals(severity, problem["severity"].asString)
+    assertEquals(text.indexOf(start), problem["offset"].asInt)
+    assertEquals(line, problem["line"].asInt)
+    assertEquals(column, problem["column"].asInt)
+  }
+
+  private fun analyze(dir: File, report: File): JsonObject {
+    val java = File(System.getProperty("java.home"), "bin/java").path
+    val process = ProcessBuilder(java, "-Djava.awt.headless=true", "-cp", System.getProperty("java.class.path"),
+        BatchAnalyzer::class.java.name, "--threads", "1", "--language-level", "9.0", "--output", report.path, dir.path)
+        .redirectErrorStream(true)
+        .start()
+    val output = process.inputStream.bufferedReader().readText()
+    assertEquals(output, 0, process.waitFor())
+    return report.reader(Charsets.UTF_8).use { JsonParser().parse(it).asJsonObject }
+  }
+}
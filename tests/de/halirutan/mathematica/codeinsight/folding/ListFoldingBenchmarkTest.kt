@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.codeinsight.folding
+
+import com.intellij.lang.folding.FoldingDescriptor
+import com.intellij.testFramework.PlatformTestUtil
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase
+import de.halirutan.mathematica.file.MathematicaDataFiles
+import de.halirutan.mathematica.file.MathematicaFileType
+import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes
+
+/**
+ * Folding of large generated lists that are not yet treated as data files. The list regions need to stay within the
+ * limits of [MathematicaCodeFoldingSettings] and building them must not depend on the number of list literals in the
+ * file. The functional checks of list folding are in [MathematicaFoldingTest].
+ */
+class ListFoldingBenchmarkTest : LightCodeInsightFixtureTestCase() {
+
+  fun testLargeListFile() {
+    val rows = 1000
+    val nesting = 30
+    val text = buildString {
+      append("data = {\n")
+      for (i in 0 until rows) {
+        append("  {").append(i).append(", \"row").append(i).append("\", ")
+        append("{".repeat(nesting)).append("1, 2").append("}".repeat(nesting)).append("}")
+        append(if (i < rows - 1) ",\n" else "\n")
+      }
+      append("};\n")
+    }
+    // larger files would be taken as data and not be folded at all
+    assertTrue(text.length < MathematicaDataFiles.STATISTICS_MIN_SIZE)
+    myFixture.configureByText(MathematicaFileType.INSTANCE, text)
+    assertFalse(MathematicaDataFiles.isDataFile(myFixture.file))
+    val settings = MathematicaCodeFoldingSettingsImpl.getInstance()
+
+    // every row has more foldable lists than fit into the depth limit, the lists below it are skipped unvisited
+    var regions = emptyArray<FoldingDescriptor>()
+    PlatformTestUtil.startPerformanceTest("Folding of $rows list rows", 2000) {
+      regions = buildRegions()
+    }.assertTiming()
+    assertEquals(settings.maxFoldRegions, regions.size)
+    assertTrue(regions.all { it.element.elementType == MathematicaElementTypes.LIST_EXPRESSION })
+  }
+
+  private fun buildRegions(): Array<FoldingDescriptor> {
+    return MathematicaExpressionFoldingBuilder().buildFoldRegions(myFixture.file.node, myFixture.editor.document)
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.codeinsight.folding
+
+import com.intellij.lang.folding.FoldingDescriptor
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase
+import de.halirutan.mathematica.file.MathematicaFileType
+import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes
+import de.halirutan.mathematica.lang.psi.util.Comments.CommentStyle
+import de.halirutan.mathematica.lang.psi.util.SectionOutline
+
+/**
+ * Checks the regions of [MathematicaExpressionFoldingBuilder] and the section outline they are built from.
+ */
+class MathematicaFoldingTest : LightCodeInsightFixtureTestCase() {
+
+  fun testNestedSections() {
+    val text = """(* ::Chapter:: *)
+(*First chapter*)
+a = 1;
+
+(* ::Section:: *)
+(*A section*)
+b = 2;
+
+(* ::Subsection:: *)
+c = 3;
+
+(* ::Section:: *)
+d = 4;
+
+(* ::Chapter:: *)
+(*Second chapter*)
+e = 5
+"""
+    val file = myFixture.configureByText(MathematicaFileType.INSTANCE, text)
+    val sections = SectionOutline.getOutline(file).sections
+
+    assertEquals(listOf(CommentStyle.CHAPTER, CommentStyle.SECTION, CommentStyle.SUBSECTION, CommentStyle.SECTION, CommentStyle.CHAPTER),
+        sections.map { it.style })
+    assertEquals(listOf(0, 1, 2, 1, 0), sections.map { it.depth })
+    assertEquals(listOf("First chapter", "A section", null, null, "Second chapter"), sections.map { it.description })
+
+    val secondChapter = text.lastIndexOf("(* ::Chapter:: *)")
+    val secondSection = text.lastIndexOf("(* ::Section:: *)")
+    assertEquals(secondChapter - 1, sections[0].range.endOffset)
+    assertEquals(secondSection - 1, sections[1].range.endOffset)
+    assertEquals(secondSection - 1, sections[2].range.endOffset)
+    assertEquals(secondChapter - 1, sections[3].range.endOffset)
+    assertEquals(text.length, sections[4].range.endOffset)
+  }
+
+  fun testListDepthAndLines() {
+    val depth = 20
+    val text = "{".repeat(depth) + "\\[Alpha]" + "}".repeat(depth) + "\n{1,\n 2}"
+    myFixture.configureByText(MathematicaFileType.INSTANCE, text)
+    val settings = MathematicaCodeFoldingSettingsImpl.getInstance()
+    val oldMinLines = settings.listFoldingMinLines
+    try {
+      val lists = buildRegions().filter { it.element.elementType == MathematicaElementTypes.LIST_EXPRESSION }
+      assertEquals(settings.listFoldingMaxDepth + 1, lists.size)
+
+      settings.setListFoldingMinLines(2)
+      val multiLineLists = buildRegions().filter { it.element.elementType == MathematicaElementTypes.LIST_EXPRESSION }
+      assertEquals(1, multiLineLists.size)
+
+      // the named character deep inside the data must still be found
+      assertTrue(buildRegions().any { it.element.elementType == MathematicaElementTypes.IDENTIFIER })
+    } finally {
+      settings.setListFoldingMinLines(oldMinLines)
+    }
+  }
+
+  fun testDeepCallsBehindDataLists() {
+    val depth = 20
+    val data = "{" + "{1, 2}, ".repeat(3)
+    val text = data.repeat(depth) + "Module[{x}, x], {\\[Alpha]}" + "}".repeat(depth) + "\n{{3}, Block[{y}, y]}"
+    myFixture.configureByText(MathematicaFileType.INSTANCE, text)
+    val calls = buildRegions().filter { it.element.elementType == MathematicaElementTypes.FUNCTION_CALL_EXPRESSION }
+    assertEquals(listOf("Module[...]", "Block[...]"), calls.map { it.placeholderText })
+    assertTrue(buildRegions().any { it.element.elementType == MathematicaElementTypes.IDENTIFIER })
+  }
+
+  private fun buildRegions(): Array<FoldingDescriptor> {
+    return MathematicaExpressionFoldingBuilder().buildFoldRegions(myFixture.file.node, myFixture.editor.document)
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.file
+
+import com.intellij.openapi.util.TextRange
+import com.intellij.psi.impl.source.tree.LazyParseableElement
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase
+import de.halirutan.mathematica.index.packageexport.MathematicaPackageExportIndex
+import de.halirutan.mathematica.lang.parsing.MathematicaElementTypes
+
+/**
+ * Checks the detection of data files and that they are only split into top-level expressions.
+ */
+class DataFileTest : LightCodeInsightFixtureTestCase() {
+
+  fun testDataStatistics() {
+    assertTrue(MathematicaDataFiles.looksLikeData("{{1, 2.5, \"a\"}, {3, -4, \"b\"}, <|\"x\" -> 1|>}"))
+    assertFalse(MathematicaDataFiles.looksLikeData("f[x_] := Module[{y = x}, y^2];\ng[x_] := f[x] + 1"))
+  }
+
+  fun testSizeThresholds() {
+    val data = MathematicaDataFiles.STATISTICS_MIN_SIZE
+    assertFalse(MathematicaDataFiles.isDataFile(null, null, padded("{1, 2.5, \"a\"},\n", data - 1)))
+    assertTrue(MathematicaDataFiles.isDataFile(null, null, padded("{1, 2.5, \"a\"},\n", data)))
+    assertFalse(MathematicaDataFiles.isDataFile(null, null, padded("f[x_] := g[x] + 1;\n", data)))
+
+    val size = MathematicaDataFiles.DATA_FILE_SIZE
+    assertFalse(MathematicaDataFiles.isDataFile(null, null, padded("f[x_] := g[x] + 1;\n", size - 1)))
+    assertTrue(MathematicaDataFiles.isDataFile(null, null, padded("f[x_] := g[x] + 1;\n", size)))
+  }
+
+  fun testSmallFileIsParsed() {
+    val file = myFixture.configureByText(MathematicaFileType.INSTANCE, "data = {1, 2, 3};\nf[x_] := x")
+    assertFalse(MathematicaDataFiles.isDataFile(file))
+    assertNull(file.node.findChildByType(MathematicaElementTypes.DATA_EXPRESSION))
+  }
+
+  fun testMarkedFileIsFilteredWhenQueried() {
+    val file = myFixture.configureByText("Pkg.m", "BeginPackage[\"Pkg`\"];\nf::usage = \"f\";\nEndPackage[];\n")
+    val scope = GlobalSearchScope.allScope(project)
+    assertTrue(MathematicaPackageExportIndex.getExports("f", scope).containsKey(file.virtualFile))
+
+    val dataFiles = MathematicaDataFiles.getInstance(project)!!
+    dataFiles.setMarked(file.virtualFile, true)
+    try {
+      assertFalse(MathematicaDataFiles.isDataContent(file.text))
+      assertTrue(MathematicaPackageExportIndex.getExports("f", scope).isEmpty())
+    } finally {
+      dataFiles.setMarked(file.virtualFile, false)
+    }
+    assertTrue(MathematicaPackageExportIndex.getExports("f", scope).containsKey(file.virtualFile))
+  }
+
+  fun testGeneratedDataFile() {
+    val rows = 20000
+    val text = buildString {
+      append("data = {\n")
+      for (i in 0 until rows) {
+        append("  {").append(i).append(", ").append(i * 0.25).append(", \"r").append(i).append("\"}")
+        append(if (i < rows - 1) ",\n" else "\n")
+      }
+      append("};\n")
+      append("more = <|\"a\" -> 1, \"b\" -> {2, 3}|>\n")
+      append("last = {4, 5}\n")
+    }
+    assertTrue(text.length >= MathematicaDataFiles.STATISTICS_MIN_SIZE)
+
+    val file = myFixture.configureByText(MathematicaFileType.INSTANCE, text)
+    assertTrue(MathematicaDataFiles.isDataFile(file))
+    val expressions = file.node.getChildren(null).filter { it.elementType == MathematicaElementTypes.DATA_EXPRESSION }
+    assertEquals(3, expressions.size)
+    assertTrue(expressions[0].text.startsWith("data = {"))
+    assertEquals("last = {4, 5}", expressions[2].text)
+
+    // the tokens are only created for the chunk that is looked at
+    val chunks = expressions[0].getChildren(null).filterIsInstance<LazyParseableElement>()
+    assertTrue(chunks.size > 1)
+    assertEquals(expressions[0].textRange, TextRange(chunks.first().startOffset, chunks.last().textRange.endOffset))
+    val offset = text.indexOf("\"r10000\"")
+    val chunk = chunks.single { it.textRange.containsOffset(offset) }
+    assertFalse(chunk.isParsed)
+    assertEquals(MathematicaElementTypes.STRING_LITERAL_BEGIN, file.findElementAt(offset)!!.node.elementType)
+    assertTrue(chunk.isParsed)
+    assertFalse(chunks.last().isParsed)
+  }
+
+  /**
+   * Repeats the line and fills up with whitespace, which is ignored by the statistics, to get exactly the length.
+   */
+  private fun padded(line: String, length: Int): String {
+    val repeated = line.repeat(length / line.length)
+    return repeated + " ".repeat(length - repeated.length)
+  }
+}
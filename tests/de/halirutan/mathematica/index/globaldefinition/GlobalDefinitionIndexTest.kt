@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.index.globaldefinition
+
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase
+import de.halirutan.mathematica.file.MathematicaFileType
+import de.halirutan.mathematica.lang.psi.SymbolAssignmentType
+import de.halirutan.mathematica.lang.resolve.GlobalDefinitionCollector
+
+/**
+ * Checks that [MathematicaGlobalDefinitionIndex] stores the same definitions that [GlobalDefinitionCollector] finds.
+ */
+class GlobalDefinitionIndexTest : LightCodeInsightFixtureTestCase() {
+
+  fun testDefinitionsOfFile() {
+    val file = myFixture.configureByText(MathematicaFileType.INSTANCE,
+        "f[x_] := x^2;\nOptions[f] = {};\ng = 1;\nf /: h[f] := 0;")
+
+    val definitions = MathematicaGlobalDefinitionIndex.getDefinitions("f", file)
+    val collected = GlobalDefinitionCollector.getCollector(file).assignments["f"]
+    assertNotNull(collected)
+    assertEquals(collected!!.size, definitions.size)
+    assertEquals(definitions.sortedBy { it.symbolOffset }, definitions)
+    assertEquals("f[x_]", definitions[0].lhsText)
+    assertEquals(SymbolAssignmentType.SET_DELAYED_ASSIGNMENT, definitions[0].assignmentType)
+    assertTrue(definitions.any { it.assignmentType == SymbolAssignmentType.OPTIONS_ASSIGNMENT })
+
+    for (definition in definitions) {
+      assertEquals("f", definition.findSymbol(file)?.symbolName)
+      assertNotNull(definition.findLhs(file))
+    }
+    assertEquals(1, MathematicaGlobalDefinitionIndex.getDefinitions("g", file).size)
+    assertEmpty(MathematicaGlobalDefinitionIndex.getDefinitions("x", file))
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.index.messagename
+
+import com.intellij.codeInsight.completion.CompletionType
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase
+import de.halirutan.mathematica.codeinsight.inspections.bugs.UndefinedMessageName
+import de.halirutan.mathematica.file.MathematicaFileType
+
+/**
+ * Checks that message completion and the undefined message inspection see the messages of other files.
+ */
+class MessageNameIndexTest : LightCodeInsightFixtureTestCase() {
+
+  override fun setUp() {
+    super.setUp()
+    myFixture.addFileToProject("Messages.m", "g::nodef = \"no definition for `1`\";\nGeneral::mytag = \"general\";")
+  }
+
+  fun testCompletionFromOtherFile() {
+    myFixture.configureByText(MathematicaFileType.INSTANCE, "f::local = \"local\";\nMessage[<caret>]")
+    myFixture.complete(CompletionType.SMART)
+    val lookups = myFixture.lookupElementStrings!!
+    assertContainsElements(lookups, "g::nodef", "f::local")
+  }
+
+  fun testUndefinedMessage() {
+    myFixture.enableInspections(UndefinedMessageName::class.java)
+    myFixture.configureByText(MathematicaFileType.INSTANCE,
+        "f::local = \"local\";\nMessage[f::local]; Message[g::nodef]; Message[f::argx]; Message[f::mytag];\n" +
+            "Message[Plot::other]; Message[f::missing]")
+    val problems = myFixture.doHighlighting().filter { it.description?.contains("is not defined") == true }
+    assertEquals(listOf("Message f::missing is not defined"), problems.map { it.description })
+  }
+
+  fun testAllAssignmentFormsDefineMessages() {
+    myFixture.enableInspections(UndefinedMessageName::class.java)
+    myFixture.configureByText(MathematicaFileType.INSTANCE,
+        "f /: f::tagset = \"t\";\nTagSet[f, f::tagsetcall, \"t\"];\nSet[f::setcall, \"t\"];\n" +
+            "Block[{f::block = \"t\"}, Message[f::block]];\n" +
+            "Message[f::tagset]; Message[f::tagsetcall]; Message[f::setcall];\n" +
+            "Off[f::offonly]; Message[f::missing]")
+    val problems = myFixture.doHighlighting().filter { it.description?.contains("is not defined") == true }
+    assertEquals(listOf("Message f::missing is not defined"), problems.map { it.description })
+  }
+}
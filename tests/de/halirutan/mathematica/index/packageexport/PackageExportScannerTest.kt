@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.index.packageexport
+
+import com.intellij.codeInsight.lookup.LookupElementPresentation
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase
+import de.halirutan.mathematica.file.MathematicaFileType
+import java.io.File
+
+/**
+ * Compares the exports found by the lexer based [PackageExportScanner] with the ones of the PSI based
+ * [PackageClassifier].
+ */
+class PackageExportScannerTest : LightCodeInsightFixtureTestCase() {
+
+  fun testPackage() {
+    val text = """
+      |BeginPackage["MyPkg`", {"Other`"}]
+      |
+      |f::usage = "f[x] does something";
+      |g::usage =
+      |  "spans two lines";
+      |If[${'$'}VersionNumber > 10, h::usage = "h"; k::usage = "k", old::usage = "old"]
+      |{notExported::usage = "x"}
+      |Begin["`Private`"]
+      |p::usage = "private";
+      |f[x_] := x
+      |End[]
+      |EndPackage[]
+      |q::usage = "global"
+      |""".trimMargin()
+    val exports = assertSameExports("MyPkg.m", text)
+    assertEquals(
+        setOf("MyPkg`", "f", "g", "h", "k", "old", "p", "q"),
+        exports.map { it.symbol }.toSet())
+    assertEquals(listOf("MyPkg`", "MyPkg`Private`"), PackageExportScanner.scanContexts("MyPkg.m", text).keys.toList())
+  }
+
+  fun testIndexKeepsAllExportsOfAName() {
+    val text = """
+      |BeginPackage["MyPkg`"]
+      |Begin["`Private`"]
+      |f::usage = "private";
+      |End[]
+      |f::usage = "public";
+      |EndPackage[]
+      |""".trimMargin()
+    val file = myFixture.configureByText("MyPkg.m", text)
+    val exports = MathematicaPackageExportIndex.getExports("f", GlobalSearchScope.allScope(project))
+    val fileExports = exports[file.virtualFile]!!
+    assertEquals(listOf("MyPkg`Private`", "MyPkg`"), fileExports.map { it.nameSpace })
+    assertEquals(listOf(text.indexOf("f::usage = \"private\""), text.indexOf("f::usage = \"public\"")),
+        fileExports.map { it.offset })
+  }
+
+  fun testCompletionListsEveryExportingFile() {
+    myFixture.addFileToProject("First.m", "BeginPackage[\"First`\"]\nplotData::usage = \"1\";\nEndPackage[]\n")
+    myFixture.addFileToProject("Second.m", "BeginPackage[\"Second`\"]\nplotData::usage = \"2\";\nEndPackage[]\n")
+    myFixture.configureByText("Script.m", "plDa<caret>")
+    val lookups = myFixture.completeBasic()!!.filter { it.lookupString == "plotData" }
+    val files = lookups.map { LookupElementPresentation().apply { it.renderElement(this) }.typeText }
+    assertSameElements(files, "(First.m)", "(Second.m)")
+  }
+
+  fun testParsingTestData() {
+    File("testData/parsing").listFiles { file -> file.name.endsWith(".m") }!!.forEach {
+      assertSameExports(it.name, it.readText())
+    }
+  }
+
+  private fun assertSameExports(fileName: String, text: String): Collection<PackageExportSymbol> {
+    val file = myFixture.configureByText(fileName, text)
+    assertEquals(MathematicaFileType.INSTANCE, file.fileType)
+    val classifier = PackageClassifier()
+    file.accept(classifier)
+    val exports = PackageExportScanner.scan(fileName, text)
+    assertEquals(classifier.myExportInfo, exports.toSet())
+    return exports
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.index.usagemessage
+
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase
+import de.halirutan.mathematica.documentation.MathematicaDocumentationProvider
+import de.halirutan.mathematica.file.MathematicaFileType
+import de.halirutan.mathematica.lang.psi.api.Symbol
+
+/**
+ * Checks that usage messages of other files are found through the index and rendered as documentation.
+ */
+class UsageMessageIndexTest : LightCodeInsightFixtureTestCase() {
+
+  override fun setUp() {
+    super.setUp()
+    myFixture.addFileToProject("Pkg.m", """
+      |BeginPackage["Pkg`"]
+      |f::usage = "f[x] computes\nf[x, y] joins " <>
+      |  "two\[Ellipsis]";
+      |EndPackage[]
+      |""".trimMargin())
+  }
+
+  fun testUsageMessageFromOtherFile() {
+    myFixture.configureByText(MathematicaFileType.INSTANCE, "f[1]; Pkg`f[2]")
+    val symbols = PsiTreeUtil.findChildrenOfType(myFixture.file, Symbol::class.java).filter { it.symbolName == "f" }
+    assertEquals(2, symbols.size)
+    for (symbol in symbols) {
+      val usage = MathematicaUsageMessageIndex.findUsageMessage(symbol)!!
+      assertEquals("Pkg`f", usage.fullSymbolName)
+      assertEquals(listOf("f[x] computes", "f[x, y] joins two..."), usage.lines)
+    }
+    val doc = MathematicaDocumentationProvider().generateDoc(symbols[0], symbols[0])!!
+    assertTrue(doc.contains("Pkg.m"))
+    assertTrue(doc.contains("<li><b>f</b>[x] computes</li>"))
+  }
+
+  fun testUsageMessageOfLoadedPackage() {
+    myFixture.addFileToProject("Other.m", """
+      |BeginPackage["Other`"]
+      |f::usage = "f[x] is the other f";
+      |g::usage = "g[x]";
+      |EndPackage[]
+      |""".trimMargin())
+    myFixture.configureByText("Script.m", "Needs[\"Other`\"];\nf[1]; Pkg`f[2]")
+    val symbols = PsiTreeUtil.findChildrenOfType(myFixture.file, Symbol::class.java).filter { it.symbolName == "f" }
+    assertEquals("Other`f", MathematicaUsageMessageIndex.findUsageMessage(symbols[0])!!.fullSymbolName)
+    assertEquals("Pkg`f", MathematicaUsageMessageIndex.findUsageMessage(symbols[1])!!.fullSymbolName)
+  }
+
+  fun testNoUsageMessageOfPackageThatIsNotLoaded() {
+    myFixture.addFileToProject("Other.m", "BeginPackage[\"Other`\"]\ng::usage = \"g[x]\";\nEndPackage[]\n")
+    myFixture.configureByText("Script.m", "Needs[\"Other`\"];\nf[1]; g[2]")
+    val symbols = PsiTreeUtil.findChildrenOfType(myFixture.file, Symbol::class.java)
+    val usage = { name: String ->
+      MathematicaUsageMessageIndex.findUsageMessage(symbols.single { it.symbolName == name })
+    }
+    assertNull(usage("f"))
+    assertEquals("Other`g", usage("g")!!.fullSymbolName)
+  }
+
+  fun testLocalVariableHasNoUsage() {
+    myFixture.configureByText(MathematicaFileType.INSTANCE, "Module[{f}, f]")
+    val symbol = PsiTreeUtil.findChildrenOfType(myFixture.file, Symbol::class.java).last()
+    assertNull(MathematicaDocumentationProvider().generateDoc(symbol, symbol))
+  }
+}
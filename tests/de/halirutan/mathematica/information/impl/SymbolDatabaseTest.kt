@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.information.impl
+
+import junit.framework.TestCase
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.nio.ByteBuffer
+
+/**
+ * Writes a small symbol database and reads it back through the memory-mapped layout.
+ */
+class SymbolDatabaseTest : TestCase() {
+
+  fun testRoundTrip() {
+    val contexts = listOf("System`", "Global`", "JLink`", "Äpfel`", "Developer`")
+    val contextSymbols = (0 until 200).map { "Developer`Symbol$it" }
+    val systemSymbols = listOf("Plus", "Times", "Zeta", "a", "ä", "…")
+    val versions = mapOf("System`Plus" to 1.0, "System`Association" to 10.0, "Developer`Symbol7" to 11.3)
+    val properties = mapOf(
+        "System`Plot" to SymbolProperties("System`", "Plot", true, listOf("PlotRange", "PlotStyle"),
+            listOf("HoldAll", "Protected", "ReadProtected"), listOf("Plot[f, {x, xmin, xmax}]"), 5),
+        "System`Pi" to SymbolProperties("System`", "Pi", false, null, listOf("Constant", "Protected"), null, 3),
+        "JLink`JavaNew" to SymbolProperties("JLink`", "JavaNew", true, listOf(), listOf(), listOf("JavaNew[cls]"), 0))
+    val generalMessages = listOf("argx", "argrx", "optx", "stop")
+
+    val bytes = ByteArrayOutputStream()
+    DataOutputStream(bytes).use {
+      SymbolDatabaseWriter.write(it, contexts, contextSymbols, systemSymbols, versions, properties, generalMessages)
+    }
+    val database = SymbolDatabase(ByteBuffer.wrap(bytes.toByteArray()))
+
+    // the tables are sorted by their UTF-8 bytes, which is what the binary search relies on
+    assertEquals(listOf("Plus", "Times", "Zeta", "a", "ä", "…"), database.systemSymbols.toList())
+    assertEquals(contexts.toSet(), database.contexts)
+    for (symbol in contextSymbols) {
+      assertTrue(database.contextSymbols.contains(symbol))
+      assertEquals(symbol, database.contextSymbols.get(database.contextSymbols.indexOf(symbol)))
+    }
+    assertFalse(database.contextSymbols.contains("Developer`Symbol200"))
+    assertTrue(database.contexts.indexOf("Missing`") < 0)
+    assertTrue(database.systemSymbols.indexOf("") < 0)
+
+    for ((name, version) in versions) {
+      assertTrue(database.hasVersion(name))
+      assertEquals(version, database.getVersion(name, -1.0))
+    }
+    assertFalse(database.hasVersion("System`Times"))
+    assertEquals(-1.0, database.getVersion("System`Times", -1.0))
+
+    assertEquals(properties.keys, database.propertyKeys)
+    assertEquals(properties.size, database.allProperties.size)
+    for ((key, expected) in properties) {
+      val actual = database.getProperties(key)!!
+      assertEquals(expected.context, actual.context)
+      assertEquals(expected.name, actual.name)
+      assertEquals(expected.isFunctionQ, actual.isFunctionQ)
+      assertEquals(expected.importance, actual.importance)
+      assertEquals(expected.options.orEmpty(), actual.options)
+      assertEquals(expected.attributes.orEmpty(), actual.attributes)
+      assertEquals(expected.callPattern.orEmpty(), actual.callPattern)
+    }
+    assertNull(database.getProperties("System`Missing"))
+
+    assertEquals(listOf("argrx", "argx", "optx", "stop"), database.generalMessages.toList())
+    assertTrue(database.generalMessages.indexOf("usage") < 0)
+  }
+}
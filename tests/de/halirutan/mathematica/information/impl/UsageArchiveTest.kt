@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.information.impl
+
+import junit.framework.TestCase
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.nio.ByteBuffer
+
+/**
+ * Packs some usage pages and reads them back from the archive.
+ */
+class UsageArchiveTest : TestCase() {
+
+  fun testRoundTrip() {
+    val pages = (1..500).associate { i ->
+      "System`Symbol$i" to "<h3>Symbol$i</h3><ul><li>Symbol$i[<em>x</em>] does ${"something ".repeat(i % 7)}</li></ul>"
+    }.toMutableMap()
+    pages["JLink`JavaNew"] = "<h3>JavaNew</h3> äöü …"
+    pages["System`Empty"] = ""
+
+    val bytes = ByteArrayOutputStream()
+    DataOutputStream(bytes).use { UsageArchiveWriter.write(it, pages.mapValues { (_, page) -> page.toByteArray() }) }
+    val archive = UsageArchive(ByteBuffer.wrap(bytes.toByteArray()))
+
+    for ((name, page) in pages) {
+      assertEquals(page, archive.getPage(name))
+    }
+    assertNull(archive.getPage("System`Missing"))
+    assertSame(archive.getPage("System`Symbol1"), archive.getPage("System`Symbol1"))
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.lang.lexer
+
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.psi.TokenType
+import com.intellij.testFramework.PlatformTestUtil
+import junit.framework.TestCase
+import java.io.File
+
+/**
+ * Measures the throughput of the lexer on generated numeric data, comment-heavy files and usage messages full of
+ * escape sequences. Each input must be lexed at [CHARS_PER_MS] or faster, a limit that the platform scales to the
+ * speed of the machine. The packages of testData/parsing are too small to be timed and are only checked for a
+ * complete token stream. When the system property `benchmark.output` points to a directory, the throughputs are
+ * appended to `lexer.csv` there so that the `benchmark` task of the build can track them over time.
+ */
+class LexerPerformanceTest : TestCase() {
+
+  private val rounds = 5
+
+  fun testThroughput() {
+    File("testData", "parsing").listFiles { f -> f.name.endsWith(".m") }
+        .forEach { assertTokensCoverText(FileUtil.loadFile(it)) }
+
+    val texts = mapOf(
+        "NumericData.m" to createNumericData(50000),
+        "Comments.m" to createCommentedPackage(5000),
+        "Usages.m" to createUsagePackage(5000))
+    val lexer = MathematicaLexer()
+    val results = texts.map { (name, text) ->
+      assertTokensCoverText(text)
+      var best = Long.MAX_VALUE
+      PlatformTestUtil.startPerformanceTest("Lexing $name ${rounds}x", text.length * rounds / CHARS_PER_MS) {
+        val start = System.nanoTime()
+        repeat(rounds) { lex(lexer, text) }
+        best = minOf(best, System.nanoTime() - start)
+      }.assertTiming()
+      name to text.length * rounds / (best / 1e9)
+    }
+
+    val output = System.getProperty("benchmark.output") ?: return
+    val csv = File(output, "lexer.csv")
+    FileUtil.createParentDirs(csv)
+    csv.appendText(results.joinToString("") { (name, value) ->
+      "${System.currentTimeMillis()},$name,%.0f\n".format(value)
+    })
+  }
+
+  /**
+   * The tokens must follow each other without gaps up to the end of the text and the generated inputs contain no
+   * characters that the lexer cannot handle.
+   */
+  private fun assertTokensCoverText(text: String) {
+    val lexer = MathematicaLexer()
+    lexer.start(text)
+    var end = 0
+    while (lexer.tokenType != null) {
+      assertEquals(end, lexer.tokenStart)
+      assertNotSame(TokenType.BAD_CHARACTER, lexer.tokenType)
+      end = lexer.tokenEnd
+      lexer.advance()
+    }
+    assertEquals(text.length, end)
+  }
+
+  private fun lex(lexer: MathematicaLexer, text: String) {
+    lexer.start(text)
+    while (lexer.tokenType != null) {
+      lexer.advance()
+    }
+  }
+
+  private fun createNumericData(rows: Int): String = buildString {
+    append("data = {\n")
+    for (i in 0 until rows) {
+      append("  {").append(i).append(", ").append(i * 0.125).append(", ").append(i).append(".5`20, ")
+      append(i % 97).append("*^-").append(i % 13).append(", 16^^").append(Integer.toHexString(i)).append("}")
+      append(if (i < rows - 1) ",\n" else "\n")
+    }
+    append("};\n")
+  }
+
+  private fun createCommentedPackage(sections: Int): String = buildString {
+    for (i in 0 until sections) {
+      append("(* ::Section:: *)\n(*Section $i*)\n\n")
+      append("(******************************************************************************)\n")
+      append("(* Computes the value of f$i for the given argument. (* nested remark *) *)\n")
+      append("f$i[x_] := x^$i; (* inline comment *)\n\n")
+    }
+  }
+
+  private fun createUsagePackage(symbols: Int): String = buildString {
+    for (i in 0 until symbols) {
+      append("f$i::usage = \"\\!\\(\\*RowBox[{\\\"f$i\\\", \\\"[\\\", \\\"x\\\", \\\"]\\\"}]\\) ")
+      append("gives \\\"\\[Alpha]\\\" for \\!\\(\\*StyleBox[\\\"x\\\", \\\"TI\\\"]\\).\\nSee also g$i.\";\n")
+    }
+  }
+
+  companion object {
+    /**
+     * A quarter of the throughput that the lexer reaches on numeric data, its slowest input.
+     */
+    private const val CHARS_PER_MS = 20000
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.lang.parsing
+
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.PsiElement
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiFileFactory
+import com.intellij.psi.impl.DebugUtil
+import com.intellij.psi.tree.IElementType
+import com.intellij.psi.tree.IReparseableElementType
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase
+import de.halirutan.mathematica.file.MathematicaFileType
+import de.halirutan.mathematica.lang.MathematicaLanguage
+
+/**
+ * Checks that edits inside bracketed expressions only reparse the innermost enclosing expression.
+ */
+class IncrementalReparseTest : LightCodeInsightFixtureTestCase() {
+
+  fun testParsable() {
+    assertTrue(isParsable(MathematicaElementTypes.LIST_EXPRESSION, "{1, {2, f[3]}, (* } *) \"}\"}"))
+    assertFalse(isParsable(MathematicaElementTypes.LIST_EXPRESSION, "{1}, {2}"))
+    assertFalse(isParsable(MathematicaElementTypes.LIST_EXPRESSION, "{1, (2}"))
+    assertFalse(isParsable(MathematicaElementTypes.LIST_EXPRESSION, "{1, 2"))
+    assertTrue(isParsable(MathematicaElementTypes.ASSOCIATION_EXPRESSION, "<|a -> {1}|>"))
+    assertTrue(isParsable(MathematicaElementTypes.GROUP_EXPRESSION, "(a + b)"))
+    assertTrue(isParsable(MathematicaElementTypes.FUNCTION_CALL_EXPRESSION, "f[x][y, {z}]"))
+    assertFalse(isParsable(MathematicaElementTypes.FUNCTION_CALL_EXPRESSION, "l[[1]]"))
+    assertFalse(isParsable(MathematicaElementTypes.FUNCTION_CALL_EXPRESSION, "a + f[x]"))
+    assertFalse(isParsable(MathematicaElementTypes.FUNCTION_CALL_EXPRESSION, "f\n[x]"))
+  }
+
+  fun testEditInsideModuleKeepsOtherDefinitions() {
+    val text = buildString {
+      for (i in 0 until 500) {
+        append("f$i[x_] := Module[{a = {1, 2, 3}, b}, b = a^x; Total[b]];\n")
+      }
+      append("g[x_] := Module[{a = {1, 2<caret>}}, Map[#^2 &, a]];\n")
+      for (i in 0 until 500) {
+        append("h$i[x_] := <|\"k\" -> {x, $i}|>;\n")
+      }
+    }
+    val file = myFixture.configureByText(MathematicaFileType.INSTANCE, text)
+    val offset = myFixture.caretOffset
+    val innerList = enclosingList(file, offset)
+    val outerList = enclosingList(file, innerList.textRange.startOffset - 1)
+    val module = outerList.parent
+    val mapCall = module.children.single { it.text.startsWith("Map[") }
+
+    myFixture.type(", 3")
+    PsiDocumentManager.getInstance(project).commitAllDocuments()
+
+    // a full reparse would merge the new tree into the old one and keep the inner list node as well. Only the
+    // reparse of the list alone replaces it while everything around it stays untouched.
+    val newInnerList = enclosingList(file, offset)
+    assertEquals("{1, 2, 3}", newInnerList.text)
+    assertNotSame(innerList, newInnerList)
+    assertFalse(innerList.isValid)
+    assertSame(outerList, enclosingList(file, newInnerList.textRange.startOffset - 1))
+    assertSame(mapCall, module.children.single { it.text.startsWith("Map[") })
+    assertTrue(mapCall.isValid)
+    val fresh = PsiFileFactory.getInstance(project).createFileFromText("fresh.m", MathematicaFileType.INSTANCE, file.text)
+    assertEquals(DebugUtil.psiToString(fresh, false), DebugUtil.psiToString(file, false))
+  }
+
+  private fun enclosingList(file: PsiFile, offset: Int): PsiElement {
+    var element = file.findElementAt(offset)
+    while (element != null && element.node.elementType != MathematicaElementTypes.LIST_EXPRESSION) {
+      element = element.parent
+    }
+    return element!!
+  }
+
+  private fun isParsable(type: IElementType, text: String): Boolean =
+      (type as IReparseableElementType).isParsable(null, text, MathematicaLanguage.INSTANCE, project)
+}
@@ -22,11 +22,30 @@
 
 package de.halirutan.mathematica.lang.parsing;
 
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiErrorElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.PsiTreeUtil;
+import de.halirutan.mathematica.file.MathematicaDataFiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author patrick (8/16/14)
  */
 public class MathematicaParsingTest extends AbstractParsingTestByFullFormComparison {
 
+  /**
+   * Far deeper than the recursion limit of the parser, but small enough that nested lists are not taken as data file
+   * which would skip the usual parsing altogether.
+   */
+  private static final int DEEP_NESTING = 10000;
+
   public void testParsingTestData() throws Exception {
     doTest(false);
   }
@@ -42,4 +61,78 @@ public class MathematicaParsingTest extends AbstractParsingTestByFullFormCompari
   public void testPattern() throws Exception {
     doTest(false);
   }
+
+  /**
+   * The parser reuses its results, so the state of an operand that could not be parsed must be kept before the next
+   * operand is parsed. Otherwise, the infix call would take the state of <code >b</code> and look complete.
+   */
+  public void testUnparsedOperatorOfInfixCall() {
+    final PsiFile file = createPsiFile("infix", "a ~ ! ~ b");
+    boolean notParsed = false;
+    for (PsiErrorElement error : PsiTreeUtil.findChildrenOfType(file, PsiErrorElement.class)) {
+      notParsed |= error.getErrorDescription().equals("The last expression could not be parsed correctly.");
+    }
+    assertTrue(notParsed);
+  }
+
+  public void testDeeplyNestedLists() {
+    checkDeepNesting(nest("{", "1", "}"), MathematicaElementTypes.LIST_EXPRESSION);
+  }
+
+  public void testDeeplyNestedFunctionCalls() {
+    checkDeepNesting(nest("f[", "x", "]"), MathematicaElementTypes.FUNCTION_CALL_EXPRESSION);
+  }
+
+  public void testDeeplyNestedGroups() {
+    checkDeepNesting(nest("(", "a + b", ")"), MathematicaElementTypes.GROUP_EXPRESSION);
+  }
+
+  public void testDeeplyNestedPowers() {
+    checkDeepNesting(nest("a^", "a", ""), MathematicaElementTypes.POWER_EXPRESSION);
+  }
+
+  /**
+   * <code >a^(...) + b</code> is <code >Plus[Power[a, ...], b]</code>, but the flat expression that replaces the too
+   * deep operand of Power also takes the following <code >+ b</code>.
+   */
+  public void testTrailingOperatorInFlatExpression() {
+    final PsiFile file = checkDeepNesting(nest("a^(", "x", ") + b"), MathematicaElementTypes.PLUS_EXPRESSION);
+    final PsiElement[] flat = PsiTreeUtil.collectElements(file,
+        element -> element.getNode().getElementType() == MathematicaElementTypes.DATA_EXPRESSION);
+    assertEquals(1, flat.length);
+    assertEquals(MathematicaElementTypes.POWER_EXPRESSION, flat[0].getParent().getNode().getElementType());
+    assertTrue(flat[0].getText().startsWith("(") && flat[0].getText().endsWith(") + b"));
+  }
+
+  private static String nest(String open, String inner, String close) {
+    return StringUtil.repeat(open, DEEP_NESTING) + inner + StringUtil.repeat(close, DEEP_NESTING);
+  }
+
+  /**
+   * The outer levels of a deeply nested expression need to be parsed as usual and the statement that follows must not
+   * be affected by the flat part.
+   */
+  private PsiFile checkDeepNesting(String nested, IElementType expectedType) {
+    final String text = nested + "\ng[y]";
+    assertTrue(text.length() < MathematicaDataFiles.STATISTICS_MIN_SIZE);
+    final PsiFile file = createPsiFile("deep", text);
+    ensureParsed(file);
+    assertEquals(text, file.getText());
+
+    final List<PsiElement> statements = new ArrayList<>();
+    for (PsiElement child : file.getChildren()) {
+      if (!(child instanceof PsiWhiteSpace)) {
+        statements.add(child);
+      }
+    }
+    assertEquals(2, statements.size());
+    assertEquals(expectedType, statements.get(0).getNode().getElementType());
+    assertEquals(MathematicaElementTypes.FUNCTION_CALL_EXPRESSION, statements.get(1).getNode().getElementType());
+    assertEquals("g[y]", statements.get(1).getText());
+    assertNull(PsiTreeUtil.findChildOfType(statements.get(1), PsiErrorElement.class));
+    for (ASTNode node : file.getNode().getChildren(null)) {
+      assertFalse(node.getPsi() instanceof PsiErrorElement);
+    }
+    return file;
+  }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.lang.parsing
+
+import com.intellij.psi.PsiErrorElement
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.testFramework.ParsingTestCase
+import com.intellij.testFramework.PlatformTestUtil
+import de.halirutan.mathematica.lang.lexer.MathematicaLexer
+import de.halirutan.mathematica.lang.parsing.prattparser.MathematicaParserDefinition
+
+/**
+ * Parses a large synthetic package with the common operators and checks that it is parsed without errors and at
+ * [TOKENS_PER_MS] or faster, a limit that the platform scales to the speed of the machine.
+ */
+class ParserPerformanceTest : ParsingTestCase("parsing", "m", MathematicaParserDefinition()) {
+
+  override fun getTestDataPath(): String = "testData"
+
+  fun testThroughput() {
+    val text = createSyntheticPackage(2000)
+    val tokens = countTokens(text)
+    val file = createPsiFile("Synthetic", text)
+    ensureParsed(file)
+    assertNull(PsiTreeUtil.findChildOfType(file, PsiErrorElement::class.java))
+
+    PlatformTestUtil.startPerformanceTest("Parsing $tokens tokens", tokens / TOKENS_PER_MS) {
+      ensureParsed(createPsiFile("Synthetic", text))
+    }.assertTiming()
+  }
+
+  private fun countTokens(text: String): Int {
+    val lexer = MathematicaLexer()
+    lexer.start(text)
+    var count = 0
+    while (lexer.tokenType != null) {
+      count++
+      lexer.advance()
+    }
+    return count
+  }
+
+  private fun createSyntheticPackage(definitions: Int): String = buildString {
+    append("BeginPackage[\"Synthetic`\"];\n\n")
+    for (i in 0 until definitions) {
+      append("fun$i::usage = \"fun$i[x, y] computes something.\";\n")
+    }
+    append("\nBegin[\"`Private`\"];\n\n")
+    for (i in 0 until definitions) {
+      append("Options[fun$i] = {\"Method\" -> Automatic, \"Tolerance\" -> 10^-6};\n")
+      append("fun$i[x_?NumericQ, y_List, opts : OptionsPattern[]] := Module[{a = x, b, c = {}},\n")
+      append("  b = Table[a^k + y[[k]] / (1 + k!), {k, Length[y]}];\n")
+      append("  c = Select[b, # > 0 && # =!= a &] /. {r_Real :> Round[r, 0.01]};\n")
+      append("  If[OptionValue[\"Method\"] === Automatic, Total[c] @@ {a, b}, fun$i[x - 1, Rest@y]]\n")
+      append("];\n\n")
+    }
+    append("End[];\nEndPackage[];\n")
+  }
+
+  companion object {
+    /**
+     * About a sixth of the throughput of the parser on the synthetic package.
+     */
+    private const val TOKENS_PER_MS = 150
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.lang.psi.util
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiDocumentManager
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase
+import de.halirutan.mathematica.file.MathematicaFileType
+import de.halirutan.mathematica.lang.psi.api.assignment.SetDelayed
+
+/**
+ * Checks the content of the shared pattern analysis and that it is only recomputed after a change.
+ */
+class PatternAnalysisTest : LightCodeInsightFixtureTestCase() {
+
+  fun testAnalysis() {
+    val file = myFixture.configureByText(MathematicaFileType.INSTANCE, "f[x_, y__Integer, z_:0, w_.] /; x > 0 := x + y + z + w")
+    val setDelayed = PsiTreeUtil.findChildOfType(file, SetDelayed::class.java)!!
+    val analysis = PatternAnalysis.getPatternAnalysis(setDelayed)
+
+    assertEquals(listOf("x", "y", "z", "w"), analysis.patternSymbols.map { it.symbolName })
+    assertEquals(3, analysis.blanks.size)
+    assertEquals(1, analysis.conditions.size)
+    assertEquals(2, analysis.defaults.size)
+    assertEquals(setOf("x", "y", "z", "w"), analysis.declarations.keys)
+    assertSame(analysis, PatternAnalysis.getPatternAnalysis(setDelayed))
+  }
+
+  fun testRecomputedAfterChange() {
+    val file = myFixture.configureByText(MathematicaFileType.INSTANCE, "g[a_] := a")
+    val setDelayed = PsiTreeUtil.findChildOfType(file, SetDelayed::class.java)!!
+    val analysis = PatternAnalysis.getPatternAnalysis(setDelayed)
+
+    WriteCommandAction.runWriteCommandAction(project) {
+      myFixture.editor.document.insertString(file.textLength, " + 1")
+      PsiDocumentManager.getInstance(project).commitDocument(myFixture.editor.document)
+    }
+    val changed = PsiTreeUtil.findChildOfType(file, SetDelayed::class.java)!!
+    val newAnalysis = PatternAnalysis.getPatternAnalysis(changed)
+    assertNotSame(analysis, newAnalysis)
+    assertEquals(listOf("a"), newAnalysis.patternSymbols.map { it.symbolName })
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018 Patrick Scheibe
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ *
+ */
+
+package de.halirutan.mathematica.lang.resolve
+
+import com.intellij.openapi.command.WriteCommandAction
+import com.intellij.psi.PsiFile
+import com.intellij.psi.PsiFileFactory
+import com.intellij.psi.util.PsiTreeUtil
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase
+import de.halirutan.mathematica.file.MathematicaFileType
+import de.halirutan.mathematica.lang.psi.api.Symbol
+import de.halirutan.mathematica.lang.psi.api.string.MString
+import de.halirutan.mathematica.lang.psi.impl.LightBuiltInSymbol
+import de.halirutan.mathematica.lang.resolve.MathematicaGlobalResolveCache.Kind
+import java.io.File
+
+/**
+ * Checks the resolving of symbols across files: exported symbols are only found in the packages a file loads, and
+ * [MathematicaGlobalResolveCache] needs to do a single lookup, count, evict and invalidate its results correctly.
+ */
+class GlobalResolveTest : LightCodeInsightFixtureTestCase() {
+
+  override fun getTestDataPath(): String = File("testData/resolve/").absolutePath
+
+  fun testOnlyImportedPackages() {
+    addPackages()
+    val file = myFixture.configureByText(MathematicaFileType.INSTANCE, "Needs[\"PackageA`\"];\nfoo[]; bar[]")
+    assertEquals("PackageA.m", resolveFile(file, "foo"))
+    assertFalse(resolveFile(file, "bar") == "PackageB.m")
+  }
+
+  fun testScriptSeesAllPackages() {
+    addPackages()
+    val file = myFixture.configureByText(MathematicaFileType.INSTANCE, "foo[]; bar[]")
+    assertEquals("PackageA.m", resolveFile(file, "foo"))
+    assertEquals("PackageB.m", resolveFile(file, "bar"))
+  }
+
+  fun testNeedsReference() {
+    addPackages()
+    val file = myFixture.configureByText(MathematicaFileType.INSTANCE, "Needs[\"PackageB`\"]; <<PackageA`")
+    val context = PsiTreeUtil.findChildOfType(file, MString::class.java)!!
+    assertEquals("PackageB.m", (context.reference?.resolve() as? PsiFile)?.name)
+  }
+
+  fun testLookupAndEviction() {
+    val count = MathematicaGlobalResolveCache.MAX_SYMBOLS_PER_FILE + 100
+    val file = myFixture.configureByText(MathematicaFileType.INSTANCE, (0 until count).joinToString(";\n") { "sym$it" })
+    val symbols = PsiTreeUtil.findChildrenOfType(file, Symbol::class.java).toList()
+    assertEquals(count, symbols.size)
+
+    val cache = MathematicaGlobalResolveCache.getInstance(project)
+    val before = cache.statistics
+    assertNull(cache.get(symbols[0]))
+    symbols.forEach { cache.cacheInvalidFileSymbol(it, file) }
+    assertSame(cache.get(symbols.last()), cache.get(symbols.last()))
+
+    val after = cache.statistics
+    assertEquals(before.getMisses() + 1, after.getMisses())
+    assertEquals(before.getHits(Kind.FILE) + 2, after.getHits(Kind.FILE))
+    assertEquals(before.getEvictions(Kind.FILE) + 100, after.getEvictions(Kind.FILE))
+    // the least recently used symbols were dropped
+    assertNull(cache.get(symbols[0]))
+    assertNotNull(cache.get(symbols[100]))
+  }
+
+  fun testNonPhysicalFileIsDroppedAfterChange() {
+    val file = PsiFileFactory.getInstance(project).createFileFromText("copy.m", MathematicaFileType.INSTANCE, "a;\nb")
+    assertFalse(file.isPhysical)
+    val symbols = PsiTreeUtil.findChildrenOfType(file, Symbol::class.java).toList()
+
+    val cache = MathematicaGlobalResolveCache.getInstance(project)
+    cache.cacheInvalidFileSymbol(symbols[0], file)
+    assertNotNull(cache.get(symbols[0]))
+
+    // the tree change listener is not told about changes of non-physical files
+    WriteCommandAction.runWriteCommandAction(project) { symbols[1].delete() }
+    assertNull(cache.get(symbols[0]))
+  }
+
+  fun testChangeOnlyDropsResultsImportedFromTheChangedFile() {
+    val file = myFixture.configureByText("main.m", "x;\ny;\nz")
+    val (x, y, z) = PsiTreeUtil.findChildrenOfType(file, Symbol::class.java).toList()
+    val first = myFixture.addFileToProject("first.m", "x = 1")
+    val second = myFixture.addFileToProject("second.m", "y = 1")
+    fun definition(file: PsiFile) = PsiTreeUtil.findChildOfType(file, Symbol::class.java)!!
+
+    val cache = MathematicaGlobalResolveCache.getInstance(project)
+    cache.cacheExternalSymbol(x, definition(first), first)
+    cache.cacheExternalSymbol(y, definition(second), second)
+    cache.cacheFileSymbol(z, file)
+
+    WriteCommandAction.runWriteCommandAction(project) { definition(first).delete() }
+    assertNull(cache.get(x))
+    assertNotNull(cache.get(y))
+    assertNotNull(cache.get(z))
+  }
+
+  fun testBuiltInsAreSharedByAllFiles() {
+    val first = myFixture.configureByText("first.m", "Plot[x];\nx = 1")
+    val second = myFixture.addFileToProject("second.m", "Plot[y]")
+    fun plot(file: PsiFile) =
+        PsiTreeUtil.findChildrenOfType(file, Symbol::class.java).first { it.text == "Plot" }
+
+    val cache = MathematicaGlobalResolveCache.getInstance(project)
+    plot(first).resolve()
+    val result = cache.get(plot(first))
+    assertInstanceOf(result?.element, LightBuiltInSymbol::class.java)
+    // the second file was never resolved but shares the result of the first one
+    assertSame(result, cache.get(plot(second)))
+    assertEquals(plot(first).resolve(), plot(second).resolve())
+
+    // editing the file neither drops nor duplicates the built-in
+    WriteCommandAction.runWriteCommandAction(project) {
+      PsiTreeUtil.findChildrenOfType(first, Symbol::class.java).last().delete()
+    }
+    assertSame(result, cache.get(plot(first)))
+  }
+
+  private fun addPackages() {
+    myFixture.copyFileToProject("PackageA.m")
+    myFixture.copyFileToProject("PackageB.m")
+  }
+
+  private fun resolveFile(file: PsiFile, name: String): String? {
+    val symbol = PsiTreeUtil.findChildrenOfType(file, Symbol::class.java).first { it.symbolName == name }
+    return symbol.resolve()?.containingFile?.name
+  }
+}
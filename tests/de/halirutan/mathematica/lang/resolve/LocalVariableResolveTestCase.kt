@@ -24,7 +24,11 @@
 package de.halirutan.mathematica.lang.resolve
 
 import com.intellij.openapi.util.TextRange
+import com.intellij.openapi.util.io.FileUtil
+import de.halirutan.mathematica.lang.psi.LocalizationConstruct
+import de.halirutan.mathematica.lang.psi.api.MathematicaPsiFile
 import junit.framework.TestCase
+import java.io.File
 
 /**
  * Tests if local variables are resolved correctly
@@ -92,5 +96,44 @@ class LocalVariableResolveTestCase : AbstractResolveTest() {
     }
   }
 
+  /**
+   * The one-pass bindings of [MathematicaScopeBinder] must agree with resolving each symbol on its own.
+   */
+  fun testScopeBinder() {
+    val file = createFile("Bindings.m", """
+      f[x_, y_] := Module[{a = x, b}, b = a + y; Table[i + b, {i, 10}]];
+      g = Function[{u}, u^2];
+      {p_, q_} :> p + q;
+      Compile[{{r, _Real}}, r + s]
+    """.trimIndent()) as MathematicaPsiFile
+    assertBindingsMatchResolve(file)
+    val bindings = file.symbolBindings
+    val scopeOf = { name: String -> bindings.entries.last { it.key.symbolName == name }.value.localization }
+    TestCase.assertEquals(LocalizationConstruct.MScope.SETDELAYED_SCOPE, scopeOf("y"))
+    TestCase.assertEquals(LocalizationConstruct.MScope.MODULE, scopeOf("a"))
+    TestCase.assertEquals(LocalizationConstruct.MScope.TABLE, scopeOf("i"))
+    TestCase.assertEquals(LocalizationConstruct.MScope.FUNCTION, scopeOf("u"))
+    TestCase.assertEquals(LocalizationConstruct.MScope.RULEDELAYED_SCOPE, scopeOf("q"))
+    TestCase.assertEquals(LocalizationConstruct.MScope.COMPILE, scopeOf("r"))
+  }
+
+  fun testScopeBinderOnLargeFile() {
+    val file = createFile("LargeFile.m", FileUtil.loadFile(File(testDataPath, "LargeFile.m"))) as MathematicaPsiFile
+    TestCase.assertFalse(MathematicaScopeBinder.bind(file).isEmpty())
+    assertBindingsMatchResolve(file)
+  }
 
+  private fun assertBindingsMatchResolve(file: MathematicaPsiFile) {
+    val resolver = MathematicaLocalSymbolResolver()
+    for ((symbol, binding) in MathematicaScopeBinder.bind(file)) {
+      val local = resolver.resolve(symbol, file, false)
+      if (local.isNotEmpty()) {
+        TestCase.assertEquals("Binding of ${symbol.text} at ${symbol.textOffset}", local[0].element, binding.element)
+      } else {
+        TestCase.assertFalse("Binding of ${symbol.text} at ${symbol.textOffset}",
+            LocalizationConstruct.isLocalScoping(binding.localization))
+      }
+    }
+  }
 }
+
@@ -23,6 +23,14 @@
 
 package de.halirutan.mathematica.lang.resolve
 
+import com.intellij.openapi.util.io.FileUtil
+import com.intellij.testFramework.PlatformTestUtil
+import de.halirutan.mathematica.lang.psi.FunctionHeads
+import de.halirutan.mathematica.lang.psi.MathematicaRecursiveVisitor
+import de.halirutan.mathematica.lang.psi.SymbolNames
+import de.halirutan.mathematica.lang.psi.api.FunctionCall
+import junit.framework.TestCase
+import java.io.File
 
 /**
  * @author patrick (20.07.17).
@@ -46,4 +54,36 @@ class ResolvePerformanceTest : AbstractResolveTest() {
     println("Resolved ${count.value} Symbols in ${(stop - start) / 1e9} seconds")
   }
 
+  /**
+   * The precomputed head sets of [FunctionHeads] must match exactly the calls that the regex based
+   * [FunctionCall.matchesHead] matched for the heads that [GlobalDefinitionCollector] tests.
+   */
+  @Suppress("DEPRECATION")
+  fun testHeadMatching() {
+    val file = createFile("LargeFile.m", FileUtil.loadFile(File(testDataPath, "LargeFile.m")))
+    val calls = ArrayList<FunctionCall>()
+    file.accept(object : MathematicaRecursiveVisitor() {
+      override fun visitFunctionCall(functionCall: FunctionCall) {
+        calls.add(functionCall)
+        super.visitFunctionCall(functionCall)
+      }
+    })
+
+    val regexMatches = calls.filter {
+      it.matchesHead("Set|SetDelayed") || it.matchesHead("TagSet|TagSetDelayed") ||
+          it.matchesHead("UpSet|UpSetDelayed") || it.matchesHead(SymbolNames.SetAttributes) ||
+          it.matchesHead(SymbolNames.SetOptions) || it.matchesHead("Module|With")
+    }
+    val hasHead = { call: FunctionCall ->
+      call.hasHead(FunctionHeads.SET_ASSIGNMENTS) || call.hasHead(FunctionHeads.TAG_SET_ASSIGNMENTS) ||
+          call.hasHead(FunctionHeads.UP_SET_ASSIGNMENTS) || call.hasHead(FunctionHeads.SYMBOL_PROPERTY_ASSIGNMENTS) ||
+          call.hasHead(FunctionHeads.MODULE_OR_WITH)
+    }
+    TestCase.assertEquals(regexMatches, calls.filter(hasHead))
+
+    PlatformTestUtil.startPerformanceTest("Head matching of ${calls.size} calls", 300) {
+      repeat(20) { calls.forEach { hasHead(it) } }
+    }.assertTiming()
+  }
+
 }